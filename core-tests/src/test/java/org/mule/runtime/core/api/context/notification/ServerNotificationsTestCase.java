@@ -177,6 +177,25 @@ public class ServerNotificationsTestCase extends AbstractMuleContextTestCase imp
     verify(notificationListener, times(1)).onNotification(notification);
   }
 
+  @Test
+  public void sampling() {
+    ServerNotificationManager manager = new ServerNotificationManager();
+    manager.setMuleContext(muleContext);
+    manager.addInterfaceToType(CustomNotificationListener.class, CustomNotification.class);
+    manager.setSamplingRate(CustomNotification.class, 2);
+
+    Notification notification = mock(CustomNotification.class);
+    when(notification.isSynchronous()).thenReturn(true);
+    NotificationListener notificationListener = mock(CustomNotificationListener.class);
+    manager.addListener(notificationListener);
+
+    for (int i = 0; i < 4; ++i) {
+      manager.fireNotification(notification);
+    }
+
+    verify(notificationListener, times(2)).onNotification(notification);
+  }
+
   private NotificationListenerRegistry getNotificationListenerRegistry() throws RegistrationException {
     return getResgistry().lookupObject(NotificationListenerRegistry.class);
   }
@@ -6,8 +6,14 @@
  */
 package org.mule.runtime.core.api.event;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.util.Collections.singletonMap;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -25,8 +31,11 @@ import org.mule.runtime.core.api.security.DefaultMuleCredentials;
 import org.mule.runtime.core.api.transformer.AbstractTransformer;
 import org.mule.runtime.core.api.transformer.Transformer;
 import org.mule.runtime.core.api.transformer.TransformerException;
+import org.mule.runtime.core.api.util.CaseInsensitiveHashMap;
 import org.mule.runtime.core.internal.context.MuleContextWithRegistry;
+import org.mule.runtime.core.internal.event.DefaultEventBuilder.InternalEventImplementation;
 import org.mule.runtime.core.internal.security.DefaultSecurityContextFactory;
+import org.mule.runtime.core.internal.util.PersistentCaseInsensitiveMap;
 import org.mule.runtime.core.privileged.event.PrivilegedEvent;
 import org.mule.runtime.core.privileged.transformer.simple.ByteArrayToObject;
 import org.mule.runtime.core.privileged.transformer.simple.SerializableToByteArray;
@@ -38,6 +47,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.io.ByteArrayInputStream;
+import java.io.ObjectStreamClass;
 import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -128,6 +138,31 @@ public class MuleEventTestCase extends AbstractMuleContextTestCase {
     assertArrayEquals((byte[]) testEvent.getMessage().getPayload().getValue(), payload.toString().getBytes());
   }
 
+  @Test
+  public void variablesKeepTheirSerializedForm() {
+    ObjectStreamClass descriptor = ObjectStreamClass.lookup(InternalEventImplementation.class);
+
+    assertThat(descriptor.getSerialVersionUID(), is(1L));
+    assertThat(descriptor.getField("variables").getType(), equalTo(CaseInsensitiveHashMap.class));
+  }
+
+  @Test
+  public void variablesSerializationRoundtrip() throws Exception {
+    CoreEvent event = CoreEvent.builder(testEvent()).addVariable("myVar", "value").build();
+    currentMuleContext.set(muleContext);
+    byte[] serializedEvent = muleContext.getObjectSerializer().getExternalProtocol().serialize(event);
+
+    // The variables are written as a CaseInsensitiveHashMap, which is what runtimes holding them in one read and write
+    String serializedContent = new String(serializedEvent, ISO_8859_1);
+    assertThat(serializedContent, containsString(CaseInsensitiveHashMap.class.getName()));
+    assertThat(serializedContent, not(containsString(PersistentCaseInsensitiveMap.class.getName())));
+
+    CoreEvent deserialized = muleContext.getObjectSerializer().getExternalProtocol().deserialize(serializedEvent);
+    assertThat(deserialized.getVariables(), instanceOf(PersistentCaseInsensitiveMap.class));
+    assertThat(deserialized.getVariables().get("MYVAR").getValue(), is("value"));
+    assertThat(deserialized.getVariables().keySet(), contains("myVar"));
+  }
+
   private void createAndRegisterTransformersEndpointBuilderService() throws Exception {
     Transformer trans1 = new TestEventTransformer();
     trans1.setName("OptimusPrime");
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.connection;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.api.config.PoolingProfile.DEFAULT_MAX_POOL_WAIT;
+import static org.mule.runtime.api.config.PoolingProfile.INITIALISE_NONE;
+import static org.mule.runtime.api.config.PoolingProfile.WHEN_EXHAUSTED_FAIL;
+import static org.mule.runtime.api.config.PoolingProfile.WHEN_EXHAUSTED_WAIT;
+import static org.mule.runtime.core.internal.connection.PoolValidationMode.IDLE;
+import static org.mule.runtime.core.internal.connection.PoolValidationMode.NONE;
+import static org.mule.runtime.core.internal.connection.PoolValidationMode.ON_BORROW;
+
+import org.mule.runtime.api.config.PoolingProfile;
+import org.mule.runtime.api.connection.ConnectionException;
+import org.mule.runtime.api.connection.ConnectionHandler;
+import org.mule.runtime.api.connection.ConnectionProvider;
+import org.mule.runtime.api.connection.ConnectionValidationResult;
+import org.mule.runtime.api.connection.PoolingListener;
+import org.mule.runtime.api.lifecycle.Lifecycle;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcurrentPoolingConnectionManagementStrategyTestCase extends AbstractMuleContextTestCase {
+
+  private static final int MAX_ACTIVE = 2;
+
+  private ConnectionProvider<Object> connectionProvider;
+
+  private PoolingProfile poolingProfile =
+      new PoolingProfile(MAX_ACTIVE, MAX_ACTIVE, DEFAULT_MAX_POOL_WAIT, WHEN_EXHAUSTED_WAIT, INITIALISE_NONE);
+  private PoolValidationMode validationMode = NONE;
+  private long validationIdleMillis = 0;
+  private ConcurrentPoolingConnectionManagementStrategy<Object> strategy;
+  private PoolingListener<Object> poolingListener;
+
+  @Before
+  public void before() throws Exception {
+    poolingListener = mock(PoolingListener.class);
+    muleContext.start();
+    resetConnectionProvider();
+    initStrategy();
+  }
+
+  @After
+  public void after() throws Exception {
+    strategy.close();
+  }
+
+  @Test
+  public void getConnection() throws Exception {
+    ConnectionHandler<Object> connection1 = strategy.getConnectionHandler();
+    ConnectionHandler<Object> connection2 = strategy.getConnectionHandler();
+
+    assertThat(connection1, is(not(sameInstance(connection2))));
+    assertThat(connection1.getConnection(), is(not(sameInstance(connection2.getConnection()))));
+    verify(connectionProvider, times(2)).connect();
+    verify(poolingListener).onBorrow(connection1.getConnection());
+    verify(poolingListener).onBorrow(connection2.getConnection());
+    assertThat(strategy.getStatistics().getActiveConnections(), is(2));
+    assertThat(strategy.getStatistics().getCreatedCount(), is(2L));
+  }
+
+  @Test
+  public void releasedConnectionIsReused() throws Exception {
+    ConnectionHandler<Object> connectionHandler = strategy.getConnectionHandler();
+    Object connection = connectionHandler.getConnection();
+    connectionHandler.release();
+
+    assertThat(strategy.getStatistics().getIdleConnections(), is(1));
+    assertThat(strategy.getConnectionHandler().getConnection(), is(sameInstance(connection)));
+    verify(connectionProvider).connect();
+    verify(poolingListener).onReturn(connection);
+  }
+
+  @Test
+  public void poolingListenerFailsOnBorrow() throws Exception {
+    final RuntimeException exception = new RuntimeException();
+    doThrow(exception).when(poolingListener).onBorrow(any(Lifecycle.class));
+
+    try {
+      strategy.getConnectionHandler();
+      fail("was expecting poolingListener to fail");
+    } catch (ConnectionException e) {
+      assertThat(e.getCause(), is(sameInstance(exception)));
+      verify(connectionProvider).disconnect(any(Lifecycle.class));
+      assertThat(strategy.getStatistics().getActiveConnections(), is(0));
+    }
+  }
+
+  @Test
+  public void exhaustion() throws Exception {
+    poolingProfile = new PoolingProfile(1, 1, DEFAULT_MAX_POOL_WAIT, WHEN_EXHAUSTED_FAIL, INITIALISE_NONE);
+    initStrategy();
+
+    ConnectionHandler<Object> connectionHandler = strategy.getConnectionHandler();
+    try {
+      strategy.getConnectionHandler();
+      fail("Was expecting the pool to be exhausted");
+    } catch (ConnectionException e) {
+      // expected
+    }
+
+    connectionHandler.release();
+    assertThat(strategy.getConnectionHandler(), is(notNullValue()));
+  }
+
+  @Test
+  public void waitForReleasedConnection() throws Exception {
+    poolingProfile = new PoolingProfile(1, 1, -1, WHEN_EXHAUSTED_WAIT, INITIALISE_NONE);
+    initStrategy();
+
+    ConnectionHandler<Object> connectionHandler = strategy.getConnectionHandler();
+    final Object connection = connectionHandler.getConnection();
+    final AtomicReference<Object> borrowed = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    Thread waiter = new Thread(() -> {
+      try {
+        borrowed.set(strategy.getConnectionHandler().getConnection());
+      } catch (ConnectionException e) {
+        borrowed.set(e);
+      } finally {
+        latch.countDown();
+      }
+    });
+    waiter.start();
+
+    while (strategy.getStatistics().getPendingBorrows() == 0) {
+      Thread.yield();
+    }
+    connectionHandler.release();
+
+    assertThat(latch.await(5, SECONDS), is(true));
+    assertThat(borrowed.get(), is(sameInstance(connection)));
+    assertThat(strategy.getStatistics().getBorrowCount(), is(2L));
+  }
+
+  @Test
+  public void waitForInvalidatedConnection() throws Exception {
+    poolingProfile = new PoolingProfile(MAX_ACTIVE, MAX_ACTIVE, -1, WHEN_EXHAUSTED_WAIT, INITIALISE_NONE);
+    initStrategy();
+
+    strategy.getConnectionHandler();
+    ConnectionHandler<Object> connectionHandler = strategy.getConnectionHandler();
+    final Object invalidated = connectionHandler.getConnection();
+    final AtomicReference<Object> borrowed = new AtomicReference<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    Thread waiter = new Thread(() -> {
+      try {
+        borrowed.set(strategy.getConnectionHandler().getConnection());
+      } catch (ConnectionException e) {
+        borrowed.set(e);
+      } finally {
+        latch.countDown();
+      }
+    });
+    waiter.start();
+
+    while (strategy.getStatistics().getPendingBorrows() == 0) {
+      Thread.yield();
+    }
+    ((ConnectionHandlerAdapter<Object>) connectionHandler).invalidate();
+
+    assertThat(latch.await(5, SECONDS), is(true));
+    assertThat(borrowed.get(), is(instanceOf(Lifecycle.class)));
+    assertThat(borrowed.get(), is(not(sameInstance(invalidated))));
+    verify(connectionProvider, times(MAX_ACTIVE + 1)).connect();
+    assertThat(strategy.getStatistics().getActiveConnections(), is(MAX_ACTIVE));
+  }
+
+  @Test
+  public void invalidConnectionIsReplacedOnBorrow() throws Exception {
+    validationMode = ON_BORROW;
+    initStrategy();
+
+    ConnectionHandler<Object> connectionHandler = strategy.getConnectionHandler();
+    Object invalid = connectionHandler.getConnection();
+    connectionHandler.release();
+
+    doReturn(ConnectionValidationResult.failure("Connection closed", new Exception())).when(connectionProvider)
+        .validate(invalid);
+
+    assertThat(strategy.getConnectionHandler().getConnection(), is(not(sameInstance(invalid))));
+    verify(connectionProvider).disconnect(invalid);
+    assertThat(strategy.getStatistics().getValidationFailureCount(), is(1L));
+  }
+
+  @Test
+  public void idleConnectionIsValidatedOnBorrow() throws Exception {
+    validationMode = IDLE;
+    validationIdleMillis = 100;
+    initStrategy();
+
+    ConnectionHandler<Object> connectionHandler = strategy.getConnectionHandler();
+    Object connection = connectionHandler.getConnection();
+    connectionHandler.release();
+
+    strategy.getConnectionHandler().release();
+    verify(connectionProvider, never()).validate(connection);
+
+    Thread.sleep(validationIdleMillis * 2);
+
+    assertThat(strategy.getConnectionHandler().getConnection(), is(sameInstance(connection)));
+    verify(connectionProvider).validate(connection);
+  }
+
+  @Test
+  public void invalidate() throws Exception {
+    ConnectionHandler<Object> connectionHandler = strategy.getConnectionHandler();
+    Object connection = connectionHandler.getConnection();
+    ((ConnectionHandlerAdapter<Object>) connectionHandler).invalidate();
+
+    verify(connectionProvider).disconnect(connection);
+    assertThat(strategy.getStatistics().getActiveConnections(), is(0));
+    assertThat(strategy.getStatistics().getIdleConnections(), is(0));
+  }
+
+  @Test
+  public void release() throws Exception {
+    ConnectionHandler<Object> connection1 = strategy.getConnectionHandler();
+    ConnectionHandler<Object> connection2 = strategy.getConnectionHandler();
+    connection1.release();
+    connection2.release();
+
+    strategy.close();
+
+    verify(connectionProvider, times(2)).disconnect(any(Object.class));
+  }
+
+  @Test
+  public void releaseAfterClose() throws Exception {
+    ConnectionHandler<Object> connectionHandler = strategy.getConnectionHandler();
+    strategy.close();
+    connectionHandler.release();
+
+    verify(connectionProvider).disconnect(any(Object.class));
+  }
+
+  private void resetConnectionProvider() throws ConnectionException {
+    ConnectionProvider<Object> connectionProvider = mock(ConnectionProvider.class);
+    when(connectionProvider.connect()).thenAnswer(i -> mock(Lifecycle.class));
+    when(connectionProvider.validate(anyObject())).thenReturn(ConnectionValidationResult.success());
+    this.connectionProvider = spy(new DefaultConnectionProviderWrapper<>(connectionProvider, muleContext));
+  }
+
+  private void initStrategy() throws Exception {
+    if (strategy != null) {
+      strategy.close();
+    }
+    strategy = new ConcurrentPoolingConnectionManagementStrategy<>(connectionProvider, poolingProfile, poolingListener,
+                                                                   validationMode, validationIdleMillis, muleContext);
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.connection;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.core.internal.connection.PoolValidationMode.BACKGROUND;
+import static org.mule.runtime.core.internal.connection.PoolValidationMode.IDLE;
+import static org.mule.runtime.core.internal.connection.PoolValidationMode.ON_BORROW;
+import static org.mule.runtime.core.internal.connection.PoolValidationMode.parse;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import org.junit.Test;
+
+@SmallTest
+public class PoolValidationModeTestCase extends AbstractMuleTestCase {
+
+  @Test
+  public void parseIgnoresCase() {
+    assertThat(parse("on_borrow", IDLE), is(ON_BORROW));
+    assertThat(parse(" Background ", IDLE), is(BACKGROUND));
+  }
+
+  @Test
+  public void parseDefaultsWhenMissing() {
+    assertThat(parse(null, IDLE), is(IDLE));
+  }
+
+  @Test
+  public void parseDefaultsWhenUnknown() {
+    assertThat(parse("sometimes", IDLE), is(IDLE));
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.context.notification;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.core.internal.context.notification.NotificationListenerDispatcher.MAX_BATCH_SIZE;
+
+import org.mule.runtime.api.notification.Notification;
+import org.mule.runtime.api.notification.NotificationListener;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.core.api.context.notification.Event1;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+@SmallTest
+public class NotificationListenerDispatcherTestCase extends AbstractMuleTestCase {
+
+  private final Queue<Runnable> tasks = new LinkedList<>();
+  private final List<Notification> received = new ArrayList<>();
+  private final NotificationListener<Notification> listener = received::add;
+  private Scheduler scheduler;
+
+  @Before
+  public void before() {
+    scheduler = mock(Scheduler.class);
+    when(scheduler.submit(any(Runnable.class))).thenAnswer(invocation -> {
+      tasks.add((Runnable) invocation.getArguments()[0]);
+      return null;
+    });
+  }
+
+  @Test
+  public void notificationsDeliveredInOrderByASingleTask() {
+    NotificationListenerDispatcher dispatcher = new NotificationListenerDispatcher(listener, scheduler, n -> false);
+    Notification first = new Event1("a");
+    Notification second = new Event1("a");
+    Notification third = new Event1("b");
+
+    dispatcher.dispatch(first);
+    dispatcher.dispatch(second);
+    dispatcher.dispatch(third);
+
+    verify(scheduler, times(1)).submit(any(Runnable.class));
+    runTasks();
+    assertThat(received, contains(first, second, third));
+    assertThat(dispatcher.getQueuedCount(), is(0));
+  }
+
+  @Test
+  public void largeBatchesGiveThreadBack() {
+    NotificationListenerDispatcher dispatcher = new NotificationListenerDispatcher(listener, scheduler, n -> false);
+    for (int i = 0; i < MAX_BATCH_SIZE + 1; ++i) {
+      dispatcher.dispatch(new Event1());
+    }
+
+    tasks.poll().run();
+    assertThat(received, hasSize(MAX_BATCH_SIZE));
+
+    runTasks();
+    assertThat(received, hasSize(MAX_BATCH_SIZE + 1));
+    verify(scheduler, times(2)).submit(any(Runnable.class));
+  }
+
+  @Test
+  public void coalesce() {
+    NotificationListenerDispatcher dispatcher = new NotificationListenerDispatcher(listener, scheduler, n -> true);
+    Notification a1 = new Event1("a");
+    Notification a2 = new Event1("a");
+    Notification b = new Event1("b");
+    Notification a3 = new Event1("a");
+
+    dispatcher.dispatch(a1);
+    dispatcher.dispatch(a2);
+    dispatcher.dispatch(b);
+    dispatcher.dispatch(a3);
+
+    runTasks();
+    assertThat(received, contains(a2, b, a3));
+  }
+
+  @Test
+  public void listenerFailureDoesNotStopDelivery() {
+    List<Notification> delivered = new ArrayList<>();
+    NotificationListener<Notification> failingListener = n -> {
+      delivered.add(n);
+      throw new IllegalStateException();
+    };
+    NotificationListenerDispatcher dispatcher = new NotificationListenerDispatcher(failingListener, scheduler, n -> false);
+
+    dispatcher.dispatch(new Event1());
+    dispatcher.dispatch(new Event1());
+
+    runTasks();
+    assertThat(delivered, hasSize(2));
+  }
+
+  @Test
+  public void rejectedDrain() {
+    Scheduler rejectingScheduler = mock(Scheduler.class);
+    when(rejectingScheduler.submit(any(Runnable.class))).thenThrow(new RejectedExecutionException());
+    NotificationListenerDispatcher dispatcher = new NotificationListenerDispatcher(listener, rejectingScheduler, n -> false);
+
+    try {
+      dispatcher.dispatch(new Event1());
+      fail("Expected the scheduler to reject the task");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    assertThat(dispatcher.getQueuedCount(), is(0));
+
+    try {
+      dispatcher.dispatch(new Event1());
+      fail("Expected the scheduler to reject the task");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    verify(rejectingScheduler, times(2)).submit(any(Runnable.class));
+  }
+
+  private void runTasks() {
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      task.run();
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.management.stats;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+import org.mule.runtime.core.api.management.stats.LatencyHistogram;
+import org.mule.runtime.core.api.management.stats.LatencySnapshot;
+import org.mule.runtime.core.api.management.stats.LatencyStatistics;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hamcrest.Matcher;
+import org.junit.Test;
+
+public class LatencyHistogramTestCase extends AbstractMuleTestCase {
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  @Test
+  public void empty() {
+    LatencySnapshot snapshot = histogram.getSnapshot();
+    assertThat(snapshot.getCount(), equalTo(0L));
+    assertThat(snapshot.getMean(), equalTo(0L));
+    assertThat(snapshot.getMax(), equalTo(0L));
+    assertThat(snapshot.getP99(), equalTo(0L));
+  }
+
+  @Test
+  public void percentiles() {
+    for (long i = 1; i <= 10000; ++i) {
+      histogram.record(MICROSECONDS.toNanos(i));
+    }
+
+    LatencySnapshot snapshot = histogram.getSnapshot();
+    assertThat(snapshot.getCount(), equalTo(10000L));
+    assertThat(snapshot.getMean(), equalTo(MICROSECONDS.toNanos(10001) / 2));
+    assertThat(snapshot.getMin(), approximately(MICROSECONDS.toNanos(1)));
+    assertThat(snapshot.getP50(), approximately(MICROSECONDS.toNanos(5000)));
+    assertThat(snapshot.getP90(), approximately(MICROSECONDS.toNanos(9000)));
+    assertThat(snapshot.getP99(), approximately(MICROSECONDS.toNanos(9900)));
+    assertThat(snapshot.getP999(), approximately(MICROSECONDS.toNanos(9990)));
+    assertThat(snapshot.getMax(), approximately(MICROSECONDS.toNanos(10000)));
+  }
+
+  @Test
+  public void valuesAboveRangeAreTracked() {
+    histogram.record(SECONDS.toNanos(1000000));
+    assertThat(histogram.getSnapshot().getCount(), equalTo(1L));
+  }
+
+  @Test
+  public void intervalSnapshots() {
+    record(10, 100);
+    assertThat(histogram.getIntervalSnapshot().getCount(), equalTo(10L));
+
+    record(5, 200);
+    LatencySnapshot interval = histogram.getIntervalSnapshot();
+    assertThat(interval.getCount(), equalTo(5L));
+    assertThat(interval.getMin(), approximately(MICROSECONDS.toNanos(200)));
+
+    assertThat(histogram.getIntervalSnapshot().getCount(), equalTo(0L));
+    assertThat(histogram.getSnapshot().getCount(), equalTo(15L));
+  }
+
+  @Test
+  public void clear() {
+    record(10, 100);
+    histogram.getIntervalSnapshot();
+    histogram.clear();
+
+    assertThat(histogram.getSnapshot().getCount(), equalTo(0L));
+    record(3, 100);
+    assertThat(histogram.getIntervalSnapshot().getCount(), equalTo(3L));
+  }
+
+  @Test
+  public void concurrentRecording() throws Exception {
+    final int threads = 8;
+    final int recordsPerThread = 10000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; ++i) {
+        futures.add(executor.submit(() -> record(recordsPerThread, 50)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(histogram.getSnapshot().getCount(), equalTo((long) threads * recordsPerThread));
+  }
+
+  @Test
+  public void flowRemovalDiscardsItsProcessors() {
+    LatencyStatistics statistics = new LatencyStatistics();
+    statistics.getFlowHistogram("flow").record(1);
+    statistics.getProcessorHistogram("flow/processors/0").record(1);
+    statistics.getProcessorHistogram("flowWithLongerName/processors/0").record(1);
+
+    statistics.removeFlow("flow");
+
+    assertThat(statistics.getFlowLatencies(), not(hasKey("flow")));
+    assertThat(statistics.getProcessorLatencies(), not(hasKey("flow/processors/0")));
+    assertThat(statistics.getProcessorLatencies(), hasKey("flowWithLongerName/processors/0"));
+  }
+
+  private void record(int times, long micros) {
+    for (int i = 0; i < times; ++i) {
+      histogram.record(MICROSECONDS.toNanos(micros));
+    }
+  }
+
+  private static Matcher<Long> approximately(long nanos) {
+    return allOf(greaterThanOrEqualTo(nanos), lessThanOrEqualTo((long) (nanos * 1.04) + 1000));
+  }
+}
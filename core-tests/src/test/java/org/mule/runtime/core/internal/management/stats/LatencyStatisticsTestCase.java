@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.management.stats;
+
+import static java.util.Collections.singletonMap;
+import static java.util.Optional.empty;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.api.component.AbstractComponent.LOCATION_KEY;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_ENABLE_LATENCY_STATISTICS;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.disposeIfNeeded;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.initialiseIfNeeded;
+import static org.mule.runtime.core.privileged.processor.MessageProcessors.newChain;
+import static org.mule.tck.probe.PollingProber.probe;
+
+import org.mule.runtime.api.component.AbstractComponent;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.core.api.construct.Flow;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.management.stats.LatencyStatistics;
+import org.mule.runtime.core.api.processor.Processor;
+import org.mule.runtime.core.internal.message.InternalEvent;
+import org.mule.runtime.core.privileged.processor.chain.MessageProcessorChain;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+import org.mule.tck.junit4.rule.SystemProperty;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class LatencyStatisticsTestCase extends AbstractMuleContextTestCase {
+
+  private static final String FLOW_NAME = "latencyFlow";
+
+  @Rule
+  public SystemProperty enableLatencyStatistics = new SystemProperty(MULE_ENABLE_LATENCY_STATISTICS, "true");
+
+  private LatencyStatistics statistics;
+
+  @Before
+  public void before() {
+    statistics = muleContext.getStatistics().getLatencyStatistics();
+  }
+
+  @Test
+  public void chainRecordsProcessorLatencies() throws Exception {
+    MessageProcessorChain chain = newChain(empty(), new LocatedProcessor("flow/processors/0", false),
+                                           new LocatedProcessor("flow/processors/1", false));
+    initialiseIfNeeded(chain, muleContext);
+
+    try {
+      CoreEvent result = chain.process(testEvent());
+
+      assertThat(statistics.getProcessorHistogram("flow/processors/0").getSnapshot().getCount(), is(1L));
+      assertThat(statistics.getProcessorHistogram("flow/processors/1").getSnapshot().getCount(), is(1L));
+      assertThat(((InternalEvent) result).getInternalParameters().isEmpty(), is(true));
+    } finally {
+      disposeIfNeeded(chain, null);
+    }
+  }
+
+  @Test
+  public void chainRecordsLatencyOfFailedProcessor() throws Exception {
+    MessageProcessorChain chain = newChain(empty(), new LocatedProcessor("flow/processors/0", true),
+                                           new LocatedProcessor("flow/processors/1", false));
+    initialiseIfNeeded(chain, muleContext);
+
+    try {
+      chain.process(testEvent());
+      fail("The processor should have failed");
+    } catch (MuleException e) {
+      assertThat(statistics.getProcessorHistogram("flow/processors/0").getSnapshot().getCount(), is(1L));
+      assertThat(statistics.getProcessorHistogram("flow/processors/1").getSnapshot().getCount(), is(0L));
+    } finally {
+      disposeIfNeeded(chain, null);
+    }
+  }
+
+  @Test
+  public void chainDoesNotRecordWhenDisabled() throws Exception {
+    statistics.setEnabled(false);
+    MessageProcessorChain chain = newChain(empty(), new LocatedProcessor("flow/processors/0", false));
+    initialiseIfNeeded(chain, muleContext);
+
+    try {
+      chain.process(testEvent());
+
+      assertThat(statistics.getProcessorHistogram("flow/processors/0").getSnapshot().getCount(), is(0L));
+    } finally {
+      disposeIfNeeded(chain, null);
+    }
+  }
+
+  @Test
+  public void pipelineRecordsFlowAndProcessorLatencies() throws Exception {
+    Flow flow = Flow.builder(FLOW_NAME, muleContext)
+        .processors(new LocatedProcessor(FLOW_NAME + "/processors/0", false))
+        .build();
+    flow.initialise();
+    flow.start();
+
+    try {
+      CoreEvent result = flow.process(testEvent());
+
+      assertThat(result.getMessage().getPayload().getValue(), equalTo(TEST_PAYLOAD));
+      probe(() -> statistics.getFlowHistogram(FLOW_NAME).getSnapshot().getCount() == 1L);
+      assertThat(statistics.getProcessorHistogram(FLOW_NAME + "/processors/0").getSnapshot().getCount(), is(1L));
+    } finally {
+      flow.stop();
+      flow.dispose();
+    }
+  }
+
+  @Test
+  public void removeFlow() throws Exception {
+    statistics.getFlowHistogram(FLOW_NAME).record(1000);
+    statistics.getProcessorHistogram(FLOW_NAME + "/processors/0").record(1000);
+    statistics.getProcessorHistogram("otherFlow/processors/0").record(1000);
+
+    statistics.removeFlow(FLOW_NAME);
+
+    assertThat(statistics.getFlowLatencies().containsKey(FLOW_NAME), is(false));
+    assertThat(statistics.getProcessorLatencies().keySet().size(), is(1));
+    assertThat(statistics.getProcessorLatencies().containsKey("otherFlow/processors/0"), is(true));
+  }
+
+  private static final class LocatedProcessor extends AbstractComponent implements Processor {
+
+    private final boolean fail;
+
+    private LocatedProcessor(String location, boolean fail) {
+      ComponentLocation componentLocation = mock(ComponentLocation.class);
+      when(componentLocation.getLocation()).thenReturn(location);
+      setAnnotations(singletonMap(LOCATION_KEY, componentLocation));
+      this.fail = fail;
+    }
+
+    @Override
+    public CoreEvent process(CoreEvent event) throws MuleException {
+      if (fail) {
+        throw new IllegalStateException("Expected failure");
+      }
+      return event;
+    }
+  }
+}
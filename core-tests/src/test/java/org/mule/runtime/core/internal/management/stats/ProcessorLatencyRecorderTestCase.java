@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.management.stats;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.mule.runtime.api.component.ComponentIdentifier.buildFromStringRepresentation;
+import static org.mule.runtime.api.component.TypedComponentIdentifier.ComponentType.OPERATION;
+import static org.mule.runtime.api.component.TypedComponentIdentifier.ComponentType.PROCESSOR;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_ENABLE_LATENCY_STATISTICS;
+import static org.mule.runtime.core.internal.management.stats.ProcessorLatencyRecorder.forProcessor;
+
+import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.component.TypedComponentIdentifier;
+import org.mule.runtime.api.component.TypedComponentIdentifier.ComponentType;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.management.stats.AllStatistics;
+import org.mule.runtime.core.api.management.stats.LatencyStatistics;
+import org.mule.runtime.core.api.processor.Processor;
+import org.mule.runtime.core.internal.message.InternalEvent;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+import org.mule.tck.junit4.rule.SystemProperty;
+import org.mule.tck.size.SmallTest;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+@SmallTest
+public class ProcessorLatencyRecorderTestCase extends AbstractMuleContextTestCase {
+
+  private static final String LOCATION = "flow/processors/0";
+  private static final String NESTED_LOCATION = "flow/processors/0/processors/0";
+
+  @Rule
+  public SystemProperty enableLatencyStatistics = new SystemProperty(MULE_ENABLE_LATENCY_STATISTICS, "true");
+
+  private LatencyStatistics statistics;
+  private MuleContext context;
+
+  @Before
+  public void before() {
+    AllStatistics allStatistics = new AllStatistics();
+    statistics = allStatistics.getLatencyStatistics();
+    context = mock(MuleContext.class);
+    when(context.getStatistics()).thenReturn(allStatistics);
+  }
+
+  @Test
+  public void notAvailableUnlessEnabled() {
+    System.clearProperty(MULE_ENABLE_LATENCY_STATISTICS);
+    AllStatistics allStatistics = new AllStatistics();
+    when(context.getStatistics()).thenReturn(allStatistics);
+
+    assertThat(allStatistics.getLatencyStatistics().isAvailable(), is(false));
+    assertThat(forProcessor(processor(LOCATION, PROCESSOR, "core:logger"), context).isPresent(), is(false));
+  }
+
+  @Test
+  public void notRecordedWithoutLocation() {
+    Processor processor = mock(Processor.class, withSettings().extraInterfaces(Component.class));
+
+    assertThat(forProcessor(processor, context).isPresent(), is(false));
+  }
+
+  @Test
+  public void recordsProcessorLatency() throws Exception {
+    ProcessorLatencyRecorder recorder = forProcessor(processor(LOCATION, PROCESSOR, "core:logger"), context).get();
+
+    CoreEvent started = recorder.start(testEvent());
+    CoreEvent result = recorder.stop(started);
+
+    assertThat(statistics.getProcessorHistogram(LOCATION).getSnapshot().getCount(), is(1L));
+    assertThat(statistics.getOperationLatencies().isEmpty(), is(true));
+    assertThat(((InternalEvent) result).getInternalParameters().isEmpty(), is(true));
+  }
+
+  @Test
+  public void recordsOperationLatency() throws Exception {
+    ProcessorLatencyRecorder recorder = forProcessor(processor(LOCATION, OPERATION, "http:request"), context).get();
+
+    recorder.stop(recorder.start(testEvent()));
+
+    assertThat(statistics.getProcessorHistogram(LOCATION).getSnapshot().getCount(), is(1L));
+    assertThat(statistics.getOperationHistogram("http:request").getSnapshot().getCount(), is(1L));
+  }
+
+  @Test
+  public void nestedProcessors() throws Exception {
+    ProcessorLatencyRecorder outer = forProcessor(processor(LOCATION, PROCESSOR, "core:foreach"), context).get();
+    ProcessorLatencyRecorder inner = forProcessor(processor(NESTED_LOCATION, PROCESSOR, "core:logger"), context).get();
+
+    CoreEvent outerStarted = outer.start(testEvent());
+    CoreEvent innerResult = inner.stop(inner.start(outerStarted));
+    CoreEvent outerResult = outer.stop(innerResult);
+
+    assertThat(statistics.getProcessorHistogram(NESTED_LOCATION).getSnapshot().getCount(), is(1L));
+    assertThat(statistics.getProcessorHistogram(LOCATION).getSnapshot().getCount(), is(1L));
+    assertThat(((InternalEvent) outerResult).getInternalParameters().isEmpty(), is(true));
+  }
+
+  @Test
+  public void failedEvent() throws Exception {
+    ProcessorLatencyRecorder recorder = forProcessor(processor(LOCATION, PROCESSOR, "core:logger"), context).get();
+
+    recorder.failed(recorder.start(testEvent()));
+
+    assertThat(statistics.getProcessorHistogram(LOCATION).getSnapshot().getCount(), is(1L));
+  }
+
+  @Test
+  public void eventNotStarted() throws Exception {
+    ProcessorLatencyRecorder recorder = forProcessor(processor(LOCATION, PROCESSOR, "core:logger"), context).get();
+
+    CoreEvent result = recorder.stop(testEvent());
+    recorder.failed(testEvent());
+
+    assertThat(result, sameInstance(testEvent()));
+    assertThat(statistics.getProcessorHistogram(LOCATION).getSnapshot().getCount(), is(0L));
+  }
+
+  @Test
+  public void disabledAtRuntime() throws Exception {
+    ProcessorLatencyRecorder recorder = forProcessor(processor(LOCATION, PROCESSOR, "core:logger"), context).get();
+    statistics.setEnabled(false);
+
+    CoreEvent started = recorder.start(testEvent());
+    recorder.stop(started);
+
+    assertThat(started, sameInstance(testEvent()));
+    assertThat(statistics.getProcessorHistogram(LOCATION).getSnapshot().getCount(), is(0L));
+  }
+
+  @Test
+  public void startTimeIsKeptInTheEvent() throws Exception {
+    ProcessorLatencyRecorder recorder = forProcessor(processor(LOCATION, PROCESSOR, "core:logger"), context).get();
+
+    CoreEvent started = recorder.start(testEvent());
+
+    assertThat(started, not(sameInstance(testEvent())));
+    assertThat(((InternalEvent) started).getInternalParameters().size(), equalTo(1));
+  }
+
+  private static Processor processor(String location, ComponentType type, String identifier) {
+    ComponentLocation componentLocation = mock(ComponentLocation.class);
+    when(componentLocation.getLocation()).thenReturn(location);
+    when(componentLocation.getComponentIdentifier())
+        .thenReturn(TypedComponentIdentifier.builder().type(type).identifier(buildFromStringRepresentation(identifier)).build());
+
+    Processor processor = mock(Processor.class, withSettings().extraInterfaces(Component.class));
+    when(((Component) processor).getLocation()).thenReturn(componentLocation);
+    return processor;
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.policy;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.component.ComponentIdentifier;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.policy.Policy;
+import org.mule.runtime.core.api.policy.PolicyProvider;
+import org.mule.runtime.core.internal.context.MuleContextWithRegistry;
+import org.mule.runtime.core.internal.registry.MuleRegistry;
+import org.mule.runtime.core.privileged.event.BaseEventContext;
+import org.mule.runtime.policy.api.OperationPolicyPointcutParametersFactory;
+import org.mule.runtime.policy.api.PolicyPointcutParameters;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+@SmallTest
+public class DefaultPolicyManagerTestCase extends AbstractMuleTestCase {
+
+  private final AtomicReference<Runnable> policiesChangedCallback = new AtomicReference<>();
+  private final Map<String, Object> operationParameters = new HashMap<>();
+  private final OperationExecutionFunction operationExecutionFunction = mock(OperationExecutionFunction.class);
+
+  private PolicyProvider policyProvider;
+  private Component operation;
+  private CoreEvent event;
+  private DefaultPolicyManager policyManager;
+
+  @Before
+  public void setUp() throws Exception {
+    operation = mock(Component.class, RETURNS_DEEP_STUBS);
+    ComponentIdentifier identifier = mock(ComponentIdentifier.class);
+    when(operation.getLocation().getComponentIdentifier().getIdentifier()).thenReturn(identifier);
+    when(operation.getLocation().getLocation()).thenReturn("flow/processors/0");
+
+    event = mock(CoreEvent.class, RETURNS_DEEP_STUBS);
+    BaseEventContext eventContext = mock(BaseEventContext.class, RETURNS_DEEP_STUBS);
+    when(event.getContext()).thenReturn(eventContext);
+    when(eventContext.getCorrelationId()).thenReturn("anId");
+
+    OperationPolicyPointcutParametersFactory pointcutParametersFactory = mock(OperationPolicyPointcutParametersFactory.class);
+    when(pointcutParametersFactory.supportsOperationIdentifier(identifier)).thenReturn(true);
+    when(pointcutParametersFactory.createPolicyPointcutParameters(any(), any(), any()))
+        .thenAnswer(invocation -> new TestPointcutParameters(operation, "/api"));
+
+    policyProvider = mock(PolicyProvider.class);
+    when(policyProvider.isPoliciesAvailable()).thenReturn(true);
+    when(policyProvider.findOperationParameterizedPolicies(any())).thenReturn(singletonList(mock(Policy.class)));
+    when(policyProvider.onPoliciesChanged(any())).thenAnswer(invocation -> {
+      policiesChangedCallback.set((Runnable) invocation.getArguments()[0]);
+      return true;
+    });
+
+    MuleContextWithRegistry muleContext = mock(MuleContextWithRegistry.class);
+    MuleRegistry registry = mock(MuleRegistry.class);
+    when(muleContext.getRegistry()).thenReturn(registry);
+    when(registry.lookupLocalObjects(PolicyProvider.class)).thenReturn(singletonList(policyProvider));
+    when(registry.lookupObjects(OperationPolicyPointcutParametersFactory.class))
+        .thenReturn(singletonList(pointcutParametersFactory));
+
+    policyManager = new DefaultPolicyManager();
+    policyManager.setMuleContext(muleContext);
+  }
+
+  @Test
+  public void noPointcutParametersWhenNoPoliciesAvailable() throws Exception {
+    when(policyProvider.isPoliciesAvailable()).thenReturn(false);
+    policyManager.initialise();
+
+    OperationPolicy policy = createOperationPolicy();
+
+    assertThat(policy, not(instanceOf(CompositeOperationPolicy.class)));
+    verify(policyProvider, never()).findOperationParameterizedPolicies(any());
+  }
+
+  @Test
+  public void policiesFoundOnceForEqualPointcutParameters() throws Exception {
+    policyManager.initialise();
+
+    assertThat(createOperationPolicy(), instanceOf(CompositeOperationPolicy.class));
+    assertThat(createOperationPolicy(), instanceOf(CompositeOperationPolicy.class));
+
+    verify(policyProvider, times(1)).findOperationParameterizedPolicies(any());
+  }
+
+  @Test
+  public void policiesFoundAgainAfterPoliciesChange() throws Exception {
+    policyManager.initialise();
+
+    createOperationPolicy();
+    policiesChangedCallback.get().run();
+    createOperationPolicy();
+
+    verify(policyProvider, times(2)).findOperationParameterizedPolicies(any());
+  }
+
+  @Test
+  public void policiesNotCachedWhenProviderDoesNotNotifyChanges() throws Exception {
+    when(policyProvider.onPoliciesChanged(any())).thenReturn(false);
+    policyManager.initialise();
+
+    createOperationPolicy();
+    createOperationPolicy();
+
+    verify(policyProvider, times(2)).findOperationParameterizedPolicies(any());
+  }
+
+  private OperationPolicy createOperationPolicy() {
+    return policyManager.createOperationPolicy(operation, event, operationParameters, operationExecutionFunction);
+  }
+
+  private static final class TestPointcutParameters extends PolicyPointcutParameters {
+
+    private final String path;
+
+    private TestPointcutParameters(Component component, String path) {
+      super(component);
+      this.path = path;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof TestPointcutParameters && ((TestPointcutParameters) obj).getComponent() == getComponent()
+          && ((TestPointcutParameters) obj).path.equals(path);
+    }
+
+    @Override
+    public int hashCode() {
+      return path.hashCode();
+    }
+  }
+}
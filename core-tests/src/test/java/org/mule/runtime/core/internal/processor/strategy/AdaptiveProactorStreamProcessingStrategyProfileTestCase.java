@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.BLOCKING;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_INTENSIVE;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_LITE;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.IO_RW;
+import static org.mule.test.allure.AllureConstants.ProcessingStrategiesFeature.PROCESSING_STRATEGIES;
+
+import org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType;
+import org.mule.runtime.core.internal.processor.strategy.AdaptiveProactorStreamProcessingStrategyFactory.ProcessorProfile;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import org.junit.Test;
+
+import io.qameta.allure.Description;
+import io.qameta.allure.Feature;
+
+@SmallTest
+@Feature(PROCESSING_STRATEGIES)
+public class AdaptiveProactorStreamProcessingStrategyProfileTestCase extends AbstractMuleTestCase {
+
+  private static final long LITE_MAX_NANOS = 1000;
+  private static final int SWITCH_SAMPLES = 4;
+
+  @Test
+  @Description("The declared processing type is used until enough samples are gathered")
+  public void startsWithDeclaredType() {
+    assertThat(profile(CPU_LITE).getCurrentType(), is(CPU_LITE));
+    assertThat(profile(BLOCKING).getCurrentType(), is(BLOCKING));
+    assertThat(profile(IO_RW).getCurrentType(), is(BLOCKING));
+    assertThat(profile(CPU_INTENSIVE).getCurrentType(), is(CPU_INTENSIVE));
+  }
+
+  @Test
+  @Description("A cpu-light processor which actually blocks the thread is moved to the blocking scheduler")
+  public void misdeclaredBlockingProcessorIsOffloaded() {
+    ProcessorProfile profile = profile(CPU_LITE);
+    recordSynchronous(profile, SWITCH_SAMPLES - 1, LITE_MAX_NANOS * 10, LITE_MAX_NANOS);
+    assertThat(profile.getCurrentType(), is(CPU_LITE));
+
+    recordSynchronous(profile, 1, LITE_MAX_NANOS * 10, LITE_MAX_NANOS);
+    assertThat(profile.getCurrentType(), is(BLOCKING));
+  }
+
+  @Test
+  @Description("A cpu-light processor which actually burns cpu for a long time is moved to the cpu-intensive scheduler")
+  public void misdeclaredCpuIntensiveProcessorIsOffloaded() {
+    ProcessorProfile profile = profile(CPU_LITE);
+    recordSynchronous(profile, SWITCH_SAMPLES, LITE_MAX_NANOS * 10, LITE_MAX_NANOS * 9);
+    assertThat(profile.getCurrentType(), is(CPU_INTENSIVE));
+  }
+
+  @Test
+  @Description("A cpu-intensive processor which completes fast is executed on the event loop")
+  public void misdeclaredCpuLiteProcessorIsNotOffloaded() {
+    ProcessorProfile profile = profile(CPU_INTENSIVE);
+    recordSynchronous(profile, SWITCH_SAMPLES, LITE_MAX_NANOS / 10, LITE_MAX_NANOS / 10);
+    assertThat(profile.getCurrentType(), is(CPU_LITE));
+  }
+
+  @Test
+  @Description("A cpu-intensive processor which completes asynchronously is executed on the event loop")
+  public void asyncProcessorIsNotOffloaded() {
+    ProcessorProfile profile = profile(CPU_INTENSIVE);
+    for (int i = 0; i < SWITCH_SAMPLES; i++) {
+      profile.record(false, LITE_MAX_NANOS * 100, 0);
+    }
+    assertThat(profile.getCurrentType(), is(CPU_LITE));
+  }
+
+  @Test
+  @Description("A processor declared as blocking is never moved, no matter how fast it completes")
+  public void declaredBlockingProcessorIsNeverMoved() {
+    for (ProcessingType declaredType : new ProcessingType[] {BLOCKING, IO_RW}) {
+      ProcessorProfile profile = profile(declaredType);
+      assertThat(profile.isPinned(), is(true));
+
+      recordSynchronous(profile, SWITCH_SAMPLES * 10, LITE_MAX_NANOS / 10, LITE_MAX_NANOS / 10);
+      assertThat(profile.getCurrentType(), is(BLOCKING));
+
+      recordSynchronous(profile, SWITCH_SAMPLES * 10, LITE_MAX_NANOS * 10, LITE_MAX_NANOS * 10);
+      assertThat(profile.getCurrentType(), is(BLOCKING));
+
+      for (int i = 0; i < SWITCH_SAMPLES * 10; i++) {
+        profile.record(false, LITE_MAX_NANOS * 100, 0);
+      }
+      assertThat(profile.getCurrentType(), is(BLOCKING));
+    }
+  }
+
+  @Test
+  @Description("Execution times within the hysteresis band don't move the processor in either direction")
+  public void hysteresis() {
+    ProcessorProfile lite = profile(CPU_LITE);
+    recordSynchronous(lite, SWITCH_SAMPLES * 10, LITE_MAX_NANOS * 3 / 2, 0);
+    assertThat(lite.getCurrentType(), is(CPU_LITE));
+
+    ProcessorProfile intensive = profile(CPU_INTENSIVE);
+    recordSynchronous(intensive, SWITCH_SAMPLES * 10, LITE_MAX_NANOS * 3 / 4, LITE_MAX_NANOS * 3 / 4);
+    assertThat(intensive.getCurrentType(), is(CPU_INTENSIVE));
+  }
+
+  @Test
+  @Description("A single outlier breaks the streak of samples needed to move the processor")
+  public void outlierIsIgnored() {
+    ProcessorProfile profile = profile(CPU_INTENSIVE);
+    recordSynchronous(profile, SWITCH_SAMPLES - 1, LITE_MAX_NANOS / 10, LITE_MAX_NANOS / 10);
+    recordSynchronous(profile, 1, LITE_MAX_NANOS * 100, LITE_MAX_NANOS * 100);
+    recordSynchronous(profile, SWITCH_SAMPLES - 1, LITE_MAX_NANOS / 10, LITE_MAX_NANOS / 10);
+    assertThat(profile.getCurrentType(), is(CPU_INTENSIVE));
+  }
+
+  @Test
+  @Description("Only one out of every samplingRate invocations is sampled")
+  public void samplingRate() {
+    ProcessorProfile profile = new ProcessorProfile("test", CPU_LITE, LITE_MAX_NANOS, 4, SWITCH_SAMPLES);
+    int sampled = 0;
+    for (int i = 0; i < 40; i++) {
+      if (profile.shouldSample()) {
+        sampled++;
+      }
+    }
+    assertThat(sampled, is(10));
+  }
+
+  private ProcessorProfile profile(ProcessingType declaredType) {
+    return new ProcessorProfile("test", declaredType, LITE_MAX_NANOS, 1, SWITCH_SAMPLES);
+  }
+
+  private void recordSynchronous(ProcessorProfile profile, int times, long elapsedNanos, long elapsedCpuNanos) {
+    for (int i = 0; i < times; i++) {
+      profile.record(true, elapsedNanos, elapsedCpuNanos);
+    }
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static java.lang.Integer.MAX_VALUE;
+import static java.lang.Thread.currentThread;
+import static java.lang.Thread.sleep;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.core.IsCollectionContaining.hasItem;
+import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
+import static org.mule.runtime.core.internal.processor.strategy.AbstractProcessingStrategy.TRANSACTIONAL_ERROR_MESSAGE;
+import static org.mule.runtime.core.internal.processor.strategy.AbstractStreamProcessingStrategyFactory.CORES;
+import static org.mule.runtime.core.internal.processor.strategy.AbstractStreamProcessingStrategyFactory.DEFAULT_WAIT_STRATEGY;
+import static org.mule.runtime.core.internal.processor.strategy.AdaptiveProactorStreamProcessingStrategyFactory.ADAPTIVE_SAMPLING_RATE;
+import static org.mule.runtime.core.internal.processor.strategy.AdaptiveProactorStreamProcessingStrategyFactory.ADAPTIVE_SWITCH_SAMPLES;
+import static org.mule.test.allure.AllureConstants.ProcessingStrategiesFeature.PROCESSING_STRATEGIES;
+import static org.mule.test.allure.AllureConstants.ProcessingStrategiesFeature.ProcessingStrategiesStory.PROACTOR;
+import static reactor.util.concurrent.Queues.XS_BUFFER_SIZE;
+
+import org.mule.runtime.api.exception.DefaultMuleException;
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.processor.Processor;
+import org.mule.runtime.core.api.processor.strategy.ProcessingStrategy;
+import org.mule.runtime.core.api.transaction.TransactionCoordination;
+import org.mule.runtime.core.internal.exception.MessagingException;
+import org.mule.runtime.core.internal.processor.strategy.AdaptiveProactorStreamProcessingStrategyFactory.AdaptiveProactorStreamProcessingStrategy;
+import org.mule.tck.testmodels.mule.TestTransaction;
+
+import org.junit.Test;
+
+import io.qameta.allure.Description;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+
+@Feature(PROCESSING_STRATEGIES)
+@Story(PROACTOR)
+public class AdaptiveProactorStreamProcessingStrategyTestCase extends AbstractProcessingStrategyTestCase {
+
+  // Enough invocations for a fast processor to gather the consecutive samples needed to move it, twice over
+  private static final int ADAPTING_INVOCATIONS = ADAPTIVE_SAMPLING_RATE * ADAPTIVE_SWITCH_SAMPLES * 2;
+
+  public AdaptiveProactorStreamProcessingStrategyTestCase(Mode mode) {
+    super(mode);
+  }
+
+  @Override
+  protected ProcessingStrategy createProcessingStrategy(MuleContext muleContext, String schedulersNamePrefix) {
+    return new AdaptiveProactorStreamProcessingStrategy(() -> ringBuffer,
+                                                        XS_BUFFER_SIZE,
+                                                        1,
+                                                        DEFAULT_WAIT_STRATEGY,
+                                                        () -> cpuLight,
+                                                        () -> blocking,
+                                                        () -> cpuIntensive,
+                                                        CORES,
+                                                        MAX_VALUE);
+  }
+
+  @Override
+  @Description("With the AdaptiveProactorProcessingStrategy, a CPU_LITE message processor is executed in a cpu light thread.")
+  public void singleCpuLight() throws Exception {
+    super.singleCpuLight();
+    assertThat(threads, hasSize(equalTo(1)));
+    assertThat(threads.stream().filter(name -> name.startsWith(CPU_LIGHT)).count(), equalTo(1l));
+    assertThat(threads, not(hasItem(startsWith(IO))));
+    assertThat(threads, not(hasItem(startsWith(CPU_INTENSIVE))));
+  }
+
+  @Override
+  @Description("With the AdaptiveProactorProcessingStrategy, a BLOCKING message processor is scheduled on a IO thread.")
+  public void singleBlocking() throws Exception {
+    super.singleBlocking();
+    assertThat(threads, hasSize(equalTo(1)));
+    assertThat(threads.stream().filter(name -> name.startsWith(IO)).count(), equalTo(1l));
+    assertThat(threads, not(hasItem(startsWith(CPU_LIGHT))));
+    assertThat(threads, not(hasItem(startsWith(CPU_INTENSIVE))));
+  }
+
+  @Override
+  @Description("With the AdaptiveProactorProcessingStrategy, a CPU_INTENSIVE message processor is initially scheduled on a CPU "
+      + "intensive thread.")
+  public void singleCpuIntensive() throws Exception {
+    super.singleCpuIntensive();
+    assertThat(threads, hasSize(equalTo(1)));
+    assertThat(threads.stream().filter(name -> name.startsWith(CPU_INTENSIVE)).count(), equalTo(1l));
+    assertThat(threads, not(hasItem(startsWith(IO))));
+    assertThat(threads, not(hasItem(startsWith(CPU_LIGHT))));
+  }
+
+  @Override
+  @Description("When the AdaptiveProactorProcessingStrategy is configured and a transaction is active processing fails with an "
+      + "error")
+  public void tx() throws Exception {
+    flow = flowBuilder.get().processors(cpuLightProcessor, cpuIntensiveProcessor, blockingProcessor).build();
+    flow.initialise();
+    flow.start();
+
+    TransactionCoordination.getInstance().bindTransaction(new TestTransaction(muleContext));
+
+    expectedException.expect(MessagingException.class);
+    expectedException.expectCause(instanceOf(DefaultMuleException.class));
+    expectedException.expectCause(hasMessage(equalTo(TRANSACTIONAL_ERROR_MESSAGE)));
+    processFlow(testEvent());
+  }
+
+  @Test
+  @Description("A CPU_INTENSIVE message processor which completes fast is eventually executed in the cpu light event loop.")
+  public void fastCpuIntensiveIsMovedToCpuLight() throws Exception {
+    flow = flowBuilder.get().processors(cpuIntensiveProcessor).build();
+    flow.initialise();
+    flow.start();
+
+    for (int i = 0; i < ADAPTING_INVOCATIONS; i++) {
+      processFlow(newEvent());
+    }
+    threads.clear();
+    for (int i = 0; i < ADAPTIVE_SAMPLING_RATE; i++) {
+      processFlow(newEvent());
+    }
+
+    assertThat(threads, hasItem(startsWith(CPU_LIGHT)));
+    assertThat(threads, not(hasItem(startsWith(CPU_INTENSIVE))));
+    assertThat(threads, not(hasItem(startsWith(IO))));
+  }
+
+  @Test
+  @Description("A CPU_LITE message processor which blocks the thread is eventually scheduled on a IO thread.")
+  public void slowCpuLightIsMovedToBlocking() throws Exception {
+    Processor sleepingProcessor = new ThreadTrackingProcessor() {
+
+      @Override
+      public CoreEvent process(CoreEvent event) throws MuleException {
+        try {
+          sleep(2);
+        } catch (InterruptedException e) {
+          currentThread().interrupt();
+        }
+        return super.process(event);
+      }
+    };
+    flow = flowBuilder.get().processors(sleepingProcessor).build();
+    flow.initialise();
+    flow.start();
+
+    for (int i = 0; i < ADAPTING_INVOCATIONS; i++) {
+      processFlow(newEvent());
+    }
+    threads.clear();
+    for (int i = 0; i < ADAPTIVE_SAMPLING_RATE; i++) {
+      processFlow(newEvent());
+    }
+
+    assertThat(threads, hasItem(startsWith(IO)));
+    assertThat(threads, not(hasItem(startsWith(CPU_LIGHT))));
+    assertThat(threads, not(hasItem(startsWith(CPU_INTENSIVE))));
+  }
+
+  @Test
+  @Description("A BLOCKING message processor is always scheduled on a IO thread, no matter how fast it completes.")
+  public void fastBlockingIsNeverMovedToCpuLight() throws Exception {
+    flow = flowBuilder.get().processors(blockingProcessor).build();
+    flow.initialise();
+    flow.start();
+
+    for (int i = 0; i < ADAPTING_INVOCATIONS; i++) {
+      processFlow(newEvent());
+    }
+
+    assertThat(threads, hasItem(startsWith(IO)));
+    assertThat(threads, not(hasItem(startsWith(CPU_LIGHT))));
+    assertThat(threads, not(hasItem(startsWith(CPU_INTENSIVE))));
+  }
+}
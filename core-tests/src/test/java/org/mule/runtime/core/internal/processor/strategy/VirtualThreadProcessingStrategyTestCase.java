@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mule.test.allure.AllureConstants.ProcessingStrategiesFeature.PROCESSING_STRATEGIES;
+import static reactor.core.publisher.Flux.from;
+
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.processor.ReactiveProcessor;
+import org.mule.runtime.core.api.processor.Sink;
+import org.mule.runtime.core.internal.processor.strategy.VirtualThreadProcessingStrategyFactory.VirtualThreadProcessingStrategy;
+import org.mule.runtime.core.internal.processor.strategy.WorkQueueProcessingStrategyFactory.WorkQueueProcessingStrategy;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.qameta.allure.Description;
+import io.qameta.allure.Feature;
+
+@Feature(PROCESSING_STRATEGIES)
+public class VirtualThreadProcessingStrategyTestCase extends AbstractMuleContextTestCase {
+
+  private final CountDownLatch processingLatch = new CountDownLatch(1);
+  private final CountDownLatch processedLatch = new CountDownLatch(2);
+  private final AtomicReference<Thread> processingThread = new AtomicReference<>();
+
+  private final ReactiveProcessor pipeline = publisher -> from(publisher).map(event -> {
+    processingThread.set(Thread.currentThread());
+    try {
+      processingLatch.await(RECEIVE_TIMEOUT, MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    processedLatch.countDown();
+    return event;
+  });
+
+  private VirtualThreadProcessingStrategy processingStrategy;
+
+  @After
+  public void after() throws Exception {
+    processingLatch.countDown();
+    if (processingStrategy != null) {
+      processingStrategy.stop();
+    }
+  }
+
+  @Test
+  @Description("Each event is processed on a thread obtained from the executor rather than on the caller thread")
+  public void processedOnExecutorThread() throws Exception {
+    Sink sink = startStrategy(2);
+
+    processingLatch.countDown();
+    assertThat(sink.emit(testEvent()), is(true));
+    assertThat(sink.emit(testEvent()), is(true));
+
+    assertThat(processedLatch.await(RECEIVE_TIMEOUT, MILLISECONDS), is(true));
+    assertThat(processingThread.get(), not(equalTo(Thread.currentThread())));
+  }
+
+  @Test
+  @Description("Events are rejected through emit once maxConcurrency events are being processed")
+  public void maxConcurrencyBackPressure() throws Exception {
+    Sink sink = startStrategy(1);
+    CoreEvent event = testEvent();
+
+    assertThat(sink.emit(event), is(true));
+    assertThat(sink.emit(event), is(false));
+
+    processingLatch.countDown();
+    sink.accept(event);
+    assertThat(processedLatch.await(RECEIVE_TIMEOUT, MILLISECONDS), is(true));
+  }
+
+  @Test
+  @Description("The factory falls back to a work queue when virtual threads are not supported")
+  public void fallbackWhenNotSupported() {
+    VirtualThreadProcessingStrategyFactory factory = new VirtualThreadProcessingStrategyFactory();
+    Class<?> expectedType = VirtualThreadProcessingStrategyFactory.isVirtualThreadsSupported()
+        ? VirtualThreadProcessingStrategy.class
+        : WorkQueueProcessingStrategy.class;
+
+    assertThat(factory.getProcessingStrategyType(), equalTo(expectedType));
+    assertThat(factory.create(muleContext, "test").getClass(), equalTo(expectedType));
+  }
+
+  private Sink startStrategy(int maxConcurrency) throws Exception {
+    processingStrategy = new VirtualThreadProcessingStrategy(() -> newCachedThreadPool(), maxConcurrency);
+    processingStrategy.start();
+    return processingStrategy.createSink(null, pipeline);
+  }
+}
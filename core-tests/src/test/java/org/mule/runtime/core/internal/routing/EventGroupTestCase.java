@@ -259,6 +259,27 @@ public class EventGroupTestCase extends AbstractMuleContextTestCase {
     assertThat(messages.get(2).getPayload().getValue(), is("foo2"));
   }
 
+  @Test
+  public void eventsFlushedInBatches() throws Exception {
+    EventGroup eventGroup = new EventGroup(UUID.getUUID(), muleContext);
+    eventGroup.initEventsStore(objectStore, 3);
+    String partition = EventGroup.DEFAULT_STORE_PREFIX + ".eventGroups." + eventGroup.getGroupId();
+
+    eventGroup.addEvent(eventBuilder(muleContext).message(Message.of("foo0")).build());
+    eventGroup.addEvent(eventBuilder(muleContext).message(Message.of("foo1")).build());
+    assertThat(objectStore.allKeys(partition).size(), is(0));
+    assertThat(eventGroup.size(), is(2));
+
+    eventGroup.addEvent(eventBuilder(muleContext).message(Message.of("foo2")).build());
+    eventGroup.addEvent(eventBuilder(muleContext).message(Message.of("foo3")).build());
+    assertThat(objectStore.allKeys(partition).size(), is(3));
+    assertThat(eventGroup.size(), is(4));
+
+    List<Message> messages = (List<Message>) eventGroup.getMessageCollectionEvent().getMessage().getPayload().getValue();
+    assertThat(messages.size(), is(4));
+    assertThat(messages.get(3).getPayload().getValue(), is("foo3"));
+  }
+
   @Test
   public void isDisposedEventGroupPartition() throws Exception {
     EventGroup eventGroup = new EventGroup(UUID.getUUID(), muleContext);
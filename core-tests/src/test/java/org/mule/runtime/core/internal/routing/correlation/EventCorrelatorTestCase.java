@@ -6,8 +6,17 @@
  */
 package org.mule.runtime.core.internal.routing.correlation;
 
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -37,6 +46,10 @@ import org.mule.tck.probe.Probe;
 import org.mule.tck.probe.Prober;
 import org.mule.tck.size.SmallTest;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -174,6 +187,125 @@ public class EventCorrelatorTestCase extends AbstractMuleTestCase {
     verify(mockEventGroup, times(1)).getMessageCollectionEvent();
   }
 
+  @Test
+  public void groupsInDifferentStripesProcessedConcurrently() throws Exception {
+    EventCorrelator eventCorrelator = createEventCorrelator();
+    assertThat(eventCorrelator.lockFor("groupA"), not(sameInstance(eventCorrelator.lockFor("groupB"))));
+    assertThat(eventCorrelator.lockFor("groupA"), sameInstance(eventCorrelator.lockFor("groupA")));
+
+    CoreEvent eventA = mockEventOfGroup("groupA");
+    CoreEvent eventB = mockEventOfGroup("groupB");
+    EventGroup groupA = mockGroupCreatedFor(eventA, "groupA");
+    mockGroupCreatedFor(eventB, "groupB");
+
+    CountDownLatch aggregatingA = new CountDownLatch(1);
+    CountDownLatch releaseA = new CountDownLatch(1);
+    when(mockEventCorrelatorCallback.shouldAggregateEvents(groupA)).thenAnswer(invocation -> {
+      aggregatingA.countDown();
+      releaseA.await();
+      return false;
+    });
+
+    ExecutorService executor = newSingleThreadExecutor();
+    try {
+      Future<CoreEvent> processA = executor.submit(() -> eventCorrelator.process(eventA));
+      assertThat(aggregatingA.await(5, SECONDS), is(true));
+
+      // groupA's lock is held meanwhile
+      assertThat(eventCorrelator.process(eventB), is(nullValue()));
+
+      releaseA.countDown();
+      assertThat(processA.get(5, SECONDS), is(nullValue()));
+    } finally {
+      releaseA.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void activeGroupKeptWhileBatchingEvents() throws Exception {
+    memoryObjectStore = spy(memoryObjectStore);
+    EventCorrelator eventCorrelator = createEventCorrelator();
+    eventCorrelator.setEventsFlushBatchSize(4);
+
+    CoreEvent event = mockEventOfGroup("batchedGroup");
+    EventGroup group = mockGroupCreatedFor(event, "batchedGroup");
+
+    eventCorrelator.process(event);
+    eventCorrelator.process(event);
+
+    verify(group).initEventsStore(memoryObjectStore, 4);
+    verify(group, times(2)).addEvent(event);
+    // The second event goes to the instance holding the pending events, rather than to one retrieved from the store
+    verify(memoryObjectStore, times(1)).retrieve("batchedGroup", "prefix.eventGroups");
+  }
+
+  @Test
+  public void groupRetrievedFromStoreWhenNotBatchingEvents() throws Exception {
+    memoryObjectStore = spy(memoryObjectStore);
+    EventCorrelator eventCorrelator = createEventCorrelator();
+
+    CoreEvent event = mockEventOfGroup("group");
+    EventGroup group = mockGroupCreatedFor(event, "group");
+
+    eventCorrelator.process(event);
+    eventCorrelator.process(event);
+
+    verify(group, times(2)).initEventsStore(memoryObjectStore, 1);
+    verify(memoryObjectStore, times(2)).retrieve("group", "prefix.eventGroups");
+  }
+
+  @Test
+  public void groupsStoredByOtherNodesAfterStartExpireInPrimaryNode() throws Exception {
+    when(mockMuleContext.isPrimaryPollingInstance()).thenReturn(true);
+    EventCorrelator eventCorrelator = createEventCorrelator();
+    eventCorrelator.setTimeout(1);
+    eventCorrelator.setFailOnTimeout(false);
+    eventCorrelator.start();
+
+    try {
+      // Let the correlator look for the groups in the store before the other node stores its group
+      Thread.sleep(100);
+      EventGroup otherNodeGroup = mock(EventGroup.class, RETURNS_DEEP_STUBS);
+      when(otherNodeGroup.getGroupId()).thenReturn("otherNodeGroup");
+      when(otherNodeGroup.isInitialised()).thenReturn(true);
+      memoryObjectStore.store("otherNodeGroup", otherNodeGroup, "prefix.eventGroups");
+
+      new PollingProber(5000, 50).check(new Probe() {
+
+        @Override
+        public boolean isSatisfied() {
+          try {
+            return !memoryObjectStore.contains("otherNodeGroup", "prefix.eventGroups");
+          } catch (ObjectStoreException e) {
+            return false;
+          }
+        }
+
+        @Override
+        public String describeFailure() {
+          return "Event group stored by other node not expired.";
+        }
+      });
+    } finally {
+      eventCorrelator.stop();
+    }
+  }
+
+  private CoreEvent mockEventOfGroup(String groupId) {
+    CoreEvent event = mock(CoreEvent.class, RETURNS_DEEP_STUBS);
+    when(event.getCorrelationId()).thenReturn(groupId);
+    return event;
+  }
+
+  private EventGroup mockGroupCreatedFor(CoreEvent event, String groupId) {
+    EventGroup group = mock(EventGroup.class, RETURNS_DEEP_STUBS);
+    when(group.getGroupId()).thenReturn(groupId);
+    when(group.isInitialised()).thenReturn(true);
+    when(mockEventCorrelatorCallback.createEventGroup(event, groupId)).thenReturn(group);
+    return group;
+  }
+
   private EventCorrelator createEventCorrelator() throws Exception {
     registerIntoMockContext(mockMuleContext, OBJECT_STORE_MANAGER, mockObjectStoreManager);
     memoryObjectStore.store(TEST_GROUP_ID, mockEventGroup, "prefix.eventGroups");
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.routing.correlation;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+@SmallTest
+public class HierarchicalTimingWheelTestCase extends AbstractMuleTestCase {
+
+  private static final long TICK = 10;
+  private static final int WHEEL_SIZE = 8;
+
+  private final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 0);
+  private final List<String> expired = new ArrayList<>();
+
+  @Test
+  public void pastDeadlineExpiresRightAway() {
+    wheel.schedule("past", -1);
+    advance(0);
+
+    assertThat(expired, contains("past"));
+  }
+
+  @Test
+  public void doesNotExpireBeforeDeadline() {
+    wheel.schedule("item", 25);
+
+    advance(20);
+    assertThat(expired, is(empty()));
+    advance(25);
+    assertThat(expired, is(empty()));
+    advance(30);
+    assertThat(expired, contains("item"));
+  }
+
+  @Test
+  public void expiresOnlyOnce() {
+    wheel.schedule("item", 15);
+
+    advance(30);
+    advance(40);
+    advance(2000);
+    assertThat(expired, contains("item"));
+  }
+
+  @Test
+  public void deadlinesBeyondFirstWheel() {
+    // The first wheel spans 80ms and the second one 640ms
+    wheel.schedule("third", 5000);
+    wheel.schedule("second", 300);
+    wheel.schedule("first", 50);
+    advance(0);
+
+    for (long now = 10; now <= 6000; now += 10) {
+      advance(now);
+      if (now == 60) {
+        assertThat(expired, contains("first"));
+      } else if (now == 310) {
+        assertThat(expired, contains("first", "second"));
+      } else if (now == 4990) {
+        assertThat(expired, contains("first", "second"));
+      }
+    }
+    assertThat(expired, contains("first", "second", "third"));
+  }
+
+  @Test
+  public void clockJumps() {
+    wheel.schedule("first", 100);
+    wheel.schedule("second", 1000);
+    advance(0);
+
+    advance(100000);
+    assertThat(expired, contains("first", "second"));
+  }
+
+  @Test
+  public void scheduleAfterAdvance() {
+    advance(1000);
+    wheel.schedule("item", 1100);
+
+    advance(1090);
+    assertThat(expired, is(empty()));
+    advance(1110);
+    assertThat(expired, contains("item"));
+  }
+
+  private void advance(long now) {
+    wheel.advance(now, expired::add);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.routing.forkjoin;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mule.runtime.api.message.Message.of;
+import static org.mule.runtime.core.internal.routing.ForkJoinStrategy.RoutingPair.of;
+
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.processor.Processor;
+import org.mule.runtime.core.internal.routing.ForkJoinStrategy.RoutingPair;
+import org.mule.runtime.core.privileged.routing.CompositeRoutingException;
+import org.mule.runtime.core.privileged.routing.RoutingResult;
+
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import io.qameta.allure.Description;
+
+/**
+ * Streaming strategies don't keep the results of the successful routes, so the {@link RoutingResult} only has the failures.
+ */
+public abstract class AbstractStreamingForkJoinStrategyTestCase extends AbstractForkJoinStrategyTestCase {
+
+  @Override
+  @Test
+  @Description("When a route timeout occurs all routes are still executed and  a CompositeRoutingException is thrown with details of timeout error in RoutingResult.")
+  public void timeoutDelayed() throws Throwable {
+    strategy = createStrategy(processingStrategy, 1, true, 50);
+
+    Processor pair2Processor = createProcessorSpy(of(2));
+    RoutingPair pair2 = of(testEvent(), createChain(pair2Processor));
+
+    expectedException.expect(instanceOf(CompositeRoutingException.class));
+
+    invokeStrategyBlocking(strategy, testEvent(), asList(createRoutingPairWithSleep(of(1), 250), pair2),
+                           throwable -> {
+                             verify(pair2Processor, times(1)).process(any(CoreEvent.class));
+                             CompositeRoutingException compositeRoutingException = assertCompositeRoutingException(throwable, 1);
+                             RoutingResult routingResult = assertRoutingResult(compositeRoutingException, 0, 1);
+                             assertThat(routingResult.getFailures().get("0").getCause(),
+                                        instanceOf(TimeoutException.class));
+                           });
+  }
+
+  @Override
+  @Test
+  @Description("When an error occurs all routes are executed regardless and a CompositeRoutingException is thrown containing a RoutingResult with details of the failures.")
+  public void errorDelayed() throws Throwable {
+    Processor processorSpy = createProcessorSpy(testEvent().getMessage());
+
+    RuntimeException exception1 = new IllegalStateException();
+    RoutingPair failingPair1 = of(testEvent(), createFailingRoutingPair(exception1));
+    RuntimeException exception2 = new UnsupportedOperationException();
+    RoutingPair failingPair2 = of(testEvent(), createFailingRoutingPair(exception2));
+    RoutingPair okPair = of(testEvent(), createChain(processorSpy));
+
+    expectedException.expect(instanceOf(CompositeRoutingException.class));
+
+    invokeStrategyBlocking(strategy, testEvent(), asList(okPair, failingPair1, failingPair2), throwable -> {
+      verify(processorSpy, times(1)).process(any(CoreEvent.class));
+      CompositeRoutingException compositeRoutingException = assertCompositeRoutingException(throwable, 2);
+      RoutingResult routingResult = assertRoutingResult(compositeRoutingException, 0, 2);
+      assertThat(routingResult.getFailures().get("1").getCause(), is(exception1));
+      assertThat(routingResult.getFailures().get("2").getCause(), is(exception2));
+    });
+  }
+}
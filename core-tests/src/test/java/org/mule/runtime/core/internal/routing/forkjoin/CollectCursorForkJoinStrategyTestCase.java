@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.routing.forkjoin;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.api.message.Message.of;
+import static org.mule.test.allure.AllureConstants.ForkJoinStrategiesFeature.ForkJoinStrategiesStory.COLLECT_CURSOR;
+
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.streaming.CursorProvider;
+import org.mule.runtime.api.streaming.object.CursorIterator;
+import org.mule.runtime.api.streaming.object.CursorIteratorProvider;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.processor.strategy.ProcessingStrategy;
+import org.mule.runtime.core.api.streaming.StreamingManager;
+import org.mule.runtime.core.internal.routing.ForkJoinStrategy;
+import org.mule.runtime.core.internal.routing.ForkJoinStrategy.RoutingPair;
+import org.mule.runtime.core.internal.streaming.object.FileStoreCursorIteratorConfig;
+import org.mule.runtime.core.internal.streaming.object.factory.FileStoreCursorIteratorProviderFactory;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.qameta.allure.Description;
+import io.qameta.allure.Story;
+
+@Story(COLLECT_CURSOR)
+public class CollectCursorForkJoinStrategyTestCase extends AbstractStreamingForkJoinStrategyTestCase {
+
+  private static final int BUCKET_SIZE = 10;
+  private static final int MAX_IN_MEMORY = 20;
+
+  @Override
+  protected ForkJoinStrategy createStrategy(ProcessingStrategy processingStrategy, int concurrency, boolean delayErrors,
+                                            long timeout) {
+    StreamingManager streamingManager = mock(StreamingManager.class);
+    when(streamingManager.manage(any(CursorProvider.class), any(CoreEvent.class)))
+        .thenAnswer(invocation -> invocation.getArguments()[0]);
+    FileStoreCursorIteratorProviderFactory cursorProviderFactory =
+        new FileStoreCursorIteratorProviderFactory(new FileStoreCursorIteratorConfig(BUCKET_SIZE, MAX_IN_MEMORY),
+                                                   muleContext.getObjectSerializer(), streamingManager);
+
+    return new CollectCursorForkJoinStrategyFactory(cursorProviderFactory)
+        .createForkJoinStrategy(processingStrategy, concurrency, delayErrors, timeout, scheduler, timeoutErrorType);
+  }
+
+  @Test
+  @Description("This strategy waits for all routes to return and then emits a cursor provider over the payloads, in the order of the routes, spilling them to disk.")
+  public void collectCursor() throws Throwable {
+    CoreEvent original = testEvent();
+    List<RoutingPair> pairs = range(0, 100).mapToObj(i -> {
+      try {
+        return createRoutingPair(of(i));
+      } catch (MuleException e) {
+        throw new RuntimeException(e);
+      }
+    }).collect(toList());
+
+    CoreEvent result = invokeStrategyBlocking(strategy, original, pairs);
+
+    assertThat(result.getMessage().getPayload().getValue(), instanceOf(CursorIteratorProvider.class));
+    CursorIteratorProvider provider = (CursorIteratorProvider) result.getMessage().getPayload().getValue();
+    try (CursorIterator cursor = provider.openCursor()) {
+      for (int i = 0; i < 100; ++i) {
+        assertThat(cursor.next(), is(i));
+      }
+      assertThat(cursor.hasNext(), is(false));
+    } finally {
+      provider.close();
+      provider.releaseResources();
+    }
+  }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.store;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Answers.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.core.internal.util.store.MuleObjectStoreManager.UNBOUNDED;
+import static org.mule.tck.SerializationTestUtils.addJavaSerializerToMockMuleContext;
+
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SmallTest
+public class LogStructuredObjectStoreTestCase extends AbstractMuleTestCase {
+
+  private static final String PARTITION = "partition";
+  private static final long MAX_SEGMENT_SIZE = 1024;
+
+  @Rule
+  public TemporaryFolder workingDirectory = new TemporaryFolder();
+
+  private final MuleContext muleContext = mock(MuleContext.class, RETURNS_DEEP_STUBS.get());
+  private LogStructuredObjectStore<Serializable> store;
+
+  @Before
+  public void before() throws Exception {
+    when(muleContext.getConfiguration().getWorkingDirectory()).thenReturn(workingDirectory.getRoot().getAbsolutePath());
+    when(muleContext.getExecutionClassLoader()).thenReturn(getClass().getClassLoader());
+    addJavaSerializerToMockMuleContext(muleContext);
+    store = openStore();
+  }
+
+  @After
+  public void after() {
+    store.dispose();
+  }
+
+  @Test
+  public void storeRetrieveAndRemove() throws Exception {
+    store.store("key", "value", PARTITION);
+    store.store("key", "default");
+
+    assertThat(store.retrieve("key", PARTITION), is("value"));
+    assertThat(store.retrieve("key"), is("default"));
+    assertThat(store.remove("key", PARTITION), is("value"));
+    assertThat(store.contains("key", PARTITION), is(false));
+    assertThat(store.contains("key"), is(true));
+  }
+
+  @Test(expected = ObjectAlreadyExistsException.class)
+  public void storeSameKeyThrowsException() throws Exception {
+    store.store("key", "value", PARTITION);
+    store.store("key", "value", PARTITION);
+  }
+
+  @Test
+  public void restoredAfterRestart() throws Exception {
+    store.store("key1", "value1", PARTITION);
+    store.store("key2", "value2", PARTITION);
+    store.store("key3", "value3");
+    store.remove("key1", PARTITION);
+    store.clear();
+
+    restart();
+
+    assertThat(store.allKeys(PARTITION), containsInAnyOrder("key2"));
+    assertThat(store.retrieve("key2", PARTITION), is("value2"));
+    assertThat(store.allKeys().isEmpty(), is(true));
+  }
+
+  @Test
+  public void incompleteRecordIsDiscarded() throws Exception {
+    store.store("key", "value", PARTITION);
+    store.dispose();
+
+    File[] segments = segmentFiles();
+    Files.write(segments[segments.length - 1].toPath(), new byte[] {0, 0, 1, 0, 42}, APPEND);
+
+    store = openStore();
+    assertThat(store.retrieve("key", PARTITION), is("value"));
+
+    store.store("other", "otherValue", PARTITION);
+    restart();
+    assertThat(store.retrieve("other", PARTITION), is("otherValue"));
+  }
+
+  @Test
+  public void compaction() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      store.store("key" + i, "value" + i, PARTITION);
+    }
+    for (int i = 0; i < 100; i++) {
+      if (i % 10 != 0) {
+        store.remove("key" + i, PARTITION);
+      }
+    }
+    int segmentsBeforeCompaction = segmentFiles().length;
+
+    store.compact();
+
+    assertThat(segmentFiles().length, lessThan(segmentsBeforeCompaction));
+    restart();
+    assertThat(store.allKeys(PARTITION).size(), is(10));
+    for (int i = 0; i < 100; i += 10) {
+      assertThat(store.retrieve("key" + i, PARTITION), is("value" + i));
+    }
+  }
+
+  @Test
+  public void compactionAfterLiveOldestSegment() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      store.store("live" + i, "value" + i, PARTITION);
+    }
+    store.store("removedLater", "value", PARTITION);
+    for (int i = 0; i < 200; i++) {
+      store.store("dead" + i, "value" + i, PARTITION);
+      store.remove("dead" + i, PARTITION);
+    }
+    store.remove("removedLater", PARTITION);
+    File oldestSegment = segmentFiles()[0];
+    long sizeBeforeCompaction = totalSize();
+
+    store.compact();
+
+    assertThat(oldestSegment.exists(), is(true));
+    assertThat(totalSize(), lessThan(sizeBeforeCompaction / 2));
+    restart();
+    assertThat(store.contains("removedLater", PARTITION), is(false));
+    assertThat(store.allKeys(PARTITION).size(), is(10));
+    for (int i = 0; i < 10; i++) {
+      assertThat(store.retrieve("live" + i, PARTITION), is("value" + i));
+    }
+  }
+
+  @Test
+  public void longKey() throws Exception {
+    StringBuilder key = new StringBuilder();
+    for (int i = 0; i < 70000; i++) {
+      key.append((char) ('a' + i % 26));
+    }
+
+    store.store(key.toString(), "value", PARTITION);
+
+    assertThat(store.retrieve(key.toString(), PARTITION), is("value"));
+    restart();
+    assertThat(store.retrieve(key.toString(), PARTITION), is("value"));
+  }
+
+  @Test
+  public void expireMaxEntries() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      store.store("key" + i, "value" + i, PARTITION);
+      Thread.sleep(2);
+    }
+
+    store.expire(UNBOUNDED, 2, PARTITION);
+
+    assertThat(store.allKeys(PARTITION), containsInAnyOrder("key3", "key4"));
+    restart();
+    assertThat(store.allKeys(PARTITION), containsInAnyOrder("key3", "key4"));
+  }
+
+  @Test
+  public void expireTtl() throws Exception {
+    store.store("old", "value", PARTITION);
+    Thread.sleep(50);
+    store.store("new", "value", PARTITION);
+
+    store.expire(25, UNBOUNDED, PARTITION);
+
+    assertThat(store.allKeys(PARTITION), containsInAnyOrder("new"));
+  }
+
+  private void restart() throws Exception {
+    store.dispose();
+    store = openStore();
+  }
+
+  private LogStructuredObjectStore<Serializable> openStore() throws Exception {
+    LogStructuredObjectStore<Serializable> objectStore = new LogStructuredObjectStore<>(MAX_SEGMENT_SIZE);
+    objectStore.setMuleContext(muleContext);
+    objectStore.open(PARTITION);
+    return objectStore;
+  }
+
+  private long totalSize() {
+    long size = 0;
+    for (File segment : segmentFiles()) {
+      size += segment.length();
+    }
+    return size;
+  }
+
+  private File[] segmentFiles() {
+    File[] files = new File(workingDirectory.getRoot(), LogStructuredObjectStore.OBJECT_STORE_DIR).listFiles();
+    Arrays.sort(files);
+    return files;
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.api.message.Message.of;
+import static org.mule.runtime.core.api.event.EventContextFactory.create;
+import static org.mule.runtime.core.api.exception.NullExceptionHandler.getInstance;
+import static org.mule.runtime.dsl.api.component.config.DefaultComponentLocation.fromSingleComponent;
+import static org.mule.test.allure.AllureConstants.StreamingFeature.STREAMING;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.streaming.CursorProvider;
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.privileged.event.BaseEventContext;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import org.junit.Before;
+import org.junit.Test;
+import io.qameta.allure.Description;
+import io.qameta.allure.Feature;
+
+@SmallTest
+@Feature(STREAMING)
+public class CursorManagerTestCase extends AbstractMuleTestCase {
+
+  private MutableStreamingStatistics statistics = new MutableStreamingStatistics();
+  private Scheduler scheduler = mock(Scheduler.class);
+  private CursorManager cursorManager;
+  private BaseEventContext eventContext;
+  private CoreEvent event;
+
+  @Before
+  public void before() {
+    doAnswer(inv -> {
+      inv.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(scheduler).execute(any(Runnable.class));
+
+    cursorManager = new CursorManager(statistics, scheduler);
+    eventContext = (BaseEventContext) create("id", "serverId", fromSingleComponent("log"), getInstance());
+    event = CoreEvent.builder(eventContext).message(of("")).build();
+  }
+
+  @Test
+  @Description("Cursors still open when the owning context terminates are released along with their provider")
+  public void releaseOpenCursorsOnTermination() throws Exception {
+    CursorStreamProvider provider = mockProvider();
+    CursorProvider managed = cursorManager.manage(provider, event);
+
+    managed.openCursor();
+    managed.openCursor().close();
+    assertThat(statistics.getOpenCursorProvidersCount(), is(1));
+    assertThat(statistics.getOpenCursorsCount(), is(1));
+
+    eventContext.success();
+
+    verify(provider).close();
+    verify(provider).releaseResources();
+    assertThat(statistics.getOpenCursorProvidersCount(), is(0));
+    assertThat(statistics.getOpenCursorsCount(), is(0));
+  }
+
+  @Test
+  @Description("Closing the same cursor twice only counts once")
+  public void closeCursorTwice() throws Exception {
+    CursorStreamProvider provider = mockProvider();
+    CursorStream cursor = (CursorStream) cursorManager.manage(provider, event).openCursor();
+    cursorManager.manage(mockProvider(), event).openCursor();
+
+    cursor.close();
+    cursor.close();
+
+    assertThat(statistics.getOpenCursorsCount(), is(1));
+  }
+
+  @Test
+  @Description("All the providers of a context are disposed in a single batch, even if it terminates many times")
+  public void disposeOnlyOnce() throws Exception {
+    CursorStreamProvider provider1 = mockProvider();
+    CursorStreamProvider provider2 = mockProvider();
+    cursorManager.manage(provider1, event);
+    cursorManager.manage(provider2, event);
+    verify(provider1, never()).releaseResources();
+
+    eventContext.success();
+    eventContext.success();
+
+    verify(scheduler, times(1)).execute(any(Runnable.class));
+    verify(provider1).releaseResources();
+    verify(provider2).releaseResources();
+  }
+
+  @Test
+  @Description("A provider managed after the owning context terminated is released right away")
+  public void releaseProviderManagedAfterTermination() throws Exception {
+    cursorManager.manage(mockProvider(), event);
+    eventContext.success();
+
+    CursorStreamProvider provider = mockProvider();
+    cursorManager.manage(provider, event);
+
+    verify(provider).close();
+    verify(provider).releaseResources();
+    assertThat(statistics.getOpenCursorProvidersCount(), is(0));
+  }
+
+  @Test
+  @Description("A provider managed after the state was disposed because all its cursors were closed is released on termination")
+  public void releaseProviderManagedAfterDisposal() throws Exception {
+    CursorStreamProvider provider1 = mockProvider();
+    CursorProvider managed = cursorManager.manage(provider1, event);
+    CursorStream cursor = (CursorStream) managed.openCursor();
+    when(provider1.isClosed()).thenReturn(true);
+    cursor.close();
+    verify(provider1).releaseResources();
+
+    CursorStreamProvider provider2 = mockProvider();
+    cursorManager.manage(provider2, event);
+    verify(provider2, never()).releaseResources();
+
+    eventContext.success();
+
+    verify(provider2).close();
+    verify(provider2).releaseResources();
+  }
+
+  private CursorStreamProvider mockProvider() {
+    CursorStreamProvider provider = mock(CursorStreamProvider.class);
+    when(provider.openCursor()).thenAnswer(inv -> mock(CursorStream.class));
+    return provider;
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mule.test.allure.AllureConstants.StreamingFeature.STREAMING;
+
+import org.mule.runtime.core.internal.streaming.MutableStreamingStatistics;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import io.qameta.allure.Feature;
+
+@SmallTest
+@Feature(STREAMING)
+public class DirectByteBufferManagerTestCase extends AbstractMuleTestCase {
+
+  private static final int SLAB_SIZE = 4 * 1024;
+  private static final long MAX_MEMORY = SLAB_SIZE * 4;
+  private static final long WAIT_TIMEOUT = 200;
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private final DirectByteBufferPool pool = new DirectByteBufferPool(MAX_MEMORY);
+  private final MutableStreamingStatistics statistics = new MutableStreamingStatistics();
+  private final DirectByteBufferManager bufferManager =
+      new DirectByteBufferManager(pool, "app", MAX_MEMORY, WAIT_TIMEOUT, statistics);
+
+  @Test
+  public void direct() {
+    assertThat(bufferManager.allocate(SLAB_SIZE).isDirect(), is(true));
+  }
+
+  @Test
+  public void pooling() {
+    ByteBuffer buffer = bufferManager.allocate(SLAB_SIZE);
+    bufferManager.deallocate(buffer);
+
+    ByteBuffer newBuffer = bufferManager.allocate(SLAB_SIZE);
+    assertThat(buffer, is(sameInstance(newBuffer)));
+    assertThat(statistics.getBufferPoolMisses(), is(1L));
+    assertThat(statistics.getBufferPoolHits(), is(1L));
+  }
+
+  @Test
+  public void exactCapacityOverSharedSizeClass() {
+    ByteBuffer buffer = bufferManager.allocate(SLAB_SIZE - 100);
+    assertThat(buffer.capacity(), is(SLAB_SIZE - 100));
+    assertThat(bufferManager.getMemoryInUse(), is((long) SLAB_SIZE));
+    bufferManager.deallocate(buffer);
+    assertThat(bufferManager.getMemoryInUse(), is(0L));
+
+    ByteBuffer other = bufferManager.allocate(SLAB_SIZE - 10);
+    assertThat(other.capacity(), is(SLAB_SIZE - 10));
+    assertThat(statistics.getBufferPoolHits(), is(1L));
+  }
+
+  @Test
+  public void grow() {
+    ByteBuffer buffer = bufferManager.allocate(SLAB_SIZE);
+    ByteBuffer newBuffer = bufferManager.allocate(SLAB_SIZE);
+
+    assertThat(buffer, not(sameInstance(newBuffer)));
+    assertThat(statistics.getBufferMemoryInUse(), is((long) SLAB_SIZE * 2));
+  }
+
+  @Test
+  public void quotaIsEnforcedPerApplication() {
+    DirectByteBufferManager noisyApp = new DirectByteBufferManager(pool, "noisy", SLAB_SIZE, WAIT_TIMEOUT,
+                                                                   new MutableStreamingStatistics());
+    noisyApp.allocate(SLAB_SIZE);
+
+    // other applications are not affected by the noisy one hitting its quota
+    bufferManager.allocate(SLAB_SIZE);
+
+    expectedException.expect(MaxStreamingMemoryExceededException.class);
+    noisyApp.allocate(SLAB_SIZE);
+  }
+
+  @Test
+  public void waitsForMemoryToBeReleased() throws Exception {
+    ByteBuffer[] buffers = new ByteBuffer[4];
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = bufferManager.allocate(SLAB_SIZE);
+    }
+
+    Thread releaser = new Thread(() -> bufferManager.deallocate(buffers[0]));
+    releaser.start();
+
+    assertThat(bufferManager.allocate(SLAB_SIZE).capacity(), is(SLAB_SIZE));
+    releaser.join(SECONDS.toMillis(1));
+  }
+
+  @Test
+  public void totalMemoryIsLimited() {
+    for (int i = 0; i < 4; i++) {
+      bufferManager.allocate(SLAB_SIZE);
+    }
+
+    expectedException.expect(MaxStreamingMemoryExceededException.class);
+    bufferManager.allocate(SLAB_SIZE);
+  }
+
+  @Test
+  public void slabsCachedByDeadThreadsAreReclaimed() throws Exception {
+    Thread allocator = new Thread(() -> {
+      // Not under pressure, so these end up in the thread's own cache
+      ByteBuffer buffer1 = bufferManager.allocate(SLAB_SIZE);
+      ByteBuffer buffer2 = bufferManager.allocate(SLAB_SIZE);
+      bufferManager.deallocate(buffer1);
+      bufferManager.deallocate(buffer2);
+    });
+    allocator.start();
+    allocator.join(SECONDS.toMillis(1));
+
+    for (int i = 0; i < 4; i++) {
+      bufferManager.allocate(SLAB_SIZE);
+    }
+    assertThat(pool.getRetainedMemory(), is(MAX_MEMORY));
+    assertThat(statistics.getBufferPoolHits(), is(2L));
+  }
+
+  @Test
+  public void disposeReturnsAllocatedBuffers() {
+    bufferManager.allocate(SLAB_SIZE);
+    bufferManager.allocate(SLAB_SIZE - 100);
+
+    bufferManager.dispose();
+
+    assertThat(bufferManager.getMemoryInUse(), is(0L));
+    assertThat(statistics.getBufferMemoryInUse(), is(0L));
+
+    DirectByteBufferManager otherApp = new DirectByteBufferManager(pool, "other", MAX_MEMORY, WAIT_TIMEOUT,
+                                                                   new MutableStreamingStatistics());
+    for (int i = 0; i < 4; i++) {
+      otherApp.allocate(SLAB_SIZE);
+    }
+  }
+
+  @Test
+  public void deallocateAfterDispose() {
+    ByteBuffer buffer = bufferManager.allocate(SLAB_SIZE);
+    bufferManager.dispose();
+
+    bufferManager.deallocate(buffer);
+
+    assertThat(bufferManager.getMemoryInUse(), is(0L));
+    assertThat(statistics.getBufferMemoryInUse(), is(0L));
+  }
+
+  @Test
+  public void deallocateTwice() {
+    ByteBuffer buffer = bufferManager.allocate(SLAB_SIZE);
+    bufferManager.allocate(SLAB_SIZE);
+
+    bufferManager.deallocate(buffer);
+    bufferManager.deallocate(buffer);
+
+    assertThat(bufferManager.getMemoryInUse(), is((long) SLAB_SIZE));
+  }
+
+  @Test
+  public void idleSlabsOfOtherSizeClassesAreReclaimed() {
+    ByteBuffer small = bufferManager.allocate(SLAB_SIZE * 2);
+    ByteBuffer other = bufferManager.allocate(SLAB_SIZE * 2);
+    bufferManager.deallocate(small);
+    bufferManager.deallocate(other);
+
+    assertThat(bufferManager.allocate(SLAB_SIZE * 4).capacity(), is(SLAB_SIZE * 4));
+  }
+}
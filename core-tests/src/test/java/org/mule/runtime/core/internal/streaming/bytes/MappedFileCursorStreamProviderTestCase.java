@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.nio.channels.Channels.newChannel;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeThat;
+import static org.mule.test.allure.AllureConstants.StreamingFeature.STREAMING;
+
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.core.api.streaming.bytes.ChannelTransferable;
+import org.mule.tck.size.SmallTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.qameta.allure.Feature;
+
+@SmallTest
+@Feature(STREAMING)
+public class MappedFileCursorStreamProviderTestCase extends AbstractByteStreamingTestCase {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private FileInputStream fileStream;
+  private MappedFileCursorStreamProvider provider;
+
+  public MappedFileCursorStreamProviderTestCase() {
+    super(KB_256);
+  }
+
+  @Before
+  public void before() throws Exception {
+    File file = temporaryFolder.newFile();
+    FileUtils.writeStringToFile(file, data);
+    fileStream = new FileInputStream(file);
+    provider = new MappedFileCursorStreamProvider(fileStream);
+  }
+
+  @After
+  public void after() {
+    provider.close();
+    provider.releaseResources();
+  }
+
+  @Test
+  public void readFully() throws Exception {
+    try (CursorStream cursor = provider.openCursor()) {
+      assertThat(toString(cursor), equalTo(data));
+    }
+  }
+
+  @Test
+  public void independentCursors() throws Exception {
+    try (CursorStream cursor1 = provider.openCursor(); CursorStream cursor2 = provider.openCursor()) {
+      byte[] dest = new byte[10];
+      cursor1.seek(100);
+      cursor1.read(dest, 0, dest.length);
+      assertThat(toString(dest), equalTo(data.substring(100, 110)));
+
+      assertThat(cursor2.getPosition(), is(0L));
+      assertThat(toString(cursor2), equalTo(data));
+      assertThat(cursor1.getPosition(), is(110L));
+    }
+  }
+
+  @Test
+  public void readPastEnd() throws Exception {
+    try (CursorStream cursor = provider.openCursor()) {
+      cursor.seek(data.length());
+      assertThat(cursor.read(), is(-1));
+      assertThat(cursor.read(new byte[10], 0, 10), is(-1));
+    }
+  }
+
+  @Test
+  public void transferTo() throws Exception {
+    try (CursorStream cursor = provider.openCursor()) {
+      cursor.seek(10);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      long transferred = ((ChannelTransferable) cursor).transferTo(newChannel(out));
+
+      assertThat(transferred, is((long) data.length() - 10));
+      assertThat(toString(out.toByteArray()), equalTo(data.substring(10)));
+      assertThat(cursor.read(), is(-1));
+    }
+  }
+
+  @Test
+  public void mapsFromCurrentStreamPosition() throws Exception {
+    File file = temporaryFolder.newFile();
+    FileUtils.writeStringToFile(file, data);
+    try (FileInputStream stream = new FileInputStream(file)) {
+      stream.skip(20);
+      MappedFileCursorStreamProvider skippedProvider = new MappedFileCursorStreamProvider(stream);
+      try (CursorStream cursor = skippedProvider.openCursor()) {
+        assertThat(toString(cursor), equalTo(data.substring(20)));
+      }
+    }
+  }
+
+  @Test
+  public void isMappable() throws Exception {
+    assertThat(MappedFileCursorStreamProvider.isMappable(fileStream), is(true));
+    assertThat(MappedFileCursorStreamProvider.isMappable(new ByteArrayInputStream(new byte[0])), is(false));
+  }
+
+  @Test
+  public void emptyFileIsNotMappable() throws Exception {
+    try (FileInputStream stream = new FileInputStream(temporaryFolder.newFile())) {
+      assertThat(MappedFileCursorStreamProvider.isMappable(stream), is(false));
+    }
+  }
+
+  @Test
+  public void devicesAreNotMappable() throws Exception {
+    File device = new File("/dev/zero");
+    assumeThat(device.exists(), is(true));
+    try (FileInputStream stream = new FileInputStream(device)) {
+      assertThat(MappedFileCursorStreamProvider.isMappable(stream), is(false));
+    }
+  }
+
+  @Test
+  public void contentAppendedAfterMappingIsNotVisible() throws Exception {
+    File file = temporaryFolder.newFile();
+    FileUtils.writeStringToFile(file, data);
+    try (FileInputStream stream = new FileInputStream(file)) {
+      MappedFileCursorStreamProvider growingProvider = new MappedFileCursorStreamProvider(stream);
+      try (CursorStream cursor = growingProvider.openCursor()) {
+        FileUtils.writeStringToFile(file, "appended", true);
+        try {
+          assertThat(toString(cursor), equalTo(data));
+          try (CursorStream laterCursor = growingProvider.openCursor()) {
+            laterCursor.seek(data.length());
+            assertThat(laterCursor.read(), is(-1));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertThat(((ChannelTransferable) laterCursor).transferTo(newChannel(out)), is(0L));
+            laterCursor.seek(0);
+            assertThat(toString(laterCursor), equalTo(data));
+          }
+        } finally {
+          growingProvider.releaseResources();
+        }
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void readAfterResourcesReleased() throws Exception {
+    CursorStream cursor = provider.openCursor();
+    provider.releaseResources();
+    cursor.read(new byte[10], 0, 10);
+  }
+}
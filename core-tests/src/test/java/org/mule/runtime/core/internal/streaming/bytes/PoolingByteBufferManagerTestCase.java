@@ -26,6 +26,7 @@ import static org.mule.test.allure.AllureConstants.StreamingFeature.STREAMING;
 import org.mule.runtime.api.util.Reference;
 import org.mule.runtime.api.util.concurrent.Latch;
 import org.mule.runtime.core.internal.streaming.MemoryManager;
+import org.mule.runtime.core.internal.streaming.MutableStreamingStatistics;
 import org.mule.tck.junit4.AbstractMuleTestCase;
 import org.mule.tck.size.SmallTest;
 
@@ -66,6 +67,27 @@ public class PoolingByteBufferManagerTestCase extends AbstractMuleTestCase {
     assertThat(buffer, is(sameInstance(newBuffer)));
   }
 
+  @Test
+  public void statistics() throws Exception {
+    MutableStreamingStatistics statistics = new MutableStreamingStatistics();
+    PoolingByteBufferManager bufferManager = new PoolingByteBufferManager(allocateExecutor, statistics);
+    try {
+      ByteBuffer buffer = bufferManager.allocate(CAPACITY);
+      assertThat(statistics.getBufferMemoryInUse(), is((long) CAPACITY));
+      bufferManager.deallocate(buffer);
+      assertThat(statistics.getBufferMemoryInUse(), is(0L));
+
+      bufferManager.allocate(CAPACITY);
+      assertThat(statistics.getBufferPoolMisses(), is(1L));
+      assertThat(statistics.getBufferPoolHits(), is(1L));
+      assertThat(statistics.getBufferPoolWaits(), is(0L));
+      assertThat(statistics.getBufferMemoryInUse(), is((long) CAPACITY));
+    } finally {
+      bufferManager.dispose();
+    }
+    assertThat(statistics.getBufferMemoryInUse(), is(0L));
+  }
+
   @Test
   public void grow() throws Exception {
     ByteBuffer buffer = bufferManager.allocate(CAPACITY);
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.object;
+
+import static java.lang.Math.toIntExact;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mule.test.allure.AllureConstants.StreamingFeature.STREAMING;
+import static org.mule.test.allure.AllureConstants.StreamingFeature.StreamingStory.OBJECT_STREAMING;
+import org.mule.runtime.api.streaming.object.CursorIterator;
+import org.mule.runtime.api.streaming.object.CursorIteratorProvider;
+import org.mule.tck.size.SmallTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import io.qameta.allure.Description;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+
+@SmallTest
+@Feature(STREAMING)
+@Story(OBJECT_STREAMING)
+public class FileStoreCursorIteratorProviderTestCase extends AbstractObjectStreamingTestCase {
+
+  private static final int DATA_SIZE = 1000;
+  private static final int BUCKET_SIZE = 50;
+  private static final int MAX_IN_MEMORY = 150;
+
+  private CursorIteratorProvider streamProvider;
+
+  public FileStoreCursorIteratorProviderTestCase() {
+    super(DATA_SIZE);
+  }
+
+  @Before
+  public void before() {
+    streamProvider = new FileStoreCursorIteratorProvider(toStreamingIterator(data),
+                                                         new FileStoreCursorIteratorConfig(BUCKET_SIZE, MAX_IN_MEMORY),
+                                                         muleContext.getObjectSerializer());
+  }
+
+  @After
+  public void after() {
+    streamProvider.close();
+  }
+
+  @Test
+  @Description("Fully consume a stream which is many times bigger than the in memory threshold")
+  public void readFullyBeyondMemoryThreshold() throws Exception {
+    try (CursorIterator cursor = streamProvider.openCursor()) {
+      checkEquals(data, cursor);
+    }
+  }
+
+  @Test
+  @Description("Seek back and forth across buckets which have been evicted into the buffer file")
+  public void randomSeekAcrossEvictedBuckets() throws Exception {
+    try (CursorIterator cursor = streamProvider.openCursor()) {
+      seekAndAssert(cursor, DATA_SIZE - 10, 10);
+      seekAndAssert(cursor, 0, 10);
+      seekAndAssert(cursor, 420, 200);
+      seekAndAssert(cursor, 75, 50);
+      seekAndAssert(cursor, DATA_SIZE - 1, 1);
+    }
+  }
+
+  @Test
+  @Description("Two cursors read opposite ends of the stream after it has been spilled to disk")
+  public void twoCursorsReadingOppositeEnds() throws Exception {
+    try (CursorIterator cursor1 = streamProvider.openCursor(); CursorIterator cursor2 = streamProvider.openCursor()) {
+      seekAndAssert(cursor1, 0, DATA_SIZE);
+      seekAndAssert(cursor2, 0, DATA_SIZE / 2);
+      seekAndAssert(cursor1, DATA_SIZE / 2, DATA_SIZE / 2);
+      assertThat(cursor1.hasNext(), is(false));
+    }
+  }
+
+  private void seekAndAssert(CursorIterator<Object> cursor, long position, int size) {
+    cursor.seek(position);
+    checkEquals(read(cursor, size), data.subList(toIntExact(position), toIntExact(position + size)));
+  }
+}
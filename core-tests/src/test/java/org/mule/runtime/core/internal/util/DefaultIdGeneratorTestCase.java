@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+@SmallTest
+public class DefaultIdGeneratorTestCase extends AbstractMuleTestCase {
+
+  private static final String ID_PATTERN = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}";
+
+  private final DefaultIdGenerator idGenerator = new DefaultIdGenerator();
+
+  @Test
+  public void generatesUuidShapedIds() {
+    assertThat(idGenerator.generateId().matches(ID_PATTERN), is(true));
+  }
+
+  @Test
+  public void generatesUniqueAndOrderedIds() {
+    // More ids than the sequence of a single millisecond holds
+    String previous = idGenerator.generateId();
+    for (int i = 0; i < 200000; ++i) {
+      String id = idGenerator.generateId();
+      assertThat(id.compareTo(previous), greaterThan(0));
+      previous = id;
+    }
+  }
+
+  @Test
+  public void generatesUniqueIdsConcurrently() throws Exception {
+    final Set<String> ids = ConcurrentHashMap.newKeySet();
+    final int threads = 8;
+    final int idsPerThread = 50000;
+
+    ExecutorService executor = newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; ++i) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < idsPerThread; ++j) {
+            ids.add(idGenerator.generateId());
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(ids.size(), is(threads * idsPerThread));
+  }
+
+  @Test
+  public void generatesClusterIds() {
+    assertThat(idGenerator.generateClusterId(1), startsWith("1-"));
+    assertThat(idGenerator.generateClusterId(1).substring(2).matches(ID_PATTERN), is(true));
+    assertThat(idGenerator.generateClusterId(-42), startsWith("-42-"));
+    assertThat(idGenerator.generateClusterId(-42).substring(4).matches(ID_PATTERN), is(true));
+  }
+
+  @Test
+  public void differentNodesGenerateDifferentIds() {
+    String id = new DefaultIdGenerator(1).generateId();
+    assertThat(id, endsWith("0000000001"));
+    assertThat(new DefaultIdGenerator(2).generateId(), not(is(id)));
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertThat;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+
+@SmallTest
+public class PersistentCaseInsensitiveMapTestCase extends AbstractMuleTestCase {
+
+  private static final String KEY1 = "FOO";
+  private static final String KEY2 = "doo";
+
+  @Test
+  public void caseInsensitive() {
+    PersistentCaseInsensitiveMap<String> map = createTestMap();
+
+    assertThat(map.size(), is(2));
+    assertThat(map.get("foo"), is("BAR"));
+    assertThat(map.get("FOO"), is("BAR"));
+    assertThat(map.get("DOO"), is("3"));
+    assertThat(map.containsKey("Doo"), is(true));
+  }
+
+  @Test
+  public void keysKeepFirstCase() {
+    PersistentCaseInsensitiveMap<String> map = createTestMap().plus("foo", "BAZ");
+
+    assertThat(map.keySet(), containsInAnyOrder(KEY1, KEY2));
+    assertThat(map.get(KEY1), is("BAZ"));
+  }
+
+  @Test
+  public void previousVersionsUnchanged() {
+    PersistentCaseInsensitiveMap<String> map = createTestMap();
+    PersistentCaseInsensitiveMap<String> added = map.plus("new", "val");
+    PersistentCaseInsensitiveMap<String> removed = added.minus("foo");
+
+    assertThat(map.size(), is(2));
+    assertThat(map.containsKey("new"), is(false));
+    assertThat(added.size(), is(3));
+    assertThat(added.get("foo"), is("BAR"));
+    assertThat(removed.size(), is(2));
+    assertThat(removed.get("foo"), is(nullValue()));
+  }
+
+  @Test
+  public void unchangedReturnsSameInstance() {
+    PersistentCaseInsensitiveMap<String> map = createTestMap();
+
+    assertThat(map.minus("other"), sameInstance(map));
+    assertThat(map.plus("foo", map.get("foo")), sameInstance(map));
+  }
+
+  @Test
+  public void manyEntries() {
+    Map<String, Integer> expected = new HashMap<>();
+    PersistentCaseInsensitiveMap<Integer> map = PersistentCaseInsensitiveMap.empty();
+    for (int i = 0; i < 5000; ++i) {
+      map = map.plus("Key" + i, i);
+      expected.put("Key" + i, i);
+    }
+    for (int i = 0; i < 5000; i += 3) {
+      map = map.minus("KEY" + i);
+      expected.remove("Key" + i);
+    }
+
+    assertThat(map, is(expected));
+    assertThat(map.minus("key1").minus("KEY2").size(), is(expected.size() - 2));
+  }
+
+  @Test
+  public void hashCollisions() {
+    // "b!" and "a@" have the same hash code once lower cased, so "B!" and "A@" end up in the same collision node
+    PersistentCaseInsensitiveMap<Integer> map = PersistentCaseInsensitiveMap.empty();
+    map = map.plus("B!", 1).plus("a@", 2).plus("other", 3);
+
+    assertThat(map.size(), is(3));
+    assertThat(map.get("b!"), is(1));
+    assertThat(map.get("A@"), is(2));
+    assertThat(map.get("other"), is(3));
+    assertThat(map.keySet(), containsInAnyOrder("B!", "a@", "other"));
+    assertThat(map.values(), containsInAnyOrder(1, 2, 3));
+
+    map = map.plus("A@", 4);
+    assertThat(map.size(), is(3));
+    assertThat(map.get("a@"), is(4));
+    assertThat(map.get("b!"), is(1));
+
+    map = map.minus("b!");
+    assertThat(map.size(), is(2));
+    assertThat(map.get("B!"), is(nullValue()));
+    assertThat(map.get("a@"), is(4));
+    assertThat(map.keySet(), containsInAnyOrder("a@", "other"));
+
+    map = map.minus("a@");
+    assertThat(map.size(), is(1));
+    assertThat(map.keySet(), containsInAnyOrder("other"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void immutable() {
+    createTestMap().put("new", "val");
+  }
+
+  @Test
+  public void copyOf() {
+    PersistentCaseInsensitiveMap<String> map = createTestMap();
+
+    assertThat(PersistentCaseInsensitiveMap.copyOf(map), sameInstance(map));
+    assertThat(PersistentCaseInsensitiveMap.copyOf(new HashMap<>(map)), is(map));
+  }
+
+  @Test
+  public void serialize() {
+    PersistentCaseInsensitiveMap<String> map = SerializationUtils.deserialize(SerializationUtils.serialize(createTestMap()));
+
+    assertThat(map.size(), is(2));
+    assertThat(map.get("foo"), is("BAR"));
+    assertThat(map.get("doo"), is("3"));
+  }
+
+  private PersistentCaseInsensitiveMap<String> createTestMap() {
+    PersistentCaseInsensitiveMap<String> map = PersistentCaseInsensitiveMap.empty();
+    return map.plus(KEY1, "BAR").plus(KEY2, "3");
+  }
+}
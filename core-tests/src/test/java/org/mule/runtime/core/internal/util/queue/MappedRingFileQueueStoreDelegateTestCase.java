@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util.queue;
+
+import static java.lang.System.arraycopy;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.write;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.tck.SerializationTestUtils.addJavaSerializerToMockMuleContext;
+
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SmallTest
+public class MappedRingFileQueueStoreDelegateTestCase extends AbstractMuleTestCase {
+
+  private static final String TEST_QUEUE_NAME = "test-queue";
+  private static final int RING_FILE_SIZE = 4 * 1024;
+  private static final int FILE_HEADER_SIZE = 64;
+  private static final int RECORD_HEADER_SIZE = 25;
+
+  @Rule
+  public TemporaryFolder workingDirectory = new TemporaryFolder();
+
+  private MuleContext mockMuleContext;
+
+  @Before
+  public void before() {
+    mockMuleContext = mock(MuleContext.class);
+    when(mockMuleContext.getExecutionClassLoader()).thenReturn(getClass().getClassLoader());
+    addJavaSerializerToMockMuleContext(mockMuleContext);
+  }
+
+  @Test
+  public void fifoOrderWithUntake() throws Exception {
+    MappedRingFileQueueStoreDelegate queueStore = createTestQueueStore(0);
+    queueStore.putNow("1");
+    queueStore.putNow("2");
+    assertThat(queueStore.poll(0), is((Serializable) "1"));
+    queueStore.untake("1");
+
+    assertThat(queueStore.getSize(), is(2));
+    assertThat(queueStore.peek(), is((Serializable) "1"));
+    assertThat(queueStore.poll(0), is((Serializable) "1"));
+    assertThat(queueStore.poll(0), is((Serializable) "2"));
+    assertThat(queueStore.poll(0), is(nullValue()));
+    queueStore.dispose();
+  }
+
+  @Test
+  public void restoredAfterRestart() throws Exception {
+    MappedRingFileQueueStoreDelegate queueStore = createTestQueueStore(0);
+    for (int i = 0; i < 5; i++) {
+      queueStore.putNow("value " + i);
+    }
+    queueStore.poll(0);
+    queueStore.untake("first");
+    queueStore.close();
+
+    queueStore = createTestQueueStore(0);
+    assertThat(queueStore.getSize(), is(5));
+    assertThat(queueStore.poll(0), is((Serializable) "first"));
+    for (int i = 1; i < 5; i++) {
+      assertThat(queueStore.poll(0), is((Serializable) ("value " + i)));
+    }
+    queueStore.dispose();
+  }
+
+  @Test
+  public void spaceIsReusedAroundTheRing() throws Exception {
+    MappedRingFileQueueStoreDelegate queueStore = createTestQueueStore(0);
+    for (int i = 0; i < 1000; i++) {
+      queueStore.putNow("value " + i);
+      queueStore.putNow("other " + i);
+      assertThat(queueStore.poll(0), is((Serializable) ("value " + i)));
+      assertThat(queueStore.poll(0), is((Serializable) ("other " + i)));
+    }
+
+    queueStore.putNow("last");
+    queueStore.close();
+    queueStore = createTestQueueStore(0);
+    assertThat(queueStore.getSize(), is(1));
+    assertThat(queueStore.poll(0), is((Serializable) "last"));
+    queueStore.dispose();
+  }
+
+  @Test
+  public void restoredAfterCrashBetweenReclaimSteps() throws Exception {
+    MappedRingFileQueueStoreDelegate queueStore = createTestQueueStore(0);
+    for (int i = 0; i < 3; i++) {
+      queueStore.putNow("value " + i);
+    }
+    queueStore.close();
+    byte[] beforeReclaim = readAllBytes(getQueueFile().toPath());
+
+    queueStore = createTestQueueStore(0);
+    assertThat(queueStore.poll(0), is((Serializable) "value 0"));
+    queueStore.close();
+    byte[] afterReclaim = readAllBytes(getQueueFile().toPath());
+
+    // Simulates a crash after the reclaimed position is stored, but before the reclaimed record is zeroed
+    arraycopy(afterReclaim, 0, beforeReclaim, 0, Long.BYTES);
+    write(getQueueFile().toPath(), beforeReclaim);
+
+    queueStore = createTestQueueStore(0);
+    assertThat(queueStore.getSize(), is(2));
+    assertThat(queueStore.poll(0), is((Serializable) "value 1"));
+    assertThat(queueStore.poll(0), is((Serializable) "value 2"));
+    queueStore.dispose();
+  }
+
+  @Test
+  public void recordsAfterUnwrittenSpaceAreRestored() throws Exception {
+    MappedRingFileQueueStoreDelegate queueStore = createTestQueueStore(0);
+    for (int i = 0; i < 3; i++) {
+      queueStore.putNow("value " + i);
+    }
+    queueStore.close();
+
+    // Simulates a crash of the producer of the first record after claiming its space, while the next ones were completed
+    byte[] content = readAllBytes(getQueueFile().toPath());
+    for (int i = 0; i < RECORD_HEADER_SIZE; i++) {
+      content[FILE_HEADER_SIZE + i] = 0;
+    }
+    write(getQueueFile().toPath(), content);
+
+    queueStore = createTestQueueStore(0);
+    assertThat(queueStore.getSize(), is(2));
+    assertThat(queueStore.poll(0), is((Serializable) "value 1"));
+    assertThat(queueStore.poll(0), is((Serializable) "value 2"));
+
+    // The unwritten space is reclaimed along with the consumed records
+    for (int i = 0; i < 1000; i++) {
+      queueStore.putNow("value " + i);
+      assertThat(queueStore.poll(0), is((Serializable) ("value " + i)));
+    }
+    queueStore.dispose();
+  }
+
+  @Test
+  public void removeAndContains() throws Exception {
+    MappedRingFileQueueStoreDelegate queueStore = createTestQueueStore(0);
+    queueStore.putNow("1");
+    queueStore.putNow("2");
+
+    assertThat(queueStore.contains("2"), is(true));
+    queueStore.remove("2");
+    assertThat(queueStore.contains("2"), is(false));
+    assertThat(queueStore.getSize(), is(1));
+    queueStore.dispose();
+  }
+
+  @Test
+  public void offerRespectsCapacity() throws Exception {
+    MappedRingFileQueueStoreDelegate queueStore = createTestQueueStore(1);
+    assertThat(queueStore.offer("1", 0, 10), is(true));
+    assertThat(queueStore.offer("2", 0, 10), is(false));
+    queueStore.dispose();
+  }
+
+  @Test
+  public void concurrentProducersRespectCapacity() throws Exception {
+    final int capacity = 5;
+    final MappedRingFileQueueStoreDelegate queueStore = createTestQueueStore(capacity);
+    ExecutorService executor = newFixedThreadPool(4);
+    try {
+      fillConcurrently(queueStore, executor);
+      assertThat(queueStore.getSize(), is(capacity));
+
+      queueStore.clear();
+      assertThat(queueStore.getSize(), is(0));
+      assertThat(queueStore.poll(0), is(nullValue()));
+
+      fillConcurrently(queueStore, executor);
+      assertThat(queueStore.getSize(), is(capacity));
+    } finally {
+      executor.shutdownNow();
+      executor.awaitTermination(5, SECONDS);
+    }
+
+    for (int i = 0; i < capacity; i++) {
+      assertThat(queueStore.poll(0) == null, is(false));
+    }
+    assertThat(queueStore.poll(0), is(nullValue()));
+    queueStore.dispose();
+  }
+
+  @Test
+  public void concurrentProducersAndConsumers() throws Exception {
+    final MappedRingFileQueueStoreDelegate queueStore = createTestQueueStore(0);
+    final int itemsPerProducer = 2000;
+    final Set<Serializable> consumed = new HashSet<>();
+    ExecutorService executor = newFixedThreadPool(4);
+    try {
+      for (int p = 0; p < 2; p++) {
+        final int producer = p;
+        executor.submit(() -> {
+          for (int i = 0; i < itemsPerProducer; i++) {
+            queueStore.putNow(producer + "-" + i);
+          }
+        });
+      }
+
+      for (int i = 0; i < 2 * itemsPerProducer; i++) {
+        Serializable item = queueStore.poll(SECONDS.toMillis(5));
+        assertThat(item == null, is(false));
+        consumed.add(item);
+      }
+    } finally {
+      executor.shutdownNow();
+      executor.awaitTermination(5, SECONDS);
+    }
+
+    assertThat(consumed.size(), is(2 * itemsPerProducer));
+    assertThat(queueStore.getSize(), is(0));
+    queueStore.dispose();
+  }
+
+  @Test
+  public void fileDeletedAfterDispose() {
+    MappedRingFileQueueStoreDelegate queueStore = createTestQueueStore(0);
+    queueStore.putNow("item");
+
+    File queueFolder = new File(workingDirectory.getRoot(), "queuestore");
+    assertThat(queueFolder.listFiles().length, is(1));
+
+    queueStore.dispose();
+    assertThat(queueFolder.listFiles().length, is(0));
+  }
+
+  private void fillConcurrently(MappedRingFileQueueStoreDelegate queueStore, ExecutorService executor) throws Exception {
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> producers = new ArrayList<>();
+    for (int p = 0; p < 4; p++) {
+      final int producer = p;
+      producers.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < 500; i++) {
+          queueStore.offer(producer + "-" + i, 0, 0);
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> producer : producers) {
+      producer.get(5, SECONDS);
+    }
+  }
+
+  private File getQueueFile() {
+    return new File(new File(workingDirectory.getRoot(), "queuestore"), TEST_QUEUE_NAME + "-ring");
+  }
+
+  private MappedRingFileQueueStoreDelegate createTestQueueStore(int capacity) {
+    return new MappedRingFileQueueStoreDelegate(TEST_QUEUE_NAME, workingDirectory.getRoot().getAbsolutePath(),
+                                                mockMuleContext, capacity, RING_FILE_SIZE);
+  }
+}
@@ -427,6 +427,41 @@ public class TemplateParserTestCase extends AbstractMuleTestCase {
     assertEquals(expectedResult, result);
   }
 
+  @Test
+  public void muleCompiledTemplateEvaluatedManyTimes() {
+    TemplateParser tp = createMuleStyleParser();
+    TemplateParser.CompiledTemplate template = tp.compile("Hello #[vars.name], you are #[vars.age] \\'years\\' old");
+    assertTrue(template.hasExpressions());
+
+    assertEquals("Hello John, you are 33 'years' old",
+                 template.evaluate(token -> token.equals("vars.name") ? "John" : token.equals("vars.age") ? "33" : token));
+    assertEquals("Hello Jane, you are 34 'years' old",
+                 template.evaluate(token -> token.equals("vars.name") ? "Jane" : token.equals("vars.age") ? "34" : token));
+  }
+
+  @Test
+  public void muleCompiledTemplateSameAsParse() {
+    TemplateParser tp = createMuleStyleParser();
+    for (String expression : new String[] {"#[a] #[b]", "##[a] # ###[b]", "#[a", "'#[a]'", "#['a]']", "\\#[a]", "a#", "#[#[a]]",
+        "no expressions"}) {
+      TemplateParser.TemplateCallback callback = token -> token.equals("b") ? null : "v#[b]\\" + token;
+      assertEquals(expression, tp.parse(callback, expression), tp.compile(expression).evaluate(callback));
+    }
+  }
+
+  @Test
+  public void muleCompiledTemplateWithoutExpressions() {
+    TemplateParser tp = createMuleStyleParser();
+    TemplateParser.CompiledTemplate template = tp.compile("just text #");
+    assertFalse(template.hasExpressions());
+    assertEquals(tp.parse(token -> token, "just text #"), template.evaluate(token -> token));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void antStyleCannotBeCompiled() {
+    createAntStyleParser().compile("${a}");
+  }
+
   private Map<String, Object> buildMap() {
     Map<String, Object> props = new HashMap<String, Object>();
     props.put("prop1", "value1");
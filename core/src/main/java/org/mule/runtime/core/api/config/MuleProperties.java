@@ -197,6 +197,11 @@ public class MuleProperties {
   public static final String MULE_SECURITY_PROVIDER_PROPERTY = SYSTEM_PROPERTY_PREFIX + "security.provider";
   public static final String MULE_STREAMING_BUFFER_SIZE = SYSTEM_PROPERTY_PREFIX + "streaming.bufferSize";
   public static final String MULE_STREAMING_MAX_MEMORY = SYSTEM_PROPERTY_PREFIX + "max.streaming.memory";
+  public static final String MULE_STREAMING_MAX_MEMORY_PER_APP = SYSTEM_PROPERTY_PREFIX + "max.streaming.memory.perApp";
+  public static final String MULE_STREAMING_DIRECT_BUFFERS = SYSTEM_PROPERTY_PREFIX + "streaming.directBuffers";
+  public static final String MULE_OBJECT_STORE_LOG_STRUCTURED = SYSTEM_PROPERTY_PREFIX + "objectStore.logStructured";
+  public static final String MULE_QUEUE_MAPPED_RING_FILE = SYSTEM_PROPERTY_PREFIX + "queue.mappedRingFile";
+  public static final String MULE_QUEUE_RING_FILE_SIZE = SYSTEM_PROPERTY_PREFIX + "queue.ringFileSize";
   public static final String MULE_SIMPLE_LOG = SYSTEM_PROPERTY_PREFIX + "simpleLog";
   public static final String MULE_FORCE_CONSOLE_LOG = SYSTEM_PROPERTY_PREFIX + "forceConsoleLog";
   public static final String MULE_LOG_CONTEXT_DISPOSE_DELAY_MILLIS = SYSTEM_PROPERTY_PREFIX + "log.context.dispose.delay.millis";
@@ -208,6 +213,12 @@ public class MuleProperties {
   public static final String MULE_LOG_VERBOSE_CLASSLOADING = SYSTEM_PROPERTY_PREFIX + "classloading.verbose";
   public static final String MULE_MEL_AS_DEFAULT = SYSTEM_PROPERTY_PREFIX + "test.mel.default";
   public static final String MULE_DISABLE_RESPONSE_TIMEOUT = SYSTEM_PROPERTY_PREFIX + "timeout.disable";
+  public static final String MULE_ENABLE_LATENCY_STATISTICS = SYSTEM_PROPERTY_PREFIX + "statistics.latency.enable";
+  public static final String MULE_DISABLE_NOTIFICATIONS_BATCHING = SYSTEM_PROPERTY_PREFIX + "notifications.batching.disable";
+  public static final String MULE_CONNECTION_POOL_CONCURRENT = SYSTEM_PROPERTY_PREFIX + "connection.pool.concurrent";
+  public static final String MULE_CONNECTION_POOL_VALIDATION = SYSTEM_PROPERTY_PREFIX + "connection.pool.validation";
+  public static final String MULE_CONNECTION_POOL_VALIDATION_IDLE_MILLIS =
+      SYSTEM_PROPERTY_PREFIX + "connection.pool.validationIdleMillis";
 
   private MuleProperties() {}
 }
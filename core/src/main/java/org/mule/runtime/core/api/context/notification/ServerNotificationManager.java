@@ -6,11 +6,17 @@
  */
 package org.mule.runtime.core.api.context.notification;
 
+import static java.lang.Boolean.getBoolean;
+import static java.lang.Integer.MAX_VALUE;
 import static java.lang.Thread.currentThread;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
+import static java.util.concurrent.ConcurrentHashMap.newKeySet;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_DISABLE_NOTIFICATIONS_BATCHING;
 import static org.slf4j.LoggerFactory.getLogger;
+
 import org.mule.api.annotation.NoExtend;
+import org.mule.runtime.api.event.Event;
 import org.mule.runtime.api.lifecycle.InitialisationException;
 import org.mule.runtime.api.notification.AbstractServerNotification;
 import org.mule.runtime.api.notification.AsyncMessageNotification;
@@ -23,6 +29,7 @@ import org.mule.runtime.api.notification.ConnectorMessageNotification;
 import org.mule.runtime.api.notification.ConnectorMessageNotificationListener;
 import org.mule.runtime.api.notification.CustomNotification;
 import org.mule.runtime.api.notification.CustomNotificationListener;
+import org.mule.runtime.api.notification.EnrichedServerNotification;
 import org.mule.runtime.api.notification.ErrorHandlerNotification;
 import org.mule.runtime.api.notification.ErrorHandlerNotificationListener;
 import org.mule.runtime.api.notification.ExceptionNotification;
@@ -49,14 +56,17 @@ import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.context.MuleContextAware;
 import org.mule.runtime.core.api.util.ClassUtils;
 import org.mule.runtime.core.internal.context.notification.Configuration;
+import org.mule.runtime.core.internal.context.notification.NotificationListenerDispatcher;
 import org.mule.runtime.core.internal.context.notification.Policy;
 import org.mule.runtime.core.privileged.context.notification.OptimisedNotificationHandler;
 
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
 import org.slf4j.Logger;
@@ -86,12 +96,21 @@ import org.slf4j.Logger;
  * <li>Disabling an event or interface disables all uses of that class or any subclass.</li>
  * <li>Enquiring whether an event is enabled returns true if any subclass is enabled.</li>
  * </ul>
+ *
+ * <p>
+ * Asynchronous notifications are queued for each listener and delivered in batches by a single task per listener, instead of
+ * submitting a task for each notification and listener. This may be turned off with the
+ * {@link org.mule.runtime.core.api.config.MuleProperties#MULE_DISABLE_NOTIFICATIONS_BATCHING} system property. Notifications of
+ * a given type may also be {@link #setSamplingRate(Class, int) sampled}, or {@link #addCoalescedType(Class) coalesced} when
+ * delivered asynchronously.
  */
 @NoExtend
 public class ServerNotificationManager implements ServerNotificationHandler, MuleContextAware {
 
   private static final Logger logger = getLogger(ServerNotificationManager.class);
 
+  private static final boolean BATCHING_DISABLED = getBoolean(MULE_DISABLE_NOTIFICATIONS_BATCHING);
+
   private boolean dynamic = false;
   private Configuration configuration = new Configuration();
   private AtomicInteger activeFires = new AtomicInteger();
@@ -100,6 +119,11 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
   private MuleContext muleContext;
   private Scheduler notificationsLiteScheduler;
   private Scheduler notificationsIoScheduler;
+  private final Map<NotificationListener, NotificationListenerDispatcher> dispatchers = new ConcurrentHashMap<>();
+  private final Map<Class<? extends Notification>, Integer> samplingRates = new ConcurrentHashMap<>();
+  private final Map<Class<? extends Notification>, Integer> resolvedSamplingRates = new ConcurrentHashMap<>();
+  private final AtomicLong sampledNotifications = new AtomicLong();
+  private final Set<Class<? extends Notification>> coalescedTypes = newKeySet();
 
   @Override
   public boolean isNotificationDynamic() {
@@ -152,6 +176,7 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
    */
   public void removeListener(NotificationListener<?> listener) {
     configuration.removeListener(listener);
+    dispatchers.remove(listener);
   }
 
   public void disableInterface(Class<? extends NotificationListener> iface) {
@@ -167,6 +192,36 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
     configuration.disableType(type);
   }
 
+  /**
+   * Only fires one out of every {@code oneIn} notifications of the given type or its subtypes.
+   * <p>
+   * Notifications related to an event are sampled by correlation id, so that either all or none of the notifications of the
+   * sampled type for an event are fired.
+   *
+   * @param type the type of the notifications to sample
+   * @param oneIn the ratio of notifications to fire. {@code 1} fires them all.
+   * @since 4.2
+   */
+  public void setSamplingRate(Class<? extends Notification> type, int oneIn) {
+    if (oneIn <= 1) {
+      samplingRates.remove(type);
+    } else {
+      samplingRates.put(type, oneIn);
+    }
+    resolvedSamplingRates.clear();
+  }
+
+  /**
+   * Coalesces the asynchronous notifications of the given type or its subtypes: when a listener falls behind, consecutive
+   * notifications with the same action and resource that are waiting to be delivered to it are replaced by the latest one.
+   *
+   * @param type the type of the notifications to coalesce
+   * @since 4.2
+   */
+  public void addCoalescedType(Class<? extends Notification> type) {
+    coalescedTypes.add(type);
+  }
+
   @Override
   public boolean isListenerRegistered(NotificationListener listener) {
     for (ListenerSubscriptionPair pair : configuration.getListeners()) {
@@ -184,6 +239,10 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
       return;
     }
 
+    if (!isSampled(notification)) {
+      return;
+    }
+
     activeFires.incrementAndGet();
     try {
       if (notification instanceof AbstractServerNotification) {
@@ -193,7 +252,9 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
         notifyListeners(notification, (listener, nfn) -> listener.onNotification(nfn));
       } else {
         notifyListeners(notification, (listener, nfn) -> {
-          if (listener.isBlocking()) {
+          if (!BATCHING_DISABLED) {
+            getDispatcher(listener).dispatch(nfn);
+          } else if (listener.isBlocking()) {
             notificationsIoScheduler.submit(() -> listener.onNotification(nfn));
           } else {
             notificationsLiteScheduler.submit(() -> listener.onNotification(nfn));
@@ -211,6 +272,57 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
     configuration.getPolicy().dispatch(notification, notifier);
   }
 
+  private NotificationListenerDispatcher getDispatcher(NotificationListener listener) {
+    NotificationListenerDispatcher dispatcher = dispatchers.get(listener);
+    if (dispatcher == null) {
+      final Scheduler scheduler = listener.isBlocking() ? notificationsIoScheduler : notificationsLiteScheduler;
+      if (scheduler == null) {
+        throw new IllegalStateException("Notification manager has not been initialised");
+      }
+      dispatcher = dispatchers.computeIfAbsent(listener, l -> new NotificationListenerDispatcher(l, scheduler, this::isCoalesced));
+    }
+    return dispatcher;
+  }
+
+  private boolean isCoalesced(Notification notification) {
+    for (Class<? extends Notification> coalescedType : coalescedTypes) {
+      if (coalescedType.isInstance(notification)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isSampled(Notification notification) {
+    if (samplingRates.isEmpty()) {
+      return true;
+    }
+
+    final int rate = resolvedSamplingRates.computeIfAbsent(notification.getClass(), this::resolveSamplingRate);
+    if (rate <= 1) {
+      return true;
+    }
+
+    if (notification instanceof EnrichedServerNotification) {
+      Event event = ((EnrichedServerNotification) notification).getEvent();
+      if (event != null && event.getContext().getCorrelationId() != null) {
+        return (event.getContext().getCorrelationId().hashCode() & MAX_VALUE) % rate == 0;
+      }
+    }
+    return sampledNotifications.getAndIncrement() % rate == 0;
+  }
+
+  private int resolveSamplingRate(Class<? extends Notification> notificationType) {
+    // The rate of the most specific sampled type applies
+    Class<? extends Notification> sampledType = null;
+    for (Class<? extends Notification> type : samplingRates.keySet()) {
+      if (type.isAssignableFrom(notificationType) && (sampledType == null || sampledType.isAssignableFrom(type))) {
+        sampledType = type;
+      }
+    }
+    return sampledType == null ? 1 : samplingRates.getOrDefault(sampledType, 1);
+  }
+
   @Override
   public boolean isNotificationEnabled(Class<? extends Notification> type) {
     boolean enabled = false;
@@ -239,6 +351,7 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
       }
     }
 
+    dispatchers.clear();
     if (notificationsLiteScheduler != null) {
       notificationsLiteScheduler.stop();
       notificationsLiteScheduler = null;
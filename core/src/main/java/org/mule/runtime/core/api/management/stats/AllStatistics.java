@@ -6,12 +6,15 @@
  */
 package org.mule.runtime.core.api.management.stats;
 
+import static java.util.Collections.unmodifiableMap;
+
 import org.mule.api.annotation.NoExtend;
 import org.mule.runtime.core.internal.management.stats.ApplicationStatistics;
 
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <code>AllStatistics</code> TODO
@@ -22,7 +25,9 @@ public class AllStatistics {
   private boolean isStatisticsEnabled;
   private long startTime;
   private ApplicationStatistics appStats;
+  private final LatencyStatistics latencyStatistics = new LatencyStatistics();
   private Map<String, FlowConstructStatistics> flowConstructStats = new HashMap<String, FlowConstructStatistics>();
+  private final Map<String, ConnectionPoolStatisticsMXBean> connectionPoolStats = new ConcurrentHashMap<>();
 
   /**
    * 
@@ -38,6 +43,7 @@ public class AllStatistics {
     for (FlowConstructStatistics statistics : getServiceStatistics()) {
       statistics.clear();
     }
+    latencyStatistics.clear();
     startTime = System.currentTimeMillis();
   }
 
@@ -76,6 +82,7 @@ public class AllStatistics {
   public synchronized void remove(FlowConstructStatistics stat) {
     if (stat != null) {
       flowConstructStats.remove(stat.getName());
+      latencyStatistics.removeFlow(stat.getName());
     }
   }
 
@@ -86,4 +93,37 @@ public class AllStatistics {
   public FlowConstructStatistics getApplicationStatistics() {
     return appStats;
   }
+
+  /**
+   * @return the latency histograms of the flows, processors and connector operations
+   * @since 4.2
+   */
+  public LatencyStatistics getLatencyStatistics() {
+    return latencyStatistics;
+  }
+
+  /**
+   * @param poolName the name of a pool of connections
+   * @param stats the statistics of the pool, replacing any other registered with the same name
+   * @since 4.2
+   */
+  public void addConnectionPoolStatistics(String poolName, ConnectionPoolStatisticsMXBean stats) {
+    connectionPoolStats.put(poolName, stats);
+  }
+
+  /**
+   * @param poolName the name of a pool of connections no longer in use
+   * @since 4.2
+   */
+  public void removeConnectionPoolStatistics(String poolName) {
+    connectionPoolStats.remove(poolName);
+  }
+
+  /**
+   * @return the statistics of the pools of connections in use, by pool name
+   * @since 4.2
+   */
+  public Map<String, ConnectionPoolStatisticsMXBean> getConnectionPoolStatistics() {
+    return unmodifiableMap(connectionPoolStats);
+  }
 }
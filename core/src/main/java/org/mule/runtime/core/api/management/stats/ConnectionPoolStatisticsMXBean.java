@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.api.management.stats;
+
+import org.mule.api.annotation.NoImplement;
+
+/**
+ * JMX management interface for the metrics about the usage of a pool of connections.
+ * <p>
+ * Times are in nanoseconds.
+ *
+ * @since 4.2
+ */
+@NoImplement
+public interface ConnectionPoolStatisticsMXBean {
+
+  /**
+   * @return the number of connections currently borrowed
+   */
+  int getActiveConnections();
+
+  /**
+   * @return the number of connections currently in the pool and not borrowed
+   */
+  int getIdleConnections();
+
+  /**
+   * @return the number of threads currently waiting for a connection
+   */
+  int getPendingBorrows();
+
+  /**
+   * @return the number of connections borrowed so far
+   */
+  long getBorrowCount();
+
+  /**
+   * @return how many of the {@link #getBorrowCount() borrowed connections} had to be waited for
+   */
+  long getWaitedBorrowCount();
+
+  /**
+   * @return the accumulated time threads waited for a connection
+   */
+  long getTotalWaitNanos();
+
+  /**
+   * @return the longest time a thread waited for a connection
+   */
+  long getMaxWaitNanos();
+
+  /**
+   * @return the number of connections created so far
+   */
+  long getCreatedCount();
+
+  /**
+   * @return the accumulated time spent creating connections
+   */
+  long getTotalCreationNanos();
+
+  /**
+   * @return the longest time spent creating a connection
+   */
+  long getMaxCreationNanos();
+
+  /**
+   * @return the number of connections destroyed so far
+   */
+  long getDestroyedCount();
+
+  /**
+   * @return the number of connections found not to be valid
+   */
+  long getValidationFailureCount();
+}
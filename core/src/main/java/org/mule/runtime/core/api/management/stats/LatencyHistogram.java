@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.api.management.stats;
+
+import static java.lang.Long.numberOfLeadingZeros;
+import static java.lang.Math.min;
+import static java.lang.Runtime.getRuntime;
+
+import org.mule.api.annotation.NoExtend;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A histogram of latencies which may be recorded concurrently by many threads without taking locks and which uses a constant
+ * amount of memory.
+ * <p>
+ * Values are kept in microseconds, in log-linear buckets: each power of two is split in {@value #SUB_BUCKET_HALF_COUNT} buckets,
+ * so the values reported for a percentile are at most ~3% higher than the recorded ones. Values above
+ * {@value #MAX_TRACKABLE_MICROS} microseconds are recorded as that value.
+ * <p>
+ * Latencies are recorded into a single stripe of buckets while there is no contention. Only when threads collide recording into
+ * it, each thread starts recording into one of a few more stripes, chosen by its id, which are created as needed and added
+ * together when a {@link LatencySnapshot} is taken. So, histograms that are not contended only take the memory of one stripe.
+ *
+ * @since 4.2
+ */
+@NoExtend
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+  private static final int SUB_BUCKET_HALF_COUNT_BITS = SUB_BUCKET_BITS - 1;
+
+  static final long MAX_TRACKABLE_MICROS = (1L << 36) - 1;
+  static final int BUCKETS_COUNT = bucketIndex(MAX_TRACKABLE_MICROS) + 1;
+
+  private static final int MAX_STRIPES = 8;
+  private static final int STRIPES_MASK = stripesCount() - 1;
+
+  private final AtomicReferenceArray<Stripe> stripes = new AtomicReferenceArray<>(STRIPES_MASK + 1);
+  private LatencySnapshot lastIntervalSnapshot = LatencySnapshot.EMPTY;
+
+  private static final class Stripe {
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS_COUNT);
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    private void record(int bucketIndex, long nanos) {
+      counts.incrementAndGet(bucketIndex);
+      totalNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Records the latency unless another thread is recording into this stripe at the same time, which is detected on the total
+     * since every recording updates it.
+     *
+     * @return whether the latency was recorded
+     */
+    private boolean tryRecord(int bucketIndex, long nanos) {
+      final long total = totalNanos.get();
+      if (!totalNanos.compareAndSet(total, total + nanos)) {
+        return false;
+      }
+      counts.incrementAndGet(bucketIndex);
+      return true;
+    }
+  }
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos the latency, in nanoseconds
+   */
+  public void record(long nanos) {
+    final int bucketIndex = bucketIndex(min(MAX_TRACKABLE_MICROS, nanos < 0 ? 0 : nanos / 1000));
+    if (!getStripe(0).tryRecord(bucketIndex, nanos)) {
+      getStripe((int) Thread.currentThread().getId() & STRIPES_MASK).record(bucketIndex, nanos);
+    }
+  }
+
+  /**
+   * @return the latencies recorded since this histogram was created or {@link #clear() cleared}
+   */
+  public LatencySnapshot getSnapshot() {
+    final long[] counts = new long[BUCKETS_COUNT];
+    long totalNanos = 0;
+    for (int i = 0; i < stripes.length(); ++i) {
+      final Stripe stripe = stripes.get(i);
+      if (stripe != null) {
+        for (int j = 0; j < BUCKETS_COUNT; ++j) {
+          counts[j] += stripe.counts.get(j);
+        }
+        totalNanos += stripe.totalNanos.get();
+      }
+    }
+    return new LatencySnapshot(counts, totalNanos);
+  }
+
+  /**
+   * Returns the latencies recorded since the previous call to this method, so that the latencies of consecutive intervals may
+   * be obtained by calling it periodically.
+   *
+   * @return the latencies recorded since the previous interval snapshot
+   */
+  public synchronized LatencySnapshot getIntervalSnapshot() {
+    final LatencySnapshot snapshot = getSnapshot();
+    final LatencySnapshot interval = snapshot.minus(lastIntervalSnapshot);
+    lastIntervalSnapshot = snapshot;
+    return interval;
+  }
+
+  /**
+   * Discards the recorded latencies.
+   * <p>
+   * If called while latencies are being recorded, some of them may be kept.
+   */
+  public synchronized void clear() {
+    for (int i = 0; i < stripes.length(); ++i) {
+      final Stripe stripe = stripes.get(i);
+      if (stripe != null) {
+        for (int j = 0; j < BUCKETS_COUNT; ++j) {
+          stripe.counts.set(j, 0);
+        }
+        stripe.totalNanos.set(0);
+      }
+    }
+    lastIntervalSnapshot = LatencySnapshot.EMPTY;
+  }
+
+  private Stripe getStripe(int index) {
+    Stripe stripe = stripes.get(index);
+    if (stripe == null) {
+      stripes.compareAndSet(index, null, new Stripe());
+      stripe = stripes.get(index);
+    }
+    return stripe;
+  }
+
+  static int bucketIndex(long micros) {
+    if (micros < SUB_BUCKET_COUNT) {
+      return (int) micros;
+    }
+    final int shift = (63 - numberOfLeadingZeros(micros)) - SUB_BUCKET_HALF_COUNT_BITS;
+    return (shift << SUB_BUCKET_HALF_COUNT_BITS) + (int) (micros >>> shift);
+  }
+
+  static long lowestMicros(int bucketIndex) {
+    if (bucketIndex < SUB_BUCKET_COUNT) {
+      return bucketIndex;
+    }
+    final int shift = (bucketIndex >> SUB_BUCKET_HALF_COUNT_BITS) - 1;
+    return ((long) ((bucketIndex & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT)) << shift;
+  }
+
+  static long highestMicros(int bucketIndex) {
+    return bucketIndex + 1 < BUCKETS_COUNT ? lowestMicros(bucketIndex + 1) - 1 : MAX_TRACKABLE_MICROS;
+  }
+
+  private static int stripesCount() {
+    int count = 1;
+    while (count < MAX_STRIPES && count < getRuntime().availableProcessors()) {
+      count <<= 1;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.api.management.stats;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+import static org.mule.runtime.core.api.management.stats.LatencyHistogram.BUCKETS_COUNT;
+import static org.mule.runtime.core.api.management.stats.LatencyHistogram.highestMicros;
+
+/**
+ * An immutable view of the latencies recorded by a {@link LatencyHistogram}.
+ * <p>
+ * All the values are in nanoseconds. Except for the {@link #getMean() mean}, they are the highest value which falls in the same
+ * bucket as the recorded one, so they may be slightly higher than the actual latencies.
+ *
+ * @since 4.2
+ */
+public final class LatencySnapshot {
+
+  static final LatencySnapshot EMPTY = new LatencySnapshot(new long[BUCKETS_COUNT], 0);
+
+  private final long[] counts;
+  private final long count;
+  private final long totalNanos;
+
+  LatencySnapshot(long[] counts, long totalNanos) {
+    this.counts = counts;
+    this.totalNanos = totalNanos;
+
+    long count = 0;
+    for (long bucketCount : counts) {
+      count += bucketCount;
+    }
+    this.count = count;
+  }
+
+  /**
+   * @return the number of recorded latencies
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return the average of the recorded latencies, or {@code 0} if there are none
+   */
+  public long getMean() {
+    return count == 0 ? 0 : totalNanos / count;
+  }
+
+  /**
+   * @return the lowest recorded latency, or {@code 0} if there are none
+   */
+  public long getMin() {
+    for (int i = 0; i < counts.length; ++i) {
+      if (counts[i] > 0) {
+        return toNanos(i);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @return the highest recorded latency, or {@code 0} if there are none
+   */
+  public long getMax() {
+    for (int i = counts.length - 1; i >= 0; --i) {
+      if (counts[i] > 0) {
+        return toNanos(i);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @param percentile a percentile, between {@code 0} and {@code 100}
+   * @return the latency below which the given percentile of the recorded latencies fall, or {@code 0} if there are none
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+
+    final long target = max(1, (long) ceil(percentile / 100 * count));
+    long accumulated = 0;
+    for (int i = 0; i < counts.length; ++i) {
+      accumulated += counts[i];
+      if (accumulated >= target) {
+        return toNanos(i);
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * @return the median of the recorded latencies
+   */
+  public long getP50() {
+    return getValueAtPercentile(50);
+  }
+
+  /**
+   * @return the 90th percentile of the recorded latencies
+   */
+  public long getP90() {
+    return getValueAtPercentile(90);
+  }
+
+  /**
+   * @return the 99th percentile of the recorded latencies
+   */
+  public long getP99() {
+    return getValueAtPercentile(99);
+  }
+
+  /**
+   * @return the 99.9th percentile of the recorded latencies
+   */
+  public long getP999() {
+    return getValueAtPercentile(99.9);
+  }
+
+  LatencySnapshot minus(LatencySnapshot other) {
+    final long[] difference = new long[BUCKETS_COUNT];
+    for (int i = 0; i < BUCKETS_COUNT; ++i) {
+      // Buckets may have been cleared in between
+      difference[i] = max(0, counts[i] - other.counts[i]);
+    }
+    return new LatencySnapshot(difference, max(0, totalNanos - other.totalNanos));
+  }
+
+  private static long toNanos(int bucketIndex) {
+    return highestMicros(bucketIndex) * 1000 + 999;
+  }
+
+  @Override
+  public String toString() {
+    return "LatencySnapshot{count=" + getCount() + ", mean=" + getMean() + ", min=" + getMin() + ", p50=" + getP50() + ", p90="
+        + getP90() + ", p99=" + getP99() + ", p999=" + getP999() + ", max=" + getMax() + "}";
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.api.management.stats;
+
+import static java.lang.Boolean.getBoolean;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_ENABLE_LATENCY_STATISTICS;
+
+import org.mule.api.annotation.NoExtend;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Keeps the {@link LatencyHistogram}s of the flows, processors and connector operations of an application.
+ * <p>
+ * Latencies are only recorded if the {@link org.mule.runtime.core.api.config.MuleProperties#MULE_ENABLE_LATENCY_STATISTICS}
+ * system property is set when the statistics are created, since each histogram takes memory and measuring takes time for every
+ * event in every processor. Otherwise, the components don't even measure their latencies. Once available, recording may be
+ * turned off and on at runtime through {@link #setEnabled(boolean)}.
+ *
+ * @since 4.2
+ */
+@NoExtend
+public class LatencyStatistics implements LatencyStatisticsMXBean {
+
+  private final ConcurrentMap<String, LatencyHistogram> flows = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LatencyHistogram> processors = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LatencyHistogram> operations = new ConcurrentHashMap<>();
+  private final boolean available = getBoolean(MULE_ENABLE_LATENCY_STATISTICS);
+  private volatile boolean enabled = available;
+
+  /**
+   * @return whether latencies may be recorded at all. If {@code false}, components should not measure them.
+   */
+  public boolean isAvailable() {
+    return available;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled && available;
+  }
+
+  /**
+   * @param flowName the name of a flow
+   * @return the histogram of the latencies of the given flow
+   */
+  public LatencyHistogram getFlowHistogram(String flowName) {
+    return flows.computeIfAbsent(flowName, k -> new LatencyHistogram());
+  }
+
+  /**
+   * @param location the location of a processor
+   * @return the histogram of the latencies of the processor at the given location
+   */
+  public LatencyHistogram getProcessorHistogram(String location) {
+    return processors.computeIfAbsent(location, k -> new LatencyHistogram());
+  }
+
+  /**
+   * @param operation the identifier of a connector operation, in {@code namespace:name} form
+   * @return the histogram of the latencies of the given connector operation, in any location
+   */
+  public LatencyHistogram getOperationHistogram(String operation) {
+    return operations.computeIfAbsent(operation, k -> new LatencyHistogram());
+  }
+
+  @Override
+  public Map<String, LatencySnapshot> getFlowLatencies() {
+    return snapshot(flows, LatencyHistogram::getSnapshot);
+  }
+
+  @Override
+  public Map<String, LatencySnapshot> getProcessorLatencies() {
+    return snapshot(processors, LatencyHistogram::getSnapshot);
+  }
+
+  @Override
+  public Map<String, LatencySnapshot> getOperationLatencies() {
+    return snapshot(operations, LatencyHistogram::getSnapshot);
+  }
+
+  @Override
+  public Map<String, LatencySnapshot> flowIntervalLatencies() {
+    return snapshot(flows, LatencyHistogram::getIntervalSnapshot);
+  }
+
+  @Override
+  public Map<String, LatencySnapshot> processorIntervalLatencies() {
+    return snapshot(processors, LatencyHistogram::getIntervalSnapshot);
+  }
+
+  @Override
+  public Map<String, LatencySnapshot> operationIntervalLatencies() {
+    return snapshot(operations, LatencyHistogram::getIntervalSnapshot);
+  }
+
+  /**
+   * Discards the histograms of a flow and its processors.
+   *
+   * @param flowName the name of the flow
+   */
+  public void removeFlow(String flowName) {
+    flows.remove(flowName);
+    processors.keySet().removeIf(location -> location.startsWith(flowName + "/"));
+  }
+
+  @Override
+  public void clear() {
+    flows.values().forEach(LatencyHistogram::clear);
+    processors.values().forEach(LatencyHistogram::clear);
+    operations.values().forEach(LatencyHistogram::clear);
+  }
+
+  private static Map<String, LatencySnapshot> snapshot(Map<String, LatencyHistogram> histograms,
+                                                       Function<LatencyHistogram, LatencySnapshot> snapshotFunction) {
+    Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+    histograms.forEach((key, histogram) -> snapshots.put(key, snapshotFunction.apply(histogram)));
+    return snapshots;
+  }
+}
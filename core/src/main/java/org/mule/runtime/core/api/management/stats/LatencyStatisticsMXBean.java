@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.api.management.stats;
+
+import java.util.Map;
+
+/**
+ * JMX management interface for the {@link LatencyStatistics} of an application.
+ *
+ * @since 4.2
+ */
+public interface LatencyStatisticsMXBean {
+
+  /**
+   * @return whether latencies are being recorded
+   */
+  boolean isEnabled();
+
+  /**
+   * @param enabled whether latencies are to be recorded
+   */
+  void setEnabled(boolean enabled);
+
+  /**
+   * @return the latencies of each flow, by flow name
+   */
+  Map<String, LatencySnapshot> getFlowLatencies();
+
+  /**
+   * @return the latencies of each processor, by location
+   */
+  Map<String, LatencySnapshot> getProcessorLatencies();
+
+  /**
+   * @return the latencies of each connector operation, by component identifier
+   */
+  Map<String, LatencySnapshot> getOperationLatencies();
+
+  /**
+   * @return the latencies of each flow recorded since the previous call to this method, by flow name
+   */
+  Map<String, LatencySnapshot> flowIntervalLatencies();
+
+  /**
+   * @return the latencies of each processor recorded since the previous call to this method, by location
+   */
+  Map<String, LatencySnapshot> processorIntervalLatencies();
+
+  /**
+   * @return the latencies of each connector operation recorded since the previous call to this method, by component identifier
+   */
+  Map<String, LatencySnapshot> operationIntervalLatencies();
+
+  /**
+   * Discards all the recorded latencies
+   */
+  void clear();
+}
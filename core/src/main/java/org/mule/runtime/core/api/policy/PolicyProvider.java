@@ -39,4 +39,27 @@ public interface PolicyProvider {
    */
   List<Policy> findOperationParameterizedPolicies(PolicyPointcutParameters policyPointcutParameters);
 
+  /**
+   * Allows to skip the creation of the {@link PolicyPointcutParameters} when there is no policy to match against them.
+   *
+   * @return whether this provider may provide any policy at the moment.
+   * @since 4.2
+   */
+  default boolean isPoliciesAvailable() {
+    return true;
+  }
+
+  /**
+   * Registers a callback to be invoked each time the policies provided by this provider change, allowing the policies found for
+   * some {@link PolicyPointcutParameters} to be reused until then.
+   *
+   * @param policiesChangedCallback the callback to invoke after the policies change.
+   * @return {@code true} if this provider will invoke the callback when its policies change, {@code false} if it doesn't track
+   *         its changes, in which case the policies have to be looked up each time.
+   * @since 4.2
+   */
+  default boolean onPoliciesChanged(Runnable policiesChangedCallback) {
+    return false;
+  }
+
 }
@@ -6,6 +6,8 @@
  */
 package org.mule.runtime.core.api.streaming;
 
+import static java.lang.Boolean.getBoolean;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_STREAMING_DIRECT_BUFFERS;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.disposeIfNeeded;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.initialiseIfNeeded;
 import static org.mule.runtime.core.api.util.IOUtils.closeQuietly;
@@ -20,6 +22,7 @@ import org.mule.runtime.api.scheduler.SchedulerService;
 import org.mule.runtime.api.streaming.Cursor;
 import org.mule.runtime.api.streaming.CursorProvider;
 import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.config.MuleProperties;
 import org.mule.runtime.core.api.event.CoreEvent;
 import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
 import org.mule.runtime.core.api.streaming.bytes.ByteStreamingManager;
@@ -28,6 +31,7 @@ import org.mule.runtime.core.internal.streaming.CursorManager;
 import org.mule.runtime.core.internal.streaming.ManagedCursorProvider;
 import org.mule.runtime.core.internal.streaming.MutableStreamingStatistics;
 import org.mule.runtime.core.internal.streaming.bytes.DefaultByteStreamingManager;
+import org.mule.runtime.core.internal.streaming.bytes.DirectByteBufferManager;
 import org.mule.runtime.core.internal.streaming.bytes.PoolingByteBufferManager;
 import org.mule.runtime.core.internal.streaming.object.DefaultObjectStreamingManager;
 import org.mule.runtime.core.privileged.event.BaseEventContext;
@@ -71,7 +75,7 @@ public class DefaultStreamingManager implements StreamingManager, Initialisable,
       disposalScheduler =
           schedulerService.cpuIntensiveScheduler(muleContext.getSchedulerBaseConfig().withName("StreamingManager-dispose"));
       cursorManager = new CursorManager(statistics, disposalScheduler);
-      bufferManager = new PoolingByteBufferManager(allocationScheduler);
+      bufferManager = createByteBufferManager();
       byteStreamingManager = createByteStreamingManager();
       objectStreamingManager = createObjectStreamingManager();
 
@@ -81,6 +85,20 @@ public class DefaultStreamingManager implements StreamingManager, Initialisable,
     }
   }
 
+  /**
+   * Creates the {@link ByteBufferManager} for the owning artifact. By default, heap buffers are pooled by a
+   * {@link PoolingByteBufferManager}. If the {@link MuleProperties#MULE_STREAMING_DIRECT_BUFFERS} system property is set,
+   * then a {@link DirectByteBufferManager} is used instead, so that direct buffers are obtained from a pool shared by
+   * all artifacts in the container while accounting for each artifact's quota.
+   */
+  protected ByteBufferManager createByteBufferManager() {
+    if (getBoolean(MULE_STREAMING_DIRECT_BUFFERS)) {
+      return new DirectByteBufferManager(muleContext.getConfiguration().getId(), statistics);
+    }
+
+    return new PoolingByteBufferManager(allocationScheduler, statistics);
+  }
+
   protected ByteStreamingManager createByteStreamingManager() {
     return new DefaultByteStreamingManager(bufferManager, this);
   }
@@ -27,4 +27,28 @@ public interface StreamingStatistics {
    * @return How many {@link CursorStream} instances are currently open
    */
   int getOpenCursorsCount();
+
+  /**
+   * @return How many byte buffer allocations were served with a previously pooled buffer
+   * @since 4.2
+   */
+  long getBufferPoolHits();
+
+  /**
+   * @return How many byte buffer allocations required a new buffer to be created
+   * @since 4.2
+   */
+  long getBufferPoolMisses();
+
+  /**
+   * @return How many byte buffer allocations had to wait for streaming memory to become available
+   * @since 4.2
+   */
+  long getBufferPoolWaits();
+
+  /**
+   * @return How many bytes of streaming memory are currently allocated
+   * @since 4.2
+   */
+  long getBufferMemoryInUse();
 }
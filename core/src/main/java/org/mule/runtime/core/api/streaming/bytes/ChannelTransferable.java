@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.api.streaming.bytes;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Implemented by streams which are capable of sending their remaining content directly
+ * into a {@link WritableByteChannel}, potentially avoiding any intermediate copy into heap memory.
+ *
+ * @since 4.2
+ */
+public interface ChannelTransferable {
+
+  /**
+   * Writes all the remaining content of {@code this} stream into the given {@code target}, leaving
+   * {@code this} stream fully consumed.
+   *
+   * @param target the channel in which the content is to be written
+   * @return the amount of bytes transferred
+   * @throws IOException if the content could not be transferred
+   */
+  long transferTo(WritableByteChannel target) throws IOException;
+}
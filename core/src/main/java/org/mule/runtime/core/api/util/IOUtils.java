@@ -6,6 +6,7 @@
  */
 package org.mule.runtime.core.api.util;
 
+import static java.nio.channels.Channels.newChannel;
 import static org.apache.commons.lang3.math.NumberUtils.toInt;
 import static org.mule.runtime.core.api.config.MuleProperties.MULE_STREAMING_BUFFER_SIZE;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -18,10 +19,12 @@ import org.mule.runtime.core.api.message.ds.InputStreamDataSource;
 import org.mule.runtime.core.api.message.ds.StringDataSource;
 import org.mule.runtime.core.api.util.func.CheckedConsumer;
 import org.mule.runtime.core.api.util.func.CheckedFunction;
+import org.mule.runtime.core.api.streaming.bytes.ChannelTransferable;
 
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -260,9 +263,20 @@ public class IOUtils {
 
   /**
    * Copies the data read from the {@link InputStream} into the {@link OutputStream}
-   * using a buffer of size {@code bufferSize}
+   * using a buffer of size {@code bufferSize}.
+   * <p>
+   * If the {@code input} is capable of transferring its contents directly into a channel (for example, a cursor
+   * over a memory mapped file), then no buffer is used.
    */
   public static long copyLarge(InputStream input, OutputStream output, int bufferSize) throws IOException {
+    if (input instanceof ChannelTransferable) {
+      if (output instanceof FileOutputStream) {
+        return ((ChannelTransferable) input).transferTo(((FileOutputStream) output).getChannel());
+      }
+
+      return ((ChannelTransferable) input).transferTo(newChannel(output));
+    }
+
     byte[] buffer = new byte[bufferSize];
     long count = 0;
     int n = 0;
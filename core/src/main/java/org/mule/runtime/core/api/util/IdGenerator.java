@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.api.util;
+
+/**
+ * Generates the unique identifiers used by the runtime, i.e.: for correlating the events or naming the entries of persistent
+ * object stores.
+ * <p/>
+ * An implementation may be provided through the {@link java.util.ServiceLoader} mechanism. Otherwise, a default one that
+ * generates time ordered identifiers is used. The one in use is available through {@link UUID#getIdGenerator()}.
+ * <p/>
+ * Implementations must be thread safe, since identifiers are generated concurrently for every event.
+ *
+ * @since 4.2
+ */
+public interface IdGenerator {
+
+  /**
+   * @return a new identifier, unique even among the ones generated by other instances of the runtime.
+   */
+  String generateId();
+
+  /**
+   * @param clusterId id of the cluster node generating the identifier.
+   * @return a new identifier prefixed with the given {@code clusterId}, so as to ensure uniqueness within the cluster.
+   */
+  default String generateClusterId(int clusterId) {
+    return clusterId + "-" + generateId();
+  }
+
+}
@@ -6,14 +6,24 @@
  */
 package org.mule.runtime.core.api.util;
 
+import org.mule.runtime.core.api.registry.SpiServiceRegistry;
+import org.mule.runtime.core.internal.util.DefaultIdGenerator;
+
+import java.util.Collection;
+
 /**
  * <code>UUID</code> Generates a UUID using the <a href="http://johannburkard.de/software/uuid/">Johann Burkard UUID Library</a>.
  * In our performance tests we found this to be the implementation of type 1 UUID that was most performant in high concurrency
  * scenarios.
+ * <p/>
+ * Cluster identifiers, used for correlating events, are generated by the {@link IdGenerator} returned by
+ * {@link #getIdGenerator()}.
  */
 // @ThreadSafe
 public final class UUID {
 
+  private static final IdGenerator ID_GENERATOR = lookupIdGenerator();
+
   private UUID() {
     // no go
   }
@@ -27,12 +37,25 @@ public final class UUID {
 
   /**
    * @param clusterId cluster id
-   * @return time-based UUID prefixed with the cluster id so as to ensure uniqueness within cluster.
+   * @return time-based id, generated by the {@link #getIdGenerator() IdGenerator}, prefixed with the cluster id so as to ensure
+   *         uniqueness within cluster.
    */
   public static String getClusterUUID(int clusterId) {
-    return new com.eaio.uuid.UUID()
-        .toAppendable(new StringBuilder(38).append(clusterId).append('-')).toString();
+    return ID_GENERATOR.generateClusterId(clusterId);
+  }
+
+  /**
+   * @return the {@link IdGenerator} provided through the {@link java.util.ServiceLoader} mechanism, or the default one if none
+   *         is provided.
+   * @since 4.2
+   */
+  public static IdGenerator getIdGenerator() {
+    return ID_GENERATOR;
   }
 
+  private static IdGenerator lookupIdGenerator() {
+    Collection<IdGenerator> providers = new SpiServiceRegistry().lookupProviders(IdGenerator.class, UUID.class.getClassLoader());
+    return providers.isEmpty() ? new DefaultIdGenerator() : providers.iterator().next();
+  }
 
 }
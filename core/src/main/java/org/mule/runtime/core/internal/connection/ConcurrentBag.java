@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.connection;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.toList;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A collection of items which are borrowed and returned by many threads without taking a lock.
+ * <p>
+ * Each thread remembers the items it returned, and tries to borrow those first, so that under a steady load threads keep using
+ * the same items without contending with each other. Otherwise, the items are looked for in a list shared by all threads. When
+ * no item is available, the borrowing thread waits for one to be handed over by a thread returning it.
+ *
+ * @param <T> the type of the items
+ * @since 4.2
+ */
+final class ConcurrentBag<T> {
+
+  private static final int MAX_THREAD_LOCAL_ENTRIES = 16;
+
+  private final List<Entry<T>> sharedList = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<List<WeakReference<Entry<T>>>> threadList = ThreadLocal.withInitial(ArrayList::new);
+  private final SynchronousQueue<Entry<T>> handoffQueue = new SynchronousQueue<>(true);
+  private final AtomicInteger waiters = new AtomicInteger();
+  private volatile boolean closed = false;
+
+  /**
+   * An item in the bag, along with its state.
+   *
+   * @param <T> the type of the item
+   */
+  static final class Entry<T> {
+
+    static final int NOT_IN_USE = 0;
+    static final int IN_USE = 1;
+    static final int RESERVED = -2;
+    static final int REMOVED = -1;
+
+    private final T item;
+    private final AtomicInteger state;
+    private volatile long lastAccessNanos = nanoTime();
+
+    private Entry(T item, int state) {
+      this.item = item;
+      this.state = new AtomicInteger(state);
+    }
+
+    T getItem() {
+      return item;
+    }
+
+    int getState() {
+      return state.get();
+    }
+
+    /**
+     * @return the time, as given by {@link System#nanoTime()}, when this entry was added or returned for the last time. That
+     *         is, since when it has been idle if it's not borrowed.
+     */
+    long getLastAccessNanos() {
+      return lastAccessNanos;
+    }
+
+    private boolean compareAndSetState(int expect, int update) {
+      return state.compareAndSet(expect, update);
+    }
+  }
+
+  /**
+   * Borrows an item, waiting up to the given time for one to be returned if none is available.
+   *
+   * @param timeout how long to wait for an item. {@code 0} doesn't wait and a negative value waits indefinitely
+   * @param unit the unit of {@code timeout}
+   * @return the entry of the borrowed item, or {@code null} if there was none available within the {@code timeout}
+   * @throws InterruptedException if interrupted while waiting
+   */
+  Entry<T> borrow(long timeout, TimeUnit unit) throws InterruptedException {
+    // Items returned by this thread
+    final List<WeakReference<Entry<T>>> ownEntries = threadList.get();
+    for (int i = ownEntries.size() - 1; i >= 0; --i) {
+      final Entry<T> entry = ownEntries.remove(i).get();
+      if (entry != null && entry.compareAndSetState(Entry.NOT_IN_USE, Entry.IN_USE)) {
+        return entry;
+      }
+    }
+
+    // Items returned by other threads or just added
+    waiters.incrementAndGet();
+    try {
+      for (Entry<T> entry : sharedList) {
+        if (entry.compareAndSetState(Entry.NOT_IN_USE, Entry.IN_USE)) {
+          return entry;
+        }
+      }
+
+      if (timeout == 0) {
+        return null;
+      }
+
+      long remaining = timeout < 0 ? Long.MAX_VALUE : unit.toNanos(timeout);
+      final long start = nanoTime();
+      while (!closed && remaining > 0) {
+        final Entry<T> entry = handoffQueue.poll(remaining, NANOSECONDS);
+        if (entry == null) {
+          return null;
+        }
+        if (entry.compareAndSetState(Entry.NOT_IN_USE, Entry.IN_USE)) {
+          return entry;
+        }
+        if (timeout > 0) {
+          remaining = unit.toNanos(timeout) - (nanoTime() - start);
+        }
+      }
+      return null;
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * Returns a borrowed item to the bag, handing it over to a waiting thread if there is any.
+   *
+   * @param entry the entry of the borrowed item
+   */
+  void requite(Entry<T> entry) {
+    entry.lastAccessNanos = nanoTime();
+    entry.state.set(Entry.NOT_IN_USE);
+
+    while (waiters.get() > 0 && !closed) {
+      if (entry.getState() != Entry.NOT_IN_USE || handoffQueue.offer(entry)) {
+        return;
+      }
+      Thread.yield();
+    }
+
+    final List<WeakReference<Entry<T>>> ownEntries = threadList.get();
+    if (ownEntries.size() < MAX_THREAD_LOCAL_ENTRIES) {
+      ownEntries.add(new WeakReference<>(entry));
+    }
+  }
+
+  /**
+   * Adds a new item to the bag.
+   *
+   * @param item the item to add
+   * @param inUse whether the item is to be added as already borrowed by the current thread
+   * @return the entry of the added item
+   */
+  Entry<T> add(T item, boolean inUse) {
+    final Entry<T> entry = new Entry<>(item, inUse ? Entry.IN_USE : Entry.NOT_IN_USE);
+    sharedList.add(entry);
+
+    while (!inUse && waiters.get() > 0 && !closed && entry.getState() == Entry.NOT_IN_USE && !handoffQueue.offer(entry)) {
+      Thread.yield();
+    }
+    return entry;
+  }
+
+  /**
+   * Removes an item which is either borrowed or {@link #reserve(Entry) reserved}.
+   *
+   * @param entry the entry of the item
+   * @return whether the item was removed. {@code false} if it was already removed or it is not borrowed nor reserved.
+   */
+  boolean remove(Entry<T> entry) {
+    if (!entry.compareAndSetState(Entry.IN_USE, Entry.REMOVED) && !entry.compareAndSetState(Entry.RESERVED, Entry.REMOVED)) {
+      return false;
+    }
+    return sharedList.remove(entry);
+  }
+
+  /**
+   * Prevents an item which is not borrowed from being borrowed, so that it may be inspected or removed.
+   *
+   * @param entry the entry of the item
+   * @return whether the item was reserved
+   */
+  boolean reserve(Entry<T> entry) {
+    return entry.compareAndSetState(Entry.NOT_IN_USE, Entry.RESERVED);
+  }
+
+  /**
+   * Makes a {@link #reserve(Entry) reserved} item available again.
+   *
+   * @param entry the entry of the item
+   */
+  void unreserve(Entry<T> entry) {
+    if (entry.compareAndSetState(Entry.RESERVED, Entry.NOT_IN_USE)) {
+      while (waiters.get() > 0 && !closed && entry.getState() == Entry.NOT_IN_USE && !handoffQueue.offer(entry)) {
+        Thread.yield();
+      }
+    }
+  }
+
+  /**
+   * @param state the state of the entries to return
+   * @return a snapshot of the entries with the given state
+   */
+  List<Entry<T>> values(int state) {
+    return sharedList.stream().filter(entry -> entry.getState() == state).collect(toList());
+  }
+
+  /**
+   * @return a snapshot of all the entries
+   */
+  List<Entry<T>> values() {
+    return new ArrayList<>(sharedList);
+  }
+
+  /**
+   * @return the number of items in the bag, regardless of their state
+   */
+  int size() {
+    return sharedList.size();
+  }
+
+  /**
+   * @return the number of threads waiting for an item
+   */
+  int getWaitingThreadsCount() {
+    return waiters.get();
+  }
+
+  /**
+   * Stops handing over items to waiting threads, which will give up waiting.
+   */
+  void close() {
+    closed = true;
+    final Entry<T> wakeUp = new Entry<>(null, Entry.REMOVED);
+    while (waiters.get() > 0) {
+      if (!handoffQueue.offer(wakeUp)) {
+        Thread.yield();
+      }
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.connection;
+
+import static org.mule.runtime.api.util.Preconditions.checkState;
+
+import org.mule.runtime.api.connection.ConnectionException;
+import org.mule.runtime.api.connection.ConnectionProvider;
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.core.internal.connection.ConcurrentBag.Entry;
+
+/**
+ * Implementation of {@link ConnectionHandlerAdapter} which wraps a {@code Connection} borrowed from a
+ * {@link ConcurrentPoolingConnectionManagementStrategy}.
+ *
+ * @param <C> the generic type of the connection to be returned
+ * @since 4.2
+ */
+final class ConcurrentPoolingConnectionHandler<C> implements ConnectionHandlerAdapter<C> {
+
+  private Entry<C> entry;
+  private final ConcurrentPoolingConnectionManagementStrategy<C> pool;
+
+  /**
+   * Creates a new instance
+   *
+   * @param entry the pool entry of the connection to be wrapped
+   * @param pool the pool from which the connection was borrowed and to which it has to be returned
+   */
+  ConcurrentPoolingConnectionHandler(Entry<C> entry, ConcurrentPoolingConnectionManagementStrategy<C> pool) {
+    this.entry = entry;
+    this.pool = pool;
+  }
+
+  /**
+   * @return the wrapped connection
+   */
+  @Override
+  public C getConnection() throws ConnectionException {
+    checkState(entry != null, "Connection has been either released or invalidated");
+    return entry.getItem();
+  }
+
+  /**
+   * Returns the connection to the {@link #pool}
+   */
+  @Override
+  public void release() {
+    if (entry == null) {
+      return;
+    }
+
+    try {
+      pool.release(entry);
+    } finally {
+      entry = null;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void invalidate() {
+    if (entry == null) {
+      return;
+    }
+
+    try {
+      pool.invalidate(entry);
+    } finally {
+      entry = null;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ConnectionProvider getConnectionProvider() {
+    return pool.getConnectionProvider();
+  }
+
+  /**
+   * Does nothing for this implementation. Connections are only closed when the pool is.
+   */
+  @Override
+  public void close() throws MuleException {
+
+  }
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.connection;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mule.runtime.api.config.PoolingProfile.WHEN_EXHAUSTED_FAIL;
+import static org.mule.runtime.api.config.PoolingProfile.WHEN_EXHAUSTED_GROW;
+import static org.mule.runtime.core.internal.connection.ConcurrentBag.Entry.NOT_IN_USE;
+import static org.mule.runtime.core.internal.connection.PoolValidationMode.BACKGROUND;
+import static org.mule.runtime.core.internal.connection.PoolValidationMode.IDLE;
+import static org.mule.runtime.core.internal.connection.PoolValidationMode.ON_BORROW;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.api.config.PoolingProfile;
+import org.mule.runtime.api.connection.ConnectionException;
+import org.mule.runtime.api.connection.ConnectionHandler;
+import org.mule.runtime.api.connection.ConnectionProvider;
+import org.mule.runtime.api.connection.ConnectionValidationResult;
+import org.mule.runtime.api.connection.PoolingListener;
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.internal.connection.ConcurrentBag.Entry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+
+/**
+ * A {@link ConnectionManagementStrategy} which returns connections obtained from a {@link ConcurrentBag}, so that borrowing and
+ * returning them doesn't take a lock.
+ * <p>
+ * The pool is configured through a {@link PoolingProfile} like {@link PoolingConnectionManagementStrategy}'s, with these
+ * differences:
+ * <ul>
+ * <li>Connections are not validated when they are returned. Instead, they are validated according to a
+ * {@link PoolValidationMode}.</li>
+ * <li>Idle connections are evicted by a background task, only if {@link PoolingProfile#getEvictionCheckIntervalMillis()} is
+ * positive.</li>
+ * <li>The connections borrowed when the pool is closed are destroyed when they are released.</li>
+ * </ul>
+ * Activity is reported to its {@link ConnectionPoolStatistics}.
+ *
+ * @param <C> the generic type of the connections to be managed
+ * @since 4.2
+ */
+final class ConcurrentPoolingConnectionManagementStrategy<C> extends ConnectionManagementStrategy<C> {
+
+  private static final Logger LOGGER = getLogger(ConcurrentPoolingConnectionManagementStrategy.class);
+
+  private static final long DEFAULT_BACKGROUND_VALIDATION_INTERVAL_MILLIS = SECONDS.toMillis(30);
+  private static final long WAIT_SLICE_NANOS = MILLISECONDS.toNanos(100);
+
+  private final PoolingProfile poolingProfile;
+  private final PoolingListener<C> poolingListener;
+  private final PoolValidationMode validationMode;
+  private final long validationIdleNanos;
+
+  private final ConcurrentBag<C> bag = new ConcurrentBag<>();
+  // Connections in the bag plus the ones being created
+  private final AtomicInteger totalConnections = new AtomicInteger();
+  private final AtomicInteger activeConnections = new AtomicInteger();
+  private final ConnectionPoolStatistics statistics;
+  private final Scheduler housekeepingScheduler;
+  private volatile boolean closed = false;
+
+  /**
+   * Creates a new instance
+   *
+   * @param connectionProvider the {@link ConnectionProvider} used to manage the connections
+   * @param poolingProfile the {@link PoolingProfile} which configures the pool
+   * @param poolingListener a {@link PoolingListener}
+   * @param validationMode when the pooled connections are validated
+   * @param validationIdleMillis for {@link PoolValidationMode#IDLE}, how long a connection has to be idle to be validated
+   * @param muleContext the application's {@link MuleContext}
+   */
+  ConcurrentPoolingConnectionManagementStrategy(ConnectionProvider<C> connectionProvider, PoolingProfile poolingProfile,
+                                                PoolingListener<C> poolingListener, PoolValidationMode validationMode,
+                                                long validationIdleMillis, MuleContext muleContext) {
+    super(connectionProvider, muleContext);
+    this.poolingProfile = poolingProfile;
+    this.poolingListener = poolingListener;
+    this.validationMode = validationMode;
+    this.validationIdleNanos = MILLISECONDS.toNanos(validationIdleMillis);
+    this.statistics = new ConnectionPoolStatistics(activeConnections::get,
+                                                   () -> max(0, bag.size() - activeConnections.get()),
+                                                   bag::getWaitingThreadsCount);
+
+    long housekeepingInterval = poolingProfile.getEvictionCheckIntervalMillis();
+    if (housekeepingInterval <= 0 && validationMode == BACKGROUND) {
+      housekeepingInterval = DEFAULT_BACKGROUND_VALIDATION_INTERVAL_MILLIS;
+    }
+    if (housekeepingInterval > 0) {
+      housekeepingScheduler = muleContext.getSchedulerService()
+          .ioScheduler(muleContext.getSchedulerBaseConfig().withName("connection-pool-housekeeping")
+              .withShutdownTimeout(0, MILLISECONDS));
+      housekeepingScheduler.scheduleWithFixedDelay(this::housekeep, housekeepingInterval, housekeepingInterval, MILLISECONDS);
+    } else {
+      housekeepingScheduler = null;
+    }
+  }
+
+  /**
+   * Returns a {@link ConnectionHandler} which wraps a connection borrowed from the pool
+   *
+   * @return a {@link ConnectionHandler}
+   * @throws ConnectionException if the connection could not be obtained
+   */
+  @Override
+  public ConnectionHandler<C> getConnectionHandler() throws ConnectionException {
+    if (closed) {
+      throw new ConnectionException("Connection pool is closed");
+    }
+
+    final long start = nanoTime();
+    boolean waited = false;
+    try {
+      while (true) {
+        Entry<C> entry = bag.borrow(0, MILLISECONDS);
+        boolean created = false;
+        if (entry == null) {
+          entry = createIfBelowMaxActive();
+          created = entry != null;
+        }
+
+        if (entry == null) {
+          if (poolingProfile.getExhaustedAction() == WHEN_EXHAUSTED_FAIL) {
+            throw new ConnectionException("Connection pool is exhausted");
+          } else if (poolingProfile.getExhaustedAction() == WHEN_EXHAUSTED_GROW) {
+            totalConnections.incrementAndGet();
+            entry = create();
+            created = true;
+          } else {
+            waited = true;
+            long wait = WAIT_SLICE_NANOS;
+            if (poolingProfile.getMaxWait() >= 0) {
+              final long remaining = MILLISECONDS.toNanos(poolingProfile.getMaxWait()) - (nanoTime() - start);
+              if (remaining <= 0) {
+                throw new ConnectionException("Connection pool is exhausted");
+              }
+              wait = min(wait, remaining);
+            }
+
+            entry = bag.borrow(wait, NANOSECONDS);
+            if (entry == null) {
+              if (closed) {
+                throw new ConnectionException("Connection pool is closed");
+              }
+              // A connection may have been destroyed while this thread was not yet waiting, so the pool is checked again
+              continue;
+            }
+          }
+        }
+
+        if (!created && !isValidOnBorrow(entry)) {
+          destroy(entry);
+          continue;
+        }
+
+        activeConnections.incrementAndGet();
+        try {
+          poolingListener.onBorrow(entry.getItem());
+        } catch (Exception e) {
+          activeConnections.decrementAndGet();
+          destroy(entry);
+          throw e;
+        }
+
+        statistics.onBorrow(nanoTime() - start, waited);
+        return new ConcurrentPoolingConnectionHandler<>(entry, this);
+      }
+    } catch (ConnectionException e) {
+      throw e;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConnectionException("Interrupted while waiting for a connection", e);
+    } catch (Exception e) {
+      throw new ConnectionException("An exception was found trying to obtain a connection: " + e.getMessage(), e);
+    }
+  }
+
+  private Entry<C> createIfBelowMaxActive() throws ConnectionException {
+    return createIfBelowMaxActive(true);
+  }
+
+  private Entry<C> createIfBelowMaxActive(boolean inUse) throws ConnectionException {
+    final int maxActive = poolingProfile.getMaxActive();
+    int total;
+    do {
+      total = totalConnections.get();
+      if (maxActive >= 0 && total >= maxActive) {
+        return null;
+      }
+    } while (!totalConnections.compareAndSet(total, total + 1));
+
+    return create(inUse);
+  }
+
+  private Entry<C> create() throws ConnectionException {
+    return create(true);
+  }
+
+  /**
+   * Creates a connection which has already been accounted in {@link #totalConnections}.
+   *
+   * @param inUse whether the connection is borrowed by the current thread, or made available to the others
+   */
+  private Entry<C> create(boolean inUse) throws ConnectionException {
+    final long start = nanoTime();
+    try {
+      C connection = connectionProvider.connect();
+      statistics.onCreate(nanoTime() - start);
+      return bag.add(connection, inUse);
+    } catch (ConnectionException | RuntimeException e) {
+      totalConnections.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private boolean isValidOnBorrow(Entry<C> entry) {
+    if (validationMode == ON_BORROW
+        || (validationMode == IDLE && nanoTime() - entry.getLastAccessNanos() > validationIdleNanos)) {
+      return validate(entry);
+    }
+    return true;
+  }
+
+  private boolean validate(Entry<C> entry) {
+    try {
+      ConnectionValidationResult result = connectionProvider.validate(entry.getItem());
+      if (result != null && result.isValid()) {
+        return true;
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Exception found validating pooled connection", e);
+    }
+
+    LOGGER.debug("Connection is not valid, it is destroyed and not returned to the pool.");
+    statistics.onValidationFailure();
+    return false;
+  }
+
+  /**
+   * Returns a borrowed connection to the pool.
+   *
+   * @param entry the entry of the connection
+   */
+  void release(Entry<C> entry) {
+    activeConnections.decrementAndGet();
+    if (closed) {
+      destroy(entry);
+      return;
+    }
+
+    try {
+      poolingListener.onReturn(entry.getItem());
+    } catch (Exception e) {
+      LOGGER.warn("Could not return connection to the pool. Connection will be destroyed", e);
+      destroy(entry);
+      return;
+    }
+
+    final int maxIdle = poolingProfile.getMaxIdle();
+    if (maxIdle >= 0 && bag.size() - activeConnections.get() > maxIdle) {
+      destroy(entry);
+      return;
+    }
+
+    bag.requite(entry);
+  }
+
+  /**
+   * Destroys a borrowed connection instead of returning it to the pool.
+   *
+   * @param entry the entry of the connection
+   */
+  void invalidate(Entry<C> entry) {
+    activeConnections.decrementAndGet();
+    destroy(entry);
+  }
+
+  private void destroy(Entry<C> entry) {
+    if (!bag.remove(entry)) {
+      return;
+    }
+
+    totalConnections.decrementAndGet();
+    statistics.onDestroy();
+    try {
+      connectionProvider.disconnect(entry.getItem());
+    } catch (Exception e) {
+      LOGGER.warn("Exception was found trying to disconnect connection of type " + entry.getItem().getClass().getName(), e);
+    }
+
+    replaceForWaiters();
+  }
+
+  /**
+   * Creates a connection in place of a destroyed one when there are threads waiting for one, since those are only woken up when
+   * a connection is handed over to them.
+   */
+  private void replaceForWaiters() {
+    if (closed || bag.getWaitingThreadsCount() == 0) {
+      return;
+    }
+
+    try {
+      createIfBelowMaxActive(false);
+    } catch (ConnectionException | RuntimeException e) {
+      LOGGER.debug("Could not create a connection for the threads waiting for one", e);
+    }
+  }
+
+  /**
+   * Evicts the connections that have been idle for too long and, for {@link PoolValidationMode#BACKGROUND}, the invalid ones.
+   */
+  private void housekeep() {
+    final long minEvictionNanos = MILLISECONDS.toNanos(poolingProfile.getMinEvictionMillis());
+    for (Entry<C> entry : bag.values(NOT_IN_USE)) {
+      if (closed) {
+        return;
+      }
+      if (!bag.reserve(entry)) {
+        continue;
+      }
+
+      if ((minEvictionNanos > 0 && nanoTime() - entry.getLastAccessNanos() > minEvictionNanos)
+          || (validationMode == BACKGROUND && !validate(entry))) {
+        destroy(entry);
+      } else {
+        bag.unreserve(entry);
+      }
+    }
+  }
+
+  /**
+   * Closes the pool, causing the idle connections to be closed. The borrowed ones are closed when they are released.
+   *
+   * @throws MuleException
+   */
+  @Override
+  public void close() throws MuleException {
+    closed = true;
+    if (housekeepingScheduler != null) {
+      housekeepingScheduler.stop();
+    }
+    bag.close();
+
+    for (Entry<C> entry : bag.values(NOT_IN_USE)) {
+      if (bag.reserve(entry)) {
+        destroy(entry);
+      }
+    }
+  }
+
+  ConnectionProvider<C> getConnectionProvider() {
+    return connectionProvider;
+  }
+
+  public PoolingProfile getPoolingProfile() {
+    return poolingProfile;
+  }
+
+  /**
+   * @return the {@link ConnectionPoolStatistics} of this pool
+   */
+  public ConnectionPoolStatistics getStatistics() {
+    return statistics;
+  }
+}
@@ -6,9 +6,15 @@
  */
 package org.mule.runtime.core.internal.connection;
 
+import static java.lang.Boolean.getBoolean;
+import static java.lang.Long.getLong;
+import static java.lang.System.getProperty;
 import static org.mule.runtime.api.meta.model.connection.ConnectionManagementType.CACHED;
 import static org.mule.runtime.api.meta.model.connection.ConnectionManagementType.NONE;
 import static org.mule.runtime.api.meta.model.connection.ConnectionManagementType.POOLING;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_CONNECTION_POOL_CONCURRENT;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_CONNECTION_POOL_VALIDATION;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_CONNECTION_POOL_VALIDATION_IDLE_MILLIS;
 import static org.mule.runtime.core.api.connection.util.ConnectionProviderUtils.unwrapProviderWrapper;
 
 import org.mule.runtime.api.config.PoolingProfile;
@@ -26,6 +32,9 @@ import org.mule.runtime.api.meta.model.connection.ConnectionManagementType;
  */
 final class ConnectionManagementStrategyFactory {
 
+  private static final PoolValidationMode DEFAULT_POOL_VALIDATION = PoolValidationMode.IDLE;
+  private static final long DEFAULT_POOL_VALIDATION_IDLE_MILLIS = 500;
+
   private final PoolingProfile defaultPoolingProfile;
   private final MuleContext muleContext;
 
@@ -76,11 +85,22 @@ final class ConnectionManagementStrategyFactory {
           (PoolingProfile) ((ConnectionProviderWrapper) connectionProvider).getPoolingProfile().orElse(poolingProfile);
     }
 
-    return poolingProfile.isDisabled() ? withoutManagement(connectionProvider)
-        : new PoolingConnectionManagementStrategy<>(connectionProvider, poolingProfile,
-                                                    (PoolingListener<C>) unwrapProviderWrapper(connectionProvider,
-                                                                                               PoolingConnectionProvider.class),
-                                                    muleContext);
+    if (poolingProfile.isDisabled()) {
+      return withoutManagement(connectionProvider);
+    }
+
+    PoolingListener<C> poolingListener =
+        (PoolingListener<C>) unwrapProviderWrapper(connectionProvider, PoolingConnectionProvider.class);
+    if (getBoolean(MULE_CONNECTION_POOL_CONCURRENT)) {
+      return new ConcurrentPoolingConnectionManagementStrategy<>(connectionProvider, poolingProfile, poolingListener,
+                                                                 PoolValidationMode.parse(getProperty(MULE_CONNECTION_POOL_VALIDATION),
+                                                                                          DEFAULT_POOL_VALIDATION),
+                                                                 getLong(MULE_CONNECTION_POOL_VALIDATION_IDLE_MILLIS,
+                                                                         DEFAULT_POOL_VALIDATION_IDLE_MILLIS),
+                                                                 muleContext);
+    }
+
+    return new PoolingConnectionManagementStrategy<>(connectionProvider, poolingProfile, poolingListener, muleContext);
   }
 
   private <C> ConnectionManagementType getManagementType(ConnectionProvider<C> connectionProvider) {
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.connection;
+
+import org.mule.runtime.core.api.management.stats.ConnectionPoolStatisticsMXBean;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Metrics about the usage of a pool of connections, available through
+ * {@link org.mule.runtime.core.api.management.stats.AllStatistics#getConnectionPoolStatistics()} while the pool is bound to its
+ * owner.
+ * <p>
+ * Times are in nanoseconds.
+ *
+ * @since 4.2
+ */
+public final class ConnectionPoolStatistics implements ConnectionPoolStatisticsMXBean {
+
+  private final IntSupplier activeConnections;
+  private final IntSupplier idleConnections;
+  private final IntSupplier pendingBorrows;
+
+  private final LongAdder borrows = new LongAdder();
+  private final LongAdder waitedBorrows = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+  private final LongAdder created = new LongAdder();
+  private final LongAdder totalCreationNanos = new LongAdder();
+  private final AtomicLong maxCreationNanos = new AtomicLong();
+  private final LongAdder destroyed = new LongAdder();
+  private final LongAdder validationFailures = new LongAdder();
+
+  ConnectionPoolStatistics(IntSupplier activeConnections, IntSupplier idleConnections, IntSupplier pendingBorrows) {
+    this.activeConnections = activeConnections;
+    this.idleConnections = idleConnections;
+    this.pendingBorrows = pendingBorrows;
+  }
+
+  void onBorrow(long waitNanos, boolean waited) {
+    borrows.increment();
+    if (waited) {
+      waitedBorrows.increment();
+      totalWaitNanos.add(waitNanos);
+      maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+  }
+
+  void onCreate(long creationNanos) {
+    created.increment();
+    totalCreationNanos.add(creationNanos);
+    maxCreationNanos.accumulateAndGet(creationNanos, Math::max);
+  }
+
+  void onDestroy() {
+    destroyed.increment();
+  }
+
+  void onValidationFailure() {
+    validationFailures.increment();
+  }
+
+  @Override
+  public int getActiveConnections() {
+    return activeConnections.getAsInt();
+  }
+
+  @Override
+  public int getIdleConnections() {
+    return idleConnections.getAsInt();
+  }
+
+  @Override
+  public int getPendingBorrows() {
+    return pendingBorrows.getAsInt();
+  }
+
+  @Override
+  public long getBorrowCount() {
+    return borrows.sum();
+  }
+
+  @Override
+  public long getWaitedBorrowCount() {
+    return waitedBorrows.sum();
+  }
+
+  @Override
+  public long getTotalWaitNanos() {
+    return totalWaitNanos.sum();
+  }
+
+  @Override
+  public long getMaxWaitNanos() {
+    return maxWaitNanos.get();
+  }
+
+  @Override
+  public long getCreatedCount() {
+    return created.sum();
+  }
+
+  @Override
+  public long getTotalCreationNanos() {
+    return totalCreationNanos.sum();
+  }
+
+  @Override
+  public long getMaxCreationNanos() {
+    return maxCreationNanos.get();
+  }
+
+  @Override
+  public long getDestroyedCount() {
+    return destroyed.sum();
+  }
+
+  @Override
+  public long getValidationFailureCount() {
+    return validationFailures.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "ConnectionPoolStatistics{active=" + getActiveConnections() + ", idle=" + getIdleConnections() + ", pending="
+        + getPendingBorrows() + ", borrows=" + getBorrowCount() + ", waitedBorrows=" + getWaitedBorrowCount()
+        + ", totalWaitNanos=" + getTotalWaitNanos() + ", maxWaitNanos=" + getMaxWaitNanos() + ", created=" + getCreatedCount()
+        + ", totalCreationNanos=" + getTotalCreationNanos() + ", maxCreationNanos=" + getMaxCreationNanos() + ", destroyed="
+        + getDestroyedCount() + ", validationFailures=" + getValidationFailureCount() + "}";
+  }
+}
@@ -6,6 +6,8 @@
  */
 package org.mule.runtime.core.internal.connection;
 
+import static java.lang.Integer.toHexString;
+import static java.lang.System.identityHashCode;
 import static org.mule.runtime.api.connection.ConnectionValidationResult.failure;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.assertNotStopping;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.disposeIfNeeded;
@@ -22,6 +24,7 @@ import org.mule.runtime.api.lifecycle.InitialisationException;
 import org.mule.runtime.api.util.Reference;
 import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.connector.ConnectionManager;
+import org.mule.runtime.core.api.management.stats.AllStatistics;
 import org.mule.runtime.core.api.retry.policy.NoRetryPolicyTemplate;
 import org.mule.runtime.core.api.retry.policy.RetryPolicyTemplate;
 import org.mule.runtime.core.internal.retry.ReconnectionConfig;
@@ -93,7 +96,35 @@ public final class DefaultConnectionManager implements ConnectionManagerAdapter
 
     if (previous != null) {
       close(previous);
+      removeStatistics(owner, previous);
     }
+    if (managementStrategy instanceof ConcurrentPoolingConnectionManagementStrategy) {
+      AllStatistics statistics = muleContext.getStatistics();
+      if (statistics != null) {
+        statistics.addConnectionPoolStatistics(getPoolName(owner),
+                                               ((ConcurrentPoolingConnectionManagementStrategy<C>) managementStrategy)
+                                                   .getStatistics());
+      }
+    }
+  }
+
+  private void removeStatistics(Object owner, ConnectionManagementStrategy managementStrategy) {
+    if (managementStrategy instanceof ConcurrentPoolingConnectionManagementStrategy) {
+      AllStatistics statistics = muleContext.getStatistics();
+      if (statistics != null) {
+        statistics.removeConnectionPoolStatistics(getPoolName(owner));
+      }
+    }
+  }
+
+  /**
+   * @return the name under which the statistics of the pool of the given {@code owner} are exposed
+   */
+  private String getPoolName(Object owner) {
+    if (owner instanceof ConfigurationInstance) {
+      return ((ConfigurationInstance) owner).getName();
+    }
+    return owner.getClass().getName() + "@" + toHexString(identityHashCode(owner));
   }
 
   /**
@@ -218,6 +249,7 @@ public final class DefaultConnectionManager implements ConnectionManagerAdapter
 
     if (managementStrategy != null) {
       close(managementStrategy);
+      removeStatistics(config, managementStrategy);
     }
   }
 
@@ -250,7 +282,10 @@ public final class DefaultConnectionManager implements ConnectionManagerAdapter
   public void stop() throws MuleException {
     writeLock.lock();
     try {
-      connections.values().stream().forEach(this::close);
+      connections.forEach((owner, managementStrategy) -> {
+        close(managementStrategy);
+        removeStatistics(owner.get(), managementStrategy);
+      });
       connections.clear();
     } finally {
       writeLock.unlock();
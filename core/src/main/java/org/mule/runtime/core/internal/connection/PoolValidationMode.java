@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.connection;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.slf4j.Logger;
+
+/**
+ * When a {@link ConcurrentPoolingConnectionManagementStrategy} validates its pooled connections. Connections are never validated
+ * when they are returned to the pool, so that releasing one doesn't wait for the validation.
+ *
+ * @since 4.2
+ */
+enum PoolValidationMode {
+
+  /**
+   * Connections are not validated.
+   */
+  NONE,
+
+  /**
+   * Connections are validated each time they are borrowed.
+   */
+  ON_BORROW,
+
+  /**
+   * Connections are validated when they are borrowed after having been idle for longer than a configured time.
+   */
+  IDLE,
+
+  /**
+   * Idle connections are validated periodically in the background.
+   */
+  BACKGROUND;
+
+  private static final Logger LOGGER = getLogger(PoolValidationMode.class);
+
+  /**
+   * @param value the name of a mode, in any case
+   * @param defaultMode the mode to use if {@code value} is not set or not the name of a mode
+   * @return the mode with the given name
+   */
+  static PoolValidationMode parse(String value, PoolValidationMode defaultMode) {
+    if (value == null) {
+      return defaultMode;
+    }
+    for (PoolValidationMode mode : values()) {
+      if (mode.name().equalsIgnoreCase(value.trim())) {
+        return mode;
+      }
+    }
+    LOGGER.warn("Unknown connection pool validation mode '{}', using {} instead", value, defaultMode);
+    return defaultMode;
+  }
+}
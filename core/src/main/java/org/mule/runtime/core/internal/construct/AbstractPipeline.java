@@ -8,6 +8,7 @@ package org.mule.runtime.core.internal.construct;
 
 import static com.google.common.base.Functions.identity;
 import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
 import static java.util.Collections.unmodifiableList;
 import static org.mule.runtime.api.notification.EnrichedNotificationInfo.createInfo;
 import static org.mule.runtime.api.notification.PipelineMessageNotification.PROCESS_COMPLETE;
@@ -35,7 +36,10 @@ import org.mule.runtime.core.api.connector.ConnectException;
 import org.mule.runtime.core.api.construct.Pipeline;
 import org.mule.runtime.core.api.event.CoreEvent;
 import org.mule.runtime.core.api.exception.FlowExceptionHandler;
+import org.mule.runtime.core.api.management.stats.AllStatistics;
 import org.mule.runtime.core.api.management.stats.FlowConstructStatistics;
+import org.mule.runtime.core.api.management.stats.LatencyHistogram;
+import org.mule.runtime.core.api.management.stats.LatencyStatistics;
 import org.mule.runtime.core.api.processor.Processor;
 import org.mule.runtime.core.api.processor.ReactiveProcessor;
 import org.mule.runtime.core.api.processor.Sink;
@@ -259,6 +263,10 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
   }
 
   private Consumer<CoreEvent> beforeProcessors() {
+    final AllStatistics allStatistics = muleContext.getStatistics();
+    final LatencyStatistics latencyStatistics = allStatistics != null ? allStatistics.getLatencyStatistics() : null;
+    final LatencyHistogram latencyHistogram =
+        latencyStatistics != null && latencyStatistics.isAvailable() ? latencyStatistics.getFlowHistogram(getName()) : null;
     return event -> {
       if (getStatistics().isEnabled()) {
         getStatistics().incReceivedEvents();
@@ -267,6 +275,8 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
                                                                  AbstractPipeline.this.getName(), PROCESS_START));
 
       long startTime = currentTimeMillis();
+      boolean recordLatency = latencyHistogram != null && latencyStatistics.isEnabled();
+      long startNanos = recordLatency ? nanoTime() : 0;
 
       BaseEventContext baseEventContext = ((BaseEventContext) event.getContext());
       baseEventContext.onComplete((response, throwable) -> {
@@ -280,6 +290,9 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
         }
         fireCompleteNotification(response, messagingException);
         baseEventContext.getProcessingTime().ifPresent(time -> time.addFlowExecutionBranchTime(startTime));
+        if (recordLatency) {
+          latencyHistogram.record(nanoTime() - startNanos);
+        }
       });
     };
   }
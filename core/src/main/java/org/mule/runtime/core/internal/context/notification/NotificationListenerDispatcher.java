@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.context.notification;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.api.notification.AbstractServerNotification;
+import org.mule.runtime.api.notification.Notification;
+import org.mule.runtime.api.notification.NotificationListener;
+import org.mule.runtime.api.scheduler.Scheduler;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+
+/**
+ * Delivers asynchronous notifications to a single {@link NotificationListener}.
+ * <p>
+ * Notifications are queued and delivered in order by a single task at a time, which delivers up to {@link #MAX_BATCH_SIZE}
+ * notifications before giving the thread back to the {@link Scheduler}. This way, firing a notification only submits a task
+ * when there was none already pending for the listener.
+ * <p>
+ * Consecutive notifications of the types for which {@code coalesced} is {@code true} that have the same action and resource are
+ * coalesced, only the latest of them being delivered.
+ *
+ * @since 4.2
+ */
+public final class NotificationListenerDispatcher {
+
+  private static final Logger LOGGER = getLogger(NotificationListenerDispatcher.class);
+
+  static final int MAX_BATCH_SIZE = 256;
+  static final int MAX_QUEUED = 64 * 1024;
+
+  private final NotificationListener listener;
+  private final Scheduler scheduler;
+  private final Predicate<Notification> coalesced;
+
+  private final Queue<Notification> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  /**
+   * Creates a new instance
+   *
+   * @param listener the listener to deliver the notifications to
+   * @param scheduler the scheduler on which the notifications are delivered
+   * @param coalesced whether consecutive equivalent notifications of a given type may be coalesced
+   */
+  public NotificationListenerDispatcher(NotificationListener listener, Scheduler scheduler,
+                                        Predicate<Notification> coalesced) {
+    this.listener = listener;
+    this.scheduler = scheduler;
+    this.coalesced = coalesced;
+  }
+
+  /**
+   * Queues a notification to be delivered to the listener.
+   *
+   * @param notification the notification to deliver
+   */
+  public void dispatch(Notification notification) {
+    if (queued.incrementAndGet() > MAX_QUEUED) {
+      queued.decrementAndGet();
+      LOGGER.warn("Too many notifications pending for listener {}. Notification {} will be discarded.", listener, notification);
+      return;
+    }
+
+    queue.offer(notification);
+    scheduleDrain();
+  }
+
+  private void scheduleDrain() {
+    if (scheduled.compareAndSet(false, true)) {
+      try {
+        scheduler.submit(this::drain);
+      } catch (RuntimeException e) {
+        // The pending notifications are lost, as they would have been had each been submitted on its own
+        discardQueued();
+        scheduled.set(false);
+        throw e;
+      }
+    }
+  }
+
+  private void drain() {
+    try {
+      Notification notification;
+      for (int i = 0; i < MAX_BATCH_SIZE && (notification = poll()) != null; ++i) {
+        notification = coalesce(notification);
+        try {
+          listener.onNotification(notification);
+        } catch (Throwable e) {
+          LOGGER.info("NotificationListener {} was unable to fire notification {} due to an exception: {}.", listener,
+                      notification, e);
+        }
+      }
+    } finally {
+      scheduled.set(false);
+    }
+
+    if (!queue.isEmpty()) {
+      try {
+        scheduleDrain();
+      } catch (RuntimeException e) {
+        LOGGER.info("NotificationListener {} was unable to fire pending notifications due to an exception: {}.", listener, e);
+      }
+    }
+  }
+
+  private Notification coalesce(Notification notification) {
+    if (!coalesced.test(notification)) {
+      return notification;
+    }
+
+    Notification next;
+    while ((next = queue.peek()) != null && equivalent(notification, next)) {
+      notification = poll();
+    }
+    return notification;
+  }
+
+  private static boolean equivalent(Notification notification, Notification other) {
+    if (notification.getClass() != other.getClass() || !Objects.equals(notification.getAction(), other.getAction())) {
+      return false;
+    }
+    if (notification instanceof AbstractServerNotification) {
+      return Objects.equals(((AbstractServerNotification) notification).getResourceIdentifier(),
+                            ((AbstractServerNotification) other).getResourceIdentifier());
+    }
+    return true;
+  }
+
+  private Notification poll() {
+    Notification notification = queue.poll();
+    if (notification != null) {
+      queued.decrementAndGet();
+    }
+    return notification;
+  }
+
+  private void discardQueued() {
+    while (poll() != null) {
+      // discard
+    }
+  }
+
+  /**
+   * @return the number of notifications waiting to be delivered
+   */
+  int getQueuedCount() {
+    return queued.get();
+  }
+}
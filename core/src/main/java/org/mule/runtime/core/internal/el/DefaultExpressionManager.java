@@ -42,10 +42,13 @@ import org.mule.runtime.core.internal.el.mvel.MVELExpressionLanguage;
 import org.mule.runtime.core.internal.util.OneTimeWarning;
 import org.mule.runtime.core.privileged.el.GlobalBindingContextProvider;
 import org.mule.runtime.core.privileged.util.TemplateParser;
+import org.mule.runtime.core.privileged.util.TemplateParser.CompiledTemplate;
 
 import org.slf4j.Logger;
 
 import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Inject;
@@ -58,6 +61,9 @@ public class DefaultExpressionManager implements ExtendedExpressionManager, Init
   public static final int DW_PREFIX_LENGTH = (DW_PREFIX + PREFIX_EXPR_SEPARATOR).length();
   private static final Logger LOGGER = getLogger(DefaultExpressionManager.class);
 
+  // Log templates are usually part of the configuration, this just prevents the cache from growing unbounded otherwise
+  private static final int MAX_CACHED_LOG_TEMPLATES = 1024;
+
   private final OneTimeWarning parseWarning = new OneTimeWarning(LOGGER,
                                                                  "Expression parsing is deprecated, regular expressions should be used instead.");
 
@@ -70,6 +76,7 @@ public class DefaultExpressionManager implements ExtendedExpressionManager, Init
   private ExpressionLanguageAdaptorHandler expressionLanguage;
   // Default style parser
   private final TemplateParser parser = TemplateParser.createMuleStyleParser();
+  private final ConcurrentMap<String, LogTemplate> logTemplatesCache = new ConcurrentHashMap<>();
   private boolean melDefault;
 
   @Override
@@ -277,11 +284,16 @@ public class DefaultExpressionManager implements ExtendedExpressionManager, Init
                                  BindingContext bindingContext)
       throws ExpressionRuntimeException {
 
-    if ((!hasDwExpression(template) && !hasMelExpression(template) && melDefault) || hasMelExpression(template)) {
+    final LogTemplate logTemplate = getLogTemplate(template);
+    if (!logTemplate.compiled.hasExpressions()) {
+      return logTemplate.compiled.evaluate(null);
+    }
+
+    if ((!logTemplate.dw && !logTemplate.mel && melDefault) || logTemplate.mel) {
       Builder eventBuilder = CoreEvent.builder(event);
-      return parser.parse(token -> melParseEvaluation(event, componentLocation, eventBuilder, token), template);
+      return logTemplate.compiled.evaluate(token -> melParseEvaluation(event, componentLocation, eventBuilder, token));
     } else {
-      return parser.parse(token -> {
+      return logTemplate.compiled.evaluate(token -> {
         TypedValue<?> evaluation = expressionLanguage.evaluateLogExpression(token, event, componentLocation, bindingContext);
         if (evaluation.getValue() instanceof Message) {
           // Do not apply transformation to Message since payload will be considered then
@@ -296,8 +308,22 @@ public class DefaultExpressionManager implements ExtendedExpressionManager, Init
                                                                           STRING)),
                                                e);
         }
-      }, template);
+      });
+    }
+  }
+
+  private LogTemplate getLogTemplate(String template) {
+    // This pre-check is made in order to avoid the synchronized block in the implementation of ConcurrentHashMap
+    // (https://bugs.openjdk.java.net/browse/JDK-8161372)
+    final LogTemplate logTemplate = logTemplatesCache.get(template);
+    if (logTemplate != null) {
+      return logTemplate;
+    }
+
+    if (logTemplatesCache.size() >= MAX_CACHED_LOG_TEMPLATES) {
+      return new LogTemplate(template, parser.compile(template));
     }
+    return logTemplatesCache.computeIfAbsent(template, t -> new LogTemplate(t, parser.compile(t)));
   }
 
   private Object melParseEvaluation(CoreEvent event, ComponentLocation componentLocation, Builder eventBuilder, String token) {
@@ -400,4 +426,20 @@ public class DefaultExpressionManager implements ExtendedExpressionManager, Init
   public String toString() {
     return this.getClass().getName() + "[" + (expressionLanguage != null ? expressionLanguage.toString() : "null") + "]";
   }
+
+  /**
+   * A log template already split into its literal parts and expressions, along with the languages it references.
+   */
+  private static final class LogTemplate {
+
+    private final CompiledTemplate compiled;
+    private final boolean dw;
+    private final boolean mel;
+
+    private LogTemplate(String template, CompiledTemplate compiled) {
+      this.compiled = compiled;
+      this.dw = hasDwExpression(template);
+      this.mel = hasMelExpression(template);
+    }
+  }
 }
@@ -34,10 +34,12 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoSink;
@@ -59,6 +61,9 @@ abstract class AbstractEventContext implements BaseEventContext {
 
   private static final int MAX_DEPTH = getInteger(BaseEventContext.class.getName() + ".maxDepth", 25);
 
+  private static final AtomicReferenceFieldUpdater<AbstractEventContext, Object> STREAMING_STATE_UPDATER =
+      AtomicReferenceFieldUpdater.newUpdater(AbstractEventContext.class, Object.class, "streamingState");
+
   private transient final List<BaseEventContext> childContexts = new ArrayList<>();
   private transient final FlowExceptionHandler exceptionHandler;
   private transient final CompletableFuture<Void> externalCompletion;
@@ -72,6 +77,7 @@ abstract class AbstractEventContext implements BaseEventContext {
 
   private volatile byte state = STATE_READY;
   private volatile Either<Throwable, CoreEvent> result;
+  private transient volatile Object streamingState;
 
   private final Set<ResponsePublisher> responsePublishers = new HashSet<>();
 
@@ -393,4 +399,18 @@ abstract class AbstractEventContext implements BaseEventContext {
     return depthLevel;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <T> T getStreamingState(Supplier<T> factory) {
+    Object current = streamingState;
+    if (current == null) {
+      final T created = factory.get();
+      current = STREAMING_STATE_UPDATER.compareAndSet(this, null, created) ? created : streamingState;
+    }
+
+    return (T) current;
+  }
+
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.management.stats;
+
+import static java.lang.System.nanoTime;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.mule.runtime.api.component.TypedComponentIdentifier.ComponentType.OPERATION;
+import static org.mule.runtime.internal.dsl.DslConstants.CORE_PREFIX;
+
+import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.component.ComponentIdentifier;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.management.stats.AllStatistics;
+import org.mule.runtime.core.api.management.stats.LatencyHistogram;
+import org.mule.runtime.core.api.management.stats.LatencyStatistics;
+import org.mule.runtime.core.api.processor.Processor;
+import org.mule.runtime.core.internal.message.InternalEvent;
+
+import java.util.Optional;
+
+/**
+ * Records the latencies of a processor, from the moment an event gets to it until the processor emits the result or fails, in
+ * the {@link LatencyHistogram} of its location and, if the processor is a connector operation, in the one of the operation.
+ * <p>
+ * The time at which an event got to the processor is kept in the event itself, as an internal parameter specific to the location
+ * of the processor, so that nested processors don't overwrite it and nothing is left behind for events that never complete the
+ * processor (i.e.: because they were dropped).
+ *
+ * @since 4.2
+ */
+public final class ProcessorLatencyRecorder {
+
+  private static final String START_TIME_PARAMETER_PREFIX = "core:latencyStartTime:";
+
+  private final LatencyStatistics statistics;
+  private final LatencyHistogram processorHistogram;
+  private final LatencyHistogram operationHistogram;
+  private final String startTimeParameter;
+
+  /**
+   * Creates a recorder for the given processor, if latencies are to be recorded and the processor has a location.
+   *
+   * @param processor the processor whose latencies are to be recorded
+   * @param muleContext the context of the application of the processor
+   * @return a recorder, or {@link Optional#empty()} if the latencies of the processor are not to be recorded
+   */
+  public static Optional<ProcessorLatencyRecorder> forProcessor(Processor processor, MuleContext muleContext) {
+    if (!(processor instanceof Component) || muleContext == null) {
+      return empty();
+    }
+
+    final ComponentLocation location = ((Component) processor).getLocation();
+    final AllStatistics allStatistics = muleContext.getStatistics();
+    if (location == null || location.getLocation() == null || allStatistics == null
+        || !allStatistics.getLatencyStatistics().isAvailable()) {
+      return empty();
+    }
+
+    final LatencyStatistics statistics = allStatistics.getLatencyStatistics();
+    LatencyHistogram operationHistogram = null;
+    if (location.getComponentIdentifier() != null && location.getComponentIdentifier().getType() == OPERATION) {
+      ComponentIdentifier identifier = location.getComponentIdentifier().getIdentifier();
+      if (!CORE_PREFIX.equals(identifier.getNamespace())) {
+        operationHistogram = statistics.getOperationHistogram(identifier.getNamespace() + ":" + identifier.getName());
+      }
+    }
+
+    return of(new ProcessorLatencyRecorder(statistics, location.getLocation(),
+                                           statistics.getProcessorHistogram(location.getLocation()), operationHistogram));
+  }
+
+  private ProcessorLatencyRecorder(LatencyStatistics statistics, String location, LatencyHistogram processorHistogram,
+                                   LatencyHistogram operationHistogram) {
+    this.statistics = statistics;
+    this.startTimeParameter = START_TIME_PARAMETER_PREFIX + location;
+    this.processorHistogram = processorHistogram;
+    this.operationHistogram = operationHistogram;
+  }
+
+  /**
+   * Marks that the given event got to the processor.
+   *
+   * @param event the event to be processed
+   * @return the event to hand to the processor, carrying the time at which it got to it
+   */
+  public CoreEvent start(CoreEvent event) {
+    if (!statistics.isEnabled()) {
+      return event;
+    }
+    return InternalEvent.builder(event).addInternalParameter(startTimeParameter, nanoTime()).build();
+  }
+
+  /**
+   * Records the latency of the processor for the given result, if the event it comes from was {@link #start(CoreEvent)
+   * started}.
+   *
+   * @param result the event emitted by the processor
+   * @return the result without the time at which the event got to the processor
+   */
+  public CoreEvent stop(CoreEvent result) {
+    if (!record(result)) {
+      return result;
+    }
+    return InternalEvent.builder(result).removeInternalParameter(startTimeParameter).build();
+  }
+
+  /**
+   * Records the latency of the processor for an event that failed, if it was {@link #start(CoreEvent) started}.
+   *
+   * @param event the event that failed
+   */
+  public void failed(CoreEvent event) {
+    if (event != null) {
+      record(event);
+    }
+  }
+
+  private boolean record(CoreEvent event) {
+    final Object startTime = ((InternalEvent) event).getInternalParameters().get(startTimeParameter);
+    if (!(startTime instanceof Long)) {
+      return false;
+    }
+
+    final long latency = nanoTime() - (Long) startTime;
+    processorHistogram.record(latency);
+    if (operationHistogram != null) {
+      operationHistogram.record(latency);
+    }
+    return true;
+  }
+}
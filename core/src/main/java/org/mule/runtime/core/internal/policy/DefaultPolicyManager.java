@@ -37,10 +37,17 @@ import org.mule.runtime.policy.api.SourcePolicyPointcutParametersFactory;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * Default implementation of {@link PolicyManager}.
  *
@@ -48,6 +55,9 @@ import javax.inject.Inject;
  */
 public class DefaultPolicyManager implements PolicyManager, Initialisable {
 
+  // Pointcut parameters may have values from each event (i.e.: the path of an HTTP request), so not all of them are kept
+  private static final int MAX_CACHED_POLICIES = 1024;
+
   @Inject
   private MuleContext muleContext;
 
@@ -65,15 +75,31 @@ public class DefaultPolicyManager implements PolicyManager, Initialisable {
 
   private PolicyPointcutParametersManager policyPointcutParametersManager;
 
+  private final ConcurrentMap<ComponentIdentifier, Optional<OperationPolicyParametersTransformer>> operationTransformersCache =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<ComponentIdentifier, Optional<SourcePolicyParametersTransformer>> sourceTransformersCache =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<Class<?>, Boolean> cacheablePointcutParametersTypes = new ConcurrentHashMap<>();
+
+  private boolean policiesCacheEnabled;
+  // Replaced when the policies change, so that policies found before the change are not kept in the new one
+  private volatile Cache<PolicyKey, List<Policy>> sourcePoliciesCache = createPoliciesCache();
+  private volatile Cache<PolicyKey, List<Policy>> operationPoliciesCache = createPoliciesCache();
+
   @Override
   public SourcePolicy createSourcePolicyInstance(Component source, CoreEvent sourceEvent,
                                                  Processor flowExecutionProcessor,
                                                  MessageSourceResponseParametersProcessor messageSourceResponseParametersProcessor) {
 
-    PolicyPointcutParameters sourcePointcutParameters =
-        policyPointcutParametersManager.createSourcePointcutParameters(source, sourceEvent);
+    List<Policy> parameterizedPolicies = emptyList();
+    if (policyProvider.isPoliciesAvailable()) {
+      PolicyPointcutParameters sourcePointcutParameters =
+          policyPointcutParametersManager.createSourcePointcutParameters(source, sourceEvent);
+
+      parameterizedPolicies = findPolicies(sourcePoliciesCache, source, sourcePointcutParameters,
+                                           policyProvider::findSourceParameterizedPolicies);
+    }
 
-    List<Policy> parameterizedPolicies = policyProvider.findSourceParameterizedPolicies(sourcePointcutParameters);
     if (parameterizedPolicies.isEmpty()) {
       return event -> from(process(event, flowExecutionProcessor))
           .defaultIfEmpty(CoreEvent.builder(sourceEvent).message(of(null)).build())
@@ -103,10 +129,15 @@ public class DefaultPolicyManager implements PolicyManager, Initialisable {
                                                Map<String, Object> operationParameters,
                                                OperationExecutionFunction operationExecutionFunction) {
 
+    if (!policyProvider.isPoliciesAvailable()) {
+      return (operationEvent) -> operationExecutionFunction.execute(operationParameters, operationEvent);
+    }
+
     PolicyPointcutParameters operationPointcutParameters =
         policyPointcutParametersManager.createOperationPointcutParameters(operation, event, operationParameters);
 
-    List<Policy> parameterizedPolicies = policyProvider.findOperationParameterizedPolicies(operationPointcutParameters);
+    List<Policy> parameterizedPolicies = findPolicies(operationPoliciesCache, operation, operationPointcutParameters,
+                                                      policyProvider::findOperationParameterizedPolicies);
     if (parameterizedPolicies.isEmpty()) {
       return (operationEvent) -> operationExecutionFunction.execute(operationParameters, operationEvent);
     }
@@ -117,16 +148,61 @@ public class DefaultPolicyManager implements PolicyManager, Initialisable {
                                         streamingManager);
   }
 
+  /**
+   * Finds the policies for the given pointcut parameters, reusing the ones found before for equal parameters of the same
+   * component while the policies provided don't change.
+   */
+  private List<Policy> findPolicies(Cache<PolicyKey, List<Policy>> policiesCache, Component component,
+                                    PolicyPointcutParameters pointcutParameters,
+                                    Function<PolicyPointcutParameters, List<Policy>> policiesFinder) {
+    if (!policiesCacheEnabled || !isCacheable(pointcutParameters)) {
+      return policiesFinder.apply(pointcutParameters);
+    }
+
+    final PolicyKey key = new PolicyKey(component.getLocation().getLocation(), pointcutParameters);
+    List<Policy> policies = policiesCache.getIfPresent(key);
+    if (policies == null) {
+      policies = policiesFinder.apply(pointcutParameters);
+      policiesCache.put(key, policies);
+    }
+    return policies;
+  }
+
+  /**
+   * Pointcut parameters can only be used as part of a key if they are compared by their values.
+   */
+  private boolean isCacheable(PolicyPointcutParameters pointcutParameters) {
+    return cacheablePointcutParametersTypes.computeIfAbsent(pointcutParameters.getClass(), type -> {
+      try {
+        return type.getMethod("equals", Object.class).getDeclaringClass() != Object.class
+            && type.getMethod("hashCode").getDeclaringClass() != Object.class;
+      } catch (NoSuchMethodException e) {
+        return false;
+      }
+    });
+  }
+
+  private static Cache<PolicyKey, List<Policy>> createPoliciesCache() {
+    return CacheBuilder.newBuilder().maximumSize(MAX_CACHED_POLICIES).build();
+  }
+
+  private void evictPoliciesCache() {
+    sourcePoliciesCache = createPoliciesCache();
+    operationPoliciesCache = createPoliciesCache();
+  }
+
   private Optional<OperationPolicyParametersTransformer> lookupOperationParametersTransformer(ComponentIdentifier componentIdentifier) {
-    return operationPolicyParametersTransformerCollection.stream()
-        .filter(policyOperationParametersTransformer -> policyOperationParametersTransformer.supports(componentIdentifier))
-        .findAny();
+    return operationTransformersCache
+        .computeIfAbsent(componentIdentifier, identifier -> operationPolicyParametersTransformerCollection.stream()
+            .filter(policyOperationParametersTransformer -> policyOperationParametersTransformer.supports(identifier))
+            .findAny());
   }
 
   private Optional<SourcePolicyParametersTransformer> lookupSourceParametersTransformer(ComponentIdentifier componentIdentifier) {
-    return sourcePolicyParametersTransformerCollection.stream()
-        .filter(policyOperationParametersTransformer -> policyOperationParametersTransformer.supports(componentIdentifier))
-        .findAny();
+    return sourceTransformersCache
+        .computeIfAbsent(componentIdentifier, identifier -> sourcePolicyParametersTransformerCollection.stream()
+            .filter(policyOperationParametersTransformer -> policyOperationParametersTransformer.supports(identifier))
+            .findAny());
   }
 
   @Override
@@ -135,6 +211,7 @@ public class DefaultPolicyManager implements PolicyManager, Initialisable {
     sourcePolicyProcessorFactory = new DefaultSourcePolicyProcessorFactory(policyStateHandler);
     MuleRegistry registry = ((MuleContextWithRegistry) muleContext).getRegistry();
     policyProvider = registry.lookupLocalObjects(PolicyProvider.class).stream().findFirst().orElse(new NullPolicyProvider());
+    policiesCacheEnabled = policyProvider.onPoliciesChanged(this::evictPoliciesCache);
     sourcePolicyParametersTransformerCollection = registry.lookupObjects(SourcePolicyParametersTransformer.class);
     operationPolicyParametersTransformerCollection = registry.lookupObjects(OperationPolicyParametersTransformer.class);
     policyPointcutParametersManager =
@@ -151,4 +228,38 @@ public class DefaultPolicyManager implements PolicyManager, Initialisable {
   public void setMuleContext(MuleContext muleContext) {
     this.muleContext = muleContext;
   }
+
+  /**
+   * Identifies the policies found for a component with some pointcut parameters.
+   */
+  private static final class PolicyKey {
+
+    private final String componentLocation;
+    private final PolicyPointcutParameters pointcutParameters;
+    private final int hashCode;
+
+    private PolicyKey(String componentLocation, PolicyPointcutParameters pointcutParameters) {
+      this.componentLocation = componentLocation;
+      this.pointcutParameters = pointcutParameters;
+      this.hashCode = 31 * componentLocation.hashCode() + pointcutParameters.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof PolicyKey)) {
+        return false;
+      }
+      PolicyKey other = (PolicyKey) obj;
+      return hashCode == other.hashCode && componentLocation.equals(other.componentLocation)
+          && Objects.equals(pointcutParameters, other.pointcutParameters);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
 }
@@ -233,14 +233,21 @@ public class AsyncDelegateMessageProcessor extends AbstractMessageProcessorOwner
   }
 
   private Consumer<CoreEvent> fireAsyncScheduledNotification() {
-    return event -> muleContext.getNotificationManager()
-        .fireNotification(new AsyncMessageNotification(createInfo(event, null, this), getLocation(), PROCESS_ASYNC_SCHEDULED));
+    return event -> {
+      if (muleContext.getNotificationManager().isNotificationEnabled(AsyncMessageNotification.class)) {
+        muleContext.getNotificationManager()
+            .fireNotification(new AsyncMessageNotification(createInfo(event, null, this), getLocation(),
+                                                           PROCESS_ASYNC_SCHEDULED));
+      }
+    };
   }
 
   private void fireAsyncCompleteNotification(CoreEvent event, MessagingException exception) {
-    muleContext.getNotificationManager()
-        .fireNotification(new AsyncMessageNotification(createInfo(event, exception, this), getLocation(),
-                                                       PROCESS_ASYNC_COMPLETE));
+    if (muleContext.getNotificationManager().isNotificationEnabled(AsyncMessageNotification.class)) {
+      muleContext.getNotificationManager()
+          .fireNotification(new AsyncMessageNotification(createInfo(event, exception, this), getLocation(),
+                                                         PROCESS_ASYNC_COMPLETE));
+    }
   }
 
   @Override
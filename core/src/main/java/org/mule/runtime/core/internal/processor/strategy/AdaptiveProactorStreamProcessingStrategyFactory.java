@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static java.lang.Integer.getInteger;
+import static java.lang.Long.getLong;
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.lang.management.ManagementFactory.getThreadMXBean;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.BLOCKING;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_INTENSIVE;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_LITE;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_LITE_ASYNC;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.IO_RW;
+import static org.slf4j.LoggerFactory.getLogger;
+import static reactor.core.publisher.Flux.from;
+import static reactor.core.publisher.Flux.just;
+import static reactor.core.scheduler.Schedulers.fromExecutorService;
+
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.processor.ReactiveProcessor;
+import org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType;
+import org.mule.runtime.core.api.processor.strategy.ProcessingStrategy;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Creates {@link AdaptiveProactorStreamProcessingStrategy} instances. Like the {@link ProactorStreamProcessingStrategyFactory},
+ * this strategy de-multiplexes events onto an event-loop and offloads {@link ProcessingType#BLOCKING} and
+ * {@link ProcessingType#CPU_INTENSIVE} processors onto dedicated schedulers. The difference is that the declared
+ * {@link ProcessingType} of each processor is only taken as the initial guess: the actual execution time and blocking
+ * behavior of each processor are sampled at runtime, and processors are moved between the cpu-light, io and
+ * cpu-intensive schedulers accordingly.
+ * <p/>
+ * Processors declared as {@link ProcessingType#BLOCKING} or {@link ProcessingType#IO_RW} are never adapted: they may block at
+ * any time regardless of how they behaved so far, so they are always handled as the
+ * {@link ProactorStreamProcessingStrategyFactory} does, and never moved onto the cpu-light event-loop.
+ * <p/>
+ * This strategy is not the default one. It is enabled for all the flows that don't configure a processing strategy by setting the
+ * {@code org.mule.runtime.core.api.processor.strategy.ProcessingStrategyFactory} system property to the name of this class, as
+ * read by {@link org.mule.runtime.core.api.config.DefaultMuleConfiguration}.
+ * <p/>
+ * This processing strategy is not suitable for transactional flows and will fail if used with an active transaction.
+ *
+ * @since 4.2
+ */
+public class AdaptiveProactorStreamProcessingStrategyFactory extends ProactorStreamProcessingStrategyFactory {
+
+  /**
+   * Processors which hold the thread for less than this amount of microseconds are considered cpu-light.
+   */
+  protected static final long ADAPTIVE_CPU_LITE_MAX_MICROS =
+      getLong(SYSTEM_PROPERTY_PREFIX + "ADAPTIVE_CPU_LITE_MAX_MICROS", 500);
+
+  /**
+   * Only one out of this amount of events is sampled for each processor.
+   */
+  protected static final int ADAPTIVE_SAMPLING_RATE = getInteger(SYSTEM_PROPERTY_PREFIX + "ADAPTIVE_SAMPLING_RATE", 8);
+
+  /**
+   * The amount of consecutive samples which need to agree on a new {@link ProcessingType} before a processor is moved.
+   */
+  protected static final int ADAPTIVE_SWITCH_SAMPLES = getInteger(SYSTEM_PROPERTY_PREFIX + "ADAPTIVE_SWITCH_SAMPLES", 16);
+
+  @Override
+  public ProcessingStrategy create(MuleContext muleContext, String schedulersNamePrefix) {
+    return new AdaptiveProactorStreamProcessingStrategy(getRingBufferSchedulerSupplier(muleContext, schedulersNamePrefix),
+                                                        getBufferSize(),
+                                                        getSubscriberCount(),
+                                                        getWaitStrategy(),
+                                                        getCpuLightSchedulerSupplier(muleContext, schedulersNamePrefix),
+                                                        () -> muleContext.getSchedulerService()
+                                                            .ioScheduler(muleContext.getSchedulerBaseConfig()
+                                                                .withName(schedulersNamePrefix + "." + BLOCKING.name())),
+                                                        () -> muleContext.getSchedulerService()
+                                                            .cpuIntensiveScheduler(muleContext.getSchedulerBaseConfig()
+                                                                .withName(schedulersNamePrefix + "." + CPU_INTENSIVE.name())),
+                                                        resolveParallelism(),
+                                                        getMaxConcurrency());
+  }
+
+  @Override
+  public Class<? extends ProcessingStrategy> getProcessingStrategyType() {
+    return AdaptiveProactorStreamProcessingStrategy.class;
+  }
+
+  static class AdaptiveProactorStreamProcessingStrategy extends ProactorStreamProcessingStrategy {
+
+    public AdaptiveProactorStreamProcessingStrategy(Supplier<Scheduler> ringBufferSchedulerSupplier,
+                                                    int bufferSize,
+                                                    int subscriberCount,
+                                                    String waitStrategy,
+                                                    Supplier<Scheduler> cpuLightSchedulerSupplier,
+                                                    Supplier<Scheduler> blockingSchedulerSupplier,
+                                                    Supplier<Scheduler> cpuIntensiveSchedulerSupplier,
+                                                    int parallelism,
+                                                    int maxConcurrency) {
+      super(ringBufferSchedulerSupplier, bufferSize, subscriberCount, waitStrategy, cpuLightSchedulerSupplier,
+            blockingSchedulerSupplier, cpuIntensiveSchedulerSupplier, parallelism, maxConcurrency);
+    }
+
+    @Override
+    public ReactiveProcessor onProcessor(ReactiveProcessor processor) {
+      final ProcessingType declaredType = processor.getProcessingType();
+      if (declaredType == CPU_LITE_ASYNC || declaredType == BLOCKING || declaredType == IO_RW) {
+        return super.onProcessor(processor);
+      }
+
+      final ProcessorProfile profile = new ProcessorProfile(processor.toString(), declaredType,
+                                                            MICROSECONDS.toNanos(ADAPTIVE_CPU_LITE_MAX_MICROS),
+                                                            ADAPTIVE_SAMPLING_RATE, ADAPTIVE_SWITCH_SAMPLES);
+      final reactor.core.scheduler.Scheduler publishOnScheduler =
+          fromExecutorService(decorateScheduler(getCpuLightScheduler()));
+      final ReactiveProcessor sampled = sampled(processor, profile);
+      final int concurrency = max(maxConcurrency / (getParallelism() * subscribers), 1);
+
+      // The route of each event is decided once, and each route is assembled only once per subscription, so events processed
+      // in the cpu-light event-loop go through the processor like with any other strategy.
+      return publisher -> from(publisher)
+          .groupBy(event -> route(profile))
+          .flatMap(route -> {
+            switch (route.key()) {
+              case INLINE:
+                return route.transform(processor)
+                    .subscriberContext(ctx -> ctx.put(PROCESSOR_SCHEDULER_CONTEXT_KEY, getCpuLightScheduler()));
+              case OFFLOADED:
+                return route.flatMap(event -> offload(processor, publishOnScheduler, profile, event), concurrency);
+              default:
+                // Sampled events are measured on their own, so they may be routed according to the current type
+                return route.flatMap(event -> profile.getCurrentType() == CPU_LITE
+                    ? just(event).transform(sampled)
+                        .subscriberContext(ctx -> ctx.put(PROCESSOR_SCHEDULER_CONTEXT_KEY, getCpuLightScheduler()))
+                    : offload(sampled, publishOnScheduler, profile, event), concurrency);
+            }
+          }, Route.values().length);
+    }
+
+    private Route route(ProcessorProfile profile) {
+      if (profile.shouldSample()) {
+        return Route.SAMPLED;
+      }
+      return profile.getCurrentType() == CPU_LITE ? Route.INLINE : Route.OFFLOADED;
+    }
+
+    private Publisher<CoreEvent> offload(ReactiveProcessor processor, reactor.core.scheduler.Scheduler publishOnScheduler,
+                                         ProcessorProfile profile, CoreEvent event) {
+      return scheduleProcessor(processor, publishOnScheduler,
+                               profile.getCurrentType() == CPU_INTENSIVE ? getCpuIntensiveScheduler() : getBlockingScheduler(),
+                               event);
+    }
+
+    private ReactiveProcessor sampled(ReactiveProcessor processor, ProcessorProfile profile) {
+      return publisher -> {
+        final Sample sample = new Sample();
+        return from(publisher)
+            .doOnNext(event -> sample.start())
+            .transform(processor)
+            .doOnNext(event -> profile.record(sample));
+      };
+    }
+  }
+
+  /**
+   * How an event gets to an adapted processor.
+   */
+  private enum Route {
+    /**
+     * Processed in the cpu-light event-loop, the processor being currently considered cpu-light.
+     */
+    INLINE,
+    /**
+     * Processed in the scheduler for the type the processor is currently considered.
+     */
+    OFFLOADED,
+    /**
+     * Processed as either of the above while measuring the processor's behavior.
+     */
+    SAMPLED
+  }
+
+  /**
+   * A single measurement of a processor's execution. Since it is only taken for sampled events, the cost of reading the
+   * thread's cpu time is not paid on every invocation.
+   */
+  static final class Sample {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED =
+        THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+
+    private Thread thread;
+    private long startNanos;
+    private long startCpuNanos;
+
+    void start() {
+      thread = Thread.currentThread();
+      startNanos = nanoTime();
+      startCpuNanos = CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * @return whether the processor completed on the same thread that started it, meaning that the thread was held for
+     *         the whole execution
+     */
+    boolean isSynchronous() {
+      return thread == Thread.currentThread();
+    }
+
+    long elapsedNanos() {
+      return nanoTime() - startNanos;
+    }
+
+    /**
+     * @return the cpu time consumed by the current thread since {@link #start()}, or {@code -1} if the JVM does not
+     *         support measuring it
+     */
+    long elapsedCpuNanos() {
+      return startCpuNanos < 0 ? -1 : THREAD_MX_BEAN.getCurrentThreadCpuTime() - startCpuNanos;
+    }
+  }
+
+  /**
+   * Keeps track of the observed behavior of a processor and decides which {@link ProcessingType} it should be treated as.
+   * <p>
+   * Execution times and the ratio of cpu time to wall time are averaged using an exponential moving average. In order to
+   * avoid processors bouncing between schedulers, a processor is only moved once {@code switchSamples} consecutive samples
+   * agree on the new type, and the thresholds to leave a type are wider than the ones to enter it:
+   * <ul>
+   * <li>a cpu-light processor is offloaded once it holds the thread for more than twice {@code liteMaxNanos}</li>
+   * <li>an offloaded processor goes back to cpu-light once it holds the thread for less than half {@code liteMaxNanos}, or
+   * once it's seen to complete asynchronously</li>
+   * <li>offloaded processors which spend most of the time waiting rather than computing are considered blocking, the rest
+   * are considered cpu-intensive</li>
+   * </ul>
+   */
+  static final class ProcessorProfile {
+
+    private static final Logger LOGGER = getLogger(ProcessorProfile.class);
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BLOCKING_CPU_RATIO = 0.4;
+    private static final double CPU_INTENSIVE_CPU_RATIO = 0.6;
+
+    private final String processorName;
+    private final long liteMaxNanos;
+    private final int samplingRate;
+    private final int switchSamples;
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    private final boolean pinned;
+    private volatile ProcessingType currentType;
+
+    private double averageNanos = -1;
+    private double averageCpuRatio = -1;
+    private ProcessingType candidateType;
+    private int candidateStreak;
+
+    ProcessorProfile(String processorName, ProcessingType declaredType, long liteMaxNanos, int samplingRate,
+                     int switchSamples) {
+      this.processorName = processorName;
+      this.liteMaxNanos = liteMaxNanos;
+      this.samplingRate = max(samplingRate, 1);
+      this.switchSamples = max(switchSamples, 1);
+      currentType = toInitialType(declaredType);
+      // A processor that declares it may block could do so at any time, so it's never moved to the cpu-light event-loop
+      pinned = declaredType == BLOCKING || declaredType == IO_RW;
+    }
+
+    private static ProcessingType toInitialType(ProcessingType declaredType) {
+      if (declaredType == BLOCKING || declaredType == IO_RW) {
+        return BLOCKING;
+      } else if (declaredType == CPU_INTENSIVE) {
+        return CPU_INTENSIVE;
+      } else {
+        return CPU_LITE;
+      }
+    }
+
+    boolean shouldSample() {
+      return invocations.incrementAndGet() % samplingRate == 0;
+    }
+
+    ProcessingType getCurrentType() {
+      return currentType;
+    }
+
+    /**
+     * @return whether the declared type of the processor is one that must never be changed
+     */
+    boolean isPinned() {
+      return pinned;
+    }
+
+    void record(Sample sample) {
+      record(sample.isSynchronous(), sample.elapsedNanos(), sample.elapsedCpuNanos());
+    }
+
+    synchronized void record(boolean synchronous, long elapsedNanos, long elapsedCpuNanos) {
+      if (pinned) {
+        return;
+      }
+
+      final ProcessingType observed;
+      if (!synchronous) {
+        observed = CPU_LITE;
+      } else {
+        averageNanos = average(averageNanos, elapsedNanos);
+        if (elapsedCpuNanos >= 0 && elapsedNanos > 0) {
+          averageCpuRatio = average(averageCpuRatio, (double) elapsedCpuNanos / elapsedNanos);
+        }
+        observed = classify();
+      }
+
+      if (observed == currentType) {
+        candidateType = null;
+        candidateStreak = 0;
+        return;
+      }
+
+      if (observed == candidateType) {
+        candidateStreak++;
+      } else {
+        candidateType = observed;
+        candidateStreak = 1;
+      }
+
+      if (candidateStreak >= switchSamples) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("Processor '{}' will now be treated as {} (was {})", processorName, observed, currentType);
+        }
+        currentType = observed;
+        candidateType = null;
+        candidateStreak = 0;
+      }
+    }
+
+    private ProcessingType classify() {
+      if (currentType == CPU_LITE) {
+        return averageNanos > liteMaxNanos * 2 ? offloadedType() : CPU_LITE;
+      }
+
+      return averageNanos < liteMaxNanos / 2 ? CPU_LITE : offloadedType();
+    }
+
+    private ProcessingType offloadedType() {
+      if (averageCpuRatio < 0) {
+        // cpu time can't be measured, so assume the most common case of a processor doing blocking IO
+        return BLOCKING;
+      }
+
+      if (currentType == CPU_INTENSIVE) {
+        return averageCpuRatio < BLOCKING_CPU_RATIO ? BLOCKING : CPU_INTENSIVE;
+      } else if (currentType == BLOCKING) {
+        return averageCpuRatio > CPU_INTENSIVE_CPU_RATIO ? CPU_INTENSIVE : BLOCKING;
+      } else {
+        return averageCpuRatio > CPU_INTENSIVE_CPU_RATIO ? CPU_INTENSIVE : BLOCKING;
+      }
+    }
+
+    private double average(double current, double value) {
+      return current < 0 ? value : current + SMOOTHING * (value - current);
+    }
+  }
+}
@@ -172,12 +172,12 @@ public class ProactorStreamProcessingStrategyFactory extends ReactorStreamProces
       }, max(maxConcurrency / (getParallelism() * subscribers), 1));
     }
 
-    private boolean scheduleIoRwEvent(CoreEvent event) {
+    protected boolean scheduleIoRwEvent(CoreEvent event) {
       return event.getMessage().getPayload().getDataType().isStreamType()
           && event.getMessage().getPayload().getLength().orElse(MAX_VALUE) > STREAM_PAYLOAD_BLOCKING_IO_THRESHOLD;
     }
 
-    private Publisher<CoreEvent> scheduleProcessor(ReactiveProcessor processor,
+    protected Publisher<CoreEvent> scheduleProcessor(ReactiveProcessor processor,
                                                    reactor.core.scheduler.Scheduler eventLoopScheduler,
                                                    Scheduler processorScheduler, CoreEvent event) {
       return just(event)
@@ -194,6 +194,13 @@ public class ProactorStreamProcessingStrategyFactory extends ReactorStreamProces
               .withBackoffScheduler(fromExecutorService(getCpuLightScheduler())));
     }
 
+    protected Scheduler getBlockingScheduler() {
+      return blockingScheduler;
+    }
+
+    protected Scheduler getCpuIntensiveScheduler() {
+      return cpuIntensiveScheduler;
+    }
   }
 
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static java.util.Objects.requireNonNull;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.BLOCKING;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_LITE_ASYNC;
+import static org.slf4j.LoggerFactory.getLogger;
+import static reactor.core.publisher.Flux.from;
+import static reactor.core.publisher.Mono.just;
+import static reactor.core.scheduler.Schedulers.fromExecutorService;
+
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.lifecycle.Startable;
+import org.mule.runtime.api.lifecycle.Stoppable;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.construct.FlowConstruct;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.processor.ReactiveProcessor;
+import org.mule.runtime.core.api.processor.Sink;
+import org.mule.runtime.core.api.processor.strategy.ProcessingStrategy;
+import org.mule.runtime.core.internal.processor.strategy.WorkQueueProcessingStrategyFactory.WorkQueueProcessingStrategy;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Creates {@link VirtualThreadProcessingStrategy} instances. This processing strategy runs the whole pipeline for each event
+ * on its own virtual thread, so that {@link ReactiveProcessor.ProcessingType#BLOCKING} processors don't need to hop into
+ * the IO pool and the amount of events being processed concurrently is not capped by the size of a thread pool.
+ * <p/>
+ * Virtual threads are only available on JVMs which support them. This is detected at runtime through reflection, and on
+ * JVMs that don't support them this factory falls back to a {@link WorkQueueProcessingStrategy}.
+ * <p/>
+ * This processing strategy is not suitable for transactional flows and will fail if used with an active transaction.
+ *
+ * @since 4.2
+ */
+public class VirtualThreadProcessingStrategyFactory extends AbstractProcessingStrategyFactory {
+
+  private static final Logger LOGGER = getLogger(VirtualThreadProcessingStrategyFactory.class);
+
+  private static final boolean VIRTUAL_THREADS_SUPPORTED = probeVirtualThreads();
+
+  /**
+   * @return whether the current JVM is able to create virtual threads
+   */
+  public static boolean isVirtualThreadsSupported() {
+    return VIRTUAL_THREADS_SUPPORTED;
+  }
+
+  @Override
+  public ProcessingStrategy create(MuleContext muleContext, String schedulersNamePrefix) {
+    if (!VIRTUAL_THREADS_SUPPORTED) {
+      LOGGER.warn("Virtual threads are not supported by the current JVM. Flows using '{}' will fall back to '{}'",
+                  VirtualThreadProcessingStrategyFactory.class.getSimpleName(),
+                  WorkQueueProcessingStrategyFactory.class.getSimpleName());
+      return new WorkQueueProcessingStrategy(() -> muleContext.getSchedulerService()
+          .ioScheduler(createSchedulerConfig(muleContext, schedulersNamePrefix, BLOCKING)));
+    }
+
+    return new VirtualThreadProcessingStrategy(() -> newVirtualThreadPerTaskExecutor(schedulersNamePrefix + ".virtual-"),
+                                               getMaxConcurrency());
+  }
+
+  @Override
+  public Class<? extends ProcessingStrategy> getProcessingStrategyType() {
+    return VIRTUAL_THREADS_SUPPORTED ? VirtualThreadProcessingStrategy.class : WorkQueueProcessingStrategy.class;
+  }
+
+  private static boolean probeVirtualThreads() {
+    try {
+      createVirtualThreadFactory("probe-");
+      return true;
+    } catch (Throwable t) {
+      // Either the JVM predates virtual threads or they are a preview feature which is not enabled
+      return false;
+    }
+  }
+
+  private static ThreadFactory createVirtualThreadFactory(String namePrefix) throws ReflectiveOperationException {
+    final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+    Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+    builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+    return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+          .invoke(null, createVirtualThreadFactory(namePrefix));
+    } catch (ReflectiveOperationException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not create virtual thread executor"), e);
+    }
+  }
+
+  static class VirtualThreadProcessingStrategy extends AbstractProcessingStrategy implements Startable, Stoppable {
+
+    private final Supplier<ExecutorService> executorSupplier;
+    private final int maxConcurrency;
+    private ExecutorService executor;
+    private Semaphore permits;
+
+    /**
+     * Creates a new instance
+     *
+     * @param executorSupplier supplies the executor in which each event's pipeline will run
+     * @param maxConcurrency   the max amount of events which can be processed concurrently
+     */
+    public VirtualThreadProcessingStrategy(Supplier<ExecutorService> executorSupplier, int maxConcurrency) {
+      this.executorSupplier = requireNonNull(executorSupplier);
+      this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public Sink createSink(FlowConstruct flowConstruct, ReactiveProcessor pipeline) {
+      return new VirtualThreadSink(pipeline, createOnEventConsumer());
+    }
+
+    @Override
+    public ReactiveProcessor onProcessor(ReactiveProcessor processor) {
+      if (processor.getProcessingType() == CPU_LITE_ASYNC) {
+        // Resume on a virtual thread rather than on the thread that completed the non-blocking operation
+        return publisher -> from(publisher)
+            .transform(processor)
+            .publishOn(fromExecutorService(executor));
+      } else {
+        return super.onProcessor(processor);
+      }
+    }
+
+    @Override
+    public void start() throws MuleException {
+      executor = executorSupplier.get();
+      permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void stop() throws MuleException {
+      if (executor != null) {
+        executor.shutdown();
+      }
+    }
+
+    /**
+     * {@link Sink} which dispatches each event to its own virtual thread. A permit is held from the moment an event is
+     * accepted until its pipeline terminates, so that no more than {@code maxConcurrency} events are processed at a time.
+     */
+    private final class VirtualThreadSink implements Sink {
+
+      private final ReactiveProcessor pipeline;
+      private final Consumer<CoreEvent> eventConsumer;
+
+      private VirtualThreadSink(ReactiveProcessor pipeline, Consumer<CoreEvent> eventConsumer) {
+        this.pipeline = pipeline;
+        this.eventConsumer = eventConsumer;
+      }
+
+      @Override
+      public void accept(CoreEvent event) {
+        permits.acquireUninterruptibly();
+        dispatch(event);
+      }
+
+      @Override
+      public boolean emit(CoreEvent event) {
+        if (!permits.tryAcquire()) {
+          return false;
+        }
+
+        dispatch(event);
+        return true;
+      }
+
+      private void dispatch(CoreEvent event) {
+        // The consumer checks for an active transaction, which is bound to the caller thread
+        eventConsumer.accept(event);
+        try {
+          executor.execute(() -> just(event)
+              .transform(pipeline)
+              .doFinally(signal -> permits.release())
+              .subscribe(null, throwable -> {
+                // Errors are propagated through the event context, there's nothing else to do with them here
+              }));
+        } catch (RejectedExecutionException e) {
+          permits.release();
+          throw e;
+        }
+      }
+    }
+  }
+}
@@ -35,6 +35,7 @@ import org.mule.runtime.core.internal.context.MuleContextWithRegistry;
 import org.mule.runtime.core.internal.registry.MuleRegistry;
 import org.mule.runtime.core.internal.routing.correlation.EventCorrelator;
 import org.mule.runtime.core.internal.routing.correlation.EventCorrelatorCallback;
+import org.mule.runtime.core.internal.store.PartitionedInMemoryObjectStore;
 import org.mule.runtime.core.internal.util.store.ProvidedObjectStoreWrapper;
 import org.mule.runtime.core.internal.util.store.ProvidedPartitionableObjectStoreWrapper;
 import org.mule.runtime.core.privileged.processor.AbstractInterceptingMessageProcessor;
@@ -63,6 +64,8 @@ public abstract class AbstractAggregator extends AbstractInterceptingMessageProc
 
   private ObjectStore<Long> processedGroupsObjectStore;
   private PartitionableObjectStore eventGroupsObjectStore;
+  // Whether the events are kept in the memory of this node by the store anyway, as opposed to a shared or persistent store
+  private boolean eventGroupsObjectStoreLocalInMemory = false;
 
   protected boolean persistentStores;
   protected String storePrefix = null;
@@ -85,6 +88,10 @@ public abstract class AbstractAggregator extends AbstractInterceptingMessageProc
 
     eventCorrelator.setTimeout(timeout);
     eventCorrelator.setFailOnTimeout(isFailOnTimeout());
+    if (eventGroupsObjectStoreLocalInMemory) {
+      // There's no point in writing the events to the store, since nobody else reads them from there
+      eventCorrelator.setEventsFlushBatchSize(Integer.MAX_VALUE);
+    }
   }
 
   protected void initProcessedGroupsObjectStore() {
@@ -130,6 +137,8 @@ public abstract class AbstractAggregator extends AbstractInterceptingMessageProc
       if (objectStore instanceof MuleContextAware) {
         ((MuleContextAware) objectStore).setMuleContext(muleContext);
       }
+      // In a cluster, the in memory store is replaced with one shared by all the nodes
+      eventGroupsObjectStoreLocalInMemory = objectStore instanceof PartitionedInMemoryObjectStore;
       return objectStore;
     };
   }
@@ -194,6 +203,7 @@ public abstract class AbstractAggregator extends AbstractInterceptingMessageProc
   }
 
   public void setEventGroupsObjectStore(PartitionableObjectStore<CoreEvent> eventGroupsObjectStore) {
+    this.eventGroupsObjectStoreLocalInMemory = eventGroupsObjectStore instanceof PartitionedInMemoryObjectStore;
     this.eventGroupsObjectStore =
         //TODO: Delete ProvidedObjectStoreWrapper if not needed when moving this to compatibility
         new ProvidedPartitionableObjectStoreWrapper(eventGroupsObjectStore, internalEventsGroupsObjectStoreSupplier());
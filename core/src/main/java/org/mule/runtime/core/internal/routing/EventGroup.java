@@ -25,16 +25,24 @@ import org.mule.runtime.core.privileged.event.PrivilegedEvent;
 
 import org.apache.commons.collections.IteratorUtils;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * <code>EventGroup</code> is a holder over events grouped by a common group Id. This can be used by components such as routers to
  * managed related events.
+ * <p>
+ * Added events are kept in an in-memory segment and written to the events store in batches of the size given when
+ * {@link #initEventsStore(PartitionableObjectStore, int) initializing the store}. Reads see both the stored and the pending
+ * events.
  */
 // @ThreadSafe
 public class EventGroup implements Comparable<EventGroup>, Serializable, DeserializationPostInitialisable {
@@ -56,6 +64,9 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
   private final Integer expectedSize;
   transient private MuleContext muleContext;
   private int arrivalOrderCounter = 0;
+  private transient int flushBatchSize = 1;
+  // @GuardedBy this
+  private transient Map<String, CoreEvent> pendingEvents;
 
   public static final String DEFAULT_STORE_PREFIX = "DEFAULT_STORE";
 
@@ -163,7 +174,7 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
   @SuppressWarnings("unchecked")
   public Iterator<CoreEvent> iterator(boolean sortByArrival) throws ObjectStoreException {
     synchronized (this) {
-      if (eventsObjectStore.allKeys(eventsPartitionKey).isEmpty()) {
+      if (size() == 0) {
         return IteratorUtils.emptyIterator();
       } else {
         return IteratorUtils.arrayIterator(this.toArray(sortByArrival));
@@ -190,14 +201,19 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
    */
   public PrivilegedEvent[] toArray(boolean sortByArrival) throws ObjectStoreException {
     synchronized (this) {
-      if (eventsObjectStore.allKeys(eventsPartitionKey).isEmpty()) {
+      List<String> keys = eventsObjectStore.allKeys(eventsPartitionKey);
+      Map<String, CoreEvent> pending = getPendingEvents();
+      if (keys.isEmpty() && pending.isEmpty()) {
         return EMPTY_EVENTS_ARRAY;
       }
-      List<String> keys = eventsObjectStore.allKeys(eventsPartitionKey);
-      PrivilegedEvent[] eventArray = new PrivilegedEvent[keys.size()];
+      PrivilegedEvent[] eventArray = new PrivilegedEvent[keys.size() + pending.size()];
       for (int i = 0; i < keys.size(); i++) {
         eventArray[i] = (PrivilegedEvent) eventsObjectStore.retrieve(keys.get(i), eventsPartitionKey);
       }
+      int i = keys.size();
+      for (CoreEvent event : pending.values()) {
+        eventArray[i++] = (PrivilegedEvent) event;
+      }
       if (sortByArrival) {
         Arrays.sort(eventArray, new ArrivalOrderEventComparator());
       }
@@ -217,8 +233,39 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
       // Using both event ID and CorrelationSequence since in certain instances
       // when an event is split up, the same event IDs are used.
       String key = getEventKey(event);
-      eventsObjectStore.store(key, event, eventsPartitionKey);
+      Map<String, CoreEvent> pending = getPendingEvents();
+      pending.put(key, event);
+      if (pending.size() >= flushBatchSize) {
+        flush();
+      }
+    }
+  }
+
+  /**
+   * Writes the events pending in the in-memory segment to the events store.
+   *
+   * @throws ObjectStoreException
+   */
+  public void flush() throws ObjectStoreException {
+    synchronized (this) {
+      Map<String, CoreEvent> pending = getPendingEvents();
+      if (pending.isEmpty()) {
+        return;
+      }
+      Iterator<Map.Entry<String, CoreEvent>> iterator = pending.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<String, CoreEvent> entry = iterator.next();
+        eventsObjectStore.store(entry.getKey(), entry.getValue(), eventsPartitionKey);
+        iterator.remove();
+      }
+    }
+  }
+
+  private Map<String, CoreEvent> getPendingEvents() {
+    if (pendingEvents == null) {
+      pendingEvents = new LinkedHashMap<>();
     }
+    return pendingEvents;
   }
 
   private String getEventKey(CoreEvent event) {
@@ -247,7 +294,7 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
   public int size() {
     synchronized (this) {
       try {
-        return eventsObjectStore.allKeys(eventsPartitionKey).size();
+        return eventsObjectStore.allKeys(eventsPartitionKey).size() + getPendingEvents().size();
       } catch (ObjectStoreException e) {
         // TODO Check if this is ok.
         return -1;
@@ -271,6 +318,7 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
    */
   public void clear() throws ObjectStoreException {
     synchronized (this) {
+      getPendingEvents().clear();
       eventsObjectStore.clear(eventsPartitionKey);
       eventsObjectStore.disposePartition(eventsPartitionKey);
     }
@@ -286,19 +334,15 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
 
     try {
       synchronized (this) {
-        int currentSize;
+        CoreEvent[] events = toArray(false);
 
-        currentSize = eventsObjectStore.allKeys(eventsPartitionKey).size();
+        buf.append(", current events=").append(events.length);
 
-        buf.append(", current events=").append(currentSize);
-
-        if (currentSize > 0) {
+        if (events.length > 0) {
           buf.append(" [");
-          Iterator<String> i = eventsObjectStore.allKeys(eventsPartitionKey).iterator();
-          while (i.hasNext()) {
-            String id = i.next();
-            buf.append(eventsObjectStore.retrieve(id, eventsPartitionKey).getCorrelationId());
-            if (i.hasNext()) {
+          for (int i = 0; i < events.length; i++) {
+            buf.append(events[i].getCorrelationId());
+            if (i < events.length - 1) {
               buf.append(", ");
             }
           }
@@ -356,10 +400,46 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
   }
 
   public void initEventsStore(PartitionableObjectStore<CoreEvent> events) throws ObjectStoreException {
-    this.eventsObjectStore = events;
+    initEventsStore(events, 1);
+  }
+
+  /**
+   * Sets the store where the events of this group are kept.
+   *
+   * @param events the store of the events
+   * @param flushBatchSize how many added events to keep in memory before writing them to {@code events}. {@code 1} writes
+   *        each event as soon as it is added.
+   * @throws ObjectStoreException
+   * @since 4.2
+   */
+  public void initEventsStore(PartitionableObjectStore<CoreEvent> events, int flushBatchSize) throws ObjectStoreException {
+    if (flushBatchSize < 1) {
+      throw new IllegalArgumentException("flushBatchSize must be greater than 0");
+    }
+    synchronized (this) {
+      if (this.eventsObjectStore != null && this.eventsObjectStore != events) {
+        flush();
+      }
+      this.eventsObjectStore = events;
+      this.flushBatchSize = flushBatchSize;
+    }
     events.open(eventsPartitionKey);
   }
 
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    // Pending events are not part of the serialized form, so they are written to the store before this group leaves memory
+    synchronized (this) {
+      if (eventsObjectStore != null) {
+        try {
+          flush();
+        } catch (ObjectStoreException e) {
+          throw new IOException(e);
+        }
+      }
+      out.defaultWriteObject();
+    }
+  }
+
   public boolean isInitialised() {
     return muleContext != null;
   }
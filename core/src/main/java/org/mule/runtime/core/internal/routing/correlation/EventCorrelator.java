@@ -6,15 +6,18 @@
  */
 package org.mule.runtime.core.internal.routing.correlation;
 
+import static java.lang.Integer.getInteger;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
 import static java.util.concurrent.TimeUnit.DAYS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 import static org.mule.runtime.api.notification.RoutingNotification.CORRELATION_TIMEOUT;
 import static org.mule.runtime.api.notification.RoutingNotification.MISSED_AGGREGATION_GROUP_EVENT;
 import static org.mule.runtime.core.api.config.i18n.CoreMessages.correlationTimedOut;
+import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
 import static org.mule.runtime.core.api.config.i18n.CoreMessages.objectIsNull;
 import static org.mule.runtime.core.api.message.GroupCorrelation.NOT_SET;
 import static org.mule.runtime.core.api.util.StringMessageUtils.truncate;
@@ -53,9 +56,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.MessageFormat;
-import java.util.ArrayList;
 import java.util.List;
-
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Correlates events into {@link EventGroup}s.
+ * <p>
+ * Groups are partitioned by their id into independent lock stripes, so events of different groups are processed concurrently.
+ * The events of a group are written to the store in batches of {@link #setEventsFlushBatchSize(int) a configurable size}. The
+ * expiration of groups is driven by a {@link HierarchicalTimingWheel}, so that the groups which didn't time out are not looked
+ * at. The primary node looks in the store for the groups created by other nodes every second, so those may expire up to a second
+ * later than their timeout.
+ */
 public class EventCorrelator implements Startable, Stoppable {
 
   /**
@@ -65,13 +79,35 @@ public class EventCorrelator implements Startable, Stoppable {
 
   public static final String NO_CORRELATION_ID = "no-id";
 
+  /**
+   * System property to set how many events of a group are kept in memory before writing them to the store. The default is
+   * {@code 1}, which writes each event as soon as it arrives.
+   */
+  public static final String MULE_CORRELATOR_EVENTS_FLUSH_BATCH_SIZE =
+      SYSTEM_PROPERTY_PREFIX + "correlator.eventsFlushBatchSize";
+
   private static final long DELAY_TIME = 10;
+  private static final int TIMEOUT_WHEEL_SIZE = 512;
+  private static final int LOCK_STRIPES = 64;
+  private static final long STORED_GROUPS_SCAN_INTERVAL_MILLIS = SECONDS.toMillis(1);
 
-  protected final Object groupsLock = new Object();
+  private final Object[] groupLocks = new Object[LOCK_STRIPES];
 
-  // @GuardedBy groupsLock
+  // @GuardedBy lockFor(groupId)
   protected ObjectStore<Long> processedGroups = null;
 
+  private int eventsFlushBatchSize = getInteger(MULE_CORRELATOR_EVENTS_FLUSH_BATCH_SIZE, 1);
+
+  /**
+   * The groups being correlated in this node, used when their events are not flushed right away, since the pending ones are
+   * kept by the group instance.
+   */
+  private final ConcurrentMap<String, EventGroup> activeGroups = new ConcurrentHashMap<>();
+
+  private volatile HierarchicalTimingWheel<String> timeoutWheel;
+  // The groups in the timeoutWheel
+  private final Set<String> expiringGroups = ConcurrentHashMap.newKeySet();
+
   private long timeout = -1; // undefined
 
   private boolean failOnTimeout = true;
@@ -120,6 +156,19 @@ public class EventCorrelator implements Startable, Stoppable {
     this.correlatorStore = correlatorStore;
     this.storePrefix = storePrefix;
     this.processedGroups = processedGroups;
+
+    for (int i = 0; i < LOCK_STRIPES; ++i) {
+      groupLocks[i] = new Object();
+    }
+  }
+
+  /**
+   * @param groupId the id of an event group
+   * @return the lock that guards the group with the given id
+   */
+  protected Object lockFor(Object groupId) {
+    int hash = groupId == null ? 0 : groupId.hashCode();
+    return groupLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
   }
 
   public void forceGroupExpiry(String groupId) throws MuleException {
@@ -180,15 +229,18 @@ public class EventCorrelator implements Startable, Stoppable {
         // ..apparently not, so create a new one & add it
         try {
           EventGroup eventGroup = callback.createEventGroup(event, groupId);
-          eventGroup.initEventsStore(correlatorStore);
+          eventGroup.initEventsStore(correlatorStore, eventsFlushBatchSize);
           group = this.addEventGroup(eventGroup);
+          if (group == eventGroup) {
+            scheduleExpiry(group);
+          }
         } catch (ObjectStoreException e) {
           throw new RoutingException(timeoutMessageProcessor, e);
         }
       }
 
       // ensure that only one thread at a time evaluates this EventGroup
-      synchronized (groupsLock) {
+      synchronized (lockFor(groupId)) {
         if (logger.isDebugEnabled()) {
           logger.debug("Adding event to aggregator group: " + groupId);
         }
@@ -233,6 +285,13 @@ public class EventCorrelator implements Startable, Stoppable {
   }
 
   protected EventGroup getEventGroup(String groupId) throws ObjectStoreException {
+    if (isCachingActiveGroups(groupId)) {
+      EventGroup activeGroup = activeGroups.get(groupId);
+      if (activeGroup != null) {
+        return activeGroup;
+      }
+    }
+
     try {
       EventGroup eventGroup = (EventGroup) correlatorStore.retrieve(groupId, getEventGroupsPartitionKey());
       if (!eventGroup.isInitialised()) {
@@ -242,7 +301,13 @@ public class EventCorrelator implements Startable, Stoppable {
           throw new ObjectStoreException(e);
         }
       }
-      eventGroup.initEventsStore(correlatorStore);
+      eventGroup.initEventsStore(correlatorStore, eventsFlushBatchSize);
+      if (isCachingActiveGroups(groupId)) {
+        EventGroup activeGroup = activeGroups.putIfAbsent(groupId, eventGroup);
+        if (activeGroup != null) {
+          return activeGroup;
+        }
+      }
       return eventGroup;
     } catch (ObjectDoesNotExistException e) {
       return null;
@@ -252,6 +317,9 @@ public class EventCorrelator implements Startable, Stoppable {
   protected EventGroup addEventGroup(EventGroup group) throws ObjectStoreException {
     try {
       correlatorStore.store((String) group.getGroupId(), group, getEventGroupsPartitionKey());
+      if (isCachingActiveGroups(group.getGroupId())) {
+        activeGroups.put((String) group.getGroupId(), group);
+      }
       return group;
     } catch (ObjectAlreadyExistsException e) {
       return getEventGroup((String) group.getGroupId());
@@ -260,26 +328,45 @@ public class EventCorrelator implements Startable, Stoppable {
 
   protected void removeEventGroup(EventGroup group) throws ObjectStoreException {
     final Object groupId = group.getGroupId();
-    synchronized (groupsLock) {
+    synchronized (lockFor(groupId)) {
       if (!isGroupAlreadyProcessed(groupId)) {
         correlatorStore.remove((String) groupId, getEventGroupsPartitionKey());
         addProcessedGroup(groupId);
       }
+      if (groupId != null) {
+        activeGroups.remove(groupId);
+      }
     }
   }
 
   protected void addProcessedGroup(Object id) throws ObjectStoreException {
-    synchronized (groupsLock) {
+    synchronized (lockFor(id)) {
       processedGroups.store((String) id, currentTimeMillis());
     }
   }
 
   protected boolean isGroupAlreadyProcessed(Object id) throws ObjectStoreException {
-    synchronized (groupsLock) {
+    synchronized (lockFor(id)) {
       return processedGroups.contains((String) id);
     }
   }
 
+  private boolean isCachingActiveGroups(Object groupId) {
+    return eventsFlushBatchSize > 1 && groupId != null;
+  }
+
+  private void scheduleExpiry(EventGroup group) {
+    HierarchicalTimingWheel<String> wheel = timeoutWheel;
+    if (wheel != null) {
+      scheduleExpiry(wheel, (String) group.getGroupId(), group.getCreated());
+    }
+  }
+
+  private void scheduleExpiry(HierarchicalTimingWheel<String> wheel, String groupId, long created) {
+    expiringGroups.add(groupId);
+    wheel.schedule(groupId, created + getTimeout());
+  }
+
   public boolean isFailOnTimeout() {
     return failOnTimeout;
   }
@@ -296,6 +383,21 @@ public class EventCorrelator implements Startable, Stoppable {
     this.timeout = timeout;
   }
 
+  public int getEventsFlushBatchSize() {
+    return eventsFlushBatchSize;
+  }
+
+  /**
+   * @param eventsFlushBatchSize how many events of a group to keep in memory before writing them to the store. Must be set
+   *        before events are processed.
+   */
+  public void setEventsFlushBatchSize(int eventsFlushBatchSize) {
+    if (eventsFlushBatchSize < 1) {
+      throw new IllegalArgumentException("eventsFlushBatchSize must be greater than 0");
+    }
+    this.eventsFlushBatchSize = eventsFlushBatchSize;
+  }
+
   protected void handleGroupExpiry(EventGroup group) throws MuleException {
     try {
       removeEventGroup(group);
@@ -356,6 +458,7 @@ public class EventCorrelator implements Startable, Stoppable {
     if (timeout != 0) {
       scheduler = muleContext.getSchedulerService().customScheduler(muleContext.getSchedulerBaseConfig().withName(name)
           .withMaxConcurrentTasks(1).withShutdownTimeout(0, MILLISECONDS));
+      timeoutWheel = new HierarchicalTimingWheel<>(DELAY_TIME, TIMEOUT_WHEEL_SIZE, currentTimeMillis());
       expiringGroupRunnable = new ExpiringGroupMonitoringRunnable();
       scheduler.scheduleWithFixedDelay(expiringGroupRunnable, 0, DELAY_TIME, MILLISECONDS);
     }
@@ -371,11 +474,15 @@ public class EventCorrelator implements Startable, Stoppable {
       expiringGroupRunnable.dispose();
       expiringGroupRunnable = null;
     }
+    timeoutWheel = null;
+    expiringGroups.clear();
   }
 
   private final class ExpiringGroupMonitoringRunnable implements Runnable, Expirable, Disposable {
 
     private ExpiryMonitor expiryMonitor;
+    // When to look for groups in the store which are not scheduled to expire
+    private long nextStoredGroupsScan = 0;
 
     public ExpiringGroupMonitoringRunnable() {
       this.expiryMonitor = new ExpiryMonitor(name, MINUTES.toMillis(1), muleContext, true);
@@ -406,30 +513,67 @@ public class EventCorrelator implements Startable, Stoppable {
       //// TODO(pablo.kraan): is not good to have threads doing nothing in all the nodes but the primary. Need to
       //// start the thread on the primary node only, and then use a notification schema to start a new thread
       //// in a different node when the primary goes down.
+      final HierarchicalTimingWheel<String> wheel = timeoutWheel;
+      if (wheel == null) {
+        return;
+      }
+
+      final long now = currentTimeMillis();
       if (!muleContext.isPrimaryPollingInstance()) {
+        // Groups expiring meanwhile are left to the primary node, which finds them in the store. So will this node, as soon as
+        // it becomes the primary one.
+        nextStoredGroupsScan = 0;
+        wheel.advance(now, expiringGroups::remove);
         return;
       }
 
-      List<EventGroup> expired = new ArrayList<>(1);
-      try {
-        for (String o : (List<String>) correlatorStore.allKeys(getEventGroupsPartitionKey())) {
-          EventGroup group = getEventGroup(o);
-          // group may have been removed by another thread right after eventGroups.allKeys()
-          if (group != null && group.getCreated() + getTimeout() < currentTimeMillis()) {
-            expired.add(group);
+      if (now >= nextStoredGroupsScan) {
+        // Groups created before starting or by other nodes
+        try {
+          for (String o : (List<String>) correlatorStore.allKeys(getEventGroupsPartitionKey())) {
+            if (expiringGroups.contains(o)) {
+              continue;
+            }
+            EventGroup group = getEventGroup(o);
+            // group may have been removed by another thread right after eventGroups.allKeys()
+            if (group != null) {
+              scheduleExpiry(wheel, o, group.getCreated());
+            }
           }
+          nextStoredGroupsScan = now + STORED_GROUPS_SCAN_INTERVAL_MILLIS;
+        } catch (ObjectStoreException e) {
+          logger.warn("expiry failed dues to ObjectStoreException " + e);
         }
+      }
+
+      wheel.advance(now, groupId -> expire(wheel, groupId));
+    }
+
+    private void expire(HierarchicalTimingWheel<String> wheel, String groupId) {
+      expiringGroups.remove(groupId);
+      EventGroup group;
+      try {
+        group = getEventGroup(groupId);
       } catch (ObjectStoreException e) {
         logger.warn("expiry failed dues to ObjectStoreException " + e);
+        return;
       }
-      for (final EventGroup group : expired) {
-        try {
-          handleGroupExpiry(group);
-        } catch (MessagingException e) {
-          flowConstruct.getExceptionListener().handleException(e, e.getEvent());
-        } catch (Exception e) {
-          muleContext.getExceptionListener().handleException(e);
-        }
+
+      // group may have been aggregated or expired already
+      if (group == null) {
+        return;
+      }
+      if (group.getCreated() + getTimeout() >= currentTimeMillis()) {
+        scheduleExpiry(wheel, groupId, group.getCreated());
+        return;
+      }
+
+      try {
+        handleGroupExpiry(group);
+      } catch (MessagingException e) {
+        flowConstruct.getExceptionListener().handleException(e, e.getEvent());
+      } catch (Exception e) {
+        muleContext.getExceptionListener().handleException(e);
       }
     }
 
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.routing.correlation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Keeps items until a deadline, in the buckets of a hierarchy of wheels, so that finding the expired items does not require
+ * looking at the ones which are not.
+ * <p>
+ * The first wheel has buckets spanning {@code tickMillis} each. Every other wheel has buckets spanning a whole turn of the
+ * wheel below it, and is created when an item with a deadline past the wheels already there is scheduled. When the clock
+ * reaches a bucket, its items are either expired or moved to a wheel with finer buckets.
+ * <p>
+ * {@link #schedule(Object, long)} may be called from any thread without blocking. {@link #advance(long, Consumer)} must be
+ * called by a single thread at a time.
+ *
+ * @param <T> the type of the scheduled items
+ * @since 4.2
+ */
+final class HierarchicalTimingWheel<T> {
+
+  private final int wheelSize;
+  private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+  private final Wheel<T> root;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param tickMillis the time spanned by each bucket of the first wheel
+   * @param wheelSize the number of buckets of each wheel
+   * @param startMillis the current time
+   */
+  HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+    if (tickMillis < 1) {
+      throw new IllegalArgumentException("tickMillis must be greater than 0");
+    }
+    if (wheelSize < 2) {
+      throw new IllegalArgumentException("wheelSize must be greater than 1");
+    }
+    this.wheelSize = wheelSize;
+    this.root = new Wheel<>(tickMillis, wheelSize, startMillis);
+  }
+
+  /**
+   * Schedules an item to expire at the given time. It will be handed to the {@link #advance(long, Consumer)} call which moves
+   * the clock to that time or later.
+   *
+   * @param item the item to expire
+   * @param deadlineMillis the time at which {@code item} expires
+   */
+  void schedule(T item, long deadlineMillis) {
+    // Buckets are reached when the clock gets to their start, so an item goes in the one after its deadline. Otherwise, it
+    // could expire up to a tick before its deadline.
+    scheduled.add(new Timeout<>(item, deadlineMillis + root.tickMillis));
+  }
+
+  /**
+   * Moves the clock to the given time, handing the items whose deadline was reached to {@code onExpired}.
+   *
+   * @param nowMillis the current time
+   * @param onExpired called for each expired item
+   */
+  void advance(long nowMillis, Consumer<T> onExpired) {
+    List<Timeout<T>> reached = new ArrayList<>();
+    for (Wheel<T> wheel = root; wheel != null; wheel = wheel.overflow) {
+      wheel.advance(nowMillis, reached);
+    }
+
+    Timeout<T> timeout;
+    while ((timeout = scheduled.poll()) != null) {
+      add(timeout, onExpired);
+    }
+    for (Timeout<T> reachedTimeout : reached) {
+      add(reachedTimeout, onExpired);
+    }
+  }
+
+  private void add(Timeout<T> timeout, Consumer<T> onExpired) {
+    Wheel<T> wheel = root;
+    if (timeout.due < wheel.currentTime + wheel.tickMillis) {
+      onExpired.accept(timeout.item);
+      return;
+    }
+
+    while (timeout.due >= wheel.currentTime + wheel.interval) {
+      if (wheel.overflow == null) {
+        wheel.overflow = new Wheel<>(wheel.interval, wheelSize, wheel.currentTime);
+      }
+      wheel = wheel.overflow;
+    }
+    wheel.bucketFor(timeout.due).add(timeout);
+  }
+
+  private static final class Wheel<T> {
+
+    private final long tickMillis;
+    private final long interval;
+    private final List<Timeout<T>>[] buckets;
+    private long currentTime;
+    private Wheel<T> overflow;
+
+    @SuppressWarnings("unchecked")
+    private Wheel(long tickMillis, int wheelSize, long startMillis) {
+      this.tickMillis = tickMillis;
+      this.interval = tickMillis * wheelSize;
+      this.buckets = new List[wheelSize];
+      this.currentTime = startMillis - (startMillis % tickMillis);
+    }
+
+    private List<Timeout<T>> bucketFor(long due) {
+      int index = (int) ((due / tickMillis) % buckets.length);
+      if (buckets[index] == null) {
+        buckets[index] = new ArrayList<>();
+      }
+      return buckets[index];
+    }
+
+    /**
+     * Moves this wheel's clock, collecting the items of the buckets reached on the way.
+     */
+    private void advance(long nowMillis, List<Timeout<T>> reached) {
+      long target = nowMillis - (nowMillis % tickMillis);
+      if (target <= currentTime) {
+        return;
+      }
+
+      // Every bucket only holds items for a single turn, so there's no need to go around more than once
+      long steps = Math.min((target - currentTime) / tickMillis, buckets.length);
+      long firstSlot = (target / tickMillis) - steps + 1;
+      for (long slot = firstSlot; slot < firstSlot + steps; ++slot) {
+        int index = (int) (slot % buckets.length);
+        if (buckets[index] != null) {
+          reached.addAll(buckets[index]);
+          buckets[index] = null;
+        }
+      }
+      currentTime = target;
+    }
+  }
+
+  private static final class Timeout<T> {
+
+    private final T item;
+    private final long due;
+
+    private Timeout(T item, long due) {
+      this.item = item;
+      this.due = due;
+    }
+  }
+}
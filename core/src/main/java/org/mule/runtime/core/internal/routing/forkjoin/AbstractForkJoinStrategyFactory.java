@@ -102,12 +102,21 @@ public abstract class AbstractForkJoinStrategyFactory implements ForkJoinStrateg
   protected abstract Function<List<CoreEvent>, CoreEvent> createResultEvent(CoreEvent original,
                                                                             CoreEvent.Builder resultBuilder);
 
-  private Function<RoutingPair, RoutingPair> addSequence(AtomicInteger count) {
+  /**
+   * @param count the counter used to number the routes
+   * @return a function which sets the sequence of each route's event
+   */
+  protected Function<RoutingPair, RoutingPair> addSequence(AtomicInteger count) {
     return pair -> of(builder(pair.getEvent()).groupCorrelation(Optional.of(GroupCorrelation.of(count.getAndIncrement())))
         .build(), pair.getRoute());
   }
 
-  private Function<RoutingPair, Publisher<? extends CoreEvent>> processRoutePair(ProcessingStrategy processingStrategy,
+  /**
+   * Creates the function which processes each route, applying the timeout and delaying its error if configured to do so.
+   *
+   * @return a function which processes a route and emits its result event
+   */
+  protected Function<RoutingPair, Publisher<? extends CoreEvent>> processRoutePair(ProcessingStrategy processingStrategy,
                                                                                  int maxConcurrency,
                                                                                  boolean delayErrors, long timeout,
                                                                                  reactor.core.scheduler.Scheduler timeoutScheduler,
@@ -169,34 +178,45 @@ public abstract class AbstractForkJoinStrategyFactory implements ForkJoinStrateg
   private Consumer<List<CoreEvent>> mergeVariables(CoreEvent original, CoreEvent.Builder result) {
     return list -> {
       Map<String, TypedValue> routeVars = new HashMap<>();
-      list.forEach(event -> event.getVariables().forEach((key, value) -> {
-        // Only merge variables that have been added or mutated in routes
-        if (!value.equals(original.getVariables().get(key))) {
-          if (!routeVars.containsKey(key)) {
-            // A new variable that hasn't already been set by another route is added as a simple entry.
-            routeVars.put(key, value);
+      list.forEach(event -> mergeVariables(original, routeVars, event));
+      routeVars.forEach((s, typedValue) -> result.addVariable(s, typedValue.getValue(), typedValue.getDataType()));
+    };
+  }
+
+  /**
+   * Merges the variables of a route result into the variables merged so far.
+   *
+   * @param original the original event
+   * @param routeVars the variables merged from the previous route results, keyed by name
+   * @param event the route result to merge
+   */
+  protected void mergeVariables(CoreEvent original, Map<String, TypedValue> routeVars, CoreEvent event) {
+    event.getVariables().forEach((key, value) -> {
+      // Only merge variables that have been added or mutated in routes
+      if (!value.equals(original.getVariables().get(key))) {
+        if (!routeVars.containsKey(key)) {
+          // A new variable that hasn't already been set by another route is added as a simple entry.
+          routeVars.put(key, value);
+        } else {
+          // If a variable already exists from before route, or was set in a previous route, then it's added to a list of 1.
+          if (!(routeVars.get(key).getValue() instanceof List)) {
+            List newList = new ArrayList();
+            newList.add(routeVars.get(key).getValue());
+            routeVars.put(key, new TypedValue(newList, DataType.builder().collectionType(List.class)
+                .itemType(routeVars.get(key).getDataType().getType()).build()));
+          }
+          List valueList = (List) routeVars.get(key).getValue();
+          valueList.add(value.getValue());
+          if (((CollectionDataType) routeVars.get(key).getDataType()).getItemDataType().isCompatibleWith(value.getDataType())) {
+            // If item types are compatible then data type is conserved
+            routeVars.put(key, new TypedValue(valueList, routeVars.get(key).getDataType()));
           } else {
-            // If a variable already exists from before route, or was set in a previous route, then it's added to a list of 1.
-            if (!(routeVars.get(key).getValue() instanceof List)) {
-              List newList = new ArrayList();
-              newList.add(routeVars.get(key).getValue());
-              routeVars.put(key, new TypedValue(newList, DataType.builder().collectionType(List.class)
-                  .itemType(routeVars.get(key).getDataType().getType()).build()));
-            }
-            List valueList = (List) routeVars.get(key).getValue();
-            valueList.add(value.getValue());
-            if (((CollectionDataType) routeVars.get(key).getDataType()).getItemDataType().isCompatibleWith(value.getDataType())) {
-              // If item types are compatible then data type is conserved
-              routeVars.put(key, new TypedValue(valueList, routeVars.get(key).getDataType()));
-            } else {
-              // Else Object item type is used.
-              routeVars.put(key, new TypedValue(valueList, DataType.builder().collectionType(List.class).build()));
-            }
+            // Else Object item type is used.
+            routeVars.put(key, new TypedValue(valueList, DataType.builder().collectionType(List.class).build()));
           }
         }
-      }));
-      routeVars.forEach((s, typedValue) -> result.addVariable(s, typedValue.getValue(), typedValue.getDataType()));
-    };
+      }
+    });
   }
 
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.runtime.core.internal.routing.forkjoin;
+
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.api.message.Message.of;
+import static org.mule.runtime.api.metadata.DataType.fromType;
+
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.message.Message;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.streaming.object.CursorIterator;
+import org.mule.runtime.api.streaming.object.CursorIteratorProvider;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.streaming.object.CursorIteratorProviderFactory;
+import org.mule.runtime.core.internal.routing.ForkJoinStrategy;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ForkJoinStrategy} that:
+ * <ul>
+ * <li>Performs parallel execution of route pairs subject to {@code maxConcurrency}.
+ * <li>Merges variables using a last-wins strategy.
+ * <li>Waits for the completion of all routes before emitting a result event, with an optional timeout.
+ * <li>Collects the payloads of the route results, in the order of the routes, into a {@link CursorIteratorProvider} created
+ * with the given {@link CursorIteratorProviderFactory}, releasing each route result as soon as its payload is buffered.
+ * <li>Will processor all routes, regardless of errors, and propagating a composite exception where there were one or more errors.
+ * </ul>
+ * Using a factory which spills into disk, the memory needed to collect the payloads is bounded regardless of the number of
+ * routes. In that case the payloads must be serializable.
+ *
+ * @since 4.2
+ */
+public class CollectCursorForkJoinStrategyFactory extends StreamingForkJoinStrategyFactory {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CollectCursorForkJoinStrategyFactory.class);
+
+  private static final DataType CURSOR_ITERATOR_PROVIDER = fromType(CursorIteratorProvider.class);
+
+  private final CursorIteratorProviderFactory cursorProviderFactory;
+
+  /**
+   * Creates a new instance
+   *
+   * @param cursorProviderFactory the factory of the {@link CursorIteratorProvider} in which the payloads are collected. It must
+   *        buffer the given streams.
+   */
+  public CollectCursorForkJoinStrategyFactory(CursorIteratorProviderFactory cursorProviderFactory) {
+    this.cursorProviderFactory = cursorProviderFactory;
+  }
+
+  @Override
+  protected ForkJoinAccumulator createAccumulator(CoreEvent original) {
+    return new CursorAccumulator(original);
+  }
+
+  @Override
+  public DataType getResultDataType() {
+    return CURSOR_ITERATOR_PROVIDER;
+  }
+
+  /**
+   * Pushes each payload into the buffer of the provider. The buffer pulls items from its stream on demand, so the stream
+   * hands over a single payload and a cursor is advanced over it right away, which makes the buffer fetch it.
+   */
+  private class CursorAccumulator implements ForkJoinAccumulator, Iterator<Object> {
+
+    private final CursorIteratorProvider provider;
+    private final CursorIterator writer;
+    private Object pending;
+    private boolean hasPending = false;
+
+    private CursorAccumulator(CoreEvent original) {
+      Object value = cursorProviderFactory.of(original, this);
+      if (!(value instanceof CursorIteratorProvider)) {
+        throw new MuleRuntimeException(createStaticMessage("The factory '" + cursorProviderFactory
+            + "' does not buffer object streams, so it cannot be used to collect the results of routes"));
+      }
+      provider = (CursorIteratorProvider) value;
+      writer = provider.openCursor();
+    }
+
+    @Override
+    public void accumulate(CoreEvent routeResult) {
+      pending = routeResult.getMessage().getPayload().getValue();
+      hasPending = true;
+      writer.hasNext();
+      writer.next();
+    }
+
+    @Override
+    public Message complete() {
+      // Lets the buffer know that there are no more items
+      writer.hasNext();
+      closeWriter();
+      return of(provider);
+    }
+
+    @Override
+    public void discard() {
+      closeWriter();
+      provider.close();
+      provider.releaseResources();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return hasPending;
+    }
+
+    @Override
+    public Object next() {
+      if (!hasPending) {
+        throw new NoSuchElementException();
+      }
+      Object next = pending;
+      pending = null;
+      hasPending = false;
+      return next;
+    }
+
+    private void closeWriter() {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        LOGGER.warn("Could not close cursor over the collected route results", e);
+      }
+    }
+  }
+}
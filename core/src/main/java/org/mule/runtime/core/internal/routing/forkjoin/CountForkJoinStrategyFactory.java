@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.runtime.core.internal.routing.forkjoin;
+
+import static org.mule.runtime.api.message.Message.of;
+import static org.mule.runtime.api.metadata.DataType.fromType;
+
+import org.mule.runtime.api.message.Message;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.internal.routing.ForkJoinStrategy;
+
+/**
+ * {@link ForkJoinStrategy} that:
+ * <ul>
+ * <li>Performs parallel execution of route pairs subject to {@code maxConcurrency}.
+ * <li>Merges variables using a last-wins strategy.
+ * <li>Waits for the completion of all routes, with an optional timeout.
+ * <li>Emits a result {@link CoreEvent} with the number of routes as a {@link Long} payload, releasing each route result as
+ * soon as it completes.
+ * <li>Will processor all routes, regardless of errors, and propagating a composite exception where there were one or more errors.
+ * </ul>
+ *
+ * @since 4.2
+ */
+public class CountForkJoinStrategyFactory extends StreamingForkJoinStrategyFactory {
+
+  private static final DataType LONG = fromType(Long.class);
+
+  @Override
+  protected ForkJoinAccumulator createAccumulator(CoreEvent original) {
+    return new ForkJoinAccumulator() {
+
+      private long count = 0;
+
+      @Override
+      public void accumulate(CoreEvent routeResult) {
+        count++;
+      }
+
+      @Override
+      public Message complete() {
+        return of(count);
+      }
+
+      @Override
+      public void discard() {}
+    };
+  }
+
+  @Override
+  public DataType getResultDataType() {
+    return LONG;
+  }
+}
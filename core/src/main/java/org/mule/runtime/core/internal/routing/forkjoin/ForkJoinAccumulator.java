@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.runtime.core.internal.routing.forkjoin;
+
+import org.mule.runtime.api.message.Message;
+import org.mule.runtime.core.api.event.CoreEvent;
+
+/**
+ * Folds the results of the routes of a single fork/join invocation into the result message, one at a time and in the order
+ * of the routes.
+ * <p>
+ * Implementations must not keep a reference to the accumulated {@link CoreEvent}s, so that they can be released as soon as
+ * they are accumulated.
+ *
+ * @see StreamingForkJoinStrategyFactory
+ * @since 4.2
+ */
+public interface ForkJoinAccumulator {
+
+  /**
+   * Folds the result of a successful route.
+   *
+   * @param routeResult the result event of the route
+   */
+  void accumulate(CoreEvent routeResult);
+
+  /**
+   * Invoked once all routes have been accumulated.
+   *
+   * @return the message of the result event
+   */
+  Message complete();
+
+  /**
+   * Invoked instead of {@link #complete()} when the fork/join fails or is cancelled, so any resources held can be released.
+   */
+  void discard();
+}
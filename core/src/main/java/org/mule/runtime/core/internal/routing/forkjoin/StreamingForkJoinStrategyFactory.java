@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.runtime.core.internal.routing.forkjoin;
+
+import static java.util.Collections.emptyMap;
+import static org.mule.runtime.core.api.event.CoreEvent.builder;
+import static reactor.core.Exceptions.propagate;
+import static reactor.core.publisher.Flux.from;
+import static reactor.core.publisher.Mono.defer;
+import static reactor.core.publisher.Mono.fromCallable;
+
+import org.mule.runtime.api.message.Error;
+import org.mule.runtime.api.message.ErrorType;
+import org.mule.runtime.api.message.Message;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.processor.strategy.ProcessingStrategy;
+import org.mule.runtime.core.internal.routing.ForkJoinStrategy;
+import org.mule.runtime.core.privileged.routing.CompositeRoutingException;
+import org.mule.runtime.core.privileged.routing.RoutingResult;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Base {@link ForkJoinStrategy} factory for strategies that fold the result of each route into a {@link ForkJoinAccumulator}
+ * as soon as it is available, instead of holding the results of every route until the last one finishes.
+ * <p>
+ * Route results are folded in the order of the routes, and the variables of each one are merged right away. Once a result is
+ * folded no reference to it is kept, so the memory needed to aggregate does not grow with the number of routes. For the same
+ * reason, the {@link RoutingResult} of the {@link CompositeRoutingException} thrown when a route fails only contains the
+ * failures.
+ * <p>
+ * Other than that, the behavior is the same as {@link AbstractForkJoinStrategyFactory}.
+ *
+ * @since 4.2
+ */
+public abstract class StreamingForkJoinStrategyFactory extends AbstractForkJoinStrategyFactory {
+
+  @Override
+  public ForkJoinStrategy createForkJoinStrategy(ProcessingStrategy processingStrategy, int maxConcurrency, boolean delayErrors,
+                                                 long timeout, Scheduler timeoutScheduler, ErrorType timeoutErrorType) {
+    reactor.core.scheduler.Scheduler reactorTimeoutScheduler = Schedulers.fromExecutorService(timeoutScheduler);
+    return (original, routingPairs) -> defer(() -> {
+      final AtomicInteger count = new AtomicInteger();
+      final Aggregation aggregation = new Aggregation(original);
+      return from(routingPairs)
+          .map(addSequence(count))
+          .flatMapSequential(processRoutePair(processingStrategy, maxConcurrency, delayErrors, timeout, reactorTimeoutScheduler,
+                                              timeoutErrorType),
+                             maxConcurrency)
+          .doOnNext(aggregation::merge)
+          .then(fromCallable(aggregation::complete))
+          .doOnError(e -> aggregation.discard())
+          .doOnCancel(aggregation::discard);
+    });
+  }
+
+  /**
+   * Folds an already collected list of results with a new accumulator. The strategies created by this factory don't use it,
+   * since they fold each result as it arrives.
+   */
+  @Override
+  protected final Function<List<CoreEvent>, CoreEvent> createResultEvent(CoreEvent original,
+                                                                         CoreEvent.Builder resultBuilder) {
+    return list -> {
+      ForkJoinAccumulator accumulator = createAccumulator(original);
+      list.forEach(accumulator::accumulate);
+      return resultBuilder.message(accumulator.complete()).build();
+    };
+  }
+
+  /**
+   * Creates the accumulator for a fork/join invocation.
+   *
+   * @param original the original event
+   * @return a new {@link ForkJoinAccumulator}
+   */
+  protected abstract ForkJoinAccumulator createAccumulator(CoreEvent original);
+
+  /**
+   * Keeps the state of a single fork/join invocation. Route results are emitted serially, but cancellation may come from
+   * another thread.
+   */
+  private final class Aggregation {
+
+    private final CoreEvent original;
+    private final ForkJoinAccumulator accumulator;
+    private final Map<String, TypedValue> routeVars = new HashMap<>();
+    private final Map<String, Error> failures = new LinkedHashMap<>();
+    private boolean done = false;
+
+    private Aggregation(CoreEvent original) {
+      this.original = original;
+      this.accumulator = createAccumulator(original);
+    }
+
+    private synchronized void merge(CoreEvent routeResult) {
+      if (routeResult.getError().isPresent()) {
+        failures.put(Integer.toString(routeResult.getGroupCorrelation().get().getSequence()), routeResult.getError().get());
+        // The result is going to be a failure, so there is no point in keeping what was accumulated
+        discard();
+      } else if (!done) {
+        mergeVariables(original, routeVars, routeResult);
+        accumulator.accumulate(routeResult);
+      }
+    }
+
+    private synchronized CoreEvent complete() {
+      if (!failures.isEmpty()) {
+        throw propagate(new CompositeRoutingException(new RoutingResult(emptyMap(), failures)));
+      }
+
+      Message result = accumulator.complete();
+      done = true;
+      CoreEvent.Builder resultBuilder = builder(original).message(result);
+      routeVars.forEach((key, typedValue) -> resultBuilder.addVariable(key, typedValue.getValue(), typedValue.getDataType()));
+      return resultBuilder.build();
+    }
+
+    private synchronized void discard() {
+      if (!done) {
+        done = true;
+        routeVars.clear();
+        accumulator.discard();
+      }
+    }
+  }
+}
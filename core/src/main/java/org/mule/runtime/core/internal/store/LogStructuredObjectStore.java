@@ -0,0 +1,1081 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.store;
+
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.ByteBuffer.wrap;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Comparator.comparingLong;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.core.api.config.i18n.CoreMessages.failedToCreate;
+import static org.mule.runtime.core.internal.util.store.MuleObjectStoreManager.UNBOUNDED;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.PartitionableExpirableObjectStore;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.component.InternalComponent;
+import org.mule.runtime.core.api.context.MuleContextAware;
+import org.mule.runtime.core.api.util.FileUtils;
+import org.mule.runtime.core.privileged.store.DeserializationPostInitialisable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+
+/**
+ * Persistent {@link PartitionableExpirableObjectStore} which keeps all its partitions in a log of append-only segment files.
+ * <p>
+ * Every mutation is appended to the active segment as a checksummed record, and an in-memory index maps each key to the
+ * location of its latest value. Unlike {@link PartitionedPersistentObjectStore}, storing an entry doesn't create a file of
+ * its own: concurrent writers share a single {@code fsync} (group commit), and restoring the store on startup only has to
+ * replay the keys of the records, without deserializing any value.
+ * <p>
+ * Once the active segment grows past {@code maxSegmentSize} a new one is started. Sealed segments which are mostly made of
+ * overwritten or removed entries are compacted in the background. The oldest segment is compacted by copying the entries
+ * still alive into the active segment and deleting the old file, since no removal record in it can shadow an older record.
+ * Any other segment is rewritten in place, keeping its position in the log, with its entries still alive and the removal
+ * records that still shadow a record of an older segment, so that no removed entry is revived when the store is restored.
+ * Adjacent small segments are merged by the same rewrite.
+ *
+ * @since 4.2
+ */
+public class LogStructuredObjectStore<T extends Serializable> extends AbstractPartitionableObjectStore<T>
+    implements PartitionableExpirableObjectStore<T>, InternalComponent, MuleContextAware, Disposable {
+
+  private static final Logger LOGGER = getLogger(LogStructuredObjectStore.class);
+
+  public static final String OBJECT_STORE_DIR = "objectstore-log";
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_EXTENSION = ".log";
+  private static final String COMPACTED_SEGMENT_EXTENSION = ".compacted";
+  private static final long DEFAULT_MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+  private static final double COMPACTION_LIVE_RATIO = 0.5;
+
+  // length and checksum of each record
+  private static final int RECORD_HEADER_SIZE = 8;
+
+  private static final byte PUT = 1;
+  private static final byte REMOVE = 2;
+  private static final byte CLEAR = 3;
+
+  private final long maxSegmentSize;
+
+  private MuleContext muleContext;
+  private ObjectSerializer serializer;
+  private File storeDirectory;
+  private Scheduler compactionScheduler;
+  private volatile boolean initialized = false;
+
+  private final ConcurrentMap<String, ConcurrentMap<String, IndexEntry>> partitionsByName = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+  private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+  // Guards appending to the active segment and the updates of the index that go along with each append
+  private final Object writeLock = new Object();
+  private Segment activeSegment;
+  private long writtenSequence = 0;
+
+  // Guards the group commit
+  private final Object syncMonitor = new Object();
+  private long syncedSequence = 0;
+  private boolean syncInProgress = false;
+
+  public LogStructuredObjectStore() {
+    this(DEFAULT_MAX_SEGMENT_SIZE);
+  }
+
+  public LogStructuredObjectStore(MuleContext context) {
+    this(DEFAULT_MAX_SEGMENT_SIZE);
+    muleContext = context;
+  }
+
+  LogStructuredObjectStore(long maxSegmentSize) {
+    this.maxSegmentSize = maxSegmentSize;
+  }
+
+  @Override
+  public void open() throws ObjectStoreException {
+    if (!initialized) {
+      synchronized (this) {
+        if (!initialized) {
+          serializer = muleContext.getObjectSerializer();
+          initObjectStoreDirectory();
+          recover();
+          compactionScheduler = muleContext.getSchedulerService()
+              .ioScheduler(muleContext.getSchedulerBaseConfig().withName("ObjectStore-Compaction"));
+          initialized = true;
+        }
+      }
+    }
+    partitionsByName.computeIfAbsent(DEFAULT_PARTITION_NAME, name -> new ConcurrentHashMap<>());
+  }
+
+  @Override
+  public void open(String partitionName) throws ObjectStoreException {
+    open();
+    partitionsByName.computeIfAbsent(partitionName, name -> new ConcurrentHashMap<>());
+  }
+
+  @Override
+  public void close(String partitionName) throws ObjectStoreException {}
+
+  @Override
+  public boolean isPersistent() {
+    return true;
+  }
+
+  @Override
+  protected boolean doContains(String key, String partitionName) throws ObjectStoreException {
+    return getPartitionIndex(partitionName).containsKey(key);
+  }
+
+  @Override
+  protected void doStore(String key, T value, String partitionName) throws ObjectStoreException {
+    final ConcurrentMap<String, IndexEntry> index = getPartitionIndex(partitionName);
+    final long timestamp = currentTimeMillis();
+    final byte[] record = encodeRecord(PUT, timestamp, partitionName, key, serialize(value));
+
+    final long sequence;
+    synchronized (writeLock) {
+      if (index.containsKey(key)) {
+        throw new ObjectAlreadyExistsException();
+      }
+      index.put(key, append(record, timestamp, true));
+      sequence = writtenSequence;
+    }
+    awaitDurable(sequence);
+  }
+
+  @Override
+  protected T doRetrieve(String key, String partitionName) throws ObjectStoreException {
+    return readValue(getPartitionIndex(partitionName), key);
+  }
+
+  @Override
+  protected T doRemove(String key, String partitionName) throws ObjectStoreException {
+    final ConcurrentMap<String, IndexEntry> index = getPartitionIndex(partitionName);
+    final byte[] tombstone = encodeRecord(REMOVE, currentTimeMillis(), partitionName, key, null);
+
+    while (true) {
+      IndexEntry entry = index.get(key);
+      if (entry == null) {
+        throw new ObjectDoesNotExistException(createStaticMessage("Key does not exist: " + key));
+      }
+      T value = readValue(index, key);
+
+      final long sequence;
+      synchronized (writeLock) {
+        if (!index.remove(key, entry)) {
+          // The entry was moved by a compaction or replaced, read it again
+          continue;
+        }
+        entry.release();
+        appendRemoval(tombstone, entry);
+        sequence = writtenSequence;
+      }
+      awaitDurable(sequence);
+      return value;
+    }
+  }
+
+  @Override
+  public List<String> allKeys(String partitionName) throws ObjectStoreException {
+    return new ArrayList<>(getPartitionIndex(partitionName).keySet());
+  }
+
+  @Override
+  public Map<String, T> retrieveAll(String partitionName) throws ObjectStoreException {
+    final ConcurrentMap<String, IndexEntry> index = getPartitionIndex(partitionName);
+    Map<String, T> values = new LinkedHashMap<>(index.size());
+    for (String key : index.keySet()) {
+      try {
+        values.put(key, readValue(index, key));
+      } catch (ObjectDoesNotExistException e) {
+        // removed concurrently
+      }
+    }
+    return values;
+  }
+
+  @Override
+  public void clear(String partitionName) throws ObjectStoreException {
+    final ConcurrentMap<String, IndexEntry> index = getPartitionIndex(partitionName);
+    final byte[] record = encodeRecord(CLEAR, currentTimeMillis(), partitionName, "", null);
+
+    final long sequence;
+    synchronized (writeLock) {
+      index.values().forEach(IndexEntry::release);
+      index.clear();
+      // Which older records are shadowed by a clear is not tracked, so it is kept until its segment is the oldest one
+      IndexEntry location = append(record, 0, false);
+      location.segment.shadowingBytes.addAndGet(location.length);
+      sequence = writtenSequence;
+    }
+    awaitDurable(sequence);
+  }
+
+  @Override
+  public void disposePartition(String partitionName) throws ObjectStoreException {
+    clear(partitionName);
+    if (!DEFAULT_PARTITION_NAME.equals(partitionName)) {
+      partitionsByName.remove(partitionName);
+    }
+  }
+
+  @Override
+  public List<String> allPartitions() throws ObjectStoreException {
+    return new ArrayList<>(partitionsByName.keySet());
+  }
+
+  @Override
+  public void expire(long entryTTL, int maxEntries) throws ObjectStoreException {
+    expire(entryTTL, maxEntries, DEFAULT_PARTITION_NAME);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The age of each entry is tracked in the index, so no file needs to be read to find out which entries expired. The
+   * removal records of all the expired entries are made durable with a single {@code fsync}.
+   */
+  @Override
+  public void expire(long entryTTL, int maxEntries, String partitionName) throws ObjectStoreException {
+    final ConcurrentMap<String, IndexEntry> index = getPartitionIndex(partitionName);
+
+    List<Entry<String, IndexEntry>> entries = new ArrayList<>(index.entrySet());
+    entries.sort(comparingLong(entry -> entry.getValue().timestamp));
+
+    final long now = currentTimeMillis();
+    final int excess = maxEntries == UNBOUNDED ? 0 : entries.size() - maxEntries;
+    List<Entry<String, IndexEntry>> expired = new ArrayList<>();
+    for (int i = 0; i < entries.size(); i++) {
+      Entry<String, IndexEntry> entry = entries.get(i);
+      if (i < excess || (entryTTL != UNBOUNDED && now - entry.getValue().timestamp >= entryTTL)) {
+        expired.add(entry);
+      } else {
+        break;
+      }
+    }
+
+    if (expired.isEmpty()) {
+      return;
+    }
+
+    final long sequence;
+    synchronized (writeLock) {
+      for (Entry<String, IndexEntry> entry : expired) {
+        if (index.remove(entry.getKey(), entry.getValue())) {
+          entry.getValue().release();
+          appendRemoval(encodeRecord(REMOVE, now, partitionName, entry.getKey(), null), entry.getValue());
+        }
+      }
+      sequence = writtenSequence;
+    }
+    awaitDurable(sequence);
+  }
+
+  @Override
+  public void setMuleContext(MuleContext context) {
+    muleContext = context;
+  }
+
+  @Override
+  public void dispose() {
+    if (compactionScheduler != null) {
+      compactionScheduler.stop();
+    }
+    synchronized (writeLock) {
+      for (Segment segment : segments.values()) {
+        try {
+          segment.channel.force(false);
+          segment.channel.close();
+        } catch (IOException e) {
+          LOGGER.warn("Could not close object store segment " + segment.file.getAbsolutePath(), e);
+        }
+      }
+    }
+  }
+
+  private ConcurrentMap<String, IndexEntry> getPartitionIndex(String partitionName) throws ObjectStoreException {
+    ConcurrentMap<String, IndexEntry> index = partitionsByName.get(partitionName);
+    if (index == null) {
+      throw new ObjectStoreException(createStaticMessage("No partition named: " + partitionName));
+    }
+    return index;
+  }
+
+  private void initObjectStoreDirectory() {
+    if (storeDirectory == null) {
+      storeDirectory = FileUtils.newFile(muleContext.getConfiguration().getWorkingDirectory() + File.separator
+          + OBJECT_STORE_DIR);
+      if (!storeDirectory.exists() && !storeDirectory.mkdirs()) {
+        throw new MuleRuntimeException(failedToCreate("object store directory " + storeDirectory.getAbsolutePath()));
+      }
+    }
+  }
+
+  //////////////////////
+  // Appending
+  //////////////////////
+
+  /**
+   * Appends an already encoded record to the active segment. Must be called while holding {@link #writeLock}.
+   *
+   * @param live whether the record will be referenced from the index, as opposed to removal records
+   * @return the location of the appended record
+   */
+  private IndexEntry append(byte[] record, long timestamp, boolean live) throws ObjectStoreException {
+    try {
+      if (activeSegment.size > 0 && activeSegment.size + record.length > maxSegmentSize) {
+        rotate();
+      }
+
+      final long offset = activeSegment.size;
+      ByteBuffer buffer = wrap(record);
+      while (buffer.hasRemaining()) {
+        activeSegment.channel.write(buffer, offset + buffer.position());
+      }
+      activeSegment.size += record.length;
+      if (live) {
+        activeSegment.liveBytes.addAndGet(record.length);
+      }
+      writtenSequence++;
+
+      return new IndexEntry(activeSegment, offset, record.length, timestamp);
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage("Could not write to object store segment "
+          + activeSegment.file.getAbsolutePath()), e);
+    }
+  }
+
+  /**
+   * Appends the removal record of an entry to the active segment. Must be called while holding {@link #writeLock}.
+   *
+   * @param removed the entry removed from the index
+   */
+  private void appendRemoval(byte[] record, IndexEntry removed) throws ObjectStoreException {
+    IndexEntry location = append(record, 0, false);
+    location.segment.shadow(location.offset, location.length, removed.segment, writtenSequence);
+  }
+
+  private void rotate() throws IOException {
+    activeSegment.channel.force(false);
+    synchronized (syncMonitor) {
+      syncedSequence = writtenSequence;
+      syncMonitor.notifyAll();
+    }
+
+    activeSegment = openSegment(activeSegment.id + 1);
+    segments.put(activeSegment.id, activeSegment);
+    scheduleCompactionIfNeeded();
+  }
+
+  /**
+   * Waits until the record with the given {@code sequence} has been flushed to disk. The first thread to get here becomes the
+   * leader and forces the active segment, which makes all the records appended so far durable, while the rest wait for it
+   * to finish. This way many concurrent writers share the cost of a single {@code fsync}.
+   */
+  private void awaitDurable(long sequence) throws ObjectStoreException {
+    synchronized (syncMonitor) {
+      while (syncedSequence < sequence && syncInProgress) {
+        try {
+          syncMonitor.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new ObjectStoreException(e);
+        }
+      }
+      if (syncedSequence >= sequence) {
+        return;
+      }
+      syncInProgress = true;
+    }
+
+    final long target;
+    final Segment segment;
+    synchronized (writeLock) {
+      target = writtenSequence;
+      segment = activeSegment;
+    }
+
+    boolean synced = false;
+    try {
+      segment.channel.force(false);
+      synced = true;
+    } catch (ClosedChannelException e) {
+      // The segment was rotated and compacted away, and it was forced when rotated
+      synced = true;
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage("Could not flush object store segment "
+          + segment.file.getAbsolutePath()), e);
+    } finally {
+      synchronized (syncMonitor) {
+        syncInProgress = false;
+        if (synced && target > syncedSequence) {
+          syncedSequence = target;
+        }
+        syncMonitor.notifyAll();
+      }
+    }
+  }
+
+  //////////////////////
+  // Reading
+  //////////////////////
+
+  private T readValue(ConcurrentMap<String, IndexEntry> index, String key) throws ObjectStoreException {
+    while (true) {
+      IndexEntry entry = index.get(key);
+      if (entry == null) {
+        throw new ObjectDoesNotExistException(createStaticMessage("Key does not exist: " + key));
+      }
+
+      final byte[] record;
+      try {
+        record = readRecord(entry);
+      } catch (ClosedChannelException e) {
+        if (index.get(key) == entry) {
+          throw new ObjectStoreException(e);
+        }
+        // the entry was moved by a compaction, look it up again
+        continue;
+      } catch (IOException e) {
+        throw new ObjectStoreException(e);
+      }
+
+      return deserialize(decodeRecord(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE).value);
+    }
+  }
+
+  private byte[] readRecord(IndexEntry entry) throws IOException {
+    return read(entry.segment.channel, entry.offset, entry.length);
+  }
+
+  private static byte[] read(FileChannel channel, long offset, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new EOFException();
+      }
+    }
+    return buffer.array();
+  }
+
+  private static void write(FileChannel channel, long offset, byte[] bytes) throws IOException {
+    ByteBuffer buffer = wrap(bytes);
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, offset + buffer.position());
+    }
+  }
+
+  private byte[] serialize(T value) throws ObjectStoreException {
+    try {
+      return serializer.getInternalProtocol().serialize(value);
+    } catch (Exception e) {
+      throw new ObjectStoreException(e);
+    }
+  }
+
+  private T deserialize(byte[] bytes) throws ObjectStoreException {
+    try {
+      T value = serializer.getInternalProtocol().deserialize(bytes);
+      if (value instanceof DeserializationPostInitialisable) {
+        DeserializationPostInitialisable.Implementation.init(value, muleContext);
+      }
+      return value;
+    } catch (Exception e) {
+      throw new ObjectStoreException(e);
+    }
+  }
+
+  //////////////////////
+  // Compaction
+  //////////////////////
+
+  private void scheduleCompactionIfNeeded() {
+    if (compactionScheduler != null && anyNeedsCompaction() && compacting.compareAndSet(false, true)) {
+      compactionScheduler.execute(() -> {
+        try {
+          compact();
+        } catch (Exception e) {
+          LOGGER.warn("Object store compaction failed", e);
+        } finally {
+          compacting.set(false);
+        }
+      });
+    }
+  }
+
+  private boolean anyNeedsCompaction() {
+    final Segment oldest = segments.firstEntry().getValue();
+    for (Segment segment : segments.values()) {
+      if (needsCompaction(segment, segment == oldest)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param oldest whether {@code segment} is the oldest one, in which case none of its removal records is needed anymore
+   */
+  private boolean needsCompaction(Segment segment, boolean oldest) {
+    final long retainedBytes = segment.liveBytes.get() + (oldest ? 0 : segment.shadowingBytes.get());
+    return segment != activeSegment && retainedBytes < segment.size * COMPACTION_LIVE_RATIO;
+  }
+
+  /**
+   * Compacts the oldest sealed segments for as long as most of their content is no longer alive, and then rewrites the runs
+   * of adjacent sealed segments which are either mostly made of records no longer needed or small enough to be merged.
+   */
+  void compact() throws ObjectStoreException {
+    Segment oldest;
+    while ((oldest = segments.firstEntry().getValue()) != null && needsCompaction(oldest, true)) {
+      compactOldest(oldest);
+    }
+
+    final List<Segment> run = new ArrayList<>();
+    long runBytes = 0;
+    boolean runNeedsCompaction = false;
+    for (Segment segment : new ArrayList<>(segments.tailMap(segments.firstKey(), false).values())) {
+      if (segment == activeSegment) {
+        break;
+      }
+      final long retainedBytes = segment.liveBytes.get() + segment.shadowingBytes.get();
+      final boolean needsCompaction = needsCompaction(segment, false);
+      final boolean candidate = needsCompaction || segment.size < maxSegmentSize * COMPACTION_LIVE_RATIO;
+
+      if (!run.isEmpty() && (!candidate || runBytes + retainedBytes > maxSegmentSize)) {
+        if (runNeedsCompaction || run.size() > 1) {
+          rewrite(run);
+        }
+        run.clear();
+        runBytes = 0;
+        runNeedsCompaction = false;
+      }
+      if (candidate) {
+        run.add(segment);
+        runBytes += retainedBytes;
+        runNeedsCompaction |= needsCompaction;
+      }
+    }
+    if (runNeedsCompaction || run.size() > 1) {
+      rewrite(run);
+    }
+  }
+
+  private void compactOldest(Segment oldest) throws ObjectStoreException {
+    for (ConcurrentMap<String, IndexEntry> index : partitionsByName.values()) {
+      for (Entry<String, IndexEntry> entry : index.entrySet()) {
+        if (entry.getValue().segment != oldest) {
+          continue;
+        }
+
+        final byte[] record;
+        try {
+          record = readRecord(entry.getValue());
+        } catch (IOException e) {
+          throw new ObjectStoreException(e);
+        }
+
+        synchronized (writeLock) {
+          if (index.get(entry.getKey()) == entry.getValue()) {
+            entry.getValue().release();
+            index.put(entry.getKey(), append(record, entry.getValue().timestamp, true));
+          }
+        }
+      }
+    }
+
+    // The copies have to be durable before the originals are deleted
+    final long sequence;
+    synchronized (writeLock) {
+      sequence = writtenSequence;
+      segments.remove(oldest.id);
+    }
+    awaitDurable(sequence);
+
+    discard(oldest, null, sequence);
+  }
+
+  /**
+   * Rewrites a run of adjacent sealed segments other than the oldest one into a single segment without the records which are
+   * no longer needed. The new file replaces the first segment of the run once it is durable, keeping the position of the run
+   * in the log, and then the rest of the run is deleted. Should the process stop in between, replaying what is left of the run
+   * after the new segment leads to the same entries.
+   */
+  private void rewrite(List<Segment> run) throws ObjectStoreException {
+    final long rewriteSequence;
+    synchronized (writeLock) {
+      rewriteSequence = writtenSequence;
+    }
+
+    final Segment first = run.get(0);
+    final File compactedFile = new File(storeDirectory, first.file.getName() + COMPACTED_SEGMENT_EXTENSION);
+    final Segment compacted;
+    final List<Moved> moved = new ArrayList<>();
+    try {
+      compacted = new Segment(first.id, first.file,
+                              FileChannel.open(compactedFile.toPath(), CREATE, TRUNCATE_EXISTING, READ, WRITE));
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage("Could not create object store segment "
+          + compactedFile.getAbsolutePath()), e);
+    }
+
+    try {
+      for (Segment segment : run) {
+        long offset = 0;
+        while (offset < segment.size) {
+          final int length = RECORD_HEADER_SIZE + wrap(read(segment.channel, offset, RECORD_HEADER_SIZE)).getInt();
+          final byte[] bytes = read(segment.channel, offset, length);
+          final Record record = decodeRecord(bytes, RECORD_HEADER_SIZE, length - RECORD_HEADER_SIZE);
+
+          if (record.type == PUT) {
+            final ConcurrentMap<String, IndexEntry> index = partitionsByName.get(record.partitionName);
+            final IndexEntry entry = index != null ? index.get(record.key) : null;
+            if (entry != null && entry.segment == segment && entry.offset == offset) {
+              moved.add(new Moved(index, record.key, entry, compacted.size));
+              write(compacted.channel, compacted.size, bytes);
+              compacted.size += length;
+            }
+          } else if (record.type == REMOVE) {
+            // The records removed from a segment of the run are not copied
+            final Removal removal = segment.removals.get(offset);
+            if (removal != null && !run.contains(removal.shadowed)) {
+              write(compacted.channel, compacted.size, bytes);
+              compacted.shadow(compacted.size, length, removal.shadowed, removal.sequence);
+              compacted.size += length;
+            }
+          } else {
+            write(compacted.channel, compacted.size, bytes);
+            compacted.shadowingBytes.addAndGet(length);
+            compacted.size += length;
+          }
+
+          offset += length;
+        }
+      }
+      compacted.channel.force(false);
+
+      synchronized (writeLock) {
+        if (compacted.size > 0) {
+          Files.move(compactedFile.toPath(), first.file.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+          for (Moved entry : moved) {
+            final IndexEntry relocated = new IndexEntry(compacted, entry.offset, entry.entry.length, entry.entry.timestamp);
+            if (entry.index.replace(entry.key, entry.entry, relocated)) {
+              compacted.liveBytes.addAndGet(relocated.length);
+            }
+          }
+        }
+        for (Segment segment : run) {
+          segments.remove(segment.id);
+        }
+        if (compacted.size > 0) {
+          segments.put(compacted.id, compacted);
+        }
+      }
+    } catch (IOException e) {
+      closeQuietly(compacted);
+      compactedFile.delete();
+      throw new ObjectStoreException(createStaticMessage("Could not compact object store segment "
+          + first.file.getAbsolutePath()), e);
+    }
+
+    final Segment replacement = compacted.size > 0 ? compacted : null;
+    if (replacement == null) {
+      closeQuietly(compacted);
+      compactedFile.delete();
+    }
+    // in order, so that what is left of the run is always its newest part
+    for (Segment segment : run) {
+      discard(segment, replacement, rewriteSequence);
+    }
+  }
+
+  /**
+   * Closes and deletes the file of a segment that was compacted, and updates the removal records of the newer segments that
+   * shadowed any of its records.
+   *
+   * @param replacement the segment its records still alive were copied into, if it was rewritten
+   * @param sequence removal records appended after this sequence may shadow a record which is also in {@code replacement}
+   */
+  private void discard(Segment segment, Segment replacement, long sequence) {
+    for (Segment newer : segments.tailMap(segment.id, false).values()) {
+      newer.unshadow(segment, replacement, sequence);
+    }
+
+    closeQuietly(segment);
+    if ((replacement == null || !replacement.file.equals(segment.file)) && !segment.file.delete()) {
+      LOGGER.warn("Could not delete compacted object store segment " + segment.file.getAbsolutePath());
+    }
+  }
+
+  private static void closeQuietly(Segment segment) {
+    try {
+      segment.channel.close();
+    } catch (IOException e) {
+      LOGGER.warn("Could not close object store segment " + segment.file.getAbsolutePath(), e);
+    }
+  }
+
+  //////////////////////
+  // Recovery
+  //////////////////////
+
+  private void recover() throws ObjectStoreException {
+    // Leftovers of a compaction interrupted before replacing its segment
+    File[] leftovers = storeDirectory.listFiles(file -> file.getName().endsWith(COMPACTED_SEGMENT_EXTENSION));
+    if (leftovers != null) {
+      for (File leftover : leftovers) {
+        leftover.delete();
+      }
+    }
+
+    File[] files = storeDirectory.listFiles(file -> file.isFile() && file.getName().startsWith(SEGMENT_PREFIX)
+        && file.getName().endsWith(SEGMENT_EXTENSION));
+    long[] ids = files == null ? new long[0] : Arrays.stream(files).mapToLong(LogStructuredObjectStore::segmentId).sorted()
+        .toArray();
+
+    try {
+      for (int i = 0; i < ids.length; i++) {
+        Segment segment = openSegment(ids[i]);
+        segments.put(segment.id, segment);
+        long validLength = replay(segment);
+        if (validLength < segment.channel.size()) {
+          if (i == ids.length - 1) {
+            // torn write while appending to what was the active segment
+            LOGGER.warn(format("Truncating incomplete record at offset %d of object store segment %s", validLength,
+                               segment.file.getAbsolutePath()));
+            segment.channel.truncate(validLength);
+          } else {
+            LOGGER.warn(format("Skipping corrupted records from offset %d of object store segment %s", validLength,
+                               segment.file.getAbsolutePath()));
+          }
+        }
+        segment.size = validLength;
+      }
+
+      if (segments.isEmpty()) {
+        activeSegment = openSegment(0);
+        segments.put(activeSegment.id, activeSegment);
+      } else {
+        activeSegment = segments.lastEntry().getValue();
+      }
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage(format("Could not restore object store data from %s",
+                                                                storeDirectory.getAbsolutePath())),
+                                     e);
+    }
+  }
+
+  /**
+   * Rebuilds the index with the records of the given segment. The values are not deserialized.
+   *
+   * @return the length of the segment up to its last valid record
+   */
+  private long replay(Segment segment) throws IOException, ObjectStoreException {
+    final long segmentLength = segment.channel.size();
+    long offset = 0;
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(segment.file)))) {
+      while (true) {
+        final int length;
+        final int checksum;
+        final byte[] body;
+        try {
+          length = input.readInt();
+          checksum = input.readInt();
+          if (length <= 0 || offset + RECORD_HEADER_SIZE + length > segmentLength) {
+            return offset;
+          }
+          body = new byte[length];
+          input.readFully(body);
+        } catch (EOFException e) {
+          return offset;
+        }
+
+        if (checksum(body, 0, length) != checksum) {
+          return offset;
+        }
+
+        Record record = decodeRecord(body, 0, length);
+        int recordLength = RECORD_HEADER_SIZE + length;
+
+        if (record.type == PUT) {
+          segment.liveBytes.addAndGet(recordLength);
+          IndexEntry previous = partitionsByName.computeIfAbsent(record.partitionName, name -> new ConcurrentHashMap<>())
+              .put(record.key, new IndexEntry(segment, offset, recordLength, record.timestamp));
+          if (previous != null) {
+            previous.release();
+          }
+          offset += recordLength;
+          continue;
+        }
+
+        ConcurrentMap<String, IndexEntry> index = partitionsByName.get(record.partitionName);
+        if (record.type == CLEAR) {
+          segment.shadowingBytes.addAndGet(recordLength);
+        }
+        if (index == null) {
+          // the partition has no entries
+        } else if (record.type == REMOVE) {
+          IndexEntry previous = index.remove(record.key);
+          if (previous != null) {
+            previous.release();
+            segment.shadow(offset, recordLength, previous.segment, 0);
+          }
+        } else if (record.type == CLEAR) {
+          index.values().forEach(IndexEntry::release);
+          index.clear();
+        }
+
+        offset += recordLength;
+      }
+    }
+  }
+
+  private Segment openSegment(long id) throws IOException {
+    File file = new File(storeDirectory, format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_EXTENSION));
+    return new Segment(id, file, FileChannel.open(file.toPath(), CREATE, READ, WRITE));
+  }
+
+  private static long segmentId(File file) {
+    String name = file.getName();
+    return parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length()));
+  }
+
+  //////////////////////
+  // Record encoding
+  //////////////////////
+
+  private static byte[] encodeRecord(byte type, long timestamp, String partitionName, String key, byte[] value)
+      throws ObjectStoreException {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (value != null ? value.length : 0));
+      DataOutputStream output = new DataOutputStream(bytes);
+      // placeholders for the header
+      output.writeInt(0);
+      output.writeInt(0);
+      output.writeByte(type);
+      output.writeLong(timestamp);
+      output.writeUTF(partitionName);
+      // Unlike writeUTF, not limited to 64KB
+      byte[] keyBytes = key.getBytes(UTF_8);
+      output.writeInt(keyBytes.length);
+      output.write(keyBytes);
+      if (value != null) {
+        output.writeInt(value.length);
+        output.write(value);
+      } else {
+        output.writeInt(-1);
+      }
+      output.flush();
+
+      byte[] record = bytes.toByteArray();
+      int length = record.length - RECORD_HEADER_SIZE;
+      ByteBuffer header = wrap(record, 0, RECORD_HEADER_SIZE);
+      header.putInt(length);
+      header.putInt(checksum(record, RECORD_HEADER_SIZE, length));
+      return record;
+    } catch (IOException e) {
+      throw new ObjectStoreException(e);
+    }
+  }
+
+  private static Record decodeRecord(byte[] bytes, int offset, int length) throws ObjectStoreException {
+    try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes, offset, length))) {
+      byte type = input.readByte();
+      long timestamp = input.readLong();
+      String partitionName = input.readUTF();
+      byte[] keyBytes = new byte[input.readInt()];
+      input.readFully(keyBytes);
+      String key = new String(keyBytes, UTF_8);
+      int valueLength = input.readInt();
+      byte[] value = null;
+      if (valueLength >= 0) {
+        value = new byte[valueLength];
+        input.readFully(value);
+      }
+      return new Record(type, timestamp, partitionName, key, value);
+    } catch (IOException e) {
+      throw new ObjectStoreException(e);
+    }
+  }
+
+  private static int checksum(byte[] bytes, int offset, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, offset, length);
+    return (int) crc.getValue();
+  }
+
+  private static final class Record {
+
+    private final byte type;
+    private final long timestamp;
+    private final String partitionName;
+    private final String key;
+    private final byte[] value;
+
+    private Record(byte type, long timestamp, String partitionName, String key, byte[] value) {
+      this.type = type;
+      this.timestamp = timestamp;
+      this.partitionName = partitionName;
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private static final class Segment {
+
+    private final long id;
+    private final File file;
+    private final FileChannel channel;
+    private final AtomicLong liveBytes = new AtomicLong();
+    // Length of the removal records which may still shadow a record of an older segment
+    private final AtomicLong shadowingBytes = new AtomicLong();
+    // The removal records which shadow a record of an older segment, by their offset
+    private final ConcurrentMap<Long, Removal> removals = new ConcurrentHashMap<>();
+    // Only modified while holding the write lock
+    private volatile long size;
+
+    private Segment(long id, File file, FileChannel channel) {
+      this.id = id;
+      this.file = file;
+      this.channel = channel;
+    }
+
+    /**
+     * Accounts a removal record of this segment, which is needed as long as {@code shadowed} holds the removed record.
+     */
+    private void shadow(long offset, int length, Segment shadowed, long sequence) {
+      if (shadowed != this) {
+        removals.put(offset, new Removal(shadowed, length, sequence));
+        shadowingBytes.addAndGet(length);
+      }
+    }
+
+    /**
+     * Updates the removal records that shadow records of a segment that was compacted.
+     *
+     * @param compacted the compacted segment
+     * @param replacement the segment the records of {@code compacted} still alive were copied into, if it was rewritten
+     * @param sequence the removal records appended after this sequence may shadow a record copied into {@code replacement}
+     */
+    private void unshadow(Segment compacted, Segment replacement, long sequence) {
+      for (Entry<Long, Removal> entry : removals.entrySet()) {
+        final Removal removal = entry.getValue();
+        if (removal.shadowed != compacted) {
+          continue;
+        }
+        if (replacement != null && removal.sequence > sequence) {
+          entry.setValue(new Removal(replacement, removal.length, removal.sequence));
+        } else if (removals.remove(entry.getKey(), removal)) {
+          shadowingBytes.addAndGet(-removal.length);
+        }
+      }
+    }
+  }
+
+  /**
+   * A removal record which shadows a record of an older segment.
+   */
+  private static final class Removal {
+
+    private final Segment shadowed;
+    private final int length;
+    private final long sequence;
+
+    private Removal(Segment shadowed, int length, long sequence) {
+      this.shadowed = shadowed;
+      this.length = length;
+      this.sequence = sequence;
+    }
+  }
+
+  /**
+   * A record still alive copied by a rewrite of its segment.
+   */
+  private static final class Moved {
+
+    private final ConcurrentMap<String, IndexEntry> index;
+    private final String key;
+    private final IndexEntry entry;
+    private final long offset;
+
+    private Moved(ConcurrentMap<String, IndexEntry> index, String key, IndexEntry entry, long offset) {
+      this.index = index;
+      this.key = key;
+      this.entry = entry;
+      this.offset = offset;
+    }
+  }
+
+  /**
+   * Location of the latest record of a key.
+   */
+  private static final class IndexEntry {
+
+    private final Segment segment;
+    private final long offset;
+    private final int length;
+    private final long timestamp;
+
+    private IndexEntry(Segment segment, long offset, int length, long timestamp) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+      this.timestamp = timestamp;
+    }
+
+    /**
+     * Accounts that the record of this entry is no longer alive
+     */
+    private void release() {
+      segment.liveBytes.addAndGet(-length);
+    }
+  }
+}
@@ -7,6 +7,7 @@
 package org.mule.runtime.core.internal.streaming;
 
 import org.mule.runtime.api.streaming.CursorProvider;
+import org.mule.runtime.core.internal.streaming.EventStreamingState.ProviderNode;
 import org.mule.runtime.core.privileged.event.BaseEventContext;
 
 /**
@@ -18,16 +19,23 @@ public final class CursorContext {
 
   private final CursorProvider cursorProvider;
   private final BaseEventContext ownerContext;
+  private final EventStreamingState streamingState;
+  private final ProviderNode providerNode;
 
   /**
    * Creates a new instance
    *
    * @param cursorProvider the {@link CursorProvider} which will be managed
    * @param ownerContext   the {@link BaseEventContext} which owns the {@code cursorProvider}
+   * @param streamingState the {@link EventStreamingState} attached to the {@code ownerContext}
+   * @param providerNode   the node which tracks the {@code cursorProvider} in the {@code streamingState}
    */
-  public CursorContext(CursorProvider cursorProvider, BaseEventContext ownerContext) {
+  CursorContext(CursorProvider cursorProvider, BaseEventContext ownerContext, EventStreamingState streamingState,
+                ProviderNode providerNode) {
     this.cursorProvider = cursorProvider;
     this.ownerContext = ownerContext;
+    this.streamingState = streamingState;
+    this.providerNode = providerNode;
   }
 
   /**
@@ -43,4 +51,12 @@ public final class CursorContext {
   public BaseEventContext getOwnerContext() {
     return ownerContext;
   }
+
+  EventStreamingState getStreamingState() {
+    return streamingState;
+  }
+
+  ProviderNode getProviderNode() {
+    return providerNode;
+  }
 }
@@ -6,7 +6,6 @@
  */
 package org.mule.runtime.core.internal.streaming;
 
-import static java.util.Collections.newSetFromMap;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 
 import org.mule.runtime.api.exception.MuleRuntimeException;
@@ -16,6 +15,7 @@ import org.mule.runtime.api.streaming.CursorProvider;
 import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
 import org.mule.runtime.api.streaming.object.CursorIteratorProvider;
 import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.internal.streaming.EventStreamingState.ProviderNode;
 import org.mule.runtime.core.internal.streaming.bytes.ManagedCursorStreamProvider;
 import org.mule.runtime.core.internal.streaming.object.ManagedCursorIteratorProvider;
 import org.mule.runtime.core.privileged.event.BaseEventContext;
@@ -23,18 +23,10 @@ import org.mule.runtime.core.privileged.event.BaseEventContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.cache.RemovalListener;
-import com.google.common.cache.RemovalNotification;
-
-import java.util.Collection;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Keeps track of active {@link Cursor cursors} and their {@link CursorProvider providers}
@@ -45,20 +37,12 @@ public class CursorManager {
 
   private static Logger LOGGER = LoggerFactory.getLogger(CursorManager.class);
 
-  private final LoadingCache<String, EventStreamingState> registry =
-      CacheBuilder.newBuilder()
-          .removalListener((RemovalNotification<String, EventStreamingState> notification) -> notification.getValue().dispose())
-          .build(new CacheLoader<String, EventStreamingState>() {
-
-            @Override
-            public EventStreamingState load(String key) throws Exception {
-              return new EventStreamingState();
-            }
-          });
-
   private final MutableStreamingStatistics statistics;
   private final Scheduler disposalScheduler;
 
+  private final Queue<EventStreamingState> pendingDisposal = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean disposalScheduled = new AtomicBoolean(false);
+
   /**
    * Creates a new instance
    *
@@ -80,10 +64,22 @@ public class CursorManager {
    */
   public CursorProvider manage(CursorProvider provider, CoreEvent creatorEvent) {
     final BaseEventContext ownerContext = ((BaseEventContext) creatorEvent.getContext()).getRootContext();
-    registerEventContext(ownerContext);
-    registry.getUnchecked(ownerContext.getId()).addProvider(provider);
+    final EventStreamingState state = ownerContext.getStreamingState(EventStreamingState::new);
+    if (state.markRegistered()) {
+      ownerContext.onTerminated((response, throwable) -> {
+        state.markTerminated();
+        scheduleDisposal(state);
+      });
+    }
 
-    final CursorContext context = new CursorContext(provider, ownerContext);
+    final ProviderNode providerNode = state.addProvider(provider);
+    statistics.incrementOpenProviders();
+    if (state.isTerminated()) {
+      // The owner context already completed, so nothing else would release this provider
+      dispose(state);
+    }
+
+    final CursorContext context = new CursorContext(provider, ownerContext, state, providerNode);
     if (provider instanceof CursorStreamProvider) {
       return new ManagedCursorStreamProvider(context, this);
     } else if (provider instanceof CursorIteratorProvider) {
@@ -100,11 +96,10 @@ public class CursorManager {
    * @param providerHandle the handle for the provider that generated it
    */
   public void onOpen(Cursor cursor, CursorContext providerHandle) {
-    registry.getUnchecked(providerHandle.getOwnerContext().getId()).addCursor(providerHandle.getCursorProvider(), cursor);
+    providerHandle.getStreamingState().addCursor(providerHandle.getProviderNode(), cursor);
     statistics.incrementOpenCursors();
   }
 
-
   /**
    * Acknowledges that the given {@code cursor} has been closed
    *
@@ -112,105 +107,53 @@ public class CursorManager {
    * @param handle the handle for the provider that generated it
    */
   public void onClose(Cursor cursor, CursorContext handle) {
-    final String eventId = handle.getOwnerContext().getId();
-    EventStreamingState state = registry.getIfPresent(eventId);
-
-    if (state != null && state.removeCursor(handle.getCursorProvider(), cursor)) {
-      registry.invalidate(eventId);
-    }
-  }
-
-  private void terminated(BaseEventContext rootContext) {
-    EventStreamingState state = registry.getIfPresent(rootContext.getId());
-    if (state != null) {
-      registry.invalidate(rootContext.getId());
+    final EventStreamingState state = handle.getStreamingState();
+    if (state.removeCursor(handle.getProviderNode(), cursor)) {
+      statistics.decrementOpenCursors();
+      if (state.getOpenCursors() <= 0 && handle.getCursorProvider().isClosed()) {
+        scheduleDisposal(state);
+      }
     }
   }
 
   /**
-   * Duplicate registration will occur if cursors are opened in multiple child flows or processing branches. This means terminate
-   * will fire multiple times sequentially during completion of the parent EventContext. After the first terminate all other
-   * invocation will literally be no-ops. This is preferred to introducing contention here given multiple thread may be opening
-   * cursors concurrently.
+   * Queues the given {@code state} for disposal. States are disposed in batches: only one disposal task is submitted to
+   * the {@link #disposalScheduler} at a time, and it drains all the states queued up to that moment. Invoking this method
+   * many times for the same {@code state} (which happens when the context terminates after all its cursors were closed)
+   * only queues it once until it is disposed.
    */
-  private void registerEventContext(BaseEventContext eventContext) {
-    eventContext.onTerminated((response, throwable) -> terminated(eventContext));
-  }
-
-  private class EventStreamingState {
-
-    private AtomicBoolean disposed = new AtomicBoolean(false);
-    private AtomicInteger cursorCount = new AtomicInteger(0);
-
-    private final LoadingCache<CursorProvider, Set<Cursor>> cursors = CacheBuilder.newBuilder()
-        .removalListener((RemovalListener<CursorProvider, Set<Cursor>>) notification -> {
-          try {
-            closeProvider(notification.getKey());
-            releaseAll(notification.getValue());
-          } finally {
-            notification.getKey().releaseResources();
-          }
-        })
-        .build(new CacheLoader<CursorProvider, Set<Cursor>>() {
-
-          @Override
-          public Set<Cursor> load(CursorProvider key) throws Exception {
-            statistics.incrementOpenProviders();
-            return newSetFromMap(new ConcurrentHashMap<>());
-          }
-        });
-
-    private synchronized void addProvider(CursorProvider adapter) {
-      cursors.getUnchecked(adapter);
+  private void scheduleDisposal(EventStreamingState state) {
+    if (!state.markDisposalScheduled()) {
+      return;
     }
 
-    private void addCursor(CursorProvider provider, Cursor cursor) {
-      cursors.getUnchecked(provider).add(cursor);
-      cursorCount.incrementAndGet();
-    }
-
-    private boolean removeCursor(CursorProvider provider, Cursor cursor) {
-      Set<Cursor> openCursors = cursors.getUnchecked(provider);
-      if (openCursors.remove(cursor)) {
-        statistics.decrementOpenCursors();
-        if (cursorCount.decrementAndGet() <= 0 && provider.isClosed()) {
-          dispose();
-          return true;
-        }
+    pendingDisposal.offer(state);
+    if (disposalScheduled.compareAndSet(false, true)) {
+      try {
+        disposalScheduler.execute(this::drainPendingDisposal);
+      } catch (RejectedExecutionException e) {
+        // If the Scheduler is busy and can't accept the task, we perform it in the current thread.
+        drainPendingDisposal();
       }
-
-      return false;
     }
+  }
 
-    private void dispose() {
-      if (disposed.compareAndSet(false, true)) {
-        try {
-          disposalScheduler.execute(() -> {
-            cursors.invalidateAll();
-          });
-        } catch (RejectedExecutionException e) {
-          // If the Scheduler is busy and can't accept the task, we perform it in the current thread.
-          cursors.invalidateAll();
-        }
+  private void drainPendingDisposal() {
+    do {
+      EventStreamingState state;
+      while ((state = pendingDisposal.poll()) != null) {
+        dispose(state);
       }
-    }
-
-    private void releaseAll(Collection<Cursor> cursors) {
-      cursors.forEach(cursor -> {
-        try {
-          cursor.release();
-          statistics.decrementOpenCursors();
-        } catch (Exception e) {
-          LOGGER.warn("Exception was found trying to close cursor. Execution will continue", e);
-        }
-      });
-    }
+      disposalScheduled.set(false);
+      // a state may have been queued after the last poll but before the flag was reset
+    } while (!pendingDisposal.isEmpty() && disposalScheduled.compareAndSet(false, true));
+  }
 
-    private void closeProvider(CursorProvider provider) {
-      if (!provider.isClosed()) {
-        provider.close();
-        statistics.decrementOpenProviders();
-      }
+  private void dispose(EventStreamingState state) {
+    try {
+      state.dispose(statistics);
+    } catch (Exception e) {
+      LOGGER.warn("Exception was found trying to dispose streaming resources. Execution will continue", e);
     }
   }
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming;
+
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+
+import org.mule.runtime.api.streaming.Cursor;
+import org.mule.runtime.api.streaming.CursorProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Tracks the {@link CursorProvider providers} and open {@link Cursor cursors} owned by a root
+ * {@link org.mule.runtime.core.privileged.event.BaseEventContext}. Instances are attached to the context itself through
+ * {@link org.mule.runtime.core.privileged.event.BaseEventContext#getStreamingState(java.util.function.Supplier)}, so no
+ * global registry lookup is needed to find them.
+ * <p>
+ * Providers and cursors are kept in intrusive lock-free stacks, and open cursors are counted with field updaters, so
+ * tracking a cursor allocates a single node and never blocks. Nodes of closed cursors are unlinked lazily from the top
+ * of the stack each time a new cursor is pushed.
+ * <p>
+ * The state may be disposed many times: each disposal takes over the providers tracked up to that moment, so providers
+ * tracked afterwards (i.e.: managed after the owning context terminated) are released by a later disposal.
+ *
+ * @since 4.2
+ */
+final class EventStreamingState {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventStreamingState.class);
+
+  private static final AtomicReferenceFieldUpdater<EventStreamingState, ProviderNode> PROVIDERS =
+      AtomicReferenceFieldUpdater.newUpdater(EventStreamingState.class, ProviderNode.class, "providers");
+  private static final AtomicIntegerFieldUpdater<EventStreamingState> OPEN_CURSORS =
+      newUpdater(EventStreamingState.class, "openCursors");
+  private static final AtomicIntegerFieldUpdater<EventStreamingState> REGISTERED =
+      newUpdater(EventStreamingState.class, "registered");
+  private static final AtomicIntegerFieldUpdater<EventStreamingState> DISPOSAL_SCHEDULED =
+      newUpdater(EventStreamingState.class, "disposalScheduled");
+
+  private volatile ProviderNode providers;
+  private volatile int openCursors;
+  private volatile int registered;
+  private volatile int disposalScheduled;
+  private volatile boolean terminated;
+
+  /**
+   * Flags this state as registered for termination of its owning context.
+   *
+   * @return {@code true} if this is the first invocation
+   */
+  boolean markRegistered() {
+    return REGISTERED.compareAndSet(this, 0, 1);
+  }
+
+  /**
+   * Flags this state as scheduled for disposal.
+   *
+   * @return {@code true} if it wasn't already scheduled since the last {@link #dispose(MutableStreamingStatistics)}, meaning
+   *         that the caller should invoke it
+   */
+  boolean markDisposalScheduled() {
+    return DISPOSAL_SCHEDULED.compareAndSet(this, 0, 1);
+  }
+
+  /**
+   * Flags the owning context of this state as terminated, after which any tracked provider has to be disposed right away.
+   */
+  void markTerminated() {
+    terminated = true;
+  }
+
+  /**
+   * @return whether the owning context of this state has terminated
+   */
+  boolean isTerminated() {
+    return terminated;
+  }
+
+  /**
+   * Starts tracking the given {@code provider}
+   *
+   * @param provider the provider to track
+   * @return the node which tracks the provider
+   */
+  ProviderNode addProvider(CursorProvider provider) {
+    final ProviderNode node = new ProviderNode(provider);
+    ProviderNode head;
+    do {
+      head = providers;
+      node.next = head;
+    } while (!PROVIDERS.compareAndSet(this, head, node));
+
+    return node;
+  }
+
+  /**
+   * Starts tracking the given {@code cursor}
+   *
+   * @param providerNode the node of the provider which opened the cursor
+   * @param cursor       the opened cursor
+   */
+  void addCursor(ProviderNode providerNode, Cursor cursor) {
+    providerNode.push(new CursorNode(cursor));
+    OPEN_CURSORS.incrementAndGet(this);
+  }
+
+  /**
+   * Stops tracking the given {@code cursor}. Closing the same cursor many times only counts once.
+   *
+   * @param providerNode the node of the provider which opened the cursor
+   * @param cursor       the closed cursor
+   * @return whether the cursor was actually being tracked
+   */
+  boolean removeCursor(ProviderNode providerNode, Cursor cursor) {
+    for (CursorNode node = providerNode.cursors; node != null; node = node.next) {
+      if (node.cursor == cursor) {
+        if (node.markClosed()) {
+          OPEN_CURSORS.decrementAndGet(this);
+          return true;
+        }
+        return false;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @return the amount of cursors which were opened and not yet closed
+   */
+  int getOpenCursors() {
+    return openCursors;
+  }
+
+  /**
+   * Closes all the tracked providers and releases the cursors which are still open.
+   *
+   * @param statistics the statistics to update
+   */
+  void dispose(MutableStreamingStatistics statistics) {
+    // Reset before taking over the providers, so that the ones tracked from now on are disposed again
+    disposalScheduled = 0;
+    for (ProviderNode providerNode = PROVIDERS.getAndSet(this, null); providerNode != null; providerNode =
+        providerNode.next) {
+      final CursorProvider provider = providerNode.provider;
+      try {
+        closeProvider(provider, statistics);
+        releaseAll(providerNode, statistics);
+      } finally {
+        provider.releaseResources();
+      }
+    }
+  }
+
+  private void releaseAll(ProviderNode providerNode, MutableStreamingStatistics statistics) {
+    for (CursorNode node = providerNode.cursors; node != null; node = node.next) {
+      if (node.markClosed()) {
+        try {
+          node.cursor.release();
+          statistics.decrementOpenCursors();
+        } catch (Exception e) {
+          LOGGER.warn("Exception was found trying to close cursor. Execution will continue", e);
+        }
+      }
+    }
+  }
+
+  private void closeProvider(CursorProvider provider, MutableStreamingStatistics statistics) {
+    if (!provider.isClosed()) {
+      provider.close();
+      statistics.decrementOpenProviders();
+    }
+  }
+
+  /**
+   * A tracked provider, which is also the head of the stack of the cursors it opened
+   */
+  static final class ProviderNode {
+
+    private static final AtomicReferenceFieldUpdater<ProviderNode, CursorNode> CURSORS =
+        AtomicReferenceFieldUpdater.newUpdater(ProviderNode.class, CursorNode.class, "cursors");
+
+    private final CursorProvider provider;
+    private volatile CursorNode cursors;
+    private ProviderNode next;
+
+    private ProviderNode(CursorProvider provider) {
+      this.provider = provider;
+    }
+
+    /**
+     * @return the tracked provider
+     */
+    CursorProvider getProvider() {
+      return provider;
+    }
+
+    private void push(CursorNode node) {
+      CursorNode observed;
+      do {
+        observed = cursors;
+        CursorNode head = observed;
+        while (head != null && head.closed != 0) {
+          head = head.next;
+        }
+        node.next = head;
+      } while (!CURSORS.compareAndSet(this, observed, node));
+    }
+  }
+
+  private static final class CursorNode {
+
+    private static final AtomicIntegerFieldUpdater<CursorNode> CLOSED = newUpdater(CursorNode.class, "closed");
+
+    private final Cursor cursor;
+    private volatile int closed;
+    private CursorNode next;
+
+    private CursorNode(Cursor cursor) {
+      this.cursor = cursor;
+    }
+
+    private boolean markClosed() {
+      return CLOSED.compareAndSet(this, 0, 1);
+    }
+  }
+}
@@ -9,6 +9,8 @@ package org.mule.runtime.core.internal.streaming;
 import org.mule.runtime.core.api.streaming.StreamingStatistics;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Mutable implementation of {@link StreamingStatistics}
@@ -19,6 +21,10 @@ public class MutableStreamingStatistics implements StreamingStatistics {
 
   private final AtomicInteger openProviders = new AtomicInteger(0);
   private final AtomicInteger openCursors = new AtomicInteger(0);
+  private final LongAdder bufferPoolHits = new LongAdder();
+  private final LongAdder bufferPoolMisses = new LongAdder();
+  private final LongAdder bufferPoolWaits = new LongAdder();
+  private final AtomicLong bufferMemoryInUse = new AtomicLong(0);
 
   void incrementOpenProviders() {
     openProviders.incrementAndGet();
@@ -36,6 +42,22 @@ public class MutableStreamingStatistics implements StreamingStatistics {
     openCursors.decrementAndGet();
   }
 
+  public void incrementBufferPoolHits() {
+    bufferPoolHits.increment();
+  }
+
+  public void incrementBufferPoolMisses() {
+    bufferPoolMisses.increment();
+  }
+
+  public void incrementBufferPoolWaits() {
+    bufferPoolWaits.increment();
+  }
+
+  public void addBufferMemoryInUse(long bytes) {
+    bufferMemoryInUse.addAndGet(bytes);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -51,4 +73,36 @@ public class MutableStreamingStatistics implements StreamingStatistics {
   public int getOpenCursorsCount() {
     return openCursors.get();
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getBufferPoolHits() {
+    return bufferPoolHits.sum();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getBufferPoolMisses() {
+    return bufferPoolMisses.sum();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getBufferPoolWaits() {
+    return bufferPoolWaits.sum();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getBufferMemoryInUse() {
+    return bufferMemoryInUse.get();
+  }
 }
@@ -8,7 +8,6 @@ package org.mule.runtime.core.internal.streaming.bytes;
 
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
-import static java.lang.System.arraycopy;
 import static java.nio.channels.Channels.newChannel;
 import static org.mule.runtime.api.util.Preconditions.checkState;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -187,18 +186,25 @@ public abstract class AbstractInputStreamBuffer extends AbstractStreamingBuffer
   protected abstract boolean canDoSoftCopy();
 
   private ByteBuffer softCopy(long position, int length) {
-    final int offset = toIntExact(position);
-    final ByteBuffer b = buffer.get();
-    return ByteBuffer.wrap(b.array(), offset, min(length, b.limit() - offset)).slice();
+    return slice(buffer.get(), toIntExact(position), length);
   }
 
   private ByteBuffer hardCopy(long position, int length) {
-    final int offset = toIntExact(position);
-    final ByteBuffer bf = buffer.get();
-    length = min(length, bf.limit() - offset);
+    final ByteBuffer slice = slice(buffer.get(), toIntExact(position), length);
 
-    byte[] b = new byte[length];
-    arraycopy(bf.array(), offset, b, 0, length);
+    byte[] b = new byte[slice.remaining()];
+    slice.get(b);
     return ByteBuffer.wrap(b);
   }
+
+  /**
+   * Creates a view of the given {@code source} buffer without relying on it having a backing array,
+   * so that buffers handed out by any {@link ByteBufferManager} (including direct ones) are supported.
+   */
+  private ByteBuffer slice(ByteBuffer source, int offset, int length) {
+    final ByteBuffer view = source.duplicate();
+    view.limit(offset + min(length, source.limit() - offset));
+    view.position(offset);
+    return view.slice();
+  }
 }
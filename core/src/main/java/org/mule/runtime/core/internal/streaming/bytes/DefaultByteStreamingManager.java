@@ -7,7 +7,8 @@
 package org.mule.runtime.core.internal.streaming.bytes;
 
 import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
-import org.mule.runtime.core.api.streaming.bytes.factory.InMemoryCursorStreamProviderFactory;
+import org.mule.runtime.core.internal.streaming.bytes.factory.FileStoreCursorStreamProviderFactory;
+import org.mule.runtime.core.internal.streaming.bytes.factory.MappedFileCursorStreamProviderFactory;
 import org.mule.runtime.core.internal.streaming.bytes.factory.NullCursorStreamProviderFactory;
 import org.mule.runtime.core.api.streaming.StreamingManager;
 import org.mule.runtime.core.api.streaming.bytes.ByteStreamingManager;
@@ -34,7 +35,19 @@ public class DefaultByteStreamingManager implements ByteStreamingManager {
    */
   @Override
   public CursorStreamProviderFactory getInMemoryCursorProviderFactory(InMemoryCursorStreamConfig config) {
-    return new InMemoryCursorStreamProviderFactory(bufferManager, config, streamingManager);
+    return new MappedFileCursorStreamProviderFactory(bufferManager, config, streamingManager);
+  }
+
+  /**
+   * Creates a {@link CursorStreamProviderFactory} which buffers in memory up to
+   * {@link FileStoreCursorStreamConfig#getMaxInMemorySize()} and then overflows into a local file
+   *
+   * @param config the configuration for the produced providers
+   * @return a new {@link CursorStreamProviderFactory}
+   * @since 4.2
+   */
+  public CursorStreamProviderFactory getFileStoreCursorProviderFactory(FileStoreCursorStreamConfig config) {
+    return new FileStoreCursorStreamProviderFactory(bufferManager, config, streamingManager);
   }
 
   /**
@@ -50,7 +63,7 @@ public class DefaultByteStreamingManager implements ByteStreamingManager {
    */
   @Override
   public CursorStreamProviderFactory getDefaultCursorProviderFactory() {
-    return new InMemoryCursorStreamProviderFactory(bufferManager, InMemoryCursorStreamConfig.getDefault(), streamingManager);
+    return new MappedFileCursorStreamProviderFactory(bufferManager, InMemoryCursorStreamConfig.getDefault(), streamingManager);
   }
 
   protected ByteBufferManager getBufferManager() {
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.core.api.util.func.CheckedRunnable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+
+/**
+ * Frees the native memory of direct and mapped {@link ByteBuffer buffers} without waiting for them to be garbage collected.
+ * <p>
+ * The JDK offers no API for this, so the cleaner of the buffer is invoked through the means each JDK version provides. If none
+ * is available, the memory is freed when the buffer is garbage collected.
+ *
+ * @since 4.2
+ */
+final class DirectBufferCleaner {
+
+  private static final Logger LOGGER = getLogger(DirectBufferCleaner.class);
+  private static final Consumer<ByteBuffer> CLEANER = createCleaner();
+
+  private DirectBufferCleaner() {}
+
+  /**
+   * Frees the memory of the given buffer. The buffer must have been obtained from {@link ByteBuffer#allocateDirect(int)} or
+   * by mapping a file, not be a slice or duplicate of one, and not be accessed afterwards.
+   *
+   * @param buffer the buffer to free
+   */
+  static void clean(ByteBuffer buffer) {
+    CLEANER.accept(buffer);
+  }
+
+  private static Consumer<ByteBuffer> createCleaner() {
+    try {
+      // Java 9+
+      final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      final Object unsafe = theUnsafe.get(null);
+      return buffer -> invokeQuietly(() -> invokeCleaner.invoke(unsafe, buffer));
+    } catch (Exception e) {
+      // Not available, try the Java 8 way
+    }
+
+    try {
+      final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+      final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      return buffer -> invokeQuietly(() -> clean.invoke(cleaner.invoke(buffer)));
+    } catch (Exception e) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Direct buffers can't be freed explicitly, they will be freed when garbage collected", e);
+      }
+      return buffer -> {
+      };
+    }
+  }
+
+  private static void invokeQuietly(CheckedRunnable call) {
+    try {
+      call.runChecked();
+    } catch (Exception e) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Could not free direct buffer, it will be freed when garbage collected", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.lang.System.getProperty;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mule.runtime.api.config.PoolingProfile.DEFAULT_MAX_POOL_WAIT;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_STREAMING_MAX_MEMORY_PER_APP;
+import static org.mule.runtime.core.internal.util.ConcurrencyUtils.withLock;
+
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
+import org.mule.runtime.core.internal.streaming.MutableStreamingStatistics;
+import org.mule.runtime.core.internal.streaming.bytes.DirectByteBufferPool.Slab;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link ByteBufferManager} implementation which hands out direct buffers obtained from a {@link DirectByteBufferPool}
+ * shared by all the applications in the container.
+ * <p>
+ * Each application gets its own instance of this class, which accounts for the memory that the owning application
+ * has in use and enforces a per application quota. When either the quota or the pool's memory is exhausted,
+ * invocations to {@link #allocate(int)} block until more memory becomes available. If {@link #allocate(int)} is blocked
+ * by more than {@link #waitTimeoutMillis} milliseconds, then a {@link MaxStreamingMemoryExceededException} is thrown.
+ * <p>
+ * The returned buffers have exactly the requested capacity, even though they're backed by a slab of a (potentially bigger)
+ * size class. Hits, misses, waits and memory in use are reported to the application's {@link MutableStreamingStatistics}.
+ * <p>
+ * The buffers which are still allocated when this manager is disposed are returned to the pool, so that undeploying the
+ * owning application doesn't leak them. Deallocating them afterwards has no effect.
+ *
+ * @since 4.2
+ */
+public class DirectByteBufferManager implements ByteBufferManager, Disposable {
+
+  private static final long MAX_AWAIT_NANOS = MILLISECONDS.toNanos(100);
+
+  private final DirectByteBufferPool pool;
+  private final String ownerName;
+  private final long quota;
+  private final long waitTimeoutMillis;
+  private final MutableStreamingStatistics statistics;
+
+  private final AtomicLong memoryInUse = new AtomicLong(0);
+  private final AtomicInteger waiters = new AtomicInteger(0);
+  private final Lock lock = new ReentrantLock();
+  private final Condition quotaReleased = lock.newCondition();
+
+  /**
+   * The slabs of the buffers which are currently allocated, keyed by the identity of the allocated buffer, which may be the
+   * slab itself or a view over it.
+   */
+  private final Map<BufferKey, ByteBuffer> allocatedSlabs = new ConcurrentHashMap<>();
+  private volatile boolean disposed = false;
+
+  /**
+   * Creates a new instance which uses the container's shared pool, with a quota defined by the
+   * {@link org.mule.runtime.core.api.config.MuleProperties#MULE_STREAMING_MAX_MEMORY_PER_APP} system property (or the
+   * whole pool if not set) and a wait timeout of {@link org.mule.runtime.api.config.PoolingProfile#DEFAULT_MAX_POOL_WAIT}
+   *
+   * @param ownerName  the name of the application that owns this manager
+   * @param statistics the statistics in which activity is to be reported
+   */
+  public DirectByteBufferManager(String ownerName, MutableStreamingStatistics statistics) {
+    this(DirectByteBufferPool.getSharedInstance(), ownerName, resolveQuota(DirectByteBufferPool.getSharedInstance()),
+         DEFAULT_MAX_POOL_WAIT, statistics);
+  }
+
+  /**
+   * Creates a new instance
+   *
+   * @param pool              the pool from which buffers are obtained
+   * @param ownerName         the name of the application that owns this manager
+   * @param quota             the max amount of bytes that the owner can have in use at the same time
+   * @param waitTimeoutMillis how long to wait when the pool or the quota are exhausted
+   * @param statistics        the statistics in which activity is to be reported
+   */
+  public DirectByteBufferManager(DirectByteBufferPool pool, String ownerName, long quota, long waitTimeoutMillis,
+                                 MutableStreamingStatistics statistics) {
+    this.pool = pool;
+    this.ownerName = ownerName;
+    this.quota = quota;
+    this.waitTimeoutMillis = waitTimeoutMillis;
+    this.statistics = statistics;
+  }
+
+  private static long resolveQuota(DirectByteBufferPool pool) {
+    String quotaProperty = getProperty(MULE_STREAMING_MAX_MEMORY_PER_APP);
+    if (quotaProperty == null) {
+      return pool.getMaxMemory();
+    }
+
+    try {
+      return Long.valueOf(quotaProperty);
+    } catch (Exception e) {
+      throw new IllegalArgumentException(format("Invalid value for system property '%s'. A memory size (in bytes) was "
+          + "expected, got '%s' instead", MULE_STREAMING_MAX_MEMORY_PER_APP, quotaProperty));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ByteBuffer allocate(int capacity) {
+    if (disposed) {
+      throw new IllegalStateException(format("Buffer manager for '%s' has already been disposed", ownerName));
+    }
+
+    final int slabSize = pool.slabSizeFor(capacity);
+    final long deadline = nanoTime() + MILLISECONDS.toNanos(waitTimeoutMillis);
+    boolean waited = false;
+
+    while (!reserveQuota(slabSize)) {
+      waited = true;
+      if (!awaitQuota(slabSize, deadline)) {
+        throw exceeded(format("Max streaming memory quota of %d bytes was exceeded for '%s'", quota, ownerName));
+      }
+    }
+
+    Slab slab;
+    while ((slab = pool.take(slabSize)) == null) {
+      waited = true;
+      final long remaining = deadline - nanoTime();
+      if (remaining <= 0 || !pool.awaitMemoryQuietly(min(remaining, MAX_AWAIT_NANOS))) {
+        releaseQuota(slabSize);
+        throw exceeded(format("Max streaming memory limit of %d bytes was exceeded", pool.getMaxMemory()));
+      }
+    }
+
+    if (waited) {
+      statistics.incrementBufferPoolWaits();
+    }
+    if (slab.isPooled()) {
+      statistics.incrementBufferPoolHits();
+    } else {
+      statistics.incrementBufferPoolMisses();
+    }
+    statistics.addBufferMemoryInUse(slabSize);
+
+    final ByteBuffer buffer = slab.getBuffer();
+    ByteBuffer allocated = buffer;
+    if (capacity != slabSize) {
+      final ByteBuffer view = buffer.duplicate();
+      view.limit(capacity);
+      allocated = view.slice();
+    }
+
+    final BufferKey key = new BufferKey(allocated);
+    allocatedSlabs.put(key, buffer);
+    if (disposed && allocatedSlabs.remove(key) != null) {
+      // disposed concurrently, after all the allocated slabs were returned
+      release(buffer);
+      throw new IllegalStateException(format("Buffer manager for '%s' has already been disposed", ownerName));
+    }
+
+    return allocated;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void deallocate(ByteBuffer byteBuffer) {
+    // Buffers not allocated by this manager, deallocated twice or deallocated after dispose are ignored
+    final ByteBuffer slab = allocatedSlabs.remove(new BufferKey(byteBuffer));
+    if (slab != null) {
+      release(slab);
+    }
+  }
+
+  private void release(ByteBuffer slab) {
+    final int slabSize = slab.capacity();
+    pool.give(slab);
+    statistics.addBufferMemoryInUse(-slabSize);
+    releaseQuota(slabSize);
+  }
+
+  /**
+   * @return the amount of bytes currently in use by the owner of this manager
+   */
+  public long getMemoryInUse() {
+    return memoryInUse.get();
+  }
+
+  /**
+   * Returns all the buffers which are still allocated to the pool, releasing their quota.
+   */
+  @Override
+  public void dispose() {
+    disposed = true;
+    for (BufferKey key : allocatedSlabs.keySet()) {
+      final ByteBuffer slab = allocatedSlabs.remove(key);
+      if (slab != null) {
+        release(slab);
+      }
+    }
+  }
+
+  private boolean reserveQuota(int bytes) {
+    long current;
+    do {
+      current = memoryInUse.get();
+      if (current + bytes > quota) {
+        return false;
+      }
+    } while (!memoryInUse.compareAndSet(current, current + bytes));
+
+    return true;
+  }
+
+  private void releaseQuota(int bytes) {
+    memoryInUse.addAndGet(-bytes);
+    if (waiters.get() > 0) {
+      withLock(lock, quotaReleased::signalAll);
+    }
+  }
+
+  /**
+   * Waits for quota to be released. Waits are done in slices of up to {@link #MAX_AWAIT_NANOS} so that a release which
+   * happens right before this thread starts waiting is not missed for the whole timeout.
+   */
+  private boolean awaitQuota(int bytes, long deadline) {
+    final long remaining = deadline - nanoTime();
+    if (remaining <= 0) {
+      return false;
+    }
+
+    waiters.incrementAndGet();
+    lock.lock();
+    try {
+      if (memoryInUse.get() + bytes > quota) {
+        quotaReleased.awaitNanos(min(remaining, MAX_AWAIT_NANOS));
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      lock.unlock();
+      waiters.decrementAndGet();
+    }
+  }
+
+  private MaxStreamingMemoryExceededException exceeded(String message) {
+    return new MaxStreamingMemoryExceededException(createStaticMessage(message));
+  }
+
+  /**
+   * Compares buffers by identity, since {@link ByteBuffer#equals(Object)} and {@link ByteBuffer#hashCode()} depend on their
+   * remaining content.
+   */
+  private static final class BufferKey {
+
+    private final ByteBuffer buffer;
+
+    private BufferKey(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof BufferKey && ((BufferKey) obj).buffer == buffer;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(buffer);
+    }
+  }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Integer.numberOfTrailingZeros;
+import static org.mule.runtime.core.internal.streaming.bytes.PoolingByteBufferManager.calculateMaxStreamingMemory;
+import static org.mule.runtime.core.internal.util.ConcurrencyUtils.withLock;
+
+import org.mule.runtime.core.internal.streaming.DefaultMemoryManager;
+import org.mule.runtime.core.internal.streaming.MemoryManager;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A slab allocator of direct {@link ByteBuffer buffers} which is shared by all the applications in the container.
+ * <p>
+ * Buffers are grouped in size classes which are powers of two, ranging from {@link #MIN_SLAB_SIZE} to
+ * {@link #MAX_SLAB_SIZE}. Requests are served with a slab of the smallest class which can hold them. Requests
+ * bigger than {@link #MAX_SLAB_SIZE} are served with a dedicated buffer which is not pooled.
+ * <p>
+ * Each size class has a shared lock-free free list. Smaller size classes are also cached in a small per-thread free list,
+ * so that the typical allocate/deallocate cycle of a cursor doesn't touch any shared state at all. Per-thread caching
+ * is skipped once the retained memory goes over 75% of the max, so that slabs remain reachable by every thread. The
+ * per-thread free lists are also registered in the pool, so that when memory is exhausted the slabs cached by any thread
+ * (even by one which is no longer alive) are moved back to the shared free lists.
+ * <p>
+ * The total amount of memory retained by this pool (either in use or idle) never exceeds {@link #getMaxMemory()}. When
+ * that limit is reached, idle slabs of other size classes are discarded to make room. If that's still not enough,
+ * {@link #take(int)} returns {@code null} and the caller can use {@link #awaitMemory(long)} to wait for memory to be
+ * released.
+ * <p>
+ * The native memory of discarded slabs, and of dedicated buffers once returned, is freed right away instead of when they
+ * are garbage collected, so that allocating the slab which replaces them doesn't depend on a garbage collection.
+ *
+ * @since 4.2
+ */
+public class DirectByteBufferPool {
+
+  static final int MIN_SLAB_SIZE = 1024;
+  static final int MAX_SLAB_SIZE = 16 * 1024 * 1024;
+
+  private static final int MAX_THREAD_CACHED_SLAB_SIZE = 64 * 1024;
+  private static final int THREAD_CACHE_SLOTS = 2;
+  private static final int MIN_SHIFT = numberOfTrailingZeros(MIN_SLAB_SIZE);
+  private static final int SIZE_CLASSES = numberOfTrailingZeros(MAX_SLAB_SIZE) - MIN_SHIFT + 1;
+  private static final int THREAD_CACHED_SIZE_CLASSES = numberOfTrailingZeros(MAX_THREAD_CACHED_SLAB_SIZE) - MIN_SHIFT + 1;
+
+  private static DirectByteBufferPool sharedInstance;
+
+  /**
+   * @return the pool shared by the whole container, which can grow up to the same limit as the
+   *         {@link PoolingByteBufferManager}
+   */
+  public static synchronized DirectByteBufferPool getSharedInstance() {
+    if (sharedInstance == null) {
+      sharedInstance = new DirectByteBufferPool(new DefaultMemoryManager());
+    }
+    return sharedInstance;
+  }
+
+  private final long maxMemory;
+  private final long highWatermark;
+  private final AtomicLong retainedMemory = new AtomicLong(0);
+  private final SizeClass[] sizeClasses = new SizeClass[SIZE_CLASSES];
+  private final ConcurrentLinkedQueue<ThreadCache> registeredThreadCaches = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<ThreadCache> threadCaches = ThreadLocal.withInitial(this::registerThreadCache);
+
+  private final AtomicInteger waiters = new AtomicInteger(0);
+  private final Lock lock = new ReentrantLock();
+  private final Condition memoryReleased = lock.newCondition();
+
+  /**
+   * Creates a new instance which may retain up to the max streaming memory as determined by
+   * {@link PoolingByteBufferManager#calculateMaxStreamingMemory(MemoryManager)}
+   *
+   * @param memoryManager a {@link MemoryManager} used to determine the runtime's max memory
+   */
+  public DirectByteBufferPool(MemoryManager memoryManager) {
+    this(calculateMaxStreamingMemory(memoryManager));
+  }
+
+  /**
+   * Creates a new instance
+   *
+   * @param maxMemory the max amount of bytes that this pool may retain
+   */
+  public DirectByteBufferPool(long maxMemory) {
+    this.maxMemory = maxMemory;
+    highWatermark = maxMemory / 4 * 3;
+    for (int i = 0; i < SIZE_CLASSES; i++) {
+      sizeClasses[i] = new SizeClass();
+    }
+  }
+
+  /**
+   * @param capacity a requested capacity
+   * @return the capacity of the slab that will be used to serve the given {@code capacity}
+   */
+  public int slabSizeFor(int capacity) {
+    if (capacity <= MIN_SLAB_SIZE) {
+      return MIN_SLAB_SIZE;
+    } else if (capacity > MAX_SLAB_SIZE) {
+      return capacity;
+    }
+
+    return highestOneBit(capacity - 1) << 1;
+  }
+
+  /**
+   * Obtains a cleared slab of the given {@code slabSize}, which must have been obtained through {@link #slabSizeFor(int)}.
+   *
+   * @param slabSize the size of the requested slab
+   * @return a {@link Slab} or {@code null} if the max memory has been reached
+   */
+  public Slab take(int slabSize) {
+    if (slabSize > MAX_SLAB_SIZE) {
+      return reserve(slabSize) ? new Slab(ByteBuffer.allocateDirect(slabSize), false) : null;
+    }
+
+    final int index = indexOf(slabSize);
+    if (index < THREAD_CACHED_SIZE_CLASSES) {
+      ByteBuffer buffer = threadCaches.get().take(index);
+      if (buffer != null) {
+        return new Slab(buffer, true);
+      }
+    }
+
+    final SizeClass sizeClass = sizeClasses[index];
+    ByteBuffer buffer = sizeClass.freeList.poll();
+    if (buffer != null) {
+      return new Slab(buffer, true);
+    }
+
+    if (reserve(slabSize)) {
+      return new Slab(ByteBuffer.allocateDirect(slabSize), false);
+    }
+
+    // Memory is exhausted, the slabs cached by other threads have to be made available
+    reclaimThreadCaches();
+    buffer = sizeClass.freeList.poll();
+    if (buffer != null) {
+      return new Slab(buffer, true);
+    }
+
+    if (releaseIdle(slabSize, index) && reserve(slabSize)) {
+      return new Slab(ByteBuffer.allocateDirect(slabSize), false);
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns a slab previously obtained through {@link #take(int)}
+   *
+   * @param buffer the slab's buffer
+   */
+  public void give(ByteBuffer buffer) {
+    final int slabSize = buffer.capacity();
+    if (slabSize > MAX_SLAB_SIZE) {
+      DirectBufferCleaner.clean(buffer);
+      release(slabSize);
+      return;
+    }
+
+    buffer.clear();
+    final int index = indexOf(slabSize);
+    if (index < THREAD_CACHED_SIZE_CLASSES && !isUnderPressure() && threadCaches.get().offer(index, buffer)) {
+      return;
+    }
+
+    sizeClasses[index].freeList.offer(buffer);
+    signalIfWaiting();
+  }
+
+  /**
+   * Waits until some memory is returned to this pool or the given timeout elapses.
+   *
+   * @param timeoutNanos how long to wait, in nanoseconds
+   * @return the remaining timeout, in nanoseconds. Zero or a negative number indicates that the timeout elapsed
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public long awaitMemory(long timeoutNanos) throws InterruptedException {
+    waiters.incrementAndGet();
+    lock.lock();
+    try {
+      return memoryReleased.awaitNanos(timeoutNanos);
+    } finally {
+      lock.unlock();
+      waiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * @return the max amount of bytes that this pool may retain
+   */
+  public long getMaxMemory() {
+    return maxMemory;
+  }
+
+  /**
+   * @return the amount of bytes currently retained by this pool, either in use or idle
+   */
+  public long getRetainedMemory() {
+    return retainedMemory.get();
+  }
+
+  private boolean reserve(int bytes) {
+    long current;
+    do {
+      current = retainedMemory.get();
+      if (current + bytes > maxMemory) {
+        return false;
+      }
+    } while (!retainedMemory.compareAndSet(current, current + bytes));
+
+    return true;
+  }
+
+  private void release(long bytes) {
+    retainedMemory.addAndGet(-bytes);
+    signalIfWaiting();
+  }
+
+  private ThreadCache registerThreadCache() {
+    // Threads are created way less often than buffers are taken, so this is where the caches of dead threads are pruned
+    reclaimThreadCaches(true);
+
+    final ThreadCache cache = new ThreadCache(Thread.currentThread());
+    registeredThreadCaches.offer(cache);
+    return cache;
+  }
+
+  private void reclaimThreadCaches() {
+    reclaimThreadCaches(false);
+  }
+
+  /**
+   * Moves the slabs cached by threads to the shared free lists. The caches of threads which are no longer alive are
+   * unregistered.
+   *
+   * @param onlyDead whether the slabs cached by live threads are to be kept
+   */
+  private void reclaimThreadCaches(boolean onlyDead) {
+    for (Iterator<ThreadCache> iterator = registeredThreadCaches.iterator(); iterator.hasNext();) {
+      final ThreadCache cache = iterator.next();
+      final boolean dead = !cache.isOwnerAlive();
+      if (dead) {
+        iterator.remove();
+      }
+      if (dead || !onlyDead) {
+        cache.drain(this);
+      }
+    }
+  }
+
+  /**
+   * Discards idle slabs from the shared free lists of the other size classes until at least {@code bytes} have been
+   * freed or no more idle slabs are available
+   */
+  private boolean releaseIdle(int bytes, int requesterIndex) {
+    long released = 0;
+    for (int i = SIZE_CLASSES - 1; i >= 0 && released < bytes; i--) {
+      if (i == requesterIndex) {
+        continue;
+      }
+
+      final SizeClass sizeClass = sizeClasses[i];
+      ByteBuffer idle;
+      while (released < bytes && (idle = sizeClass.freeList.poll()) != null) {
+        DirectBufferCleaner.clean(idle);
+        retainedMemory.addAndGet(-idle.capacity());
+        released += idle.capacity();
+      }
+    }
+
+    return released > 0;
+  }
+
+  /**
+   * Slabs cached by a thread cannot be reclaimed by any other thread. When memory is scarce, returned slabs always go
+   * to the shared free lists.
+   */
+  private boolean isUnderPressure() {
+    return waiters.get() > 0 || retainedMemory.get() > highWatermark;
+  }
+
+  private void signalIfWaiting() {
+    if (waiters.get() > 0) {
+      withLock(lock, memoryReleased::signalAll);
+    }
+  }
+
+  private int indexOf(int slabSize) {
+    return numberOfTrailingZeros(slabSize) - MIN_SHIFT;
+  }
+
+  /**
+   * Waits up to {@code timeoutNanos} for memory to be released, converting the {@link InterruptedException} into a
+   * {@code false} return value so that callers can give up on the allocation
+   */
+  boolean awaitMemoryQuietly(long timeoutNanos) {
+    try {
+      awaitMemory(timeoutNanos);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * A buffer obtained from the pool
+   */
+  public static final class Slab {
+
+    private final ByteBuffer buffer;
+    private final boolean pooled;
+
+    private Slab(ByteBuffer buffer, boolean pooled) {
+      this.buffer = buffer;
+      this.pooled = pooled;
+    }
+
+    /**
+     * @return the slab's buffer
+     */
+    public ByteBuffer getBuffer() {
+      return buffer;
+    }
+
+    /**
+     * @return {@code true} if the buffer was reused from the pool, {@code false} if it was newly created
+     */
+    public boolean isPooled() {
+      return pooled;
+    }
+  }
+
+  private static class SizeClass {
+
+    private final ConcurrentLinkedQueue<ByteBuffer> freeList = new ConcurrentLinkedQueue<>();
+  }
+
+  /**
+   * The slabs cached by a thread. Only the owner thread puts slabs in it, but any thread may take them back when memory is
+   * exhausted. The owner is only weakly referenced, so that the cache doesn't keep it from being collected.
+   */
+  private static final class ThreadCache {
+
+    private final WeakReference<Thread> owner;
+    private final AtomicReferenceArray<ByteBuffer> slots =
+        new AtomicReferenceArray<>(THREAD_CACHED_SIZE_CLASSES * THREAD_CACHE_SLOTS);
+
+    private ThreadCache(Thread owner) {
+      this.owner = new WeakReference<>(owner);
+    }
+
+    private ByteBuffer take(int index) {
+      for (int i = index * THREAD_CACHE_SLOTS; i < (index + 1) * THREAD_CACHE_SLOTS; i++) {
+        if (slots.get(i) != null) {
+          final ByteBuffer buffer = slots.getAndSet(i, null);
+          if (buffer != null) {
+            return buffer;
+          }
+        }
+      }
+      return null;
+    }
+
+    private boolean offer(int index, ByteBuffer buffer) {
+      for (int i = index * THREAD_CACHE_SLOTS; i < (index + 1) * THREAD_CACHE_SLOTS; i++) {
+        if (slots.get(i) == null && slots.compareAndSet(i, null, buffer)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void drain(DirectByteBufferPool pool) {
+      for (int i = 0; i < slots.length(); i++) {
+        if (slots.get(i) != null) {
+          final ByteBuffer buffer = slots.getAndSet(i, null);
+          if (buffer != null) {
+            pool.sizeClasses[i / THREAD_CACHE_SLOTS].freeList.offer(buffer);
+          }
+        }
+      }
+    }
+
+    private boolean isOwnerAlive() {
+      final Thread thread = owner.get();
+      return thread != null && thread.isAlive();
+    }
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.api.util.DataUnit.KB;
+import static org.mule.runtime.core.internal.streaming.TempBufferFileUtils.createBufferFile;
+
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.util.LazyValue;
+import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An implementation of {@link AbstractInputStreamBuffer} which holds the first
+ * {@link FileStoreCursorStreamConfig#getMaxInMemorySize()} bytes of the stream in a memory
+ * buffer obtained from the {@link ByteBufferManager}. Once that buffer is full, the
+ * rest of the stream is spilled into a temporal file.
+ * <p>
+ * The temporal file is only created if the stream actually overflows the memory buffer. Data which
+ * lives in the file is accessed through positional reads on a {@link FileChannel}, which means that
+ * many cursors can read concurrently from it without moving any shared position.
+ * <p>
+ * The file is deleted when this buffer is closed.
+ *
+ * @since 4.2
+ */
+public class FileStoreInputStreamBuffer extends AbstractInputStreamBuffer {
+
+  private static final int FILE_WRITE_CHUNK_SIZE = KB.toBytes(32);
+
+  private final int maxInMemorySize;
+  private final LazyValue<File> bufferFile;
+  private final LazyValue<FileChannel> fileChannel;
+  private long bufferTip = 0;
+
+  /**
+   * Creates a new instance
+   *
+   * @param stream        the stream to be buffered
+   * @param config        this buffer's configuration.
+   * @param bufferManager the {@link ByteBufferManager} that will be used to allocate all buffers
+   */
+  public FileStoreInputStreamBuffer(InputStream stream, FileStoreCursorStreamConfig config, ByteBufferManager bufferManager) {
+    super(stream, bufferManager, config.getMaxInMemorySize().toBytes());
+    maxInMemorySize = config.getMaxInMemorySize().toBytes();
+    bufferFile = new LazyValue<>(() -> createBufferFile("stream-buffer"));
+    fileChannel = new LazyValue<>(this::openFileChannel);
+  }
+
+  @Override
+  protected ByteBuffer doGet(long position, int length) {
+    return doGet(position, length, true);
+  }
+
+  private ByteBuffer doGet(long position, int length, boolean consumeStreamIfNecessary) {
+    return withReadLock(releaser -> {
+
+      ByteBuffer presentRead = getFromCurrentData(position, length);
+      if (presentRead != null) {
+        return presentRead;
+      }
+
+      if (consumeStreamIfNecessary) {
+        releaser.release();
+        return withWriteLock(() -> {
+
+          ByteBuffer refetch;
+          refetch = getFromCurrentData(position, length);
+          if (refetch != null) {
+            return refetch;
+          }
+
+          final long requiredUpperBound = position + length;
+          while (!isStreamFullyConsumed() && bufferTip < requiredUpperBound) {
+            try {
+              final int read = consumeForwardData();
+              if (read > 0) {
+                refetch = getFromCurrentData(position, min(length, read));
+                if (refetch != null) {
+                  return refetch;
+                }
+              } else {
+                streamFullyConsumed();
+                ByteBuffer memoryBuffer = buffer.get();
+                memoryBuffer.limit(memoryBuffer.position());
+              }
+            } catch (IOException e) {
+              throw new MuleRuntimeException(createStaticMessage("Could not read stream"), e);
+            }
+          }
+
+          return doGet(position, length, false);
+        });
+      } else {
+        return getFromCurrentData(position, length);
+      }
+    });
+  }
+
+  private ByteBuffer getFromCurrentData(long position, int length) {
+    if (position >= bufferTip) {
+      return null;
+    }
+
+    length = min(length, toIntExact(min(Integer.MAX_VALUE, bufferTip - position)));
+    if (position < maxInMemorySize) {
+      return copy(position, min(length, toIntExact(maxInMemorySize - position)));
+    }
+
+    return readFromFile(position - maxInMemorySize, length);
+  }
+
+  private ByteBuffer readFromFile(long filePosition, int length) {
+    ByteBuffer data = ByteBuffer.allocate(length);
+    try {
+      final FileChannel channel = fileChannel.get();
+      while (data.hasRemaining()) {
+        if (channel.read(data, filePosition + data.position()) == -1) {
+          break;
+        }
+      }
+    } catch (IOException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not read from stream buffer file "
+          + bufferFile.get().getAbsolutePath()), e);
+    }
+
+    data.flip();
+    return data;
+  }
+
+  /**
+   * {@inheritDoc}
+   * If the memory buffer still has remaining capacity, the data is consumed into it. Otherwise, the data is
+   * written at the end of the buffer file.
+   */
+  @Override
+  public int consumeForwardData() throws IOException {
+    ByteBuffer memoryBuffer = buffer.get();
+    if (memoryBuffer.hasRemaining()) {
+      final int read = consumeStream(memoryBuffer);
+      if (read > 0) {
+        bufferTip += read;
+      }
+      return read;
+    }
+
+    ByteBuffer readBuffer = bufferManager.allocate(FILE_WRITE_CHUNK_SIZE);
+    try {
+      final int read = consumeStream(readBuffer);
+      if (read > 0) {
+        readBuffer.flip();
+        writeToFile(readBuffer, bufferTip - maxInMemorySize);
+        bufferTip += read;
+      }
+
+      return read;
+    } finally {
+      deallocate(readBuffer);
+    }
+  }
+
+  private void writeToFile(ByteBuffer data, long filePosition) throws IOException {
+    final FileChannel channel = fileChannel.get();
+    while (data.hasRemaining()) {
+      filePosition += channel.write(data, filePosition);
+    }
+  }
+
+  private FileChannel openFileChannel() {
+    try {
+      return new RandomAccessFile(bufferFile.get(), "rw").getChannel();
+    } catch (IOException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not create stream buffer file "
+          + bufferFile.get().getAbsolutePath()), e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void doClose() {
+    fileChannel.ifComputed(channel -> closeSafely(channel::close));
+    bufferFile.ifComputed(file -> closeSafely(() -> {
+      if (file.exists() && !file.delete()) {
+        file.deleteOnExit();
+      }
+    }));
+  }
+
+  /**
+   * {@inheritDoc}
+   * Soft copies are always possible since the memory buffer is never expanded nor replaced.
+   */
+  @Override
+  protected boolean canDoSoftCopy() {
+    return true;
+  }
+}
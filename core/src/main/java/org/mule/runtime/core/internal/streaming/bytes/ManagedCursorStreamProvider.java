@@ -9,11 +9,14 @@ package org.mule.runtime.core.internal.streaming.bytes;
 import org.mule.runtime.api.streaming.CursorProvider;
 import org.mule.runtime.api.streaming.bytes.CursorStream;
 import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+import org.mule.runtime.core.api.streaming.bytes.ChannelTransferable;
 import org.mule.runtime.core.internal.streaming.CursorContext;
 import org.mule.runtime.core.internal.streaming.CursorManager;
 import org.mule.runtime.core.internal.streaming.ManagedCursorProvider;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * {@link ManagedCursorProvider} implementation for {@link CursorStreamProvider} instances
@@ -22,6 +25,8 @@ import java.io.IOException;
  */
 public class ManagedCursorStreamProvider extends ManagedCursorProvider<CursorStream> implements CursorStreamProvider {
 
+  private static final int TRANSFER_BUFFER_SIZE = 8 * 1024;
+
   /**
    * {@inheritDoc}
    */
@@ -37,7 +42,7 @@ public class ManagedCursorStreamProvider extends ManagedCursorProvider<CursorStr
     return new ManagedCursorDecorator(cursor, handle);
   }
 
-  private class ManagedCursorDecorator extends CursorStream {
+  private class ManagedCursorDecorator extends CursorStream implements ChannelTransferable {
 
     private final CursorStream delegate;
     private final CursorContext cursorContext;
@@ -120,5 +125,25 @@ public class ManagedCursorStreamProvider extends ManagedCursorProvider<CursorStr
     public boolean markSupported() {
       return delegate.markSupported();
     }
+
+    @Override
+    public long transferTo(WritableByteChannel target) throws IOException {
+      if (delegate instanceof ChannelTransferable) {
+        return ((ChannelTransferable) delegate).transferTo(target);
+      }
+
+      byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+      long transferred = 0;
+      int read;
+      while ((read = delegate.read(buffer)) != -1) {
+        ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+        while (chunk.hasRemaining()) {
+          target.write(chunk);
+        }
+        transferred += read;
+      }
+
+      return transferred;
+    }
   }
 }
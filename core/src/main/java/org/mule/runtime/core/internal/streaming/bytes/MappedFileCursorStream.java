@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.core.api.streaming.bytes.ChannelTransferable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A {@link CursorStream} which reads directly from a {@link MappedByteBuffer}.
+ * <p>
+ * Each instance works on its own view of the mapped buffer, so any amount of cursors can consume the same
+ * mapping concurrently. The content ends where the mapping does, so that every cursor reads the same content even if
+ * the file grows afterwards. Because the content is backed by a file, it also implements {@link ChannelTransferable}
+ * through {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+ *
+ * @see MappedFileCursorStreamProvider
+ * @since 4.2
+ */
+final class MappedFileCursorStream extends AbstractCursorStream implements ChannelTransferable {
+
+  private final MappedFileCursorStreamProvider provider;
+  private final ByteBuffer view;
+  private final FileChannel fileChannel;
+  private final long offset;
+  private final long size;
+
+  /**
+   * Creates a new instance
+   *
+   * @param provider     the {@link MappedFileCursorStreamProvider} which opened this cursor
+   * @param mappedBuffer the mapped content
+   * @param fileChannel  the channel from which {@code mappedBuffer} was mapped
+   * @param offset       the position in the {@code fileChannel} at which the mapping starts
+   */
+  MappedFileCursorStream(MappedFileCursorStreamProvider provider, MappedByteBuffer mappedBuffer, FileChannel fileChannel,
+                         long offset) {
+    super(provider);
+    this.provider = provider;
+    this.view = mappedBuffer.duplicate();
+    this.fileChannel = fileChannel;
+    this.offset = offset;
+    this.size = mappedBuffer.limit();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected int doRead() throws IOException {
+    if (position >= size) {
+      return -1;
+    }
+
+    final long stamp = provider.lockMapping();
+    try {
+      return unsigned(view.get(toIntExact(position++)));
+    } finally {
+      provider.unlockMapping(stamp);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected int doRead(byte[] b, int off, int len) throws IOException {
+    if (position >= size) {
+      return -1;
+    }
+
+    final int read = toIntExact(min(len, size - position));
+    final long stamp = provider.lockMapping();
+    try {
+      view.position(toIntExact(position));
+      view.get(b, off, read);
+    } finally {
+      provider.unlockMapping(stamp);
+    }
+    position += read;
+
+    return read;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int available() throws IOException {
+    assertNotDisposed();
+    return position >= size ? 0 : toIntExact(size - position);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long transferTo(WritableByteChannel target) throws IOException {
+    assertNotDisposed();
+    long transferred = 0;
+    long remaining;
+    while ((remaining = size - position) > 0) {
+      final long count = fileChannel.transferTo(offset + position, remaining, target);
+      if (count <= 0) {
+        break;
+      }
+      position += count;
+      transferred += count;
+    }
+
+    return transferred;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.core.api.streaming.bytes.AbstractCursorStreamProvider;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.StampedLock;
+
+import org.slf4j.Logger;
+
+/**
+ * An implementation of {@link AbstractCursorStreamProvider} for streams which are backed by a local file.
+ * <p>
+ * Instead of buffering the stream contents, the remaining portion of the file is mapped into memory through a
+ * {@link MappedByteBuffer} and each opened cursor reads directly from it. Since no data is copied into buffers
+ * obtained from a {@code ByteBufferManager}, there's no limit on how many cursors can be opened and the
+ * streaming memory is not affected by the size of the file.
+ * <p>
+ * The contents available to the cursors are the ones present in the file at the moment this provider is created, so that all
+ * of them read the same content even if the file grows afterwards.
+ * <p>
+ * The mapping is released along with the resources of this provider, instead of waiting for it to be garbage collected. Cursors
+ * read from it while holding a read lock, so it is never released while being read.
+ *
+ * @since 4.2
+ */
+public final class MappedFileCursorStreamProvider extends AbstractCursorStreamProvider {
+
+  private static final Logger LOGGER = getLogger(MappedFileCursorStreamProvider.class);
+
+  private final FileChannel fileChannel;
+  private final long offset;
+  private final MappedByteBuffer mappedBuffer;
+  private final StampedLock mappingLock = new StampedLock();
+  private boolean unmapped = false;
+
+  /**
+   * Tests whether the given {@code stream} can be handled by this provider. That is the case when the stream is a
+   * {@link FileInputStream} over a regular file which remaining content is not empty and fits into a single
+   * {@link MappedByteBuffer}.
+   * <p>
+   * Streams over pipes, FIFOs, sockets or devices are not mappable: their channels either can't be positioned or don't report
+   * as remaining the amount of bytes that may be read from them.
+   *
+   * @param stream the stream to test
+   * @return whether a {@link MappedFileCursorStreamProvider} can be created for it
+   */
+  public static boolean isMappable(InputStream stream) {
+    if (!(stream instanceof FileInputStream)) {
+      return false;
+    }
+
+    try {
+      final FileChannel channel = ((FileInputStream) stream).getChannel();
+      final long remaining = channel.size() - channel.position();
+      // For regular files, the bytes available are the remaining ones in the file
+      return remaining > 0 && remaining <= Integer.MAX_VALUE && stream.available() == remaining;
+    } catch (IOException e) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Could not determine the size of a file stream, it will be buffered instead of mapped", e);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Creates a new instance
+   *
+   * @param wrappedStream the stream to map. Must be a {@link #isMappable(InputStream) mappable} stream
+   */
+  public MappedFileCursorStreamProvider(FileInputStream wrappedStream) {
+    super(wrappedStream);
+    fileChannel = wrappedStream.getChannel();
+    try {
+      offset = fileChannel.position();
+      mappedBuffer = fileChannel.map(READ_ONLY, offset, fileChannel.size() - offset);
+    } catch (IOException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not map file stream into memory"), e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected CursorStream doOpenCursor() {
+    return new MappedFileCursorStream(this, mappedBuffer, fileChannel, offset);
+  }
+
+  /**
+   * Acquires the lock that keeps the mapping from being released while it is being read.
+   *
+   * @return the stamp to pass to {@link #unlockMapping(long)}
+   * @throws IOException if the mapping was already released
+   */
+  long lockMapping() throws IOException {
+    final long stamp = mappingLock.readLock();
+    if (unmapped) {
+      mappingLock.unlockRead(stamp);
+      throw new IOException("Stream is closed");
+    }
+    return stamp;
+  }
+
+  /**
+   * Releases the lock acquired through {@link #lockMapping()}.
+   *
+   * @param stamp the stamp returned by {@link #lockMapping()}
+   */
+  void unlockMapping(long stamp) {
+    mappingLock.unlockRead(stamp);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void releaseResources() {
+    final long stamp = mappingLock.writeLock();
+    try {
+      if (!unmapped) {
+        unmapped = true;
+        DirectBufferCleaner.clean(mappedBuffer);
+      }
+    } finally {
+      mappingLock.unlockWrite(stamp);
+    }
+
+    try {
+      wrappedStream.close();
+    } catch (IOException e) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Found exception closing mapped file stream", e);
+      }
+    }
+  }
+}
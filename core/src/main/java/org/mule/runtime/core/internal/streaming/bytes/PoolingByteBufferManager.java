@@ -20,10 +20,12 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import org.mule.runtime.api.exception.MuleRuntimeException;
 import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.core.api.config.MuleProperties;
 import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
 import org.mule.runtime.core.api.util.func.CheckedRunnable;
 import org.mule.runtime.core.internal.streaming.DefaultMemoryManager;
 import org.mule.runtime.core.internal.streaming.MemoryManager;
+import org.mule.runtime.core.internal.streaming.MutableStreamingStatistics;
 
 import org.apache.commons.pool2.BasePooledObjectFactory;
 import org.apache.commons.pool2.KeyedObjectPool;
@@ -59,6 +61,8 @@ import java.util.concurrent.locks.ReentrantLock;
  * {@link #allocate(int)} will block until more memory becomes available (by invoking {@link #deallocate(ByteBuffer)}).
  * If {@link #allocate(int)} is blocked by more than {@link #waitTimeoutMillis} milliseconds, then a
  * {@link MaxStreamingMemoryExceededException} is thrown.
+ * <p>
+ * Hits, misses, waits and memory in use are reported to the given {@link MutableStreamingStatistics}.
  *
  * @since 4.0
  */
@@ -70,6 +74,7 @@ public class PoolingByteBufferManager implements ByteBufferManager, Disposable {
   private final AtomicLong streamingMemory = new AtomicLong(0);
   private final long maxStreamingMemory;
   private final long waitTimeoutMillis;
+  private final MutableStreamingStatistics statistics;
 
   /**
    * Using a cache of pools instead of a {@link KeyedObjectPool} because performance tests indicates that this
@@ -112,7 +117,20 @@ public class PoolingByteBufferManager implements ByteBufferManager, Disposable {
    *        this schedulet threadGroup.
    */
   public PoolingByteBufferManager(ExecutorService allocationScheduler) {
-    this(allocationScheduler, new DefaultMemoryManager(), DEFAULT_MAX_POOL_WAIT);
+    this(allocationScheduler, new MutableStreamingStatistics());
+  }
+
+  /**
+   * Creates a new instance which allows the pool to grow up to 50% of the runtime's max memory and has a wait timeout of 10
+   * seconds. The definition of max memory is that of {@link MemoryManager#getMaxMemory()}
+   *
+   * @param allocationScheduler executor to use to allocate the buffer. The pools expiration thread group will be inherited by
+   *        this schedulet threadGroup.
+   * @param statistics the statistics in which activity is to be reported
+   * @since 4.2
+   */
+  public PoolingByteBufferManager(ExecutorService allocationScheduler, MutableStreamingStatistics statistics) {
+    this(allocationScheduler, new DefaultMemoryManager(), DEFAULT_MAX_POOL_WAIT, statistics);
   }
 
   /**
@@ -125,12 +143,36 @@ public class PoolingByteBufferManager implements ByteBufferManager, Disposable {
    * @param waitTimeoutMillis how long to wait when the pool is exhausted
    */
   public PoolingByteBufferManager(ExecutorService allocationScheduler, MemoryManager memoryManager, long waitTimeoutMillis) {
+    this(allocationScheduler, memoryManager, waitTimeoutMillis, new MutableStreamingStatistics());
+  }
+
+  /**
+   * Creates a new instance which allows the pool to grow up to 50% of calling {@link MemoryManager#getMaxMemory()} on the given
+   * {@code memoryManager}, and has {@code waitTimeoutMillis} as wait timeout.
+   *
+   * @param allocationScheduler executor to use to allocate the buffer. The pools expiration thread group will be inherited by
+   *        this schedulet threadGroup.
+   * @param memoryManager a {@link MemoryManager} used to determine the runtime's max memory
+   * @param waitTimeoutMillis how long to wait when the pool is exhausted
+   * @param statistics the statistics in which activity is to be reported
+   * @since 4.2
+   */
+  public PoolingByteBufferManager(ExecutorService allocationScheduler, MemoryManager memoryManager, long waitTimeoutMillis,
+                                  MutableStreamingStatistics statistics) {
     this.allocationScheduler = allocationScheduler;
     maxStreamingMemory = calculateMaxStreamingMemory(memoryManager);
     this.waitTimeoutMillis = waitTimeoutMillis;
+    this.statistics = statistics;
   }
 
-  private long calculateMaxStreamingMemory(MemoryManager memoryManager) {
+  /**
+   * Calculates how much memory can be used for streaming buffers. That's 50% of the {@link MemoryManager#getMaxMemory()}
+   * unless a different value is set through the {@link MuleProperties#MULE_STREAMING_MAX_MEMORY} system property.
+   *
+   * @param memoryManager a {@link MemoryManager} used to determine the runtime's max memory
+   * @return the max streaming memory, in bytes
+   */
+  static long calculateMaxStreamingMemory(MemoryManager memoryManager) {
     String maxMemoryProperty = getProperty(MULE_STREAMING_MAX_MEMORY);
     if (maxMemoryProperty == null) {
       return round(memoryManager.getMaxMemory() * 0.5);
@@ -151,7 +193,9 @@ public class PoolingByteBufferManager implements ByteBufferManager, Disposable {
   @Override
   public ByteBuffer allocate(int capacity) {
     try {
-      return pools.getUnchecked(capacity).take();
+      ByteBuffer buffer = pools.getUnchecked(capacity).take();
+      statistics.addBufferMemoryInUse(capacity);
+      return buffer;
     } catch (Exception e) {
       throw new MuleRuntimeException(createStaticMessage("Could not allocate byte buffer. " + e.getMessage()), e);
     }
@@ -167,6 +211,7 @@ public class PoolingByteBufferManager implements ByteBufferManager, Disposable {
     if (pool != null) {
       try {
         pool.returnBuffer(byteBuffer);
+        statistics.addBufferMemoryInUse(-capacity);
       } catch (Exception e) {
         throw new MuleRuntimeException(createStaticMessage("Could not deallocate buffer of capacity " + capacity), e);
       }
@@ -220,12 +265,18 @@ public class PoolingByteBufferManager implements ByteBufferManager, Disposable {
 
         @Override
         public PooledObject<ByteBuffer> wrap(ByteBuffer obj) {
-          return new DefaultPooledObject<>(obj);
+          return new PooledBuffer(obj);
         }
 
         @Override
         public void activateObject(PooledObject<ByteBuffer> p) throws Exception {
           p.getObject().clear();
+          if (((PooledBuffer) p).borrowedBefore) {
+            statistics.incrementBufferPoolHits();
+          } else {
+            ((PooledBuffer) p).borrowedBefore = true;
+            statistics.incrementBufferPoolMisses();
+          }
         }
 
         @Override
@@ -239,10 +290,15 @@ public class PoolingByteBufferManager implements ByteBufferManager, Disposable {
 
     private ByteBuffer take() throws Exception {
       ByteBuffer buffer = null;
+      boolean waited = false;
       do {
         try {
           buffer = pool.borrowObject();
         } catch (MaxStreamingMemoryExceededException e) {
+          if (!waited) {
+            waited = true;
+            statistics.incrementBufferPoolWaits();
+          }
           signal(() -> {
             while (streamingMemory.get() >= maxStreamingMemory) {
               if (!poolNotFull.await(waitTimeoutMillis, MILLISECONDS)) {
@@ -267,6 +323,8 @@ public class PoolingByteBufferManager implements ByteBufferManager, Disposable {
 
     private void close() {
       streamingMemory.addAndGet(-bufferCapacity * (pool.getNumActive() + pool.getNumIdle()));
+      // Buffers still in use are not returned to a closed pool
+      statistics.addBufferMemoryInUse(-bufferCapacity * pool.getNumActive());
       try {
         pool.close();
       } finally {
@@ -278,4 +336,16 @@ public class PoolingByteBufferManager implements ByteBufferManager, Disposable {
       withLock(lock, task);
     }
   }
+
+  /**
+   * A pooled buffer which tells whether it's being borrowed for the first time, that is, whether the pool had to create it.
+   */
+  private static final class PooledBuffer extends DefaultPooledObject<ByteBuffer> {
+
+    private volatile boolean borrowedBefore = false;
+
+    private PooledBuffer(ByteBuffer buffer) {
+      super(buffer);
+    }
+  }
 }
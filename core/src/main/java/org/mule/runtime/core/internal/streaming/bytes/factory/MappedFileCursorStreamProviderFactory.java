@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes.factory;
+
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.streaming.StreamingManager;
+import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamProvider;
+import org.mule.runtime.core.api.streaming.bytes.factory.InMemoryCursorStreamProviderFactory;
+import org.mule.runtime.core.internal.streaming.bytes.MappedFileCursorStreamProvider;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+/**
+ * An {@link InMemoryCursorStreamProviderFactory} which generates instances of {@link MappedFileCursorStreamProvider} for the
+ * streams backed by a local file, and of {@link InMemoryCursorStreamProvider} for any other stream.
+ *
+ * @see MappedFileCursorStreamProvider
+ * @since 4.2
+ */
+public class MappedFileCursorStreamProviderFactory extends InMemoryCursorStreamProviderFactory {
+
+  /**
+   * Creates a new instance
+   *
+   * @param bufferManager    the {@link ByteBufferManager} that will be used to allocate all buffers
+   * @param config           the config for the generated {@link InMemoryCursorStreamProvider}s
+   * @param streamingManager the {@link StreamingManager} which tracks the generated providers
+   */
+  public MappedFileCursorStreamProviderFactory(ByteBufferManager bufferManager,
+                                               InMemoryCursorStreamConfig config,
+                                               StreamingManager streamingManager) {
+    super(bufferManager, config, streamingManager);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return a new {@link MappedFileCursorStreamProvider} if the stream is mappable, a new {@link InMemoryCursorStreamProvider}
+   *         otherwise
+   */
+  @Override
+  protected Object resolve(InputStream inputStream, CoreEvent event) {
+    if (MappedFileCursorStreamProvider.isMappable(inputStream)) {
+      MappedFileCursorStreamProvider mappedProvider = new MappedFileCursorStreamProvider((FileInputStream) inputStream);
+      mappedProvider.setAnnotations(getAnnotations());
+      return mappedProvider;
+    }
+
+    return super.resolve(inputStream, event);
+  }
+}
@@ -68,6 +68,13 @@ public class Bucket<T> {
     return index;
   }
 
+  /**
+   * @return the items added to this bucket so far
+   */
+  List<T> getItems() {
+    return items;
+  }
+
   /**
    * Adds the given {@code item} if the bucket still has capacity.
    *
@@ -6,6 +6,8 @@
  */
 package org.mule.runtime.core.internal.streaming.object;
 
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.internal.streaming.object.factory.FileStoreCursorIteratorProviderFactory;
 import org.mule.runtime.core.internal.streaming.object.factory.InMemoryCursorIteratorProviderFactory;
 import org.mule.runtime.core.internal.streaming.object.factory.NullCursorIteratorProviderFactory;
 import org.mule.runtime.core.api.streaming.StreamingManager;
@@ -13,6 +15,8 @@ import org.mule.runtime.core.api.streaming.object.CursorIteratorProviderFactory;
 import org.mule.runtime.core.api.streaming.object.InMemoryCursorIteratorConfig;
 import org.mule.runtime.core.api.streaming.object.ObjectStreamingManager;
 
+import javax.inject.Inject;
+
 /**
  * Default implementation of {@link ObjectStreamingManager}
  *
@@ -22,6 +26,9 @@ public class DefaultObjectStreamingManager implements ObjectStreamingManager {
 
   protected final StreamingManager streamingManager;
 
+  @Inject
+  private MuleContext muleContext;
+
   public DefaultObjectStreamingManager(StreamingManager streamingManager) {
     this.streamingManager = streamingManager;
   }
@@ -34,6 +41,19 @@ public class DefaultObjectStreamingManager implements ObjectStreamingManager {
     return new InMemoryCursorIteratorProviderFactory(config, streamingManager);
   }
 
+  /**
+   * Creates a {@link CursorIteratorProviderFactory} which buffers in memory up to
+   * {@link FileStoreCursorIteratorConfig#getMaxInMemoryInstances()} and spills the rest into a local file, using the
+   * artifact's {@link org.mule.runtime.api.serialization.ObjectSerializer}
+   *
+   * @param config the configuration for the produced providers
+   * @return a new {@link CursorIteratorProviderFactory}
+   * @since 4.2
+   */
+  public CursorIteratorProviderFactory getFileStoreCursorProviderFactory(FileStoreCursorIteratorConfig config) {
+    return new FileStoreCursorIteratorProviderFactory(config, muleContext.getObjectSerializer(), streamingManager);
+  }
+
   /**
    * {@inheritDoc}
    */
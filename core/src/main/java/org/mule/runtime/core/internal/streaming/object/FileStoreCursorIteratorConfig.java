@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.object;
+
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+import static org.mule.runtime.extension.api.ExtensionConstants.DEFAULT_OBJECT_STREAMING_BUFFER_INCREMENT_SIZE;
+import static org.mule.runtime.extension.api.ExtensionConstants.DEFAULT_OBJECT_STREAMING_MAX_BUFFER_SIZE;
+
+/**
+ * Configuration for a {@link FileStoreObjectStreamBuffer}
+ *
+ * @since 4.2
+ */
+public final class FileStoreCursorIteratorConfig {
+
+  private final int bucketSize;
+  private final int maxInMemoryInstances;
+
+  /**
+   * @return A new instance configured with default settings
+   */
+  public static FileStoreCursorIteratorConfig getDefault() {
+    return new FileStoreCursorIteratorConfig(DEFAULT_OBJECT_STREAMING_BUFFER_INCREMENT_SIZE,
+                                             DEFAULT_OBJECT_STREAMING_MAX_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a new instance
+   *
+   * @param bucketSize           how many instances are grouped in each bucket. Buckets are the unit in which instances are
+   *                             written to and read from disk. Must be greater than zero
+   * @param maxInMemoryInstances the maximum amount of instances to be held in memory. Must be greater or equal than
+   *                             {@code bucketSize}
+   * @throws IllegalArgumentException if any of the given arguments is invalid
+   */
+  public FileStoreCursorIteratorConfig(int bucketSize, int maxInMemoryInstances) {
+    checkArgument(bucketSize > 0, "bucketSize must be greater than zero");
+    checkArgument(maxInMemoryInstances >= bucketSize, "maxInMemoryInstances cannot be lower than the bucketSize");
+
+    this.bucketSize = bucketSize;
+    this.maxInMemoryInstances = maxInMemoryInstances;
+  }
+
+  /**
+   * @return how many instances are grouped in each bucket
+   */
+  public int getBucketSize() {
+    return bucketSize;
+  }
+
+  /**
+   * @return the maximum amount of instances to be held in memory
+   */
+  public int getMaxInMemoryInstances() {
+    return maxInMemoryInstances;
+  }
+}
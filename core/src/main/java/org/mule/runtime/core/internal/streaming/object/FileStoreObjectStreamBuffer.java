@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.object;
+
+import static java.lang.Math.max;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.core.internal.streaming.TempBufferFileUtils.createBufferFile;
+
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.util.LazyValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An {@link AbstractObjectStreamBuffer} implementation which keeps up to
+ * {@link FileStoreCursorIteratorConfig#getMaxInMemoryInstances()} items in memory and spills the rest into a local file.
+ * <p>
+ * Items are grouped in buckets of a fixed size. Each time a bucket is filled, its contents are serialized using the
+ * artifact's {@link ObjectSerializer} and appended to the buffer file. Only the most recently used buckets are kept
+ * on the heap; the rest are evicted and lazily read back from the file when a cursor needs an item from them. This
+ * allows cursors to seek to any position without keeping the whole stream in memory.
+ * <p>
+ * The buffer file is only created once the first bucket is filled, and it is deleted when this buffer is closed.
+ *
+ * @param <T> The generic type of the items in the stream
+ * @since 4.2
+ */
+public class FileStoreObjectStreamBuffer<T> extends AbstractObjectStreamBuffer<T> {
+
+  private final FileStoreCursorIteratorConfig config;
+  private final ObjectSerializer serializer;
+  private final int maxResidentBuckets;
+  private final LazyValue<File> bufferFile;
+  private final LazyValue<FileChannel> fileChannel;
+
+  private List<BucketSlot<T>> slots;
+  private long fileTip = 0;
+
+  /**
+   * Sealed buckets currently held in memory, in access order. The bucket being filled is not part of it since it can
+   * never be evicted.
+   */
+  private final Map<Integer, Bucket<T>> residentBuckets = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Creates a new instance
+   *
+   * @param stream     the stream to be buffered
+   * @param config     this buffer's configuration
+   * @param serializer the {@link ObjectSerializer} used to write and read buckets from disk
+   */
+  public FileStoreObjectStreamBuffer(Iterator<T> stream, FileStoreCursorIteratorConfig config, ObjectSerializer serializer) {
+    super(stream);
+    this.config = config;
+    this.serializer = serializer;
+    maxResidentBuckets = max(1, config.getMaxInMemoryInstances() / config.getBucketSize() - 1);
+    bufferFile = new LazyValue<>(() -> createBufferFile("object-stream-buffer"));
+    fileChannel = new LazyValue<>(this::openFileChannel);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Position toPosition(long position) {
+    final int bucketSize = config.getBucketSize();
+    return new Position((int) (position / bucketSize), (int) (position % bucketSize));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void initialize(Optional<Position> maxPosition, Bucket<T> initialBucket) {
+    slots = maxPosition.map(p -> new ArrayList<BucketSlot<T>>(p.getBucketIndex() + 1)).orElseGet(ArrayList::new);
+    initialBucket = new Bucket<>(0, config.getBucketSize());
+    slots.add(new BucketSlot<>(initialBucket));
+    setCurrentBucket(initialBucket);
+  }
+
+  /**
+   * {@inheritDoc}
+   * If the bucket for the given {@code position} was evicted, then it is read back from the buffer file.
+   */
+  @Override
+  protected Optional<Bucket<T>> getPresentBucket(Position position) {
+    final int bucketIndex = position.getBucketIndex();
+    synchronized (residentBuckets) {
+      if (bucketIndex >= slots.size()) {
+        return empty();
+      }
+
+      final BucketSlot<T> slot = slots.get(bucketIndex);
+      if (slot.bucket != null) {
+        residentBuckets.get(bucketIndex);
+        return of(slot.bucket);
+      }
+
+      Bucket<T> bucket = readBucket(bucketIndex, slot);
+      makeResident(slot, bucket);
+      return of(bucket);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * The overflown bucket is written into the buffer file, and the least recently used buckets are evicted from memory
+   * if necessary.
+   */
+  @Override
+  protected Bucket<T> onBucketOverflow(Bucket<T> overflownBucket) {
+    Bucket<T> newBucket = new Bucket<>(overflownBucket.getIndex() + 1, config.getBucketSize());
+    synchronized (residentBuckets) {
+      final BucketSlot<T> overflownSlot = slots.get(overflownBucket.getIndex());
+      writeBucket(overflownSlot, overflownBucket);
+      makeResident(overflownSlot, overflownBucket);
+      slots.add(new BucketSlot<>(newBucket));
+    }
+
+    return newBucket;
+  }
+
+  /**
+   * {@inheritDoc}
+   * No-op, since buffering on disk is meant to be unbounded
+   */
+  @Override
+  protected void validateMaxBufferSizeNotExceeded(int instancesCount) {}
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void doClose() {
+    synchronized (residentBuckets) {
+      residentBuckets.clear();
+      slots.clear();
+    }
+
+    fileChannel.ifComputed(channel -> closeSafely(channel::close));
+    bufferFile.ifComputed(file -> closeSafely(() -> {
+      if (file.exists() && !file.delete()) {
+        file.deleteOnExit();
+      }
+    }));
+  }
+
+  private void makeResident(BucketSlot<T> slot, Bucket<T> bucket) {
+    slot.bucket = bucket;
+    residentBuckets.put(bucket.getIndex(), bucket);
+
+    final Iterator<Map.Entry<Integer, Bucket<T>>> lru = residentBuckets.entrySet().iterator();
+    while (residentBuckets.size() > maxResidentBuckets && lru.hasNext()) {
+      slots.get(lru.next().getKey()).bucket = null;
+      lru.remove();
+    }
+  }
+
+  private void writeBucket(BucketSlot<T> slot, Bucket<T> bucket) {
+    final byte[] bytes = serializer.getInternalProtocol().serialize(new ArrayList<>(bucket.getItems()));
+    final ByteBuffer data = ByteBuffer.wrap(bytes);
+    try {
+      final FileChannel channel = fileChannel.get();
+      long position = fileTip;
+      while (data.hasRemaining()) {
+        position += channel.write(data, position);
+      }
+    } catch (IOException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not write into object stream buffer file "
+          + bufferFile.get().getAbsolutePath()), e);
+    }
+
+    slot.fileOffset = fileTip;
+    slot.length = bytes.length;
+    fileTip += bytes.length;
+  }
+
+  private Bucket<T> readBucket(int bucketIndex, BucketSlot<T> slot) {
+    final ByteBuffer data = ByteBuffer.allocate(slot.length);
+    try {
+      final FileChannel channel = fileChannel.get();
+      while (data.hasRemaining()) {
+        if (channel.read(data, slot.fileOffset + data.position()) == -1) {
+          break;
+        }
+      }
+    } catch (IOException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not read from object stream buffer file "
+          + bufferFile.get().getAbsolutePath()), e);
+    }
+
+    List<T> items = serializer.getInternalProtocol().deserialize(data.array());
+    Bucket<T> bucket = new Bucket<>(bucketIndex, config.getBucketSize());
+    items.forEach(bucket::add);
+
+    return bucket;
+  }
+
+  private FileChannel openFileChannel() {
+    try {
+      return new RandomAccessFile(bufferFile.get(), "rw").getChannel();
+    } catch (IOException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not create object stream buffer file "
+          + bufferFile.get().getAbsolutePath()), e);
+    }
+  }
+
+  /**
+   * Tracks where a bucket lives. {@link #bucket} is {@code null} when the bucket has been evicted from memory, in which
+   * case it can be found in the buffer file at {@link #fileOffset}
+   */
+  private static class BucketSlot<T> {
+
+    private Bucket<T> bucket;
+    private long fileOffset = -1;
+    private int length;
+
+    private BucketSlot(Bucket<T> bucket) {
+      this.bucket = bucket;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.ThreadLocal.withInitial;
+
+import org.mule.runtime.core.api.util.IdGenerator;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default {@link IdGenerator}, which generates identifiers with the same shape as a UUID from:
+ * <ul>
+ * <li>the time when the identifier was generated, in milliseconds,</li>
+ * <li>a sequence, incremented for each identifier generated by a thread in the same millisecond,</li>
+ * <li>a slot assigned to the thread generating the identifier, and</li>
+ * <li>a random value chosen when the generator is created, so that different instances of the runtime don't generate the same
+ * identifiers.</li>
+ * </ul>
+ * <p/>
+ * Since each thread has its own sequence, identifiers are generated without contention. The identifiers generated by a thread are
+ * ordered, even when compared as strings. Each thread also keeps the characters of the last identifier, so that only the ones for
+ * the time and sequence are written for the next one.
+ *
+ * @since 4.2
+ */
+public final class DefaultIdGenerator implements IdGenerator {
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private static final int ID_LENGTH = 36;
+  // Enough for the minus sign, the digits of any int and the separator
+  private static final int MAX_PREFIX_LENGTH = 12;
+
+  private static final int MAX_SEQUENCE = 0xFFFF;
+  private static final int SLOT_MASK = 0xFFFFFF;
+  private static final long NODE_MASK = 0xFFFFFFFFFFL;
+
+  private final long node;
+  private final AtomicInteger slots = new AtomicInteger();
+  private final ThreadLocal<ThreadIds> threadIds = withInitial(() -> new ThreadIds(slots.getAndIncrement() & SLOT_MASK));
+
+  public DefaultIdGenerator() {
+    this(new SecureRandom().nextLong());
+  }
+
+  DefaultIdGenerator(long node) {
+    this.node = node & NODE_MASK;
+  }
+
+  @Override
+  public String generateId() {
+    final ThreadIds ids = threadIds.get();
+    ids.next();
+    return new String(ids.buffer, MAX_PREFIX_LENGTH, ID_LENGTH);
+  }
+
+  @Override
+  public String generateClusterId(int clusterId) {
+    final ThreadIds ids = threadIds.get();
+    ids.next();
+    final int prefixLength = ids.prefix(clusterId);
+    return new String(ids.buffer, MAX_PREFIX_LENGTH - prefixLength, prefixLength + ID_LENGTH);
+  }
+
+  private static void writeHex(char[] buffer, int offset, long value, int digits) {
+    for (int i = digits - 1; i >= 0; --i) {
+      buffer[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+      value >>>= 4;
+    }
+  }
+
+  /**
+   * The state of the identifiers generated by a thread. The identifier is kept at the end of {@code buffer}, preceded by the
+   * last cluster id prefix used.
+   */
+  private final class ThreadIds {
+
+    private final char[] buffer = new char[MAX_PREFIX_LENGTH + ID_LENGTH];
+    private long time = -1;
+    private int sequence;
+    private int prefixClusterId;
+    private int prefixLength = -1;
+
+    private ThreadIds(int slot) {
+      // tttttttt-tttt-ssss-llll-llnnnnnnnnnn
+      buffer[MAX_PREFIX_LENGTH + 8] = '-';
+      buffer[MAX_PREFIX_LENGTH + 13] = '-';
+      buffer[MAX_PREFIX_LENGTH + 18] = '-';
+      buffer[MAX_PREFIX_LENGTH + 23] = '-';
+      writeHex(buffer, MAX_PREFIX_LENGTH + 19, slot >>> 8, 4);
+      writeHex(buffer, MAX_PREFIX_LENGTH + 24, slot & 0xFF, 2);
+      writeHex(buffer, MAX_PREFIX_LENGTH + 26, node, 10);
+    }
+
+    private void next() {
+      final long now = currentTimeMillis();
+      if (now > time) {
+        sequence = 0;
+        writeTime(now);
+      } else if (++sequence > MAX_SEQUENCE) {
+        // The sequence is exhausted for this time, which is moved forward to keep the identifiers unique and ordered
+        sequence = 0;
+        writeTime(time + 1);
+      }
+      writeHex(buffer, MAX_PREFIX_LENGTH + 14, sequence, 4);
+    }
+
+    private void writeTime(long time) {
+      this.time = time;
+      writeHex(buffer, MAX_PREFIX_LENGTH, time >>> 16, 8);
+      writeHex(buffer, MAX_PREFIX_LENGTH + 9, time & 0xFFFF, 4);
+    }
+
+    private int prefix(int clusterId) {
+      if (prefixLength < 0 || prefixClusterId != clusterId) {
+        final String prefix = clusterId + "-";
+        prefix.getChars(0, prefix.length(), buffer, MAX_PREFIX_LENGTH - prefix.length());
+        prefixClusterId = clusterId;
+        prefixLength = prefix.length();
+      }
+      return prefixLength;
+    }
+  }
+}
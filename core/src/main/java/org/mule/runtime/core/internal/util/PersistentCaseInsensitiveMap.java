@@ -0,0 +1,551 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util;
+
+import static java.lang.Character.toLowerCase;
+import static java.lang.Character.toUpperCase;
+import static java.lang.Integer.bitCount;
+import static java.lang.System.arraycopy;
+
+import org.mule.runtime.core.api.util.CaseInsensitiveHashMap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable {@link Map} with {@link String} keys that are compared ignoring their case, like in {@link CaseInsensitiveHashMap}.
+ * <p>
+ * The map is a hash array mapped trie, so {@link #plus(String, Object)} and {@link #minus(String)} return a new map that shares
+ * with {@code this} every node but the ones in the path to the changed entry. That makes adding or removing an entry cost
+ * {@code O(log32 n)} both in time and in allocated memory, instead of copying the whole map.
+ * <p>
+ * The {@link Map} mutator methods throw {@link UnsupportedOperationException}. The keys keep the case with which they were first
+ * added.
+ *
+ * @param <V> the type of the values
+ * @since 4.2
+ */
+public final class PersistentCaseInsensitiveMap<V> extends AbstractMap<String, V> implements Serializable {
+
+  private static final long serialVersionUID = -4046381924917693711L;
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  // Levels needed to consume the 32 bits of the hash
+  private static final int MAX_DEPTH = 7;
+
+  private static final PersistentCaseInsensitiveMap EMPTY = new PersistentCaseInsensitiveMap(null, 0);
+
+  private transient Node<V> root;
+  private transient int size;
+  private transient Set<Entry<String, V>> entrySet;
+
+  /**
+   * @return an empty map
+   */
+  public static <V> PersistentCaseInsensitiveMap<V> empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns a map with the entries of the given {@code map}. If it already is a {@link PersistentCaseInsensitiveMap}, it is
+   * returned as is.
+   *
+   * @param map the entries to copy
+   * @return a map with the entries of {@code map}
+   */
+  public static <V> PersistentCaseInsensitiveMap<V> copyOf(Map<String, ? extends V> map) {
+    if (map instanceof PersistentCaseInsensitiveMap) {
+      return (PersistentCaseInsensitiveMap<V>) map;
+    }
+
+    PersistentCaseInsensitiveMap<V> copy = empty();
+    for (Entry<String, ? extends V> entry : map.entrySet()) {
+      copy = copy.plus(entry.getKey(), entry.getValue());
+    }
+    return copy;
+  }
+
+  private PersistentCaseInsensitiveMap(Node<V> root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Returns a map with the entries of {@code this} plus the given one. If {@code this} already has the key, its value is
+   * replaced.
+   *
+   * @param key the key of the entry to add
+   * @param value the value of the entry to add
+   * @return a new map with the entry, or {@code this} if it was already present
+   */
+  public PersistentCaseInsensitiveMap<V> plus(String key, V value) {
+    int hash = hash(key);
+    if (root == null) {
+      return new PersistentCaseInsensitiveMap<>(new Leaf<>(hash, key, value), 1);
+    }
+
+    Node<V> newRoot = root.plus(0, hash, key, value);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentCaseInsensitiveMap<>(newRoot, root.find(0, hash, key) == null ? size + 1 : size);
+  }
+
+  /**
+   * Returns a map with the entries of {@code this} except the one for the given key.
+   *
+   * @param key the key of the entry to remove
+   * @return a new map without the entry, or {@code this} if it was not present
+   */
+  public PersistentCaseInsensitiveMap<V> minus(String key) {
+    if (root == null) {
+      return this;
+    }
+
+    Node<V> newRoot = root.minus(0, hash(key), key);
+    if (newRoot == root) {
+      return this;
+    } else if (newRoot == null) {
+      return empty();
+    }
+    return new PersistentCaseInsensitiveMap<>(newRoot, size - 1);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public V get(Object key) {
+    Leaf<V> leaf = find(key);
+    return leaf == null ? null : leaf.value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return find(key) != null;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super V> action) {
+    if (root != null) {
+      root.forEach(action);
+    }
+  }
+
+  @Override
+  public Set<Entry<String, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private Leaf<V> find(Object key) {
+    if (root == null || !(key instanceof String)) {
+      return null;
+    }
+    return root.find(0, hash((String) key), (String) key);
+  }
+
+  /**
+   * Hashes the key consistently with {@link String#equalsIgnoreCase(String)}, without creating a lower case copy of it.
+   */
+  private static int hash(String key) {
+    int h = 0;
+    for (int i = 0; i < key.length(); ++i) {
+      h = 31 * h + toLowerCase(toUpperCase(key.charAt(i)));
+    }
+    return h ^ (h >>> 16);
+  }
+
+  private static int fragment(int shift, int hash) {
+    return (hash >>> shift) & MASK;
+  }
+
+  private abstract static class Node<V> {
+
+    abstract Leaf<V> find(int shift, int hash, String key);
+
+    abstract Node<V> plus(int shift, int hash, String key, V value);
+
+    /**
+     * @return the node without the entry, {@code this} if the entry was not found or {@code null} if the node ended up empty
+     */
+    abstract Node<V> minus(int shift, int hash, String key);
+
+    abstract void forEach(BiConsumer<? super String, ? super V> action);
+  }
+
+  private static final class Leaf<V> extends Node<V> implements Entry<String, V> {
+
+    private final int hash;
+    private final String key;
+    private final V value;
+
+    private Leaf(int hash, String key, V value) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    Leaf<V> find(int shift, int hash, String key) {
+      return this.hash == hash && this.key.equalsIgnoreCase(key) ? this : null;
+    }
+
+    @Override
+    Node<V> plus(int shift, int hash, String key, V value) {
+      if (this.hash == hash) {
+        if (this.key.equalsIgnoreCase(key)) {
+          return this.value == value ? this : new Leaf<>(hash, this.key, value);
+        }
+        return new CollisionNode<>(hash, new Leaf[] {this, new Leaf<>(hash, key, value)});
+      }
+      return BitmapNode.<V>pair(shift, this, new Leaf<>(hash, key, value));
+    }
+
+    @Override
+    Node<V> minus(int shift, int hash, String key) {
+      return find(shift, hash, key) == null ? this : null;
+    }
+
+    @Override
+    void forEach(BiConsumer<? super String, ? super V> action) {
+      action.accept(key, value);
+    }
+
+    @Override
+    public String getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> other = (Entry<?, ?>) o;
+      return key.equals(other.getKey()) && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + value;
+    }
+  }
+
+  private static final class BitmapNode<V> extends Node<V> {
+
+    private final int bitmap;
+    private final Node<V>[] children;
+
+    private BitmapNode(int bitmap, Node<V>[] children) {
+      this.bitmap = bitmap;
+      this.children = children;
+    }
+
+    /**
+     * Creates the node holding two leaves with different hashes.
+     */
+    private static <V> Node<V> pair(int shift, Leaf<V> a, Leaf<V> b) {
+      int fragA = fragment(shift, a.hash);
+      int fragB = fragment(shift, b.hash);
+      if (fragA == fragB) {
+        return new BitmapNode<>(1 << fragA, new Node[] {pair(shift + BITS, a, b)});
+      }
+      return new BitmapNode<>((1 << fragA) | (1 << fragB), fragA < fragB ? new Node[] {a, b} : new Node[] {b, a});
+    }
+
+    private int index(int bit) {
+      return bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    Leaf<V> find(int shift, int hash, String key) {
+      int bit = 1 << fragment(shift, hash);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      return children[index(bit)].find(shift + BITS, hash, key);
+    }
+
+    @Override
+    Node<V> plus(int shift, int hash, String key, V value) {
+      int bit = 1 << fragment(shift, hash);
+      int idx = index(bit);
+      if ((bitmap & bit) == 0) {
+        Node<V>[] newChildren = new Node[children.length + 1];
+        arraycopy(children, 0, newChildren, 0, idx);
+        newChildren[idx] = new Leaf<>(hash, key, value);
+        arraycopy(children, idx, newChildren, idx + 1, children.length - idx);
+        return new BitmapNode<>(bitmap | bit, newChildren);
+      }
+
+      Node<V> child = children[idx];
+      Node<V> newChild = child.plus(shift + BITS, hash, key, value);
+      if (newChild == child) {
+        return this;
+      }
+      Node<V>[] newChildren = children.clone();
+      newChildren[idx] = newChild;
+      return new BitmapNode<>(bitmap, newChildren);
+    }
+
+    @Override
+    Node<V> minus(int shift, int hash, String key) {
+      int bit = 1 << fragment(shift, hash);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+
+      int idx = index(bit);
+      Node<V> child = children[idx];
+      Node<V> newChild = child.minus(shift + BITS, hash, key);
+      if (newChild == child) {
+        return this;
+      } else if (newChild != null) {
+        if (children.length == 1 && !(newChild instanceof BitmapNode)) {
+          // Collapse the path so lookups don't go through single child nodes
+          return newChild;
+        }
+        Node<V>[] newChildren = children.clone();
+        newChildren[idx] = newChild;
+        return new BitmapNode<>(bitmap, newChildren);
+      } else if (children.length == 1) {
+        return null;
+      } else if (children.length == 2 && !(children[idx ^ 1] instanceof BitmapNode)) {
+        return children[idx ^ 1];
+      }
+
+      Node<V>[] newChildren = new Node[children.length - 1];
+      arraycopy(children, 0, newChildren, 0, idx);
+      arraycopy(children, idx + 1, newChildren, idx, children.length - idx - 1);
+      return new BitmapNode<>(bitmap & ~bit, newChildren);
+    }
+
+    @Override
+    void forEach(BiConsumer<? super String, ? super V> action) {
+      for (Node<V> child : children) {
+        child.forEach(action);
+      }
+    }
+  }
+
+  /**
+   * Holds the entries whose keys are different but have the same hash.
+   */
+  private static final class CollisionNode<V> extends Node<V> {
+
+    private final int hash;
+    private final Leaf<V>[] leaves;
+
+    private CollisionNode(int hash, Leaf<V>[] leaves) {
+      this.hash = hash;
+      this.leaves = leaves;
+    }
+
+    private int indexOf(String key) {
+      for (int i = 0; i < leaves.length; ++i) {
+        if (leaves[i].key.equalsIgnoreCase(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Leaf<V> find(int shift, int hash, String key) {
+      if (this.hash != hash) {
+        return null;
+      }
+      int idx = indexOf(key);
+      return idx < 0 ? null : leaves[idx];
+    }
+
+    @Override
+    Node<V> plus(int shift, int hash, String key, V value) {
+      if (this.hash != hash) {
+        Leaf<V> other = new Leaf<>(hash, key, value);
+        int frag = fragment(shift, this.hash);
+        int otherFrag = fragment(shift, hash);
+        if (frag == otherFrag) {
+          return new BitmapNode<>(1 << frag, new Node[] {plus(shift + BITS, hash, key, value)});
+        }
+        return new BitmapNode<>((1 << frag) | (1 << otherFrag), frag < otherFrag ? new Node[] {this, other}
+            : new Node[] {other, this});
+      }
+
+      int idx = indexOf(key);
+      Leaf<V>[] newLeaves;
+      if (idx < 0) {
+        newLeaves = new Leaf[leaves.length + 1];
+        arraycopy(leaves, 0, newLeaves, 0, leaves.length);
+        newLeaves[leaves.length] = new Leaf<>(hash, key, value);
+      } else if (leaves[idx].value == value) {
+        return this;
+      } else {
+        newLeaves = leaves.clone();
+        newLeaves[idx] = new Leaf<>(hash, leaves[idx].key, value);
+      }
+      return new CollisionNode<>(hash, newLeaves);
+    }
+
+    @Override
+    Node<V> minus(int shift, int hash, String key) {
+      int idx = this.hash == hash ? indexOf(key) : -1;
+      if (idx < 0) {
+        return this;
+      } else if (leaves.length == 2) {
+        return leaves[idx ^ 1];
+      }
+
+      Leaf<V>[] newLeaves = new Leaf[leaves.length - 1];
+      arraycopy(leaves, 0, newLeaves, 0, idx);
+      arraycopy(leaves, idx + 1, newLeaves, idx, leaves.length - idx - 1);
+      return new CollisionNode<>(hash, newLeaves);
+    }
+
+    @Override
+    void forEach(BiConsumer<? super String, ? super V> action) {
+      for (Leaf<V> leaf : leaves) {
+        action.accept(leaf.key, leaf.value);
+      }
+    }
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<String, V>> {
+
+    @Override
+    public Iterator<Entry<String, V>> iterator() {
+      return new EntryIterator<>(root);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return o instanceof Entry && o.equals(find(((Entry) o).getKey()));
+    }
+  }
+
+  /**
+   * Depth-first iterator over the trie, keeping the position in each level in a stack.
+   */
+  private static final class EntryIterator<V> implements Iterator<Entry<String, V>> {
+
+    private final Node<V>[][] nodes = new Node[MAX_DEPTH + 2][];
+    private final int[] positions = new int[MAX_DEPTH + 2];
+    private int depth = -1;
+    private Leaf<V> next;
+
+    private EntryIterator(Node<V> root) {
+      if (root != null) {
+        push(new Node[] {root});
+        advance();
+      }
+    }
+
+    private void push(Node<V>[] level) {
+      nodes[++depth] = level;
+      positions[depth] = 0;
+    }
+
+    private void advance() {
+      next = null;
+      while (depth >= 0) {
+        if (positions[depth] == nodes[depth].length) {
+          nodes[depth--] = null;
+          continue;
+        }
+
+        Node<V> node = nodes[depth][positions[depth]++];
+        if (node instanceof Leaf) {
+          next = (Leaf<V>) node;
+          return;
+        } else if (node instanceof BitmapNode) {
+          push(((BitmapNode<V>) node).children);
+        } else {
+          push(((CollisionNode<V>) node).leaves);
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Entry<String, V> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Leaf<V> current = next;
+      advance();
+      return current;
+    }
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    out.writeInt(size);
+    for (Entry<String, V> entry : entrySet()) {
+      out.writeObject(entry.getKey());
+      out.writeObject(entry.getValue());
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    int entries = in.readInt();
+    PersistentCaseInsensitiveMap<V> map = empty();
+    for (int i = 0; i < entries; ++i) {
+      map = map.plus((String) in.readObject(), (V) in.readObject());
+    }
+    this.root = map.root;
+    this.size = map.size;
+  }
+
+  private Object readResolve() {
+    return size == 0 ? EMPTY : this;
+  }
+}
@@ -0,0 +1,568 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util.queue;
+
+import static java.lang.Integer.getInteger;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.util.Comparator.comparingLong;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_QUEUE_RING_FILE_SIZE;
+
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.util.Preconditions;
+import org.mule.runtime.core.api.MuleContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link TransactionalQueueStoreDelegate} implementation which stores the queue data in a memory-mapped circular file.
+ * <p/>
+ * Producers claim space at the tail of the ring with a compare-and-set and then copy their record into the mapped memory, so
+ * concurrent producers write in parallel without seeking. The order of the queue is kept in a lock-free deque of record
+ * locations, which consumers pop from. Consuming a record only flips its state byte, and the space of the consumed records
+ * at the head of the ring is reclaimed (zeroed) to be reused by producers, once its new position is stored in the header of
+ * the file.
+ * <p/>
+ * Each record holds a sequence number and its own position, so the queue is restored by scanning the whole ring from the
+ * reclaimed position and sorting the records still alive. Since producers may complete their records in any order, the space
+ * claimed by a producer which didn't write its record is skipped, and the records after it are recovered anyway. Unlike
+ * {@link DualRandomAccessFileQueueStoreDelegate} no control data file is needed to know where to start reading. Transactions
+ * which were not committed are still recovered through the transaction journal, by means of {@link #remove(Serializable)} and
+ * {@link #contains(Serializable)}.
+ * <p/>
+ * The size of the ring is fixed when the file is created. Producers wait for consumers to free space when it's full.
+ *
+ * @since 4.2
+ */
+public class MappedRingFileQueueStoreDelegate implements TransactionalQueueStoreDelegate {
+
+  private static final int DEFAULT_RING_FILE_SIZE = 32 * 1024 * 1024;
+  private static final String QUEUE_STORE_DIRECTORY = "queuestore";
+  private static final String RING_FILE_SUFFIX = "-ring";
+
+  // The header of the file holds the logical position up to which the ring has been reclaimed
+  private static final int FILE_HEADER_SIZE = 64;
+  // state, length, sequence, position and check of each record
+  private static final int LENGTH_OFFSET = 1;
+  private static final int SEQUENCE_OFFSET = LENGTH_OFFSET + 4;
+  private static final int POSITION_OFFSET = SEQUENCE_OFFSET + 8;
+  private static final int CHECK_OFFSET = POSITION_OFFSET + 8;
+  private static final int RECORD_HEADER_SIZE = CHECK_OFFSET + 4;
+  // Records start at aligned offsets, so that recovery is able to find the ones after space that was claimed but not written
+  private static final int RECORD_ALIGNMENT = 8;
+  private static final int CHECK_SEED = 0x5A17C0DE;
+
+  // Unwritten and reclaimed space is zeroed
+  private static final byte LIVE = 1;
+  private static final byte CONSUMED = 2;
+  private static final byte[] ZEROS = new byte[8 * 1024];
+
+  private static final long SPACE_WAIT_MILLIS = 1;
+
+  protected final Logger logger = LoggerFactory.getLogger(this.getClass());
+  private final ObjectSerializer serializer;
+  private final int capacity;
+  private final QueueFileProvider queueFileProvider;
+  private final MappedByteBuffer buffer;
+  private final int ringSize;
+
+  // Logical positions only grow, the physical position is the logical one modulo the ring size
+  private AtomicLong tail;
+  private volatile long reclaimed;
+  private final AtomicBoolean reclaiming = new AtomicBoolean(false);
+  private final ConcurrentSkipListMap<Long, Integer> consumedRecords = new ConcurrentSkipListMap<>();
+
+  private final ConcurrentLinkedDeque<Slot> slots = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private AtomicLong nextSequence;
+  private AtomicLong firstSequence;
+
+  // Only used by threads which have to block, either because the queue is empty or full
+  private final Object signal = new Object();
+  private final AtomicInteger waiting = new AtomicInteger();
+
+  public MappedRingFileQueueStoreDelegate(String queueName, String workingDirectory, MuleContext muleContext, int capacity) {
+    this(queueName, workingDirectory, muleContext, capacity, getInteger(MULE_QUEUE_RING_FILE_SIZE, DEFAULT_RING_FILE_SIZE));
+  }
+
+  MappedRingFileQueueStoreDelegate(String queueName, String workingDirectory, MuleContext muleContext, int capacity,
+                                   int ringFileSize) {
+    this.capacity = capacity;
+    serializer = muleContext.getObjectSerializer();
+    File queuesDirectory = new File(workingDirectory + File.separator + QUEUE_STORE_DIRECTORY);
+    if (!queuesDirectory.exists()) {
+      Preconditions.checkState(queuesDirectory.mkdirs(),
+                               "Could not create queue store directory " + queuesDirectory.getAbsolutePath());
+    }
+    queueFileProvider = new QueueFileProvider(queuesDirectory, queueName + RING_FILE_SUFFIX);
+
+    try {
+      long fileLength = queueFileProvider.getRandomAccessFile().length();
+      if (fileLength <= FILE_HEADER_SIZE) {
+        fileLength = FILE_HEADER_SIZE + (long) ringFileSize;
+        queueFileProvider.getRandomAccessFile().setLength(fileLength);
+      }
+      ringSize = (int) (fileLength - FILE_HEADER_SIZE) & -RECORD_ALIGNMENT;
+      FileChannel channel = queueFileProvider.getRandomAccessFile().getChannel();
+      buffer = channel.map(READ_WRITE, 0, fileLength);
+    } catch (IOException e) {
+      throw new MuleRuntimeException(e);
+    }
+
+    recover();
+
+    if (logger.isDebugEnabled()) {
+      logger.debug(String.format("Queue %s has %s messages", queueName, getSize()));
+    }
+  }
+
+  private void recover() {
+    final long start = buffer.getLong(0);
+    final long end = start + ringSize;
+    List<Slot> recovered = new ArrayList<>();
+    long position = start;
+    // end of the last record found, from where the ring is free
+    long written = start;
+
+    while (position < end) {
+      int offset = ringOffset(position);
+      if (ringSize - offset < RECORD_HEADER_SIZE) {
+        position += ringSize - offset;
+        continue;
+      }
+
+      int index = FILE_HEADER_SIZE + offset;
+      int length = buffer.getInt(index + LENGTH_OFFSET);
+      long sequence = buffer.getLong(index + SEQUENCE_OFFSET);
+      if (buffer.getLong(index + POSITION_OFFSET) != position || length <= 0 || length > ringSize - offset - RECORD_HEADER_SIZE
+          || buffer.getInt(index + CHECK_OFFSET) != check(length, sequence, position)) {
+        // Not a record written in this lap of the ring: either padding, space claimed by a producer which didn't write its
+        // record, or data left from a previous lap
+        position += RECORD_ALIGNMENT;
+        continue;
+      }
+
+      if (position > written) {
+        consumedRecords.put(written, (int) (position - written));
+      }
+      int recordSize = recordSize(length);
+      if (buffer.get(index) == LIVE) {
+        recovered.add(new Slot(position, recordSize, length, sequence));
+      } else {
+        // either consumed or incomplete because of a crash while it was written
+        consumedRecords.put(position, recordSize);
+      }
+      position += recordSize;
+      written = position;
+    }
+
+    // Whatever is left after the last record is cleaned up, so that producers write over zeroed space again
+    zeroDirty(written, end);
+    tail = new AtomicLong(written);
+    reclaimed = start;
+
+    recovered.sort(comparingLong(slot -> slot.sequence));
+    slots.addAll(recovered);
+    size.set(recovered.size());
+    firstSequence = new AtomicLong(recovered.isEmpty() ? 0 : recovered.get(0).sequence);
+    nextSequence = new AtomicLong(recovered.isEmpty() ? 0 : recovered.get(recovered.size() - 1).sequence + 1);
+  }
+
+  @Override
+  public void putNow(Serializable o) {
+    add(o);
+    signalWaiters();
+  }
+
+  @Override
+  public boolean offer(Serializable o, int room, long timeout) throws InterruptedException {
+    checkInterrupted();
+    if (capacity > 0) {
+      if (capacity <= room) {
+        throw new IllegalStateException("Can not add more objects than the capacity in one time");
+      }
+      final long start = currentTimeMillis();
+      while (true) {
+        final int current = size.get();
+        if (current < capacity - room) {
+          // Concurrent producers reserve their place in the queue before writing, so that none of them exceeds the capacity
+          if (o == null || size.compareAndSet(current, current + 1)) {
+            break;
+          }
+          continue;
+        }
+        long remaining = timeout - (currentTimeMillis() - start);
+        if (timeout >= 0 && remaining <= 0) {
+          return false;
+        }
+        await(() -> size.get() >= capacity - room, timeout < 0 ? 0 : remaining);
+      }
+      if (o != null) {
+        try {
+          append(o);
+        } catch (RuntimeException e) {
+          size.decrementAndGet();
+          throw e;
+        }
+      }
+    } else if (o != null) {
+      add(o);
+    }
+    signalWaiters();
+    return true;
+  }
+
+  @Override
+  public Serializable poll(long timeout) throws InterruptedException {
+    checkInterrupted();
+    final long start = currentTimeMillis();
+    Slot slot;
+    while ((slot = slots.pollFirst()) == null) {
+      long remaining = timeout - (currentTimeMillis() - start);
+      if (remaining <= 0) {
+        return null;
+      }
+      await(slots::isEmpty, remaining);
+    }
+
+    byte[] data = read(slot);
+    release(slot);
+    return deserialize(data);
+  }
+
+  @Override
+  public Serializable peek() throws InterruptedException {
+    checkInterrupted();
+    Slot slot;
+    while ((slot = slots.peekFirst()) != null) {
+      byte[] data = read(slot);
+      // if the record was consumed while being read, its space may have been reused
+      if (!slot.consumed) {
+        return deserialize(data);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void untake(Serializable item) throws InterruptedException {
+    checkInterrupted();
+    slots.offerFirst(write(serialize(item), firstSequence.decrementAndGet()));
+    size.incrementAndGet();
+    signalWaiters();
+  }
+
+  @Override
+  public int getSize() {
+    return size.get();
+  }
+
+  @Override
+  public void clear() throws InterruptedException {
+    checkInterrupted();
+    Slot slot;
+    while ((slot = slots.pollFirst()) != null) {
+      release(slot);
+    }
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends Serializable> items) {
+    for (Serializable item : items) {
+      add(item);
+    }
+    signalWaiters();
+    return true;
+  }
+
+  @Override
+  public void remove(Serializable value) {
+    for (Slot slot : slots) {
+      if (!slot.consumed && deserialize(read(slot)).equals(value) && slots.remove(slot)) {
+        release(slot);
+        return;
+      }
+    }
+  }
+
+  @Override
+  public boolean contains(Serializable value) {
+    for (Slot slot : slots) {
+      if (!slot.consumed && deserialize(read(slot)).equals(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void close() {
+    try {
+      buffer.force();
+      queueFileProvider.close();
+    } catch (IOException e) {
+      logger.warn("failure closing queue file: " + e.getMessage());
+      if (logger.isDebugEnabled()) {
+        logger.debug("Failure closing queue file", e);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void dispose() {
+    close();
+    queueFileProvider.delete();
+  }
+
+  private void add(Serializable item) {
+    append(item);
+    size.incrementAndGet();
+  }
+
+  /**
+   * Writes an item at the end of the queue, which must already be accounted in {@link #size}.
+   */
+  private void append(Serializable item) {
+    slots.offerLast(write(serialize(item), nextSequence.getAndIncrement()));
+  }
+
+  private Slot write(byte[] data, long sequence) {
+    final int recordSize = recordSize(data.length);
+    final long position = claim(recordSize);
+    final int index = FILE_HEADER_SIZE + ringOffset(position);
+
+    // The header goes first so that recovery can skip this record if the rest is not completely written
+    buffer.putInt(index + LENGTH_OFFSET, data.length);
+    buffer.putLong(index + SEQUENCE_OFFSET, sequence);
+    buffer.putLong(index + POSITION_OFFSET, position);
+    buffer.putInt(index + CHECK_OFFSET, check(data.length, sequence, position));
+    ByteBuffer view = buffer.duplicate();
+    view.position(index + RECORD_HEADER_SIZE);
+    view.put(data);
+    buffer.put(index, LIVE);
+
+    return new Slot(position, recordSize, data.length, sequence);
+  }
+
+  private byte[] read(Slot slot) {
+    byte[] data = new byte[slot.length];
+    ByteBuffer view = buffer.duplicate();
+    view.position(FILE_HEADER_SIZE + ringOffset(slot.position) + RECORD_HEADER_SIZE);
+    view.get(data);
+    return data;
+  }
+
+  /**
+   * Claims space for a record of the given size at the tail of the ring. Records never wrap around the end of the ring: if
+   * there's not enough room left until the end, the remaining space is claimed as padding along with the record.
+   *
+   * @return the logical position of the record
+   */
+  private long claim(int recordSize) {
+    if (recordSize > ringSize) {
+      throw new MuleRuntimeException(createStaticMessage(String.format("Item of %d bytes doesn't fit in queue file %s of %d bytes. "
+          + "Consider increasing the '%s' system property.", recordSize, queueFileProvider.getFile().getAbsolutePath(),
+                                                                       ringSize, MULE_QUEUE_RING_FILE_SIZE)));
+    }
+
+    while (true) {
+      final long current = tail.get();
+      final int offset = ringOffset(current);
+      final int padding = ringSize - offset < recordSize ? ringSize - offset : 0;
+      final long next = current + padding + recordSize;
+
+      if (next - reclaimed > ringSize) {
+        if (!reclaim()) {
+          awaitSpace();
+        }
+        continue;
+      }
+
+      if (tail.compareAndSet(current, next)) {
+        if (padding > 0) {
+          consumedRecords.put(current, padding);
+        }
+        return current + padding;
+      }
+    }
+  }
+
+  private void release(Slot slot) {
+    slot.consumed = true;
+    buffer.put(FILE_HEADER_SIZE + ringOffset(slot.position), CONSUMED);
+    consumedRecords.put(slot.position, slot.size);
+    size.decrementAndGet();
+    if (slot.position == reclaimed) {
+      reclaim();
+    }
+    signalWaiters();
+  }
+
+  /**
+   * Frees the space of the consumed records at the head of the ring, if no other thread is already doing it.
+   *
+   * @return whether any space was freed
+   */
+  private boolean reclaim() {
+    if (!reclaiming.compareAndSet(false, true)) {
+      return false;
+    }
+    try {
+      long position = reclaimed;
+      Integer recordSize;
+      while ((recordSize = consumedRecords.remove(position)) != null) {
+        position += recordSize;
+      }
+      if (position == reclaimed) {
+        return false;
+      }
+      // The new position is stored before zeroing the records, so that recovery never starts from the zeroed space
+      buffer.putLong(0, position);
+      zero(reclaimed, position);
+      reclaimed = position;
+      return true;
+    } finally {
+      reclaiming.set(false);
+    }
+  }
+
+  /**
+   * Zeroes the ring between the given logical positions.
+   */
+  private void zero(long from, long to) {
+    ByteBuffer view = buffer.duplicate();
+    while (from < to) {
+      int offset = ringOffset(from);
+      int chunk = (int) Math.min(Math.min(to - from, ringSize - offset), ZEROS.length);
+      view.position(FILE_HEADER_SIZE + offset);
+      view.put(ZEROS, 0, chunk);
+      from += chunk;
+    }
+  }
+
+  /**
+   * Zeroes the ring between the given logical positions, only writing where it's not zeroed already so that the pages of the
+   * file which are clean are not written back.
+   */
+  private void zeroDirty(long from, long to) {
+    for (long position = from; position < to; position += RECORD_ALIGNMENT) {
+      int index = FILE_HEADER_SIZE + ringOffset(position);
+      if (buffer.getLong(index) != 0) {
+        buffer.putLong(index, 0);
+      }
+    }
+  }
+
+  private int ringOffset(long position) {
+    return (int) (position % ringSize);
+  }
+
+  private static int recordSize(int length) {
+    return (RECORD_HEADER_SIZE + length + RECORD_ALIGNMENT - 1) & -RECORD_ALIGNMENT;
+  }
+
+  /**
+   * @return the value which tells apart the header of a record from data left by a previous lap of the ring.
+   */
+  private static int check(int length, long sequence, long position) {
+    long hash = (position * 31 + sequence) * 31 + length;
+    return (int) (hash ^ (hash >>> 32)) ^ CHECK_SEED;
+  }
+
+  private void awaitSpace() {
+    try {
+      await(() -> true, SPACE_WAIT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MuleRuntimeException(e);
+    }
+  }
+
+  /**
+   * Blocks the current thread until signaled or the timeout elapses, unless the condition no longer holds.
+   */
+  private void await(Condition condition, long timeout) throws InterruptedException {
+    waiting.incrementAndGet();
+    try {
+      synchronized (signal) {
+        if (condition.holds()) {
+          signal.wait(timeout);
+        }
+      }
+    } finally {
+      waiting.decrementAndGet();
+    }
+  }
+
+  private void signalWaiters() {
+    if (waiting.get() > 0) {
+      synchronized (signal) {
+        signal.notifyAll();
+      }
+    }
+  }
+
+  private void checkInterrupted() throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+  }
+
+  private byte[] serialize(Serializable item) {
+    return serializer.getInternalProtocol().serialize(item);
+  }
+
+  private Serializable deserialize(byte[] valuesAsBytes) {
+    return serializer.getInternalProtocol().deserialize(valuesAsBytes);
+  }
+
+  @FunctionalInterface
+  private interface Condition {
+
+    boolean holds();
+  }
+
+  /**
+   * Location of a record in the ring.
+   */
+  private static final class Slot {
+
+    private final long position;
+    private final int size;
+    private final int length;
+    private final long sequence;
+    private volatile boolean consumed;
+
+    private Slot(long position, int size, int length, long sequence) {
+      this.position = position;
+      this.size = size;
+      this.length = length;
+      this.sequence = sequence;
+    }
+  }
+}
@@ -6,7 +6,11 @@
  */
 package org.mule.runtime.core.internal.util.store;
 
+import static java.lang.Boolean.getBoolean;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_OBJECT_STORE_LOG_STRUCTURED;
+
 import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.core.internal.store.LogStructuredObjectStore;
 import org.mule.runtime.core.internal.store.PartitionedInMemoryObjectStore;
 import org.mule.runtime.core.internal.store.PartitionedPersistentObjectStore;
 
@@ -19,8 +23,16 @@ public class MuleDefaultObjectStoreFactory implements DefaultObjectStoreFactory
     return new PartitionedInMemoryObjectStore<>();
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * A {@link LogStructuredObjectStore} is created when the {@code mule.objectStore.logStructured} system property is set.
+   */
   @Override
   public ObjectStore<Serializable> createDefaultPersistentObjectStore() {
+    if (getBoolean(MULE_OBJECT_STORE_LOG_STRUCTURED)) {
+      return new LogStructuredObjectStore<>();
+    }
     return new PartitionedPersistentObjectStore<>();
   }
 }
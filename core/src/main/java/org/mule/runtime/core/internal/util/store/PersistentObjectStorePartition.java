@@ -14,6 +14,7 @@ import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 import static org.mule.runtime.core.api.config.i18n.CoreMessages.failedToCreate;
 import static org.mule.runtime.core.api.util.FileUtils.cleanDirectory;
 import static org.mule.runtime.core.api.util.FileUtils.newFile;
+import static org.mule.runtime.core.api.util.UUID.getIdGenerator;
 import static org.mule.runtime.core.internal.util.store.MuleObjectStoreManager.UNBOUNDED;
 import org.mule.runtime.api.exception.MuleRuntimeException;
 import org.mule.runtime.api.serialization.ObjectSerializer;
@@ -25,7 +26,6 @@ import org.mule.runtime.api.store.TemplateObjectStore;
 import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.privileged.store.DeserializationPostInitialisable;
 import org.mule.runtime.api.store.ExpirableObjectStore;
-import org.mule.runtime.core.api.util.UUID;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
@@ -304,7 +304,7 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
   }
 
   protected File createFileToStoreObject() throws ObjectStoreException {
-    String filename = UUID.getUUID() + OBJECT_FILE_EXTENSION;
+    String filename = getIdGenerator().generateId() + OBJECT_FILE_EXTENSION;
     try {
       return newFile(partitionDirectory, filename);
     } catch (MuleRuntimeException mre) {
@@ -18,6 +18,7 @@ import org.reactivestreams.Publisher;
 
 import java.util.Optional;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 /**
  * Context representing a message that is received by a Mule Runtime via a connector source. This context is immutable and
@@ -197,4 +198,17 @@ public interface BaseEventContext extends EventContext {
    */
   int getDepthLevel();
 
+  /**
+   * Provides the state that the streaming subsystem keeps for the cursors owned by this context. The state is created
+   * through the given {@code factory} the first time this method is invoked. Concurrent first invocations may invoke the
+   * {@code factory} more than once, but all of them will return the same instance.
+   *
+   * @param factory creates the state if none was attached yet
+   * @param <T>     the state's type
+   * @return the streaming state attached to this context
+   *
+   * @since 4.2
+   */
+  <T> T getStreamingState(Supplier<T> factory);
+
 }
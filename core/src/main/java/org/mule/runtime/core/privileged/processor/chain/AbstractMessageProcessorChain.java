@@ -19,6 +19,7 @@ import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
 import static org.mule.runtime.core.api.util.StreamingUtils.updateEventForStreaming;
 import static org.mule.runtime.core.api.util.StringUtils.isBlank;
 import static org.mule.runtime.core.internal.context.DefaultMuleContext.currentMuleContext;
+import static org.mule.runtime.core.internal.management.stats.ProcessorLatencyRecorder.forProcessor;
 import static org.mule.runtime.core.privileged.event.PrivilegedEvent.setCurrentEvent;
 import static org.mule.runtime.core.privileged.processor.MessageProcessors.processToApply;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -41,6 +42,7 @@ import org.mule.runtime.core.api.rx.Exceptions;
 import org.mule.runtime.core.api.streaming.StreamingManager;
 import org.mule.runtime.core.internal.exception.MessagingException;
 import org.mule.runtime.core.internal.interception.ProcessorInterceptorManager;
+import org.mule.runtime.core.internal.management.stats.ProcessorLatencyRecorder;
 import org.mule.runtime.core.internal.processor.chain.InterceptedReactiveProcessor;
 import org.mule.runtime.core.internal.processor.interceptor.ReactiveAroundInterceptorAdapter;
 import org.mule.runtime.core.internal.processor.interceptor.ReactiveInterceptorAdapter;
@@ -131,13 +133,14 @@ abstract class AbstractMessageProcessorChain extends AbstractExecutableComponent
     List<BiFunction<Processor, ReactiveProcessor, ReactiveProcessor>> interceptors = resolveInterceptors();
     Flux<CoreEvent> stream = from(publisher);
     for (Processor processor : getProcessorsToExecute()) {
+      Optional<ProcessorLatencyRecorder> latencyRecorder = forProcessor(processor, muleContext);
       // Perform assembly for processor chain by transforming the existing publisher with a publisher function for each processor
       // along with the interceptors that decorate it.
-      stream = stream.transform(applyInterceptors(interceptors, processor))
+      stream = stream.transform(recordLatency(latencyRecorder, applyInterceptors(interceptors, processor)))
           // #1 Register local error hook to wrap exceptions in a MessagingException maintaining failed event.
           .subscriberContext(context -> context.put(REACTOR_ON_OPERATOR_ERROR_LOCAL, getLocalOperatorErrorHook(processor)))
           // #2 Register continue error strategy to handle errors without stopping the stream.
-          .errorStrategyContinue(getContinueStrategyErrorHandler(processor));
+          .errorStrategyContinue(getContinueStrategyErrorHandler(processor, latencyRecorder));
     }
     return stream.subscriberContext(ctx -> {
       ClassLoader tccl = currentThread().getContextClassLoader();
@@ -175,13 +178,15 @@ abstract class AbstractMessageProcessorChain extends AbstractExecutableComponent
    * Used to process failed events which are dropped from the reactor stream due to error. Errors are processed by invoking the
    * current EventContext error callback.
    */
-  private BiConsumer<Throwable, CoreEvent> getContinueStrategyErrorHandler(Processor processor) {
+  private BiConsumer<Throwable, CoreEvent> getContinueStrategyErrorHandler(Processor processor,
+                                                                            Optional<ProcessorLatencyRecorder> latencyRecorder) {
     return (throwable, event) -> {
       throwable = Exceptions.unwrap(throwable);
       if (throwable instanceof MessagingException) {
         // Give priority to failed event from reactor over MessagingException event.
-        BaseEventContext context = (BaseEventContext) (event != null ? event.getContext()
-            : ((MessagingException) throwable).getEvent().getContext());
+        CoreEvent failedEvent = event != null ? event : ((MessagingException) throwable).getEvent();
+        BaseEventContext context = (BaseEventContext) failedEvent.getContext();
+        latencyRecorder.ifPresent(recorder -> recorder.failed(failedEvent));
         errorNotification(processor).andThen(e -> context.error(e))
             .accept(resolveMessagingException(processor).apply((MessagingException) throwable));
       } else {
@@ -190,6 +195,7 @@ abstract class AbstractMessageProcessorChain extends AbstractExecutableComponent
           throw new IllegalStateException(UNEXPECTED_ERROR_HANDLER_STATE_MESSAGE);
         } else {
           BaseEventContext context = ((BaseEventContext) event.getContext());
+          latencyRecorder.ifPresent(recorder -> recorder.failed(event));
           errorNotification(processor).andThen(e -> context.error(e))
               .accept(resolveException(processor, event, throwable));
         }
@@ -197,6 +203,22 @@ abstract class AbstractMessageProcessorChain extends AbstractExecutableComponent
     };
   }
 
+  /*
+   * Measures the time from an event getting to the processor until it emits its result. Failures are measured by the continue
+   * error strategy handler.
+   */
+  private ReactiveProcessor recordLatency(Optional<ProcessorLatencyRecorder> latencyRecorder, ReactiveProcessor processor) {
+    if (!latencyRecorder.isPresent()) {
+      return processor;
+    }
+
+    final ProcessorLatencyRecorder recorder = latencyRecorder.get();
+    return stream -> from(stream)
+        .map(recorder::start)
+        .transform(processor)
+        .map(recorder::stop);
+  }
+
   private ReactiveProcessor applyInterceptors(List<BiFunction<Processor, ReactiveProcessor, ReactiveProcessor>> interceptorsToBeExecuted,
                                               Processor processor) {
     ReactiveProcessor interceptorWrapperProcessorFunction = processor;
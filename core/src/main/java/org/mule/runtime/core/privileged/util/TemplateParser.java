@@ -110,25 +110,46 @@ public final class TemplateParser {
   }
 
   private String parseMule(Map<?, ?> props, String template, TemplateCallback callback) {
+    return compileMule(template).evaluate(callback);
+  }
+
+  /**
+   * Splits the given template into its literal parts and the expressions between them, so that the template may be evaluated
+   * many times without parsing it again. Only supported for the {@link #WIGGLY_MULE_TEMPLATE_STYLE mule style}.
+   *
+   * @param template the string containing the expressions i.e. My name is #[vars.name]
+   * @return the compiled template
+   * @since 4.2
+   */
+  public CompiledTemplate compile(String template) {
+    if (!styleIs(WIGGLY_MULE_TEMPLATE_STYLE)) {
+      throw new IllegalStateException("Only templates of style '" + WIGGLY_MULE_TEMPLATE_STYLE + "' can be compiled");
+    }
+    return compileMule(template);
+  }
+
+  private CompiledTemplate compileMule(String template) {
     if (!validateBalanceMuleStyle(template)) {
-      return template;
+      return new CompiledTemplate(this, new String[] {template}, new String[0]);
     }
 
     boolean lastIsBackSlash = false;
     boolean lastStartedExpression = false;
     boolean openSingleQuotes = false;
 
-    StringBuilder result = new StringBuilder();
+    List<String> literals = new ArrayList<>();
+    List<String> expressions = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
     int currentPosition = 0;
     while (currentPosition < template.length()) {
       char c = template.charAt(currentPosition);
 
       if (lastStartedExpression && c != OPEN_EXPRESSION) {
-        result.append(START_EXPRESSION);
+        literal.append(START_EXPRESSION);
       }
 
       if (lastIsBackSlash && c != '\'' && c != '"') {
-        result.append("\\");
+        literal.append("\\");
       }
 
       if (!lastIsBackSlash && c == '\'') {
@@ -136,30 +157,23 @@ public final class TemplateParser {
       }
       if (c == OPEN_EXPRESSION && lastStartedExpression && !openSingleQuotes) {
         int closing = closingBracesPosition(template, currentPosition);
-        String enclosingTemplate = template.substring(currentPosition + 1, closing);
-
-        Object value = enclosingTemplate;
-        if (callback != null) {
-          value = callback.match(enclosingTemplate);
-          if (value == null) {
-            value = NULL_AS_STRING;
-          } else {
-            value = parseMule(props, value.toString(), callback);
-          }
-        }
-        result.append(value);
+        expressions.add(template.substring(currentPosition + 1, closing));
+        literals.add(literal.toString());
+        literal.setLength(0);
 
         currentPosition = closing;
       } else if (c != START_EXPRESSION && c != '\\') {
-        result.append(c);
+        literal.append(c);
       }
 
       lastStartedExpression = c == START_EXPRESSION;
       lastIsBackSlash = c == '\\';
       currentPosition++;
     }
+    literals.add(literal.toString());
 
-    return result.toString();
+    return new CompiledTemplate(this, literals.toArray(new String[literals.size()]),
+                                expressions.toArray(new String[expressions.size()]));
   }
 
   private int closingBracesPosition(String template, int startingPosition) {
@@ -375,6 +389,100 @@ public final class TemplateParser {
     style.validate(expression);
   }
 
+  /**
+   * A template already split into its literal parts and the expressions between them, obtained through
+   * {@link TemplateParser#compile(String)}.
+   * <p>
+   * Evaluating it just appends the literal parts and the values of the expressions, as {@link #parse(TemplateCallback, String)}
+   * would do for the original template.
+   *
+   * @since 4.2
+   */
+  public static final class CompiledTemplate {
+
+    private static final int MAX_REUSED_BUILDER_CAPACITY = 8 * 1024;
+
+    // The builder is taken out of the thread local while in use, so that an evaluation triggered by the callback gets its own
+    private static final ThreadLocal<StringBuilder> BUILDER = new ThreadLocal<>();
+
+    private final TemplateParser parser;
+    private final String[] literals;
+    private final String[] expressions;
+    private final int literalsLength;
+
+    private CompiledTemplate(TemplateParser parser, String[] literals, String[] expressions) {
+      this.parser = parser;
+      this.literals = literals;
+      this.expressions = expressions;
+
+      int length = 0;
+      for (String literal : literals) {
+        length += literal.length();
+      }
+      this.literalsLength = length;
+    }
+
+    /**
+     * @return whether the template has any expression to evaluate
+     */
+    public boolean hasExpressions() {
+      return expressions.length > 0;
+    }
+
+    /**
+     * Evaluates the template.
+     *
+     * @param callback a callback used to resolve the expressions
+     * @return the evaluated template
+     */
+    public String evaluate(TemplateCallback callback) {
+      if (expressions.length == 0) {
+        return literals[0];
+      }
+
+      StringBuilder builder = BUILDER.get();
+      if (builder == null) {
+        builder = new StringBuilder(literalsLength + 16 * expressions.length);
+      } else {
+        BUILDER.remove();
+      }
+
+      try {
+        for (int i = 0; i < expressions.length; ++i) {
+          builder.append(literals[i]);
+          appendValue(builder, expressions[i], callback);
+        }
+        builder.append(literals[expressions.length]);
+        return builder.toString();
+      } finally {
+        if (builder.capacity() <= MAX_REUSED_BUILDER_CAPACITY) {
+          builder.setLength(0);
+          BUILDER.set(builder);
+        }
+      }
+    }
+
+    private void appendValue(StringBuilder builder, String expression, TemplateCallback callback) {
+      if (callback == null) {
+        builder.append(expression);
+        return;
+      }
+
+      Object value = callback.match(expression);
+      if (value == null) {
+        builder.append(NULL_AS_STRING);
+        return;
+      }
+
+      String valueString = value.toString();
+      // Values are parsed as templates too, only those with expressions or escapes may change when parsed
+      if (valueString.indexOf(START_EXPRESSION) != -1 || valueString.indexOf('\\') != -1) {
+        valueString = parser.parseMule(null, valueString, callback);
+      }
+      builder.append(valueString);
+    }
+  }
+
   @FunctionalInterface
   public interface TemplateCallback {
 
@@ -6,17 +6,23 @@
  */
 package org.mule.runtime.module.artifact.api.classloader;
 
+import static java.lang.Boolean.getBoolean;
 import static java.lang.Boolean.valueOf;
 import static java.lang.String.format;
 import static java.lang.System.getProperty;
+import static java.util.Collections.emptyEnumeration;
+import static java.util.Collections.singletonList;
 import static org.mule.runtime.api.util.Preconditions.checkArgument;
 import static org.mule.runtime.core.api.config.MuleProperties.MULE_LOG_VERBOSE_CLASSLOADING;
+import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
 import static org.slf4j.LoggerFactory.getLogger;
 import org.mule.api.annotation.NoInstantiate;
 import org.mule.runtime.core.api.util.ClassUtils;
 import org.mule.runtime.core.api.util.CompoundEnumeration;
 import org.mule.runtime.module.artifact.api.classloader.exception.CompositeClassNotFoundException;
+import org.mule.runtime.module.artifact.internal.classloader.ClassLoaderIndex;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.net.URL;
@@ -24,6 +30,9 @@ import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 
@@ -32,6 +41,11 @@ import org.slf4j.Logger;
  * <p/>
  * By using a {@link ClassLoaderLookupPolicy} this classLoader can use parent-first, parent-only or child-first classloading
  * lookup mode per package.
+ * <p/>
+ * Lookups for classes and resources that are not in the URLs of this classLoader are discarded through a
+ * {@link ClassLoaderIndex}. The classes that could not be loaded because they are not in that index, when the lookup strategy
+ * consults no other class loader, are remembered so that loading them again fails without walking the lookup strategy. Those
+ * are forgotten whenever the class loaders of a {@link RegionClassLoader} change.
  */
 @NoInstantiate
 public class FineGrainedControlClassLoader extends URLClassLoader
@@ -41,16 +55,55 @@ public class FineGrainedControlClassLoader extends URLClassLoader
     registerAsParallelCapable();
   }
 
+  /**
+   * Disables remembering the classes that could not be loaded, making each attempt to load them to walk the lookup strategy.
+   */
+  public static final String MULE_CLASSLOADER_NOT_FOUND_CACHE_DISABLE =
+      SYSTEM_PROPERTY_PREFIX + "classloader.notFoundCache.disable";
+
+  static final int MAX_NOT_FOUND_CLASSES = 512;
+
   private static final Logger LOGGER = getLogger(FineGrainedControlClassLoader.class);
 
+  /**
+   * Changes whenever a class that could not be loaded before may be loaded now
+   */
+  private static final AtomicLong CLASS_LOOKUPS_GENERATION = new AtomicLong();
+
   private final ClassLoaderLookupPolicy lookupPolicy;
   private final boolean verboseLogging;
+  private final boolean notFoundCacheEnabled;
+  private final ConcurrentMap<String, NotFoundClass> notFoundClasses = new ConcurrentHashMap<>();
+  private volatile ClassLoaderIndex index;
 
   public FineGrainedControlClassLoader(URL[] urls, ClassLoader parent, ClassLoaderLookupPolicy lookupPolicy) {
+    this(urls, parent, lookupPolicy, null);
+  }
+
+  /**
+   * Creates a new instance
+   *
+   * @param urls the URLs from which to load classes and resources
+   * @param parent the parent class loader for delegation
+   * @param lookupPolicy policy used to guide the lookup process. Non null
+   * @param indexFile file where the index of the given {@code urls} is persisted. May be null.
+   * @since 4.2
+   */
+  protected FineGrainedControlClassLoader(URL[] urls, ClassLoader parent, ClassLoaderLookupPolicy lookupPolicy,
+                                          File indexFile) {
     super(urls, parent);
     checkArgument(lookupPolicy != null, "Lookup policy cannot be null");
     this.lookupPolicy = lookupPolicy;
     verboseLogging = LOGGER.isDebugEnabled() || isVerboseLoggingEnabled();
+    notFoundCacheEnabled = !getBoolean(MULE_CLASSLOADER_NOT_FOUND_CACHE_DISABLE);
+    index = ClassLoaderIndex.create(urls, indexFile);
+  }
+
+  /**
+   * Forgets the classes that could not be loaded by any {@link FineGrainedControlClassLoader}, as those may be loaded now.
+   */
+  static void invalidateNotFoundClasses() {
+    CLASS_LOOKUPS_GENERATION.incrementAndGet();
   }
 
   private boolean isVerboseLoggingEnabled() {
@@ -65,6 +118,19 @@ public class FineGrainedControlClassLoader extends URLClassLoader
       return result;
     }
 
+    final long generation = CLASS_LOOKUPS_GENERATION.get();
+    if (notFoundCacheEnabled) {
+      final NotFoundClass notFoundClass = notFoundClasses.get(name);
+      if (notFoundClass != null) {
+        if (notFoundClass.generation == generation) {
+          // A new exception is thrown each time, so that the stack trace and suppressed exceptions belong to this attempt
+          throw new CompositeClassNotFoundException(name, notFoundClass.lookupStrategy,
+                                                    singletonList(new ClassNotFoundException(name)));
+        }
+        notFoundClasses.remove(name, notFoundClass);
+      }
+    }
+
     final LookupStrategy lookupStrategy = lookupPolicy.getClassLookupStrategy(name);
     if (lookupStrategy == null) {
       throw new NullPointerException(format("Unable to find a lookup strategy for '%s' from %s", name, this));
@@ -78,6 +144,9 @@ public class FineGrainedControlClassLoader extends URLClassLoader
     // troubleshooting information in case of throwing a ClassNotFoundException.
 
     List<ClassNotFoundException> exceptions = new ArrayList<>();
+    // Only a miss decided by the index of this class loader can be remembered, since any other class loader may define the
+    // class afterwards
+    boolean notIndexed = true;
     for (ClassLoader classLoader : lookupStrategy.getClassLoaders(this)) {
       try {
         if (classLoader == this) {
@@ -88,12 +157,20 @@ public class FineGrainedControlClassLoader extends URLClassLoader
           break;
         }
       } catch (ClassNotFoundException e) {
+        notIndexed &= classLoader == this && e instanceof NotIndexedClassNotFoundException;
         exceptions.add(e);
       }
     }
 
     if (result == null) {
-      throw new CompositeClassNotFoundException(name, lookupStrategy, exceptions);
+      final CompositeClassNotFoundException exception = new CompositeClassNotFoundException(name, lookupStrategy, exceptions);
+      if (notFoundCacheEnabled && notIndexed) {
+        if (notFoundClasses.size() >= MAX_NOT_FOUND_CLASSES) {
+          notFoundClasses.clear();
+        }
+        notFoundClasses.put(name, new NotFoundClass(lookupStrategy, generation));
+      }
+      throw exception;
     }
 
     if (verboseLogging) {
@@ -156,6 +233,16 @@ public class FineGrainedControlClassLoader extends URLClassLoader
     return new CompoundEnumeration<>(tmp);
   }
 
+  @Override
+  public URL findResource(String name) {
+    return index.mayContain(name) ? super.findResource(name) : null;
+  }
+
+  @Override
+  public Enumeration<URL> findResources(String name) throws IOException {
+    return index.mayContain(name) ? super.findResources(name) : emptyEnumeration();
+  }
+
   public Class<?> findLocalClass(String name) throws ClassNotFoundException {
     synchronized (getClassLoadingLock(name)) {
       Class<?> result = findLoadedClass(name);
@@ -164,10 +251,21 @@ public class FineGrainedControlClassLoader extends URLClassLoader
         return result;
       }
 
+      if (!index.mayContain(name.replace('.', '/').concat(".class"))) {
+        throw new NotIndexedClassNotFoundException(name);
+      }
+
       return super.findClass(name);
     }
   }
 
+  @Override
+  protected void addURL(URL url) {
+    index = ClassLoaderIndex.unindexed();
+    super.addURL(url);
+    invalidateNotFoundClasses();
+  }
+
   @Override
   public ClassLoaderLookupPolicy getClassLoaderLookupPolicy() {
     return lookupPolicy;
@@ -198,4 +296,27 @@ public class FineGrainedControlClassLoader extends URLClassLoader
     }
   }
 
+  private static final class NotFoundClass {
+
+    private final LookupStrategy lookupStrategy;
+    private final long generation;
+
+    private NotFoundClass(LookupStrategy lookupStrategy, long generation) {
+      this.lookupStrategy = lookupStrategy;
+      this.generation = generation;
+    }
+  }
+
+  /**
+   * Thrown when a class is not in the {@link ClassLoaderIndex} of the URLs of this class loader.
+   */
+  private static final class NotIndexedClassNotFoundException extends ClassNotFoundException {
+
+    private static final long serialVersionUID = -2853917404215342398L;
+
+    private NotIndexedClassNotFoundException(String name) {
+      super(name);
+    }
+  }
+
 }
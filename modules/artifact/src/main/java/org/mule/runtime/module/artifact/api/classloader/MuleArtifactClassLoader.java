@@ -14,6 +14,7 @@ import static org.mule.runtime.api.util.Preconditions.checkArgument;
 import static org.mule.runtime.core.api.util.IOUtils.closeQuietly;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
@@ -38,6 +39,8 @@ public class MuleArtifactClassLoader extends FineGrainedControlClassLoader imple
   private static final String DEFAULT_RESOURCE_RELEASER_CLASS_LOCATION =
       "/org/mule/module/artifact/classloader/DefaultResourceReleaser.class";
 
+  private static final String CLASSLOADER_INDEX_FILE = ".mule-classloader-index";
+
   protected List<ShutdownListener> shutdownListeners = new ArrayList<>();
 
   private final String artifactId;
@@ -58,13 +61,20 @@ public class MuleArtifactClassLoader extends FineGrainedControlClassLoader imple
    */
   public MuleArtifactClassLoader(String artifactId, ArtifactDescriptor artifactDescriptor, URL[] urls, ClassLoader parent,
                                  ClassLoaderLookupPolicy lookupPolicy) {
-    super(urls, parent, lookupPolicy);
+    super(urls, parent, lookupPolicy, getIndexFile(artifactDescriptor));
     checkArgument(!isEmpty(artifactId), "artifactId cannot be empty");
     checkArgument(artifactDescriptor != null, "artifactDescriptor cannot be null");
     this.artifactId = artifactId;
     this.artifactDescriptor = artifactDescriptor;
   }
 
+  private static File getIndexFile(ArtifactDescriptor artifactDescriptor) {
+    if (artifactDescriptor == null || artifactDescriptor.getRootFolder() == null) {
+      return null;
+    }
+    return new File(artifactDescriptor.getRootFolder(), CLASSLOADER_INDEX_FILE);
+  }
+
   @Override
   public String getArtifactId() {
     return artifactId;
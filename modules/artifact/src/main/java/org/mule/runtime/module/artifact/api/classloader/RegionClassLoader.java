@@ -129,6 +129,8 @@ public class RegionClassLoader extends MuleDeployableArtifactClassLoader {
         classLoaders.add(artifactClassLoader);
       }
     } finally {
+      // Classes that were not found may be found now through the added class loader
+      invalidateNotFoundClasses();
       innerStateWriteLock.unlock();
     }
   }
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.artifact.internal.classloader;
+
+import static java.lang.Boolean.getBoolean;
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.move;
+import static java.nio.file.Files.newBufferedReader;
+import static java.nio.file.Files.newBufferedWriter;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Collections.emptyList;
+import static java.util.jar.Attributes.Name.CLASS_PATH;
+import static java.util.jar.JarFile.MANIFEST_NAME;
+import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+
+/**
+ * Index of the directories that contain classes and resources in the URLs of a class loader, built when the class loader is
+ * created so that lookups for classes and resources that are not there can be discarded without walking the URLs.
+ * <p>
+ * The directories of the jar files are indexed, while the folders are checked on each lookup, since their contents may change.
+ * The index of each jar file may be persisted along with the jar size and modification time, so that it is reused instead of
+ * exploring the jar again when the class loader is created again for the same artifact.
+ * <p>
+ * An index is not able to discard lookups if any URL cannot be explored (i.e.: it's not a local file, or it references other
+ * jars through its manifest), in which case every class or resource is considered as possibly being in the URLs.
+ * <p>
+ * The index may be disabled through the {@link #MULE_CLASSLOADER_INDEX_DISABLE} system property.
+ *
+ * @since 4.2
+ */
+public final class ClassLoaderIndex {
+
+  /**
+   * Disables the indexing of the URLs of the artifact class loaders.
+   */
+  public static final String MULE_CLASSLOADER_INDEX_DISABLE = SYSTEM_PROPERTY_PREFIX + "classloader.index.disable";
+
+  private static final Logger LOGGER = getLogger(ClassLoaderIndex.class);
+
+  private static final String FILE_PROTOCOL = "file";
+  private static final String MULTI_RELEASE_PREFIX = "META-INF/versions/";
+  private static final String INDEX_HEADER = "mule-classloader-index 1";
+  private static final String JAR_RECORD = "J";
+  private static final String DIRECTORY_RECORD = "D";
+
+  private static final ClassLoaderIndex UNINDEXED = new ClassLoaderIndex(null, emptyList());
+
+  private final Set<String> jarDirectories;
+  private final List<File> folders;
+
+  private ClassLoaderIndex(Set<String> jarDirectories, List<File> folders) {
+    this.jarDirectories = jarDirectories;
+    this.folders = folders;
+  }
+
+  /**
+   * @return an index that considers every class or resource as possibly being in the URLs of the class loader
+   */
+  public static ClassLoaderIndex unindexed() {
+    return UNINDEXED;
+  }
+
+  /**
+   * Creates the index for the given {@code urls}.
+   *
+   * @param urls the URLs of the class loader to index
+   * @param indexFile the file where the index of the jars is persisted, or {@code null} if it's not to be persisted
+   * @return the index for the given {@code urls}
+   */
+  public static ClassLoaderIndex create(URL[] urls, File indexFile) {
+    if (getBoolean(MULE_CLASSLOADER_INDEX_DISABLE)) {
+      return UNINDEXED;
+    }
+
+    final Map<String, JarIndex> persistedJars = indexFile == null ? new LinkedHashMap<>() : read(indexFile);
+    final Set<String> jarDirectories = new HashSet<>();
+    final List<File> folders = new ArrayList<>();
+    boolean indexable = true;
+    boolean updated = false;
+
+    for (URL url : urls) {
+      if (!FILE_PROTOCOL.equals(url.getProtocol())) {
+        return UNINDEXED;
+      }
+
+      final File file = toFile(url);
+      if (file == null) {
+        return UNINDEXED;
+      }
+      if (!file.isFile()) {
+        // Missing paths are checked as folders, just in case they are created afterwards
+        folders.add(file);
+        continue;
+      }
+
+      final String key = url.toString();
+      JarIndex jarIndex = persistedJars.get(key);
+      if (jarIndex == null || jarIndex.length != file.length() || jarIndex.lastModified != file.lastModified()) {
+        jarIndex = explore(file);
+        if (jarIndex == null) {
+          indexable = false;
+          continue;
+        }
+        persistedJars.put(key, jarIndex);
+        updated = true;
+      }
+
+      // Jars referenced through the manifest are not indexed
+      indexable &= !jarIndex.classPath;
+      jarDirectories.addAll(jarIndex.directories);
+    }
+
+    if (updated && indexFile != null) {
+      write(indexFile, persistedJars);
+    }
+
+    return indexable ? new ClassLoaderIndex(jarDirectories, folders) : UNINDEXED;
+  }
+
+  /**
+   * Checks whether a class or resource may be found in the URLs of the class loader.
+   *
+   * @param resourceName the name of the resource, as passed to {@link ClassLoader#getResource(String)}
+   * @return {@code false} if the resource is certainly not in the URLs of the class loader, {@code true} otherwise
+   */
+  public boolean mayContain(String resourceName) {
+    if (jarDirectories == null || !isPlainName(resourceName)) {
+      return true;
+    }
+
+    final int separator = resourceName.endsWith("/") ? resourceName.length() - 1 : resourceName.lastIndexOf('/');
+    final String directory = separator < 0 ? "" : resourceName.substring(0, separator);
+    // The name may also be a directory without the trailing separator, which is found by the class loader as well
+    if (jarDirectories.contains(directory) || jarDirectories.contains(resourceName)) {
+      return true;
+    }
+
+    for (File folder : folders) {
+      if (directory.isEmpty() || new File(folder, directory).isDirectory()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return whether the name is relative and normalized, otherwise the index is not used as the class loader may resolve it in
+   *         other ways
+   */
+  private static boolean isPlainName(String resourceName) {
+    return !resourceName.isEmpty() && resourceName.charAt(0) != '/' && resourceName.indexOf('\\') < 0
+        && !resourceName.contains("./") && !resourceName.contains("..") && !resourceName.contains("//");
+  }
+
+  private static File toFile(URL url) {
+    try {
+      return new File(url.toURI());
+    } catch (URISyntaxException e) {
+      // Not properly encoded, i.e.: it contains spaces
+      return new File(url.getPath());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static JarIndex explore(File file) {
+    try (ZipFile zipFile = new ZipFile(file)) {
+      final Set<String> directories = new HashSet<>();
+      final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        final String name = entries.nextElement().getName();
+        addDirectories(directories, name);
+        if (name.startsWith(MULTI_RELEASE_PREFIX)) {
+          final int versionEnd = name.indexOf('/', MULTI_RELEASE_PREFIX.length());
+          if (versionEnd > 0) {
+            addDirectories(directories, name.substring(versionEnd + 1));
+          }
+        }
+      }
+      return new JarIndex(file.length(), file.lastModified(), hasClassPath(zipFile), directories);
+    } catch (IOException e) {
+      LOGGER.debug("Could not index jar file {}", file, e);
+      return null;
+    }
+  }
+
+  private static void addDirectories(Set<String> directories, String entryName) {
+    int separator = entryName.endsWith("/") ? entryName.length() - 1 : entryName.lastIndexOf('/');
+    if (separator < 0) {
+      directories.add("");
+      return;
+    }
+    // Ancestors are added too, as the class loader finds the directories themselves as resources
+    while (separator > 0 && directories.add(entryName.substring(0, separator))) {
+      separator = entryName.lastIndexOf('/', separator - 1);
+    }
+  }
+
+  private static boolean hasClassPath(ZipFile zipFile) throws IOException {
+    final ZipEntry manifestEntry = zipFile.getEntry(MANIFEST_NAME);
+    if (manifestEntry == null) {
+      return false;
+    }
+    try (InputStream manifest = zipFile.getInputStream(manifestEntry)) {
+      return new Manifest(manifest).getMainAttributes().getValue(CLASS_PATH) != null;
+    }
+  }
+
+  private static Map<String, JarIndex> read(File indexFile) {
+    final Map<String, JarIndex> jars = new LinkedHashMap<>();
+    if (!indexFile.isFile()) {
+      return jars;
+    }
+
+    try (BufferedReader reader = newBufferedReader(indexFile.toPath(), UTF_8)) {
+      if (!INDEX_HEADER.equals(reader.readLine())) {
+        return jars;
+      }
+
+      Set<String> directories = null;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(DIRECTORY_RECORD + " ") && directories != null) {
+          directories.add(line.substring(2));
+        } else if (line.startsWith(JAR_RECORD + " ")) {
+          final String[] fields = line.split(" ", 5);
+          directories = new HashSet<>();
+          jars.put(fields[4], new JarIndex(parseLong(fields[1]), parseLong(fields[2]), parseInt(fields[3]) != 0, directories));
+        }
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Could not read class loader index {}, jars will be indexed again", indexFile, e);
+      jars.clear();
+    }
+    return jars;
+  }
+
+  private static void write(File indexFile, Map<String, JarIndex> jars) {
+    final Path indexPath = indexFile.toPath();
+    Path temporaryFile = null;
+    try {
+      // Written to a temporary file first, so that a class loader created concurrently never reads a partial index
+      temporaryFile = createTempFile(indexPath.getParent(), indexFile.getName(), ".tmp");
+      try (BufferedWriter writer = newBufferedWriter(temporaryFile, UTF_8)) {
+        writer.write(INDEX_HEADER);
+        writer.newLine();
+        for (Map.Entry<String, JarIndex> jar : jars.entrySet()) {
+          final JarIndex jarIndex = jar.getValue();
+          final File jarFile = toFile(new URL(jar.getKey()));
+          if (jarFile == null || !jarFile.isFile()) {
+            // Jars no longer in the artifact are discarded
+            continue;
+          }
+
+          writer.write(JAR_RECORD + " " + jarIndex.length + " " + jarIndex.lastModified + " " + (jarIndex.classPath ? 1 : 0)
+              + " " + jar.getKey());
+          writer.newLine();
+          for (String directory : jarIndex.directories) {
+            writer.write(DIRECTORY_RECORD + " " + directory);
+            writer.newLine();
+          }
+        }
+      }
+      move(temporaryFile, indexPath, ATOMIC_MOVE, REPLACE_EXISTING);
+    } catch (Exception e) {
+      LOGGER.debug("Could not store class loader index {}", indexFile, e);
+      if (temporaryFile != null) {
+        try {
+          deleteIfExists(temporaryFile);
+        } catch (IOException e1) {
+          // Nothing to do
+        }
+      }
+    }
+  }
+
+  private static final class JarIndex {
+
+    private final long length;
+    private final long lastModified;
+    private final boolean classPath;
+    private final Set<String> directories;
+
+    private JarIndex(long length, long lastModified, boolean classPath, Set<String> directories) {
+      this.length = length;
+      this.lastModified = lastModified;
+      this.classPath = classPath;
+      this.directories = directories;
+    }
+  }
+}
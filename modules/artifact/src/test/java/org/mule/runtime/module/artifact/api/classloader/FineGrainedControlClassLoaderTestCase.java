@@ -7,15 +7,24 @@
 package org.mule.runtime.module.artifact.api.classloader;
 
 import static java.lang.System.lineSeparator;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.Matchers.contains;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mule.runtime.module.artifact.api.classloader.ChildFirstLookupStrategy.CHILD_FIRST;
+import static org.mule.runtime.module.artifact.api.classloader.ChildOnlyLookupStrategy.CHILD_ONLY;
 import static org.mule.runtime.module.artifact.api.classloader.ParentFirstLookupStrategy.PARENT_FIRST;
 import static org.mule.runtime.module.artifact.api.classloader.ParentOnlyLookupStrategy.PARENT_ONLY;
 import static org.mule.tck.junit4.matcher.FunctionExpressionMatcher.expressionMatches;
@@ -31,6 +40,7 @@ import org.mule.tck.size.SmallTest;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -43,6 +53,7 @@ public class FineGrainedControlClassLoaderTestCase extends AbstractMuleTestCase
   public static final String TEST_CLASS_NAME = TEST_CLASS_PACKAGE + ".MyClass";
   public static final String EXPECTED_CHILD_MESSAGE = "Bye";
   public static final String EXPECTED_PARENT_MESSAGE = "Hello";
+  private static final String NOT_INDEXED_CLASS_NAME = "otherpackage.MyClass";
 
   @Rule
   public ExpectedException expected = ExpectedException.none();
@@ -174,6 +185,69 @@ public class FineGrainedControlClassLoaderTestCase extends AbstractMuleTestCase
     invokeTestClassMethod(ext);
   }
 
+  @Test
+  public void remembersClassesNotFoundInIndex() throws Exception {
+    final ClassLoaderLookupPolicy lookupPolicy = mock(ClassLoaderLookupPolicy.class);
+    when(lookupPolicy.getClassLookupStrategy(NOT_INDEXED_CLASS_NAME)).thenReturn(CHILD_ONLY);
+    LocalLookupCountingClassLoader ext = new LocalLookupCountingClassLoader(lookupPolicy);
+
+    ClassNotFoundException first = loadNotFoundClass(ext, NOT_INDEXED_CLASS_NAME);
+    ClassNotFoundException second = loadNotFoundClass(ext, NOT_INDEXED_CLASS_NAME);
+
+    assertThat(ext.localLookups.get(), is(1));
+    assertThat(second, not(sameInstance(first)));
+    assertThat(second, instanceOf(CompositeClassNotFoundException.class));
+    assertThat(second.getSuppressed().length, is(0));
+  }
+
+  @Test
+  public void doesNotRememberClassesNotFoundInOtherClassLoaders() throws Exception {
+    ClassLoader parent = mock(ClassLoader.class);
+    when(parent.loadClass(TEST_CLASS_NAME)).thenThrow(new ClassNotFoundException("ERROR"));
+
+    final ClassLoaderLookupPolicy lookupPolicy = mock(ClassLoaderLookupPolicy.class);
+    when(lookupPolicy.getClassLookupStrategy(TEST_CLASS_NAME)).thenReturn(PARENT_ONLY);
+
+    FineGrainedControlClassLoader ext =
+        new FineGrainedControlClassLoader(new URL[] {getChildFileResource()}, parent, lookupPolicy);
+
+    loadNotFoundClass(ext, TEST_CLASS_NAME);
+    loadNotFoundClass(ext, TEST_CLASS_NAME);
+    verify(parent, times(2)).loadClass(TEST_CLASS_NAME);
+  }
+
+  @Test
+  public void looksUpNotFoundClassesAgainAfterInvalidation() throws Exception {
+    final ClassLoaderLookupPolicy lookupPolicy = mock(ClassLoaderLookupPolicy.class);
+    when(lookupPolicy.getClassLookupStrategy(NOT_INDEXED_CLASS_NAME)).thenReturn(CHILD_ONLY);
+    LocalLookupCountingClassLoader ext = new LocalLookupCountingClassLoader(lookupPolicy);
+
+    loadNotFoundClass(ext, NOT_INDEXED_CLASS_NAME);
+    FineGrainedControlClassLoader.invalidateNotFoundClasses();
+    loadNotFoundClass(ext, NOT_INDEXED_CLASS_NAME);
+    assertThat(ext.localLookups.get(), is(2));
+  }
+
+  @Test
+  public void findsResourcesInIndexedUrls() throws Exception {
+    final ClassLoaderLookupPolicy lookupPolicy = mock(ClassLoaderLookupPolicy.class);
+    FineGrainedControlClassLoader ext = new FineGrainedControlClassLoader(new URL[] {getChildFileResource()}, null, lookupPolicy);
+
+    assertThat(ext.findResource("mypackage/MyClass.class"), notNullValue());
+    assertThat(ext.findResource("otherpackage/MyClass.class"), nullValue());
+    assertThat(ext.findResources("otherpackage/MyClass.class").hasMoreElements(), is(false));
+  }
+
+  private ClassNotFoundException loadNotFoundClass(ClassLoader loader, String className) {
+    try {
+      loader.loadClass(className);
+      fail("Class was not expected to be found");
+      return null;
+    } catch (ClassNotFoundException e) {
+      return e;
+    }
+  }
+
   protected FineGrainedControlClassLoader buildFineGrainedControlClassLoader(ClassLoader parent,
                                                                              final ClassLoaderLookupPolicy lookupPolicy) {
     return new FineGrainedControlClassLoader(new URL[0], parent, lookupPolicy) {
@@ -189,6 +263,21 @@ public class FineGrainedControlClassLoaderTestCase extends AbstractMuleTestCase
     };
   }
 
+  private class LocalLookupCountingClassLoader extends FineGrainedControlClassLoader {
+
+    private final AtomicInteger localLookups = new AtomicInteger();
+
+    private LocalLookupCountingClassLoader(ClassLoaderLookupPolicy lookupPolicy) {
+      super(new URL[] {getChildFileResource()}, null, lookupPolicy);
+    }
+
+    @Override
+    public Class<?> findLocalClass(String name) throws ClassNotFoundException {
+      localLookups.incrementAndGet();
+      return super.findLocalClass(name);
+    }
+  }
+
   private URL getParentResource() {
     return ClassUtils.getResource("classloader-test-hello.jar", this.getClass());
   }
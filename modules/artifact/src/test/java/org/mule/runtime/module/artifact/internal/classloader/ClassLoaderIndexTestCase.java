@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.artifact.internal.classloader;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.jar.Attributes.Name.CLASS_PATH;
+import static java.util.jar.Attributes.Name.MANIFEST_VERSION;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SmallTest
+public class ClassLoaderIndexTestCase extends AbstractMuleTestCase {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void indexesJarDirectories() throws Exception {
+    ClassLoaderIndex index = ClassLoaderIndex.create(new URL[] {createJar("lib.jar", null, "org/foo/Foo.class")}, null);
+
+    assertThat(index.mayContain("org/foo/Foo.class"), is(true));
+    assertThat(index.mayContain("org/foo/Bar.class"), is(true));
+    assertThat(index.mayContain("org/foo/"), is(true));
+    assertThat(index.mayContain("org/foo"), is(true));
+    assertThat(index.mayContain("org/"), is(true));
+    assertThat(index.mayContain("org/bar/Bar.class"), is(false));
+    assertThat(index.mayContain("log4j2.xml"), is(false));
+  }
+
+  @Test
+  public void indexesMultiReleaseJarDirectories() throws Exception {
+    ClassLoaderIndex index =
+        ClassLoaderIndex.create(new URL[] {createJar("lib.jar", null, "META-INF/versions/9/org/foo/Foo.class")}, null);
+
+    assertThat(index.mayContain("org/foo/Foo.class"), is(true));
+  }
+
+  @Test
+  public void checksFoldersOnLookup() throws Exception {
+    File folder = temporaryFolder.newFolder("classes");
+    ClassLoaderIndex index = ClassLoaderIndex.create(new URL[] {folder.toURI().toURL()}, null);
+
+    assertThat(index.mayContain("log4j2.xml"), is(true));
+    assertThat(index.mayContain("org/foo/Foo.class"), is(false));
+
+    new File(folder, "org/foo").mkdirs();
+    assertThat(index.mayContain("org/foo/Foo.class"), is(true));
+  }
+
+  @Test
+  public void doesNotDiscardNonNormalizedNames() throws Exception {
+    ClassLoaderIndex index = ClassLoaderIndex.create(new URL[] {createJar("lib.jar", null, "org/foo/Foo.class")}, null);
+
+    assertThat(index.mayContain("org/bar/../foo/Foo.class"), is(true));
+    assertThat(index.mayContain("/org/bar/Bar.class"), is(true));
+    assertThat(index.mayContain("org//bar/Bar.class"), is(true));
+  }
+
+  @Test
+  public void doesNotDiscardWhenJarReferencesOtherJars() throws Exception {
+    ClassLoaderIndex index =
+        ClassLoaderIndex.create(new URL[] {createJar("lib.jar", "other.jar", "org/foo/Foo.class")}, null);
+
+    assertThat(index.mayContain("org/bar/Bar.class"), is(true));
+  }
+
+  @Test
+  public void doesNotDiscardForRemoteUrls() throws Exception {
+    ClassLoaderIndex index = ClassLoaderIndex.create(new URL[] {new URL("http://localhost/lib.jar")}, null);
+
+    assertThat(index.mayContain("org/bar/Bar.class"), is(true));
+  }
+
+  @Test
+  public void reusesPersistedIndex() throws Exception {
+    URL jar = createJar("lib.jar", null, "org/foo/Foo.class");
+    File indexFile = new File(temporaryFolder.getRoot(), "index");
+    ClassLoaderIndex.create(new URL[] {jar}, indexFile);
+
+    // Changes the persisted index to check that the jar is not explored again
+    writeStringToFile(indexFile, readFileToString(indexFile, UTF_8).replace("D org/foo", "D org/bar"), UTF_8);
+    ClassLoaderIndex index = ClassLoaderIndex.create(new URL[] {jar}, indexFile);
+
+    assertThat(index.mayContain("org/bar/Bar.class"), is(true));
+  }
+
+  @Test
+  public void indexesAgainModifiedJars() throws Exception {
+    URL jar = createJar("lib.jar", null, "org/foo/Foo.class");
+    File indexFile = new File(temporaryFolder.getRoot(), "index");
+    ClassLoaderIndex.create(new URL[] {jar}, indexFile);
+
+    createJar("lib.jar", null, "org/bar/Bar.class", "org/baz/Baz.class");
+    ClassLoaderIndex index = ClassLoaderIndex.create(new URL[] {jar}, indexFile);
+
+    assertThat(index.mayContain("org/bar/Bar.class"), is(true));
+    assertThat(index.mayContain("org/foo/Foo.class"), is(false));
+  }
+
+  private URL createJar(String name, String classPath, String... entries) throws Exception {
+    File jarFile = new File(temporaryFolder.getRoot(), name);
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(MANIFEST_VERSION, "1.0");
+    if (classPath != null) {
+      manifest.getMainAttributes().put(CLASS_PATH, classPath);
+    }
+
+    try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(jarFile), manifest)) {
+      for (String entry : entries) {
+        jar.putNextEntry(new JarEntry(entry));
+        jar.write(new byte[] {0});
+        jar.closeEntry();
+      }
+    }
+    return jarFile.toURI().toURL();
+  }
+}
@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Provides policy management and provision for Mule applications
@@ -38,6 +39,7 @@ public class MuleApplicationPolicyProvider implements ApplicationPolicyProvider,
   private final PolicyInstanceProviderFactory policyInstanceProviderFactory;
   private final List<RegisteredPolicyTemplate> registeredPolicyTemplates = new LinkedList<>();
   private final List<RegisteredPolicyInstanceProvider> registeredPolicyInstanceProviders = new LinkedList<>();
+  private final List<Runnable> policiesChangedCallbacks = new CopyOnWriteArrayList<>();
   private Application application;
 
   /**
@@ -84,6 +86,8 @@ public class MuleApplicationPolicyProvider implements ApplicationPolicyProvider,
           .add(new RegisteredPolicyInstanceProvider(applicationPolicyInstance, parametrization.getId()));
       registeredPolicyInstanceProviders.sort(null);
       registeredPolicyTemplate.get().count++;
+
+      policiesChanged();
     } catch (Exception e) {
       throw new PolicyRegistrationException(createPolicyRegistrationError(parametrization.getId()), e);
     }
@@ -112,11 +116,17 @@ public class MuleApplicationPolicyProvider implements ApplicationPolicyProvider,
         registeredPolicyTemplate.get().policyTemplate.dispose();
         registeredPolicyTemplates.remove(registeredPolicyTemplate.get());
       }
+
+      policiesChanged();
     });
 
     return registeredPolicyInstanceProvider.isPresent();
   }
 
+  private void policiesChanged() {
+    policiesChangedCallbacks.forEach(Runnable::run);
+  }
+
   @Override
   public List<Policy> findSourceParameterizedPolicies(PolicyPointcutParameters policyPointcutParameters) {
     List<Policy> policies = new ArrayList<>();
@@ -151,6 +161,17 @@ public class MuleApplicationPolicyProvider implements ApplicationPolicyProvider,
     return policies;
   }
 
+  @Override
+  public boolean isPoliciesAvailable() {
+    return !registeredPolicyInstanceProviders.isEmpty();
+  }
+
+  @Override
+  public boolean onPoliciesChanged(Runnable policiesChangedCallback) {
+    policiesChangedCallbacks.add(policiesChangedCallback);
+    return true;
+  }
+
   @Override
   public void dispose() {
 
@@ -128,8 +128,9 @@ final class OperationModelLoaderDelegate extends AbstractModelLoaderDelegate {
       if (method.isPresent() && declaringClass.isPresent()) {
         operationDeclarer
             .withModelProperty(new ImplementingMethodModelProperty(method.get()))
-            .withModelProperty(new ComponentExecutorModelProperty(new ReflectiveOperationExecutorFactory<>(declaringClass.get(),
-                                                                                                           method.get())));
+            .withModelProperty(new ComponentExecutorModelProperty(
+                new ReflectiveOperationExecutorFactory<>(declaringClass.get(), method.get(),
+                                                         extensionDeclarer.getDeclaration().getName())));
       }
 
       loader.addExceptionEnricher(operationMethod, operationDeclarer);
@@ -90,8 +90,9 @@ final class RouterModelLoaderDelegate extends AbstractModelLoaderDelegate {
     if (method.isPresent() && declaringClass.isPresent()) {
       router
           .withModelProperty(new ImplementingMethodModelProperty(method.get()))
-          .withModelProperty(new ComponentExecutorModelProperty(new ReflectiveOperationExecutorFactory<>(declaringClass.get(),
-                                                                                                         method.get())));
+          .withModelProperty(new ComponentExecutorModelProperty(
+              new ReflectiveOperationExecutorFactory<>(declaringClass.get(), method.get(),
+                                                       extensionDeclarer.getDeclaration().getName())));
     }
 
 
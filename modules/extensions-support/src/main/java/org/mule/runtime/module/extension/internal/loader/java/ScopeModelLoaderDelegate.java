@@ -88,8 +88,9 @@ final class ScopeModelLoaderDelegate extends AbstractModelLoaderDelegate {
 
     if (method.isPresent() && declaringClass.isPresent()) {
       scope.withModelProperty(new ImplementingMethodModelProperty(method.get()))
-          .withModelProperty(new ComponentExecutorModelProperty(new ReflectiveOperationExecutorFactory<>(declaringClass.get(),
-                                                                                                         method.get())));
+          .withModelProperty(new ComponentExecutorModelProperty(
+              new ReflectiveOperationExecutorFactory<>(declaringClass.get(), method.get(),
+                                                       extensionDeclarer.getDeclaration().getName())));
     }
 
     processMimeType(scope, scopeMethod);
@@ -6,6 +6,7 @@
  */
 package org.mule.runtime.module.extension.internal.runtime.config;
 
+import static java.lang.Integer.getInteger;
 import static java.util.Optional.ofNullable;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
@@ -14,6 +15,7 @@ import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.disposeIfNeeded
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.initialiseIfNeeded;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.startIfNeeded;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
+import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
 import static org.mule.runtime.core.api.util.ClassUtils.withContextClassLoader;
 import static org.mule.runtime.extension.api.values.ValueResolvingException.UNKNOWN;
 import static org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolvingContext.from;
@@ -30,7 +32,6 @@ import org.mule.runtime.api.lifecycle.Startable;
 import org.mule.runtime.api.meta.model.ExtensionModel;
 import org.mule.runtime.api.meta.model.config.ConfigurationModel;
 import org.mule.runtime.api.meta.model.connection.ConnectionProviderModel;
-import org.mule.runtime.api.util.Pair;
 import org.mule.runtime.api.value.Value;
 import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.event.CoreEvent;
@@ -48,14 +49,18 @@ import org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolver
 import org.mule.runtime.module.extension.internal.util.ReflectionCache;
 import org.mule.runtime.module.extension.internal.value.ValueProviderMediator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 import org.slf4j.Logger;
 
@@ -66,7 +71,12 @@ import org.slf4j.Logger;
  * Although each invocation to {@link #get(Event)} is guaranteed to end up in an invocation to
  * {@link #resolverSet#resolve(Object)}, the resulting {@link ResolverSetResult} might not end up generating a new instance. This
  * is so because {@link ResolverSetResult} instances are put in a cache to guarantee that equivalent evaluations of the
- * {@code resolverSet} return the same instance.
+ * {@code resolverSet} return the same instance. Parameters with a static value are the same for every evaluation, so they are
+ * not taken into account to compare them.
+ * <p>
+ * Looking up a cached instance doesn't block. The instances are removed from the cache when the {@link ExpirationPolicy} says so
+ * or, if there are more than {@link #MULE_DYNAMIC_CONFIG_MAX_INSTANCES}, in least recently used order. Either way, they are
+ * handed over through {@link #getExpired()} once no operation is using them.
  *
  * @since 4.0.0
  */
@@ -75,15 +85,25 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
 
   private static final Logger LOGGER = getLogger(DynamicConfigurationProvider.class);
 
+  /**
+   * System property to set the maximum number of instances each dynamic configuration keeps. There's no limit by default.
+   */
+  public static final String MULE_DYNAMIC_CONFIG_MAX_INSTANCES = SYSTEM_PROPERTY_PREFIX + "dynamicConfig.maxInstances";
+
+  private static final int CREATION_LOCK_STRIPES = 16;
+
   private final ConfigurationInstanceFactory configurationInstanceFactory;
   private final ResolverSet resolverSet;
   private final ConnectionProviderValueResolver connectionProviderResolver;
   private final ExpirationPolicy expirationPolicy;
 
-  private final Map<Pair<ResolverSetResult, ResolverSetResult>, ConfigurationInstance> cache = new ConcurrentHashMap<>();
-  private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
-  private final Lock cacheReadLock = cacheLock.readLock();
-  private final Lock cacheWriteLock = cacheLock.writeLock();
+  private final Map<CacheKey, CacheEntry> cache = new ConcurrentHashMap<>();
+  private final Object[] creationLocks = new Object[CREATION_LOCK_STRIPES];
+  private final int maxInstances = getInteger(MULE_DYNAMIC_CONFIG_MAX_INSTANCES, Integer.MAX_VALUE);
+  // Instances evicted for exceeding maxInstances that are to be handed over on getExpired()
+  private final Queue<ConfigurationInstance> evicted = new ConcurrentLinkedQueue<>();
+  private final KeyFactory configKeyFactory;
+  private final KeyFactory providerKeyFactory;
   private final ReflectionCache reflectionCache;
 
   /**
@@ -111,6 +131,11 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
     this.resolverSet = resolverSet;
     this.connectionProviderResolver = connectionProviderResolver;
     this.expirationPolicy = expirationPolicy;
+    this.configKeyFactory = new KeyFactory(resolverSet);
+    this.providerKeyFactory = new KeyFactory((ResolverSet) connectionProviderResolver.getResolverSet().orElse(null));
+    for (int i = 0; i < CREATION_LOCK_STRIPES; ++i) {
+      creationLocks[i] = new Object();
+    }
   }
 
   /**
@@ -128,40 +153,39 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
       if (connectionProviderResolver.getResolverSet().isPresent()) {
         providerResult = ((ResolverSet) connectionProviderResolver.getResolverSet().get()).resolve(from((CoreEvent) event));
       }
-      return getConfiguration(new Pair<>(result, providerResult), (CoreEvent) event);
+      return getConfiguration(result, providerResult, (CoreEvent) event);
     });
   }
 
-  private ConfigurationInstance getConfiguration(Pair<ResolverSetResult, ResolverSetResult> resolverSetResult,
-                                                 CoreEvent event)
+  private ConfigurationInstance getConfiguration(ResolverSetResult result, ResolverSetResult providerResult, CoreEvent event)
       throws Exception {
-    ConfigurationInstance configuration;
-    cacheReadLock.lock();
-    try {
-      configuration = cache.get(resolverSetResult);
-      if (configuration != null) {
-        // important to account between the boundaries of the lock to prevent race condition
-        updateUsageStatistic(configuration);
-        return configuration;
+    CacheKey key = new CacheKey(configKeyFactory.keyOf(result), providerKeyFactory.keyOf(providerResult));
+    while (true) {
+      CacheEntry entry = cache.get(key);
+      if (entry == null) {
+        synchronized (creationLocks[(key.hashCode() & Integer.MAX_VALUE) % CREATION_LOCK_STRIPES]) {
+          // re-check in case some other thread beat us to it...
+          entry = cache.get(key);
+          if (entry == null) {
+            entry = new CacheEntry(createConfiguration(result, providerResult, event));
+            cache.put(key, entry);
+            evictLeastRecentlyUsed();
+          }
+        }
       }
-    } finally {
-      cacheReadLock.unlock();
-    }
 
-    cacheWriteLock.lock();
-    try {
-      // re-check in case some other thread beat us to it...
-      configuration = cache.get(resolverSetResult);
-      if (configuration == null) {
-        configuration = createConfiguration(resolverSetResult, event);
-        cache.put(resolverSetResult, configuration);
+      if (entry.acquire()) {
+        try {
+          // important to account while the entry can't be expired to prevent race condition
+          updateUsageStatistic(entry.configuration);
+          return entry.configuration;
+        } finally {
+          entry.release();
+        }
       }
 
-      // accounting here for the same reasons as above
-      updateUsageStatistic(configuration);
-      return configuration;
-    } finally {
-      cacheWriteLock.unlock();
+      // The entry is being expired, which is either going to be given up or removed from the cache
+      Thread.yield();
     }
   }
 
@@ -170,21 +194,21 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
     stats.updateLastUsed();
   }
 
-  private ConfigurationInstance createConfiguration(Pair<ResolverSetResult, ResolverSetResult> values, CoreEvent event)
+  private ConfigurationInstance createConfiguration(ResolverSetResult values, ResolverSetResult connectionProviderValues,
+                                                    CoreEvent event)
       throws MuleException {
 
     ConfigurationInstance configuration;
-    ResolverSetResult connectionProviderValues = values.getSecond();
     if (connectionProviderValues != null) {
       configuration =
           configurationInstanceFactory.createConfiguration(getName(),
-                                                           values.getFirst(),
+                                                           values,
                                                            event,
                                                            connectionProviderResolver,
                                                            connectionProviderValues);
     } else {
       configuration = configurationInstanceFactory
-          .createConfiguration(getName(), values.getFirst(), event, ofNullable(connectionProviderResolver));
+          .createConfiguration(getName(), values, event, ofNullable(connectionProviderResolver));
     }
 
     registerConfiguration(configuration);
@@ -229,21 +253,58 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
     super.registerConfiguration(configuration);
   }
 
+  /**
+   * Evicts the least recently used instances not in use while there are more than {@link #maxInstances} in the cache.
+   */
+  private void evictLeastRecentlyUsed() {
+    while (cache.size() > maxInstances) {
+      Map.Entry<CacheKey, CacheEntry> leastRecentlyUsed = null;
+      for (Map.Entry<CacheKey, CacheEntry> entry : cache.entrySet()) {
+        if (entry.getValue().getStatistics().getInflightOperations() == 0
+            && (leastRecentlyUsed == null || entry.getValue().getStatistics().getLastUsedMillis() < leastRecentlyUsed.getValue()
+                .getStatistics().getLastUsedMillis())) {
+          leastRecentlyUsed = entry;
+        }
+      }
+
+      if (leastRecentlyUsed == null) {
+        // All of them are in use
+        return;
+      }
+      if (leastRecentlyUsed.getValue().tryEvict(stats -> true)) {
+        cache.remove(leastRecentlyUsed.getKey(), leastRecentlyUsed.getValue());
+        evicted.add(leastRecentlyUsed.getValue().configuration);
+      }
+    }
+  }
+
   @Override
   public List<ConfigurationInstance> getExpired() {
-    cacheWriteLock.lock();
-    try {
-      return cache.entrySet().stream().filter(entry -> isExpired(entry.getValue())).map(entry -> {
-        cache.remove(entry.getKey());
-        return entry.getValue();
-      }).collect(toImmutableList());
-    } finally {
-      cacheWriteLock.unlock();
+    List<ConfigurationInstance> expired = new ArrayList<>();
+    cache.forEach((key, entry) -> {
+      if (entry.tryEvict(this::isExpired)) {
+        cache.remove(key, entry);
+        expired.add(entry.configuration);
+      }
+    });
+
+    // Instances evicted because of the size of the cache may still be in use by the operation which got them last
+    for (int i = evicted.size(); i > 0; --i) {
+      ConfigurationInstance configuration = evicted.poll();
+      if (configuration == null) {
+        break;
+      }
+      if (configuration.getStatistics().getInflightOperations() == 0) {
+        expired.add(configuration);
+      } else {
+        evicted.add(configuration);
+      }
     }
+
+    return expired.stream().collect(toImmutableList());
   }
 
-  private boolean isExpired(ConfigurationInstance configuration) {
-    ConfigurationStats stats = configuration.getStatistics();
+  private boolean isExpired(ConfigurationStats stats) {
     return stats.getInflightOperations() == 0 && expirationPolicy.isExpired(stats.getLastUsedMillis(), MILLISECONDS);
   }
 
@@ -310,6 +371,141 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
     }, getExtensionModel());
   }
 
+  /**
+   * A {@link ConfigurationInstance} in the cache, which keeps track of the threads in the middle of getting it so that it is not
+   * expired meanwhile.
+   */
+  private static final class CacheEntry {
+
+    private static final int EVICTED = -1;
+
+    private final ConfigurationInstance configuration;
+    private final AtomicInteger accessors = new AtomicInteger();
+
+    private CacheEntry(ConfigurationInstance configuration) {
+      this.configuration = configuration;
+    }
+
+    private ConfigurationStats getStatistics() {
+      return configuration.getStatistics();
+    }
+
+    private boolean acquire() {
+      int current;
+      do {
+        current = accessors.get();
+        if (current == EVICTED) {
+          return false;
+        }
+      } while (!accessors.compareAndSet(current, current + 1));
+      return true;
+    }
+
+    private void release() {
+      accessors.decrementAndGet();
+    }
+
+    /**
+     * Marks this entry as evicted if no thread is getting it and {@code condition} holds.
+     */
+    private boolean tryEvict(Predicate<ConfigurationStats> condition) {
+      if (!condition.test(getStatistics()) || !accessors.compareAndSet(0, EVICTED)) {
+        return false;
+      }
+      // Someone may have used it right before it was marked
+      if (!condition.test(getStatistics())) {
+        accessors.set(0);
+        return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Creates the part of a {@link CacheKey} that corresponds to the result of a {@link ResolverSet}, leaving out the parameters
+   * with a static value.
+   */
+  private static final class KeyFactory {
+
+    private final String[] dynamicParameters;
+    private final boolean hasStaticParameters;
+
+    private KeyFactory(ResolverSet resolverSet) {
+      Map<String, ValueResolver<?>> resolvers = resolverSet != null ? resolverSet.getResolvers() : null;
+      if (resolvers == null) {
+        dynamicParameters = new String[0];
+        hasStaticParameters = false;
+      } else {
+        dynamicParameters = resolvers.entrySet().stream()
+            .filter(entry -> entry.getValue().isDynamic())
+            .map(Map.Entry::getKey)
+            .toArray(String[]::new);
+        hasStaticParameters = dynamicParameters.length < resolvers.size();
+      }
+    }
+
+    private Object keyOf(ResolverSetResult result) {
+      if (result == null || !hasStaticParameters) {
+        return result;
+      }
+
+      Object[] values = new Object[dynamicParameters.length];
+      for (int i = 0; i < dynamicParameters.length; ++i) {
+        values[i] = result.get(dynamicParameters[i]);
+      }
+      return new ValuesKey(values);
+    }
+  }
+
+  private static final class ValuesKey {
+
+    private final Object[] values;
+    private final int hashCode;
+
+    private ValuesKey(Object[] values) {
+      this.values = values;
+      this.hashCode = Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof ValuesKey && hashCode == ((ValuesKey) obj).hashCode && Arrays.equals(values, ((ValuesKey) obj).values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final class CacheKey {
+
+    private final Object configKey;
+    private final Object providerKey;
+    private final int hashCode;
+
+    private CacheKey(Object configKey, Object providerKey) {
+      this.configKey = configKey;
+      this.providerKey = providerKey;
+      this.hashCode = 31 * Objects.hashCode(configKey) + Objects.hashCode(providerKey);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) obj;
+      return hashCode == other.hashCode && Objects.equals(configKey, other.configKey)
+          && Objects.equals(providerKey, other.providerKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
   private Optional<ConnectionProviderModel> getConnectionProviderModel() {
     return this.connectionProviderResolver.getObjectBuilder()
         .filter(ob -> ob instanceof ConnectionProviderObjectBuilder)
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.extension.internal.runtime.execution;
+
+import static java.lang.Thread.currentThread;
+import static java.lang.invoke.MethodHandles.dropArguments;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+import static java.lang.reflect.Modifier.isStatic;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.initialiseIfNeeded;
+import static org.mule.runtime.module.extension.internal.runtime.execution.MethodArgumentResolverDelegate.resolvePrimitiveTypeDefaultValue;
+import static org.mule.runtime.module.extension.internal.runtime.resolver.ResolverUtils.resolveCursor;
+
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.meta.model.ComponentModel;
+import org.mule.runtime.api.meta.model.parameter.ParameterGroupModel;
+import org.mule.runtime.api.util.LazyValue;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.extension.api.runtime.operation.ExecutionContext;
+import org.mule.runtime.module.extension.internal.runtime.resolver.ArgumentResolver;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ReflectiveMethodComponentExecutor} which, instead of going through {@link Method#invoke(Object, Object...)} on each
+ * execution, invokes the {@link Method} through a {@link MethodHandle} built once for it.
+ * <p>
+ * The {@link ArgumentResolver}s of the arguments, the values to use for primitive arguments which resolve to {@code null} and
+ * the parameter names are also computed once, so that each execution just resolves the arguments into an array and invokes the
+ * handle, without creating intermediate lazy values or streams.
+ * <p>
+ * Exceptions thrown by the {@link Method} are propagated the same way the reflective execution does: unchecked ones as they are
+ * and checked ones wrapped in an {@link UndeclaredThrowableException}.
+ *
+ * @param <M> the generic type of the associated {@link ComponentModel}
+ * @since 4.2
+ */
+public class CompiledMethodComponentExecutor<M extends ComponentModel> extends ReflectiveMethodComponentExecutor<M> {
+
+  private final Object componentInstance;
+  private final ClassLoader extensionClassLoader;
+  private final MethodHandle invoker;
+  private final String[] parameterNames;
+  private final Object[] nullValues;
+
+  // Needs to be lazy to wait the muleContext to be injected
+  private final LazyValue<ArgumentResolver<?>[]> argumentResolvers;
+  private final Function<ExecutionContext<M>, Map<String, Object>> argumentResolver = this::resolveArguments;
+
+  private MuleContext muleContext;
+
+  public CompiledMethodComponentExecutor(List<ParameterGroupModel> groups, Method method, Object componentInstance) {
+    super(groups, method, componentInstance);
+    this.componentInstance = componentInstance;
+    this.extensionClassLoader = method.getDeclaringClass().getClassLoader();
+    this.invoker = createInvoker(method);
+
+    final Class<?>[] parameterTypes = method.getParameterTypes();
+    parameterNames = new String[parameterTypes.length];
+    nullValues = new Object[parameterTypes.length];
+    for (int i = 0; i < parameterTypes.length; ++i) {
+      parameterNames[i] = method.getParameters()[i].getName();
+      nullValues[i] = resolvePrimitiveTypeDefaultValue(parameterTypes[i]);
+    }
+
+    argumentResolvers = new LazyValue<>(() -> {
+      if (parameterTypes.length == 0) {
+        return new ArgumentResolver<?>[0];
+      }
+
+      try {
+        MethodArgumentResolverDelegate resolver = new MethodArgumentResolverDelegate(groups, method);
+        initialiseIfNeeded(resolver, muleContext);
+        return resolver.getArgumentResolvers();
+      } catch (Exception e) {
+        throw new MuleRuntimeException(createStaticMessage("Could not initialize argument resolver resolver"), e);
+      }
+    });
+  }
+
+  /**
+   * Creates a {@link MethodHandle} of type {@code (Object, Object[])Object} which invokes the given {@code method} on the
+   * instance passed as first argument, spreading the array into the method's arguments.
+   */
+  private static MethodHandle createInvoker(Method method) {
+    MethodHandle handle;
+    try {
+      handle = lookup().unreflect(method);
+    } catch (IllegalAccessException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not access method " + method), e);
+    }
+
+    if (isStatic(method.getModifiers())) {
+      handle = dropArguments(handle, 0, method.getDeclaringClass());
+    }
+
+    return handle.asSpreader(Object[].class, method.getParameterCount())
+        .asType(methodType(Object.class, Object.class, Object[].class));
+  }
+
+  @Override
+  public Object execute(ExecutionContext<M> executionContext) {
+    final Thread currentThread = currentThread();
+    final ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+    final boolean swapClassLoader = originalClassLoader != extensionClassLoader;
+    if (swapClassLoader) {
+      currentThread.setContextClassLoader(extensionClassLoader);
+    }
+
+    try {
+      return invoker.invokeExact(componentInstance, resolveArgumentValues(executionContext));
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new UndeclaredThrowableException(t);
+    } finally {
+      if (swapClassLoader) {
+        currentThread.setContextClassLoader(originalClassLoader);
+      }
+    }
+  }
+
+  private Object[] resolveArgumentValues(ExecutionContext<M> executionContext) {
+    final ArgumentResolver<?>[] resolvers = argumentResolvers.get();
+    final Object[] values = new Object[resolvers.length];
+    for (int i = 0; i < resolvers.length; ++i) {
+      Object value = resolvers[i].resolve(executionContext).get();
+      values[i] = value == null ? nullValues[i] : resolveCursor(value);
+    }
+    return values;
+  }
+
+  private Map<String, Object> resolveArguments(ExecutionContext<M> executionContext) {
+    final Thread currentThread = currentThread();
+    final ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+    final boolean swapClassLoader = originalClassLoader != extensionClassLoader;
+    if (swapClassLoader) {
+      currentThread.setContextClassLoader(extensionClassLoader);
+    }
+
+    try {
+      final ArgumentResolver<?>[] resolvers = argumentResolvers.get();
+      final Map<String, Object> resolvedParams = new HashMap<>(resolvers.length * 4 / 3 + 1);
+      for (int i = 0; i < resolvers.length; ++i) {
+        resolvedParams.put(parameterNames[i],
+                           new LazyValue<>(new ArgumentValue(resolvers[i].resolve(executionContext), nullValues[i])));
+      }
+      return resolvedParams;
+    } finally {
+      if (swapClassLoader) {
+        currentThread.setContextClassLoader(originalClassLoader);
+      }
+    }
+  }
+
+  @Override
+  public void setMuleContext(MuleContext context) {
+    super.setMuleContext(context);
+    muleContext = context;
+  }
+
+  @Override
+  public Function<ExecutionContext<M>, Map<String, Object>> createArgumentResolver(M operationModel) {
+    return argumentResolver;
+  }
+
+  /**
+   * Gets the value of an argument, applying the same conversions as {@link #execute(ExecutionContext)}.
+   */
+  private static final class ArgumentValue implements Supplier<Object> {
+
+    private final LazyValue<?> value;
+    private final Object nullValue;
+
+    private ArgumentValue(LazyValue<?> value, Object nullValue) {
+      this.value = value;
+      this.nullValue = nullValue;
+    }
+
+    @Override
+    public Object get() {
+      Object resolved = value.get();
+      return resolved == null ? nullValue : resolveCursor(resolved);
+    }
+  }
+}
@@ -253,7 +253,19 @@ public final class MethodArgumentResolverDelegate implements ArgumentResolverDel
     });
   }
 
-  private Object resolvePrimitiveTypeDefaultValue(Class<?> type) {
+  /**
+   * @return the {@link ArgumentResolver}s of each of the {@link Method}'s arguments, in order. Only available after
+   *         {@link #initialise()}
+   */
+  ArgumentResolver<?>[] getArgumentResolvers() {
+    return argumentResolvers;
+  }
+
+  /**
+   * @param type the type of an argument
+   * @return the value to pass for an argument of the given {@code type} when it resolves to {@code null}
+   */
+  static Object resolvePrimitiveTypeDefaultValue(Class<?> type) {
     if (type.equals(byte.class)) {
       return (byte) 0;
     }
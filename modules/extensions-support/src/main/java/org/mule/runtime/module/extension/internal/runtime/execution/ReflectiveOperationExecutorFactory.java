@@ -6,8 +6,11 @@
  */
 package org.mule.runtime.module.extension.internal.runtime.execution;
 
+import static java.lang.System.getProperty;
+import static java.util.Arrays.asList;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 import static org.mule.runtime.api.util.Preconditions.checkArgument;
+import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
 import static org.mule.runtime.module.extension.api.util.MuleExtensionUtils.getInitialiserEvent;
 import static org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolvingContext.from;
 
@@ -27,22 +30,59 @@ import java.util.Map;
 
 /**
  * An implementation of {@link ComponentExecutorFactory} which produces instances of {@link ReflectiveMethodOperationExecutor}.
+ * <p>
+ * The operations of the extensions listed in the {@link #MULE_EXTENSIONS_COMPILED_INVOCATION} system property are invoked
+ * through a {@link CompiledMethodComponentExecutor} instead of through reflection.
  *
  * @param <T> the type of the class in which the implementing method is declared
  * @since 3.7.0
  */
 public final class ReflectiveOperationExecutorFactory<T, M extends ComponentModel> implements ComponentExecutorFactory<M> {
 
+  /**
+   * Comma separated names of the extensions whose operations are to be invoked through a
+   * {@link CompiledMethodComponentExecutor}, or {@code *} for all of them.
+   *
+   * @since 4.2
+   */
+  public static final String MULE_EXTENSIONS_COMPILED_INVOCATION = SYSTEM_PROPERTY_PREFIX + "extensions.compiledInvocation";
+
+  private static final String ALL_EXTENSIONS = "*";
+
   private final Class<T> implementationClass;
   private final Method operationMethod;
+  private final boolean compiledInvocation;
 
   public ReflectiveOperationExecutorFactory(Class<T> implementationClass, Method operationMethod) {
+    this(implementationClass, operationMethod, null);
+  }
+
+  /**
+   * Creates a new instance
+   *
+   * @param implementationClass the class in which the {@code operationMethod} is declared
+   * @param operationMethod the method that implements the operation
+   * @param extensionName the name of the extension the operation belongs to
+   * @since 4.2
+   */
+  public ReflectiveOperationExecutorFactory(Class<T> implementationClass, Method operationMethod, String extensionName) {
     checkArgument(implementationClass != null, "implementationClass cannot be null");
     checkArgument(operationMethod != null, "operationMethod cannot be null");
 
     this.implementationClass = implementationClass;
     this.operationMethod = operationMethod;
+    this.compiledInvocation = isCompiledInvocationEnabled(extensionName);
+  }
+
+  private static boolean isCompiledInvocationEnabled(String extensionName) {
+    final String extensions = getProperty(MULE_EXTENSIONS_COMPILED_INVOCATION);
+    if (extensions == null || extensionName == null) {
+      return false;
+    }
 
+    return asList(extensions.split(",")).stream()
+        .map(String::trim)
+        .anyMatch(extension -> ALL_EXTENSIONS.equals(extension) || extension.equals(extensionName));
   }
 
   @Override
@@ -63,6 +103,6 @@ public final class ReflectiveOperationExecutorFactory<T, M extends ComponentMode
       }
     }
 
-    return new ReflectiveMethodOperationExecutor(operationModel, operationMethod, delegate);
+    return new ReflectiveMethodOperationExecutor(operationModel, operationMethod, delegate, compiledInvocation);
   }
 }
@@ -27,6 +27,7 @@ import org.mule.runtime.extension.api.runtime.operation.ExecutionContext;
 import org.mule.runtime.extension.api.runtime.operation.ComponentExecutor;
 import org.mule.runtime.extension.api.runtime.process.CompletionCallback;
 import org.mule.runtime.module.extension.api.runtime.privileged.ExecutionContextAdapter;
+import org.mule.runtime.module.extension.internal.runtime.execution.CompiledMethodComponentExecutor;
 import org.mule.runtime.module.extension.internal.runtime.execution.OperationArgumentResolverFactory;
 import org.mule.runtime.module.extension.internal.runtime.execution.ReflectiveMethodComponentExecutor;
 
@@ -51,8 +52,24 @@ public class ReflectiveMethodOperationExecutor<M extends ComponentModel>
   private MuleContext muleContext;
 
   public ReflectiveMethodOperationExecutor(M operationModel, Method operationMethod, Object operationInstance) {
-    executor =
-        new ReflectiveMethodComponentExecutor<>(operationModel.getParameterGroupModels(), operationMethod, operationInstance);
+    this(operationModel, operationMethod, operationInstance, false);
+  }
+
+  /**
+   * Creates a new instance
+   *
+   * @param operationModel the model of the operation
+   * @param operationMethod the method that implements the operation
+   * @param operationInstance the instance on which the {@code operationMethod} is invoked
+   * @param compiledInvocation whether to invoke the {@code operationMethod} through a {@link CompiledMethodComponentExecutor}
+   *        instead of through reflection
+   * @since 4.2
+   */
+  public ReflectiveMethodOperationExecutor(M operationModel, Method operationMethod, Object operationInstance,
+                                           boolean compiledInvocation) {
+    executor = compiledInvocation
+        ? new CompiledMethodComponentExecutor<>(operationModel.getParameterGroupModels(), operationMethod, operationInstance)
+        : new ReflectiveMethodComponentExecutor<>(operationModel.getParameterGroupModels(), operationMethod, operationInstance);
   }
 
   /**
@@ -8,6 +8,8 @@ package org.mule.runtime.module.extension.internal.runtime.resolver;
 
 import org.mule.runtime.core.api.MuleContext;
 
+import java.util.Map;
+
 /**
  * {@link ResolverSet} implementation which uses {@link HashedResolverSetResult} to storage the resolved values.
  * This gives the capability of comparing {@link ResolverSetResult} a quickly verify if two {@link ResolverSetResult}
@@ -22,7 +24,7 @@ public class HashedResolverSet extends ResolverSet {
   }
 
   @Override
-  ResolverSetResult.Builder getResolverSetBuilder() {
-    return HashedResolverSetResult.newBuilder();
+  ResolverSetResult createResult(Map<String, Integer> index, String[] keys, Object[] values) {
+    return new HashedResolverSetResult(index, keys, values);
   }
 }
@@ -66,6 +66,21 @@ public class HashedResolverSetResult extends ResolverSetResult {
     this.hashCode = hashCode;
   }
 
+  /**
+   * Creates a result backed by the given {@code values}, without copying them.
+   *
+   * @see ResolverSetResult#ResolverSetResult(Map, String[], Object[])
+   * @since 4.2
+   */
+  HashedResolverSetResult(Map<String, Integer> index, String[] keys, Object[] values) {
+    super(index, keys, values);
+    int hash = 1;
+    for (Object value : values) {
+      hash = calculateValueHash(hash, value);
+    }
+    this.hashCode = hash;
+  }
+
   /**
    * A hashCode calculated based on the results
    *
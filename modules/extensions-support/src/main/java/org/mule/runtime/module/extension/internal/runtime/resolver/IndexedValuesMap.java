@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.extension.internal.runtime.resolver;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable {@link Map} backed by an array of values, which shares with all the other instances built for the same set of
+ * keys the index that maps each key to its position in the array.
+ * <p>
+ * This allows for the results of the many evaluations of a {@link ResolverSet} to be represented by just an array each.
+ *
+ * @since 4.2
+ */
+final class IndexedValuesMap extends AbstractMap<String, Object> {
+
+  private final Map<String, Integer> index;
+  private final String[] keys;
+  private final Object[] values;
+
+  /**
+   * Creates a new instance
+   *
+   * @param index the position of each key in the {@code keys} and {@code values} arrays
+   * @param keys the keys of the map
+   * @param values the value of each of the {@code keys}
+   */
+  IndexedValuesMap(Map<String, Integer> index, String[] keys, Object[] values) {
+    this.index = index;
+    this.keys = keys;
+    this.values = values;
+  }
+
+  @Override
+  public Object get(Object key) {
+    final Integer position = index.get(key);
+    return position != null ? values[position] : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return index.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<Entry<String, Object>>() {
+
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new Iterator<Entry<String, Object>>() {
+
+          private int position = 0;
+
+          @Override
+          public boolean hasNext() {
+            return position < keys.length;
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            final int current = position++;
+            return new SimpleImmutableEntry<>(keys[current], values[current]);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.length;
+      }
+    };
+  }
+}
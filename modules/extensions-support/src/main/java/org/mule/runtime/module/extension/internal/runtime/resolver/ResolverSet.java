@@ -6,6 +6,8 @@
  */
 package org.mule.runtime.module.extension.internal.runtime.resolver;
 
+import static java.util.Arrays.copyOf;
+import static java.util.Collections.unmodifiableMap;
 import static org.mule.runtime.api.util.Preconditions.checkArgument;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.initialiseIfNeeded;
 import static org.mule.runtime.core.api.util.StringUtils.isBlank;
@@ -19,6 +21,7 @@ import org.mule.runtime.module.extension.internal.runtime.objectbuilder.ObjectBu
 
 import com.google.common.collect.ImmutableMap;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -32,6 +35,9 @@ import java.util.Map;
  * be a {@link ResolverSetResult} which then can be used by a {@link ObjectBuilder} to generate an actual object.
  * <p>
  * Instances of this class are to be considered thread safe and reusable
+ * <p>
+ * Since the values of {@link StaticValueResolver}s and {@link StaticLiteralValueResolver}s never change, they are resolved only
+ * once, on the first evaluation, and only the rest of the resolvers are evaluated each time.
  *
  * @since 3.7.0
  */
@@ -41,6 +47,9 @@ public class ResolverSet implements ValueResolver<ResolverSetResult>, Initialisa
   private boolean dynamic = false;
   private final MuleContext muleContext;
 
+  // Computed on the first resolution, so that it accounts for all the resolvers added until then
+  private volatile Resolution resolution;
+
   public ResolverSet(MuleContext muleContext) {
     this.muleContext = muleContext;
   }
@@ -61,6 +70,7 @@ public class ResolverSet implements ValueResolver<ResolverSetResult>, Initialisa
     if (resolvers.put(key, resolver) != null) {
       throw new IllegalStateException("A value was already given for key " + key);
     }
+    resolution = null;
 
     if (!dynamic && resolver.isDynamic()) {
       dynamic = true;
@@ -103,13 +113,18 @@ public class ResolverSet implements ValueResolver<ResolverSetResult>, Initialisa
    */
   @Override
   public ResolverSetResult resolve(ValueResolvingContext context) throws MuleException {
-    ResolverSetResult.Builder builder = getResolverSetBuilder();
+    Resolution current = resolution;
+    if (current == null) {
+      current = new Resolution(resolvers);
+      resolution = current;
+    }
 
-    for (Map.Entry<String, ValueResolver<?>> entry : resolvers.entrySet()) {
-      builder.add(entry.getKey(), resolveRecursively(entry.getValue(), context));
+    final Object[] values = current.staticValues.clone();
+    for (int position : current.dynamicPositions) {
+      values[position] = resolveRecursively(current.resolvers[position], context);
     }
 
-    return builder.build();
+    return createResult(current.index, current.keys, values);
   }
 
   /**
@@ -137,8 +152,53 @@ public class ResolverSet implements ValueResolver<ResolverSetResult>, Initialisa
     initialiseIfNeeded(resolvers.values(), muleContext);
   }
 
-  ResolverSetResult.Builder getResolverSetBuilder() {
-    return ResolverSetResult.newBuilder();
+  ResolverSetResult createResult(Map<String, Integer> index, String[] keys, Object[] values) {
+    return new ResolverSetResult(index, keys, values);
+  }
+
+  private static boolean isConstant(ValueResolver<?> resolver) throws MuleException {
+    if (resolver instanceof StaticLiteralValueResolver) {
+      return true;
+    }
+    // The value of a static resolver may be a resolver itself, which has to be evaluated each time
+    return resolver instanceof StaticValueResolver && !(resolver.resolve(null) instanceof ValueResolver);
   }
 
+  /**
+   * The resolvers of a {@link ResolverSet} laid out in arrays, with the values of the constant ones already resolved.
+   */
+  private static final class Resolution {
+
+    private final Map<String, Integer> index;
+    private final String[] keys;
+    private final ValueResolver<?>[] resolvers;
+    private final Object[] staticValues;
+    private final int[] dynamicPositions;
+
+    private Resolution(Map<String, ValueResolver<?>> resolversByKey) throws MuleException {
+      final int size = resolversByKey.size();
+      final Map<String, Integer> index = new HashMap<>(size * 4 / 3 + 1);
+      keys = new String[size];
+      resolvers = new ValueResolver<?>[size];
+      staticValues = new Object[size];
+      final int[] dynamic = new int[size];
+      int dynamicCount = 0;
+
+      int position = 0;
+      for (Map.Entry<String, ValueResolver<?>> entry : resolversByKey.entrySet()) {
+        index.put(entry.getKey(), position);
+        keys[position] = entry.getKey();
+        resolvers[position] = entry.getValue();
+        if (isConstant(entry.getValue())) {
+          staticValues[position] = entry.getValue().resolve(null);
+        } else {
+          dynamic[dynamicCount++] = position;
+        }
+        position++;
+      }
+
+      this.index = unmodifiableMap(index);
+      dynamicPositions = copyOf(dynamic, dynamicCount);
+    }
+  }
 }
@@ -77,6 +77,19 @@ public class ResolverSetResult {
     this.evaluationResult = new HashMap<>(evaluationResult);
   }
 
+  /**
+   * Creates a result backed by the given {@code values}, without copying them.
+   *
+   * @param index the position of each key in the {@code keys} and {@code values} arrays, shared by all the results of a
+   *        {@link ResolverSet}
+   * @param keys the keys of the resolved values
+   * @param values the resolved values
+   * @since 4.2
+   */
+  ResolverSetResult(Map<String, Integer> index, String[] keys, Object[] values) {
+    this.evaluationResult = new IndexedValuesMap(index, keys, values);
+  }
+
   /**
    * Returns the value associated with the {@link ParameterModel} of the given {@code parameterName}
    *
@@ -13,6 +13,7 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertThat;
 import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
@@ -28,6 +29,7 @@ import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 import static org.mule.runtime.api.util.ExtensionModelTestUtils.visitableMock;
 import static org.mule.runtime.api.util.collection.Collectors.toImmutableList;
+import static org.mule.runtime.module.extension.internal.runtime.config.DynamicConfigurationProvider.MULE_DYNAMIC_CONFIG_MAX_INSTANCES;
 import static org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolvingContext.from;
 import static org.mule.test.module.extension.internal.util.ExtensionsTestUtils.mockClassLoaderModelProperty;
 import static org.mule.test.module.extension.internal.util.ExtensionsTestUtils.mockConfigurationInstance;
@@ -45,6 +47,7 @@ import org.mule.runtime.extension.api.runtime.config.ConfigurationInstance;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ConnectionProviderResolver;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ResolverSet;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ResolverSetResult;
+import org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolver;
 import org.mule.runtime.module.extension.internal.util.ReflectionCache;
 import org.mule.tck.size.SmallTest;
 import org.mule.test.heisenberg.extension.HeisenbergExtension;
@@ -60,6 +63,7 @@ import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import java.util.HashMap;
 import java.util.List;
@@ -115,14 +119,27 @@ public class DynamicConfigurationProviderTestCase extends AbstractConfigurationP
 
     when(connectionProviderResolver.getResolverSet()).thenReturn(empty());
     when(connectionProviderResolver.resolve(any())).thenReturn(null);
-    provider = new DynamicConfigurationProvider(CONFIG_NAME, extensionModel, configurationModel, resolverSet,
-                                                connectionProviderResolver, expirationPolicy, new ReflectionCache(), muleContext);
+    provider = createProvider();
 
     super.before();
     provider.initialise();
     provider.start();
   }
 
+  private DynamicConfigurationProvider createProvider() {
+    return new DynamicConfigurationProvider(CONFIG_NAME, extensionModel, configurationModel, resolverSet,
+                                            connectionProviderResolver, expirationPolicy, new ReflectionCache(), muleContext);
+  }
+
+  private void recreateProvider() throws Exception {
+    provider.stop();
+    provider.dispose();
+    provider = createProvider();
+    muleContext.getInjector().inject(provider);
+    provider.initialise();
+    provider.start();
+  }
+
   @After
   public void after() throws MuleException {
     provider.stop();
@@ -201,6 +218,47 @@ public class DynamicConfigurationProviderTestCase extends AbstractConfigurationP
     assertThat(configs, containsInAnyOrder(instance1, instance2));
   }
 
+  @Test
+  public void staticParametersIgnoredForCache() throws Exception {
+    ValueResolver staticResolver = mock(ValueResolver.class);
+    ValueResolver dynamicResolver = mock(ValueResolver.class);
+    when(dynamicResolver.isDynamic()).thenReturn(true);
+    when(resolverSet.getResolvers()).thenReturn(ImmutableMap.of("static", staticResolver, "dynamic", dynamicResolver));
+    recreateProvider();
+
+    when(resolverSetResult.get("dynamic")).thenReturn("value");
+    HeisenbergExtension config = (HeisenbergExtension) provider.get(event).getValue();
+
+    ResolverSetResult equivalentResult = mock(ResolverSetResult.class, RETURNS_DEEP_STUBS);
+    when(equivalentResult.get("dynamic")).thenReturn("value");
+    when(equivalentResult.get("static")).thenReturn(new Object());
+    when(resolverSet.resolve(from(event))).thenReturn(equivalentResult);
+    assertThat(provider.get(event).getValue(), is(sameInstance(config)));
+
+    HeisenbergExtension alternateConfig = makeAlternateInstance();
+    assertThat(alternateConfig, is(not(sameInstance(config))));
+  }
+
+  @Test
+  public void evictLeastRecentlyUsed() throws Exception {
+    System.setProperty(MULE_DYNAMIC_CONFIG_MAX_INSTANCES, "1");
+    try {
+      recreateProvider();
+    } finally {
+      System.clearProperty(MULE_DYNAMIC_CONFIG_MAX_INSTANCES);
+    }
+
+    HeisenbergExtension instance1 = (HeisenbergExtension) provider.get(event).getValue();
+    timeSupplier.move(1, MINUTES);
+    HeisenbergExtension instance2 = makeAlternateInstance();
+    assertThat(instance2, is(not(sameInstance(instance1))));
+
+    List<Object> expired = ((DynamicConfigurationProvider) provider).getExpired().stream()
+        .map(config -> config.getValue()).collect(toImmutableList());
+    assertThat(expired, contains(instance1));
+    assertThat(provider.get(event).getValue(), is(sameInstance(instance2)));
+  }
+
   private HeisenbergExtension makeAlternateInstance() throws Exception {
     ResolverSetResult alternateResult = mock(ResolverSetResult.class, Mockito.RETURNS_DEEP_STUBS);
     when(alternateResult.asMap()).thenReturn(new HashMap<>());
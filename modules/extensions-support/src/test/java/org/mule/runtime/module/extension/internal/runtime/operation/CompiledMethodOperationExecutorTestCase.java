@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.extension.internal.runtime.operation;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.hasValue;
+import static org.junit.Assert.assertThat;
+
+import org.mule.runtime.api.util.LazyValue;
+import org.mule.runtime.core.api.util.ClassUtils;
+import org.mule.runtime.extension.api.runtime.operation.ExecutionContext;
+import org.mule.tck.size.SmallTest;
+import org.mule.test.heisenberg.extension.HeisenbergExtension;
+import org.mule.test.heisenberg.extension.HeisenbergOperations;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+@SmallTest
+public class CompiledMethodOperationExecutorTestCase extends ReflectiveMethodOperationExecutorTestCase {
+
+  @Override
+  protected ReflectiveMethodOperationExecutor createExecutor(Method method, Object operationInstance) {
+    return new ReflectiveMethodOperationExecutor(operationModel, method, operationInstance, true);
+  }
+
+  @Test
+  public void argumentResolverIsBuiltOnce() throws Exception {
+    Method method = ClassUtils.getMethod(HeisenbergOperations.class, "sayMyName", new Class<?>[] {HeisenbergExtension.class});
+    executor = createExecutor(method, operations);
+    executor.setMuleContext(muleContext);
+
+    Function<ExecutionContext, Map<String, Object>> argumentResolver = executor.createArgumentResolver(operationModel);
+    assertThat(executor.createArgumentResolver(operationModel), is(sameInstance(argumentResolver)));
+
+    Map<String, Object> arguments = argumentResolver.apply(operationContext);
+    assertThat(arguments.size(), is(1));
+    assertThat(arguments, hasValue(instanceOf(LazyValue.class)));
+  }
+}
@@ -83,7 +83,7 @@ public class ReflectiveMethodOperationExecutorTestCase extends AbstractMuleTestC
   private ConfigurationModel configurationModel;
 
   @Mock
-  private OperationModel operationModel;
+  protected OperationModel operationModel;
 
   @Mock
   private ExtensionManager extensionManager;
@@ -104,13 +104,13 @@ public class ReflectiveMethodOperationExecutorTestCase extends AbstractMuleTestC
   private RetryPolicyTemplate retryPolicyTemplate;
 
   @Mock(answer = Answers.RETURNS_DEEP_STUBS)
-  private MuleContext muleContext;
+  protected MuleContext muleContext;
 
-  private ReflectiveMethodOperationExecutor executor;
+  protected ReflectiveMethodOperationExecutor executor;
   private ConfigurationInstance configurationInstance;
-  private ExecutionContextAdapter operationContext;
+  protected ExecutionContextAdapter operationContext;
   private HeisenbergExtension config;
-  private HeisenbergOperations operations;
+  protected HeisenbergOperations operations;
   private PrimitiveTypesTestOperations primitiveTypesTestOperations = new PrimitiveTypesTestOperations();
 
 
@@ -136,7 +136,7 @@ public class ReflectiveMethodOperationExecutorTestCase extends AbstractMuleTestC
   @Test
   public void operationWithReturnValueAndWithoutParameters() throws Exception {
     Method method = ClassUtils.getMethod(HeisenbergOperations.class, "sayMyName", new Class<?>[] {HeisenbergExtension.class});
-    executor = new ReflectiveMethodOperationExecutor(operationModel, method, operations);
+    executor = createExecutor(method, operations);
     executor.setMuleContext(muleContext);
     assertResult(execute(), HEISENBERG);
   }
@@ -158,7 +158,7 @@ public class ReflectiveMethodOperationExecutorTestCase extends AbstractMuleTestC
   @Test
   public void voidOperationWithoutParameters() throws Exception {
     Method method = ClassUtils.getMethod(HeisenbergOperations.class, "die", new Class<?>[] {HeisenbergExtension.class});
-    executor = new ReflectiveMethodOperationExecutor(operationModel, method, operations);
+    executor = createExecutor(method, operations);
     executor.setMuleContext(muleContext);
     assertThat(execute(), is(nullValue()));
     assertThat(config.getEndingHealth(), is(DEAD));
@@ -173,7 +173,7 @@ public class ReflectiveMethodOperationExecutorTestCase extends AbstractMuleTestC
 
     Method method =
         ClassUtils.getMethod(HeisenbergOperations.class, "getEnemy", new Class<?>[] {HeisenbergExtension.class, int.class});
-    executor = new ReflectiveMethodOperationExecutor(operationModel, method, operations);
+    executor = createExecutor(method, operations);
     executor.setMuleContext(muleContext);
 
     assertResult(((Result) execute()).getOutput(), "Hank");
@@ -182,7 +182,7 @@ public class ReflectiveMethodOperationExecutorTestCase extends AbstractMuleTestC
   @Test
   public void voidWithArguments() throws Exception {
     Method method = ClassUtils.getMethod(HeisenbergOperations.class, "die", new Class<?>[] {HeisenbergExtension.class});
-    executor = new ReflectiveMethodOperationExecutor(operationModel, method, operations);
+    executor = createExecutor(method, operations);
     executor.setMuleContext(muleContext);
     assertThat(execute(), is(nullValue()));
   }
@@ -195,7 +195,7 @@ public class ReflectiveMethodOperationExecutorTestCase extends AbstractMuleTestC
     for (Object[] primitiveOperation : primitiveOperations) {
       Method method = ClassUtils.getMethod(PrimitiveTypesTestOperations.class, (String) primitiveOperation[0],
                                            new Class<?>[] {(Class<?>) primitiveOperation[1]});
-      executor = new ReflectiveMethodOperationExecutor(operationModel, method, primitiveTypesTestOperations);
+      executor = createExecutor(method, primitiveTypesTestOperations);
       executor.setMuleContext(muleContext);
       execute();
     }
@@ -206,11 +206,15 @@ public class ReflectiveMethodOperationExecutorTestCase extends AbstractMuleTestC
     Class<?>[] parameterTypes =
         {char.class, byte.class, short.class, int.class, long.class, float.class, double.class, boolean.class};
     Method method = ClassUtils.getMethod(PrimitiveTypesTestOperations.class, "allCombined", parameterTypes);
-    executor = new ReflectiveMethodOperationExecutor(operationModel, method, primitiveTypesTestOperations);
+    executor = createExecutor(method, primitiveTypesTestOperations);
     executor.setMuleContext(muleContext);
     execute();
   }
 
+  protected ReflectiveMethodOperationExecutor createExecutor(Method method, Object operationInstance) {
+    return new ReflectiveMethodOperationExecutor(operationModel, method, operationInstance);
+  }
+
   private void initHeisenberg() {
     config = new HeisenbergExtension();
     config.getPersonalInfo().setName(HEISENBERG);
@@ -9,6 +9,10 @@ package org.mule.runtime.module.extension.internal.runtime.resolver;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mule.test.module.extension.internal.util.ExtensionsTestUtils.getParameter;
 import org.mule.runtime.api.lifecycle.Lifecycle;
@@ -100,6 +104,40 @@ public class ResolverSetTestCase extends AbstractMuleTestCase {
     assertThat(set.isDynamic(), is(true));
   }
 
+  @Test
+  public void staticResolversAreResolvedOnce() throws Exception {
+    StaticValueResolver<String> staticResolver = spy(new StaticValueResolver<>(NAME));
+    set.add("static", staticResolver);
+
+    for (int i = 0; i < 3; ++i) {
+      ResolverSetResult result = set.resolve(resolvingContext);
+      assertThat(result.get("static"), is(NAME));
+      assertResult(result, mapping);
+    }
+    verify(staticResolver, atMost(2)).resolve(any());
+  }
+
+  @Test
+  public void staticResolverOfResolver() throws Exception {
+    ValueResolver resolver = getResolver(AGE);
+    set.add("nested", new StaticValueResolver<>(resolver));
+
+    assertThat(set.resolve(resolvingContext).get("nested"), is(AGE));
+  }
+
+  @Test
+  public void hashedResultIsConsistentWithBuiltResult() throws Exception {
+    ResolverSet hashedSet = new HashedResolverSet(muleContext);
+    hashedSet.add("myName", new StaticValueResolver<>(NAME));
+    hashedSet.add("age", getResolver(AGE));
+
+    ResolverSetResult result = hashedSet.resolve(resolvingContext);
+    ResolverSetResult expected = HashedResolverSetResult.newBuilder().add("myName", NAME).add("age", AGE).build();
+    assertThat(result.hashCode(), is(expected.hashCode()));
+    assertThat(result, is(expected));
+    assertThat(result.asMap(), is(expected.asMap()));
+  }
+
   private void assertResult(ResolverSetResult result, Map<ParameterModel, ValueResolver> mapping) throws Exception {
     assertThat(result, is(notNullValue()));
     for (Map.Entry<ParameterModel, ValueResolver> entry : mapping.entrySet()) {
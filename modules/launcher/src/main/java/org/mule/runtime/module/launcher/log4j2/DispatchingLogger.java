@@ -6,11 +6,13 @@
  */
 package org.mule.runtime.module.launcher.log4j2;
 
+import static java.lang.Thread.currentThread;
 import static org.mule.runtime.module.launcher.log4j2.ArtifactAwareContextSelector.resolveLoggerContextClassLoader;
 import static org.reflections.ReflectionUtils.getAllMethods;
 import static org.reflections.ReflectionUtils.withName;
 import static org.reflections.ReflectionUtils.withParameters;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Iterator;
@@ -40,7 +42,9 @@ import org.apache.logging.log4j.spi.ExtendedLogger;
  * <p/>
  * Because this class is a fix for issues in static loggers, it must not hold any reference to any {@link java.lang.ClassLoader}
  * since otherwise that class loader would be GC unreachable. For that reason, it uses {@link #ownerClassLoaderHash} instead of
- * the real reference
+ * the real reference. The logger last resolved is remembered, along with its execution classloader, through weak references so
+ * that the class loader is still collectable, and it's reused by consecutive calls from the same classloader until its logger
+ * context is stopped.
  *
  * @since 3.6.0
  */
@@ -51,6 +55,8 @@ abstract class DispatchingLogger extends Logger {
   private final ContextSelector contextSelector;
   private final int ownerClassLoaderHash;
 
+  private volatile ResolvedLogger lastResolved;
+
   DispatchingLogger(Logger originalLogger, int ownerClassLoaderHash, LoggerContext loggerContext, ContextSelector contextSelector,
                     MessageFactory messageFactory) {
     super(loggerContext, originalLogger.getName(), messageFactory);
@@ -59,9 +65,24 @@ abstract class DispatchingLogger extends Logger {
     this.ownerClassLoaderHash = ownerClassLoaderHash;
   }
 
-
   private Logger getLogger() {
-    final ClassLoader currentClassLoader = resolveLoggerContextClassLoader(Thread.currentThread().getContextClassLoader());
+    final ClassLoader executionClassLoader = currentThread().getContextClassLoader();
+    if (executionClassLoader == null) {
+      return resolveLogger(null);
+    }
+
+    // Most calls come from the same classloader as the previous one, so the logger resolved for it is reused
+    final ResolvedLogger last = lastResolved;
+    Logger logger = last != null ? last.getFor(executionClassLoader) : null;
+    if (logger == null) {
+      logger = resolveLogger(executionClassLoader);
+      lastResolved = new ResolvedLogger(executionClassLoader, logger);
+    }
+    return logger;
+  }
+
+  private Logger resolveLogger(ClassLoader executionClassLoader) {
+    final ClassLoader currentClassLoader = resolveLoggerContextClassLoader(executionClassLoader);
     if (useThisLoggerContextClassLoader(currentClassLoader)) {
       return originalLogger;
     }
@@ -857,4 +878,35 @@ abstract class DispatchingLogger extends Logger {
   public void warn(String message, Throwable t) {
     getLogger().warn(message, t);
   }
+
+  /**
+   * The logger last resolved for an execution classloader. The classloader is weakly referenced so that it's still collectable,
+   * and so is the logger, which is referenced by its logger context as long as that context is used.
+   */
+  private static final class ResolvedLogger {
+
+    private final WeakReference<ClassLoader> classLoader;
+    private final WeakReference<Logger> logger;
+
+    private ResolvedLogger(ClassLoader classLoader, Logger logger) {
+      this.classLoader = new WeakReference<>(classLoader);
+      this.logger = new WeakReference<>(logger);
+    }
+
+    /**
+     * @return the resolved logger if it was resolved for {@code executionClassLoader} and its logger context is still running,
+     *         {@code null} otherwise.
+     */
+    private Logger getFor(ClassLoader executionClassLoader) {
+      if (classLoader.get() != executionClassLoader) {
+        return null;
+      }
+
+      final Logger resolved = logger.get();
+      if (resolved == null || resolved.getContext().isStopping() || resolved.getContext().isStopped()) {
+        return null;
+      }
+      return resolved;
+    }
+  }
 }
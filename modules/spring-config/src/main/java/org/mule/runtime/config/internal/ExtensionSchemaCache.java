@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.config.internal;
+
+import static java.lang.String.valueOf;
+import static java.lang.System.getProperty;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.move;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.write;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.mule.metadata.api.utils.MetadataTypeUtils.getTypeId;
+import static org.mule.runtime.container.api.MuleFoldersUtil.getPatchesLibFolder;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_HOME_DIRECTORY_PROPERTY;
+import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.meta.model.ExtensionModel;
+import org.mule.runtime.api.meta.model.ImportedTypeModel;
+import org.mule.runtime.core.api.config.MuleManifest;
+import org.mule.runtime.extension.api.persistence.ExtensionModelJsonSerializer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Keeps the XSDs generated for the {@link ExtensionModel}s, so that they are generated only once for all the applications of the
+ * container that use the same extensions.
+ * <p>
+ * Schemas are keyed by a fingerprint of the runtime (its version and installed patches), of the serialized extension and of the
+ * serialized extensions related to it: the ones that declare the types it imports, and the ones that import its types (since
+ * they may declare subtypes of them). Up to {@link #MAX_CACHED_SCHEMAS} schemas are kept in memory and, if a directory is
+ * configured through {@link #MULE_EXTENSIONS_SCHEMA_CACHE_DIR} or the runtime has a
+ * {@link org.mule.runtime.core.api.config.MuleProperties#MULE_HOME_DIRECTORY_PROPERTY home}, also on disk, so that they survive
+ * restarts.
+ * <p>
+ * Schemas for {@code SNAPSHOT} versions are never cached, since each build of them would leave a new schema behind.
+ *
+ * @since 4.2
+ */
+public final class ExtensionSchemaCache {
+
+  /**
+   * The directory where generated schemas are stored.
+   */
+  public static final String MULE_EXTENSIONS_SCHEMA_CACHE_DIR = SYSTEM_PROPERTY_PREFIX + "extensions.schemaCache.dir";
+
+  private static final Logger LOGGER = getLogger(ExtensionSchemaCache.class);
+
+  private static final String SNAPSHOT = "SNAPSHOT";
+  private static final String SCHEMA_EXTENSION = ".xsd";
+
+  static final int MAX_CACHED_SCHEMAS = 256;
+
+  private static final String RUNTIME_FINGERPRINT = runtimeFingerprint();
+
+  private static final ExtensionSchemaCache INSTANCE =
+      new ExtensionSchemaCache(getDefaultDirectory(), model -> new ExtensionModelJsonSerializer().serialize(model));
+
+  private final Cache<String, String> schemas = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_SCHEMAS).build();
+  private final Path directory;
+  private final Function<ExtensionModel, String> serializer;
+  // The same models are used for all the config files of an application, so they are serialized only once
+  private final ConcurrentMap<ExtensionModel, String> digests = new MapMaker().weakKeys().makeMap();
+
+  /**
+   * @return the cache shared by all the applications of the container
+   */
+  public static ExtensionSchemaCache getInstance() {
+    return INSTANCE;
+  }
+
+  private static Path getDefaultDirectory() {
+    final String directory = getProperty(MULE_EXTENSIONS_SCHEMA_CACHE_DIR);
+    if (directory != null) {
+      return Paths.get(directory);
+    }
+
+    final String muleHome = getProperty(MULE_HOME_DIRECTORY_PROPERTY);
+    return muleHome != null ? Paths.get(muleHome, ".mule", "extension-schemas") : null;
+  }
+
+  /**
+   * Patches may change how schemas are generated without changing the runtime version, so the installed ones are part of the
+   * fingerprint.
+   */
+  private static String runtimeFingerprint() {
+    final StringBuilder builder = new StringBuilder(128);
+    builder.append(valueOf(MuleManifest.getProductVersion())).append('\n');
+
+    final File[] patches = getPatchesLibFolder().listFiles();
+    if (patches != null) {
+      final Set<String> sortedPatches = new TreeSet<>();
+      for (File patch : patches) {
+        sortedPatches.add(patch.getName() + '|' + patch.length() + '|' + patch.lastModified() + '\n');
+      }
+      sortedPatches.forEach(builder::append);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Creates a new instance
+   *
+   * @param directory the directory where to store the generated schemas, or {@code null} if they are to be kept only in memory
+   * @param serializer serializes the extensions to compute their fingerprint
+   */
+  ExtensionSchemaCache(Path directory, Function<ExtensionModel, String> serializer) {
+    this.directory = directory;
+    this.serializer = serializer;
+  }
+
+  /**
+   * Returns the schema for the given {@code extensionModel}, generating it only if it was not already generated for an
+   * equivalent extension.
+   *
+   * @param extensionModel the extension to get the schema for
+   * @param extensions the extensions available for the schema of {@code extensionModel} to reference
+   * @param generator generates the schema, if it's not cached
+   * @return the schema of the given {@code extensionModel}
+   */
+  public String getSchema(ExtensionModel extensionModel, Set<ExtensionModel> extensions, Supplier<String> generator) {
+    if (isSnapshot(extensionModel) || extensions.stream().anyMatch(ExtensionSchemaCache::isSnapshot)) {
+      return generator.get();
+    }
+
+    final String fingerprint = fingerprint(extensionModel, extensions);
+    try {
+      return schemas.get(fingerprint, () -> {
+        String schema = read(fingerprint);
+        if (schema == null) {
+          schema = generator.get();
+          write(fingerprint, schema);
+        }
+        return schema;
+      });
+    } catch (UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new MuleRuntimeException(e.getCause());
+    } catch (ExecutionException e) {
+      throw new MuleRuntimeException(e.getCause());
+    }
+  }
+
+  private static boolean isSnapshot(ExtensionModel extensionModel) {
+    return extensionModel.getVersion() == null || extensionModel.getVersion().contains(SNAPSHOT);
+  }
+
+  private String fingerprint(ExtensionModel extensionModel, Set<ExtensionModel> extensions) {
+    final StringBuilder builder = new StringBuilder(256);
+    builder.append(RUNTIME_FINGERPRINT);
+    builder.append(digest(extensionModel)).append('\n');
+
+    // The order of the extensions doesn't change the generated schema
+    final Set<String> relatedExtensions = new TreeSet<>();
+    final Set<String> importedTypes = typeIds(extensionModel.getImportedTypes());
+    final Set<String> declaredTypes = declaredTypeIds(extensionModel);
+    for (ExtensionModel extension : extensions) {
+      if (extension != extensionModel
+          && (declaresAny(extension, importedTypes) || importsAny(extension, declaredTypes))) {
+        relatedExtensions.add(digest(extension));
+      }
+    }
+    relatedExtensions.forEach(related -> builder.append(related).append('\n'));
+
+    return toHex(sha256(builder.toString().getBytes(UTF_8)));
+  }
+
+  private String digest(ExtensionModel extensionModel) {
+    return digests.computeIfAbsent(extensionModel, model -> toHex(sha256(serializer.apply(model).getBytes(UTF_8))));
+  }
+
+  private static Set<String> typeIds(Set<ImportedTypeModel> importedTypes) {
+    final Set<String> typeIds = new HashSet<>();
+    for (ImportedTypeModel importedType : importedTypes) {
+      getTypeId(importedType.getImportedType()).ifPresent(typeIds::add);
+    }
+    return typeIds;
+  }
+
+  private static Set<String> declaredTypeIds(ExtensionModel extensionModel) {
+    final Set<String> typeIds = new HashSet<>();
+    extensionModel.getTypes().forEach(type -> getTypeId(type).ifPresent(typeIds::add));
+    return typeIds;
+  }
+
+  private static boolean declaresAny(ExtensionModel extensionModel, Set<String> typeIds) {
+    return !typeIds.isEmpty() && extensionModel.getTypes().stream()
+        .anyMatch(type -> getTypeId(type).map(typeIds::contains).orElse(false));
+  }
+
+  private static boolean importsAny(ExtensionModel extensionModel, Set<String> typeIds) {
+    return !typeIds.isEmpty() && extensionModel.getImportedTypes().stream()
+        .anyMatch(imported -> getTypeId(imported.getImportedType()).map(typeIds::contains).orElse(false));
+  }
+
+  private String read(String fingerprint) {
+    if (directory == null) {
+      return null;
+    }
+
+    final Path file = directory.resolve(fingerprint + SCHEMA_EXTENSION);
+    try {
+      return isRegularFile(file) ? new String(readAllBytes(file), UTF_8) : null;
+    } catch (IOException e) {
+      LOGGER.warn("Could not read cached schema {}, it will be generated again: {}", file, e.getMessage());
+      return null;
+    }
+  }
+
+  private void write(String fingerprint, String schema) {
+    if (directory == null) {
+      return;
+    }
+
+    Path temporaryFile = null;
+    try {
+      createDirectories(directory);
+      // Written to a temporary file first, so that other containers sharing the directory never read a partial schema
+      temporaryFile = createTempFile(directory, fingerprint, ".tmp");
+      write(temporaryFile, schema.getBytes(UTF_8));
+      move(temporaryFile, directory.resolve(fingerprint + SCHEMA_EXTENSION), ATOMIC_MOVE, REPLACE_EXISTING);
+    } catch (IOException e) {
+      LOGGER.warn("Could not store generated schema in {}: {}", directory, e.getMessage());
+      if (temporaryFile != null) {
+        try {
+          deleteIfExists(temporaryFile);
+        } catch (IOException e1) {
+          // Nothing to do
+        }
+      }
+    }
+  }
+
+  static byte[] sha256(byte[] content) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(content);
+    } catch (NoSuchAlgorithmException e) {
+      throw new MuleRuntimeException(e);
+    }
+  }
+
+  static String toHex(byte[] bytes) {
+    final StringBuilder builder = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Discards the schemas kept in memory.
+   */
+  void clear() {
+    schemas.invalidateAll();
+  }
+}
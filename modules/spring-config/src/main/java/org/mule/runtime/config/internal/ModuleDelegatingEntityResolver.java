@@ -191,14 +191,16 @@ public class ModuleDelegatingEntityResolver implements EntityResolver {
   }
 
   /**
-   * Given an {@link ExtensionModel} it will generate the XSD for it.
+   * Given an {@link ExtensionModel} it will generate the XSD for it, unless it was already generated and is available in the
+   * {@link ExtensionSchemaCache}.
    *
    * @param extensionModel extension to generate the schema for
    * @return the bytes that represent the schema for the {@code extensionModel}
    */
   private InputStream getSchemaFromExtension(ExtensionModel extensionModel) {
     String generatedResource = extensionSchemaFactory
-        .map(f -> f.generate(extensionModel, DslResolvingContext.getDefault(extensions)))
+        .map(f -> ExtensionSchemaCache.getInstance()
+            .getSchema(extensionModel, extensions, () -> f.generate(extensionModel, DslResolvingContext.getDefault(extensions))))
         .orElseThrow(
                      () -> new IllegalStateException("There were no schema generators available when trying to work with the extension '"
                          + extensionModel.getName() + "'"));
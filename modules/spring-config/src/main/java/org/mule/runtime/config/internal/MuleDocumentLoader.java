@@ -6,6 +6,7 @@
  */
 package org.mule.runtime.config.internal;
 
+import static javax.xml.XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI;
 import static org.apache.commons.lang3.SystemUtils.LINE_SEPARATOR;
 import static org.mule.runtime.config.internal.parsers.XmlMetadataAnnotations.METADATA_ANNOTATIONS_KEY;
 
@@ -16,16 +17,25 @@ import org.mule.runtime.core.api.util.xmlsecurity.XMLSecureFactories;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.Stack;
 
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
 
 import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.xml.DefaultDocumentLoader;
 import org.springframework.beans.factory.xml.DocumentLoader;
+import org.springframework.util.xml.XmlValidationModeDetector;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.UserDataHandler;
@@ -41,6 +51,9 @@ import org.xml.sax.helpers.DefaultHandler;
 /**
  * Alternative to Spring's default document loader that uses <b>SAX</b> to add metadata to the <b>DOM</b> elements that are the
  * result of the default parser.
+ * <p>
+ * When validating against XSDs, the {@link Schema} is obtained from the {@link XmlSchemaCache}, so that documents referencing the
+ * same schemas share their grammars instead of compiling them again.
  * 
  * @since 3.8.0
  */
@@ -79,13 +92,55 @@ final public class MuleDocumentLoader implements DocumentLoader {
     InputSource defaultInputSource = new InputSource(new ByteArrayInputStream(output.toByteArray()));
     InputSource enrichInputSource = new InputSource(new ByteArrayInputStream(output.toByteArray()));
 
-    Document doc = defaultLoader.loadDocument(defaultInputSource, entityResolver, errorHandler, validationMode, namespaceAware);
+    Optional<Schema> schema = Optional.empty();
+    if (validationMode == XmlValidationModeDetector.VALIDATION_XSD && XmlSchemaCache.getInstance().isEnabled()) {
+      List<String> schemaLocations = getSchemaLocations(output.toByteArray());
+      if (schemaLocations != null) {
+        schema = XmlSchemaCache.getInstance().getSchema(schemaLocations, entityResolver);
+      }
+    }
+
+    Document doc = schema.isPresent()
+        ? loadDocument(defaultInputSource, entityResolver, errorHandler, schema.get())
+        : defaultLoader.loadDocument(defaultInputSource, entityResolver, errorHandler, validationMode, namespaceAware);
 
     createSaxAnnotator(doc).parse(enrichInputSource);
 
     return doc;
   }
 
+  private Document loadDocument(InputSource inputSource, EntityResolver entityResolver, ErrorHandler errorHandler,
+                                Schema schema)
+      throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    factory.setSchema(schema);
+
+    DocumentBuilder builder = factory.newDocumentBuilder();
+    builder.setEntityResolver(entityResolver);
+    builder.setErrorHandler(errorHandler);
+    return builder.parse(inputSource);
+  }
+
+  /**
+   * @return the locations of the schemas referenced by the given document, or {@code null} if the schemas to validate it against
+   *         can't be determined beforehand
+   */
+  private List<String> getSchemaLocations(byte[] content) {
+    SchemaLocationsCollector collector = new SchemaLocationsCollector();
+    try {
+      SAXParserFactory saxParserFactory = XMLSecureFactories.createDefault().getSAXParserFactory();
+      saxParserFactory.setNamespaceAware(true);
+      XMLReader reader = saxParserFactory.newSAXParser().getXMLReader();
+      reader.setContentHandler(collector);
+      reader.parse(new InputSource(new ByteArrayInputStream(content)));
+    } catch (Exception e) {
+      // Let the default loader report the error
+      return null;
+    }
+    return collector.noNamespaceSchema || collector.locations.isEmpty() ? null : new ArrayList<>(collector.locations);
+  }
+
   protected XMLReader createSaxAnnotator(Document doc) throws ParserConfigurationException, SAXException {
     SAXParserFactory saxParserFactory = XMLSecureFactories.createDefault().getSAXParserFactory();
     SAXParser saxParser = saxParserFactory.newSAXParser();
@@ -104,6 +159,31 @@ final public class MuleDocumentLoader implements DocumentLoader {
     }
   }
 
+  /**
+   * Collects the locations of the schemas referenced through {@code xsi:schemaLocation} attributes.
+   */
+  private static final class SchemaLocationsCollector extends DefaultHandler {
+
+    private final Set<String> locations = new LinkedHashSet<>();
+    private boolean noNamespaceSchema = false;
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+      if (atts.getValue(W3C_XML_SCHEMA_INSTANCE_NS_URI, "noNamespaceSchemaLocation") != null) {
+        noNamespaceSchema = true;
+      }
+
+      String schemaLocation = atts.getValue(W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation");
+      if (schemaLocation != null) {
+        String[] tokens = schemaLocation.trim().split("\\s+");
+        // Pairs of namespace and location
+        for (int i = 1; i < tokens.length; i += 2) {
+          locations.add(tokens[i]);
+        }
+      }
+    }
+  }
+
   /**
    * SAX filter that builds the metadata that will annotate the built nodes.
    */
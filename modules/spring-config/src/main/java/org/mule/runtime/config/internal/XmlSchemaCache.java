@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.config.internal;
+
+import static java.lang.Boolean.getBoolean;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static javax.xml.XMLConstants.W3C_XML_SCHEMA_NS_URI;
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.mule.runtime.config.internal.ExtensionSchemaCache.sha256;
+import static org.mule.runtime.config.internal.ExtensionSchemaCache.toHex;
+import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.core.api.util.xmlsecurity.XMLSecureFactories;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+
+import org.slf4j.Logger;
+import org.xml.sax.Attributes;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Keeps the grammars of the schemas used for validating configuration files, so that the applications of the container that use
+ * the same schemas share them instead of compiling them for each document.
+ * <p>
+ * Documents are validated against a {@link Schema} without sources, which loads the grammars of the schemas referenced by the
+ * document as needed and keeps them in its grammar pool, where they are available for any other document validated with it. So,
+ * each schema is compiled only once, regardless of which other schemas are referenced along with it.
+ * <p>
+ * The grammar pool of such a {@link Schema} keys the grammars by their target namespace, so a document may only be validated with
+ * it if its schemas for each namespace have the same contents as the ones already loaded in the pool (i.e.: different
+ * applications may use different versions of an extension). Before validating a document, the schemas it references, and the ones
+ * they import, are resolved and assigned to a compatible pool, or to a new one if there is none. Resolving the schemas is much
+ * cheaper than compiling them, since the schemas of the extensions are themselves cached by the {@link ExtensionSchemaCache}.
+ * <p>
+ * The cache may be disabled through the {@link #MULE_XML_SCHEMA_CACHE_DISABLE} system property.
+ *
+ * @since 4.2
+ */
+public final class XmlSchemaCache {
+
+  /**
+   * Disables the reuse of compiled schemas, making each document to be validated against the schemas compiled for it.
+   */
+  public static final String MULE_XML_SCHEMA_CACHE_DISABLE = SYSTEM_PROPERTY_PREFIX + "xml.schemaCache.disable";
+
+  private static final Logger LOGGER = getLogger(XmlSchemaCache.class);
+
+  static final int MAX_GRAMMAR_POOLS = 16;
+  private static final int MAX_SCHEMA_REFERENCES = 1024;
+
+  private static final XmlSchemaCache INSTANCE = new XmlSchemaCache(!getBoolean(MULE_XML_SCHEMA_CACHE_DISABLE));
+
+  private final boolean enabled;
+  // Most recently used first
+  private final LinkedList<GrammarPool> grammarPools = new LinkedList<>();
+  private final Cache<String, SchemaReferences> schemaReferences =
+      CacheBuilder.newBuilder().maximumSize(MAX_SCHEMA_REFERENCES).build();
+
+  /**
+   * @return the cache shared by all the applications of the container
+   */
+  public static XmlSchemaCache getInstance() {
+    return INSTANCE;
+  }
+
+  XmlSchemaCache(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * @return whether compiled schemas are reused
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Gets the {@link Schema} for validating a document which references the schemas in the given locations, through which the
+   * grammars of those schemas are shared with other documents referencing them.
+   *
+   * @param locations the locations of the schemas referenced by the document
+   * @param entityResolver the resolver for the document
+   * @return the {@link Schema}, or {@link Optional#empty()} if the schemas could not be resolved, in which case the document
+   *         should be validated through its own schema references so that the errors are properly reported.
+   */
+  public Optional<Schema> getSchema(List<String> locations, EntityResolver entityResolver) {
+    final Map<String, String> namespaces = resolveNamespaces(locations, entityResolver);
+    if (namespaces == null) {
+      return empty();
+    }
+
+    synchronized (grammarPools) {
+      for (Iterator<GrammarPool> iterator = grammarPools.iterator(); iterator.hasNext();) {
+        final GrammarPool grammarPool = iterator.next();
+        if (grammarPool.accepts(namespaces)) {
+          iterator.remove();
+          grammarPools.addFirst(grammarPool);
+          return of(grammarPool.schema);
+        }
+      }
+
+      final GrammarPool grammarPool = createGrammarPool(namespaces);
+      if (grammarPool == null) {
+        return empty();
+      }
+      grammarPools.addFirst(grammarPool);
+      if (grammarPools.size() > MAX_GRAMMAR_POOLS) {
+        grammarPools.removeLast();
+      }
+      return of(grammarPool.schema);
+    }
+  }
+
+  /**
+   * Resolves the schemas in the given {@code locations} and the ones they reference.
+   *
+   * @return the digests of the schemas for each target namespace, or {@code null} if any of the given {@code locations} could not
+   *         be resolved
+   */
+  private Map<String, String> resolveNamespaces(List<String> locations, EntityResolver entityResolver) {
+    final Map<String, Set<String>> digestsByNamespace = new HashMap<>();
+    final Set<String> visited = new HashSet<>();
+    final Queue<String> pending = new ArrayDeque<>(locations);
+    final Set<String> documentLocations = new HashSet<>(locations);
+
+    String systemId;
+    while ((systemId = pending.poll()) != null) {
+      if (!visited.add(systemId)) {
+        continue;
+      }
+
+      final ResolvedSchema resolved = resolve(entityResolver, systemId);
+      if (resolved == null) {
+        if (documentLocations.contains(systemId)) {
+          return null;
+        }
+        // The error is reported when validating, as it would be without the cache
+        continue;
+      }
+
+      final SchemaReferences references = getReferences(resolved);
+      digestsByNamespace.computeIfAbsent(references.targetNamespace, ns -> new TreeSet<>()).add(resolved.digest);
+      for (String reference : references.locations) {
+        pending.add(absolute(reference, systemId));
+      }
+    }
+
+    final Map<String, String> namespaces = new HashMap<>();
+    digestsByNamespace.forEach((namespace, digests) -> namespaces.put(namespace, String.join(",", digests)));
+    return namespaces;
+  }
+
+  private SchemaReferences getReferences(ResolvedSchema resolved) {
+    final SchemaReferences cached = schemaReferences.getIfPresent(resolved.digest);
+    if (cached != null) {
+      return cached;
+    }
+
+    final SchemaReferences references = new SchemaReferences();
+    try {
+      final SAXParserFactory saxParserFactory = XMLSecureFactories.createDefault().getSAXParserFactory();
+      saxParserFactory.setNamespaceAware(true);
+      final XMLReader reader = saxParserFactory.newSAXParser().getXMLReader();
+      reader.setContentHandler(references);
+      reader.parse(new InputSource(new ByteArrayInputStream(resolved.content)));
+    } catch (StopParsingException e) {
+      // All the references were found
+    } catch (Exception e) {
+      LOGGER.debug("Could not find the schemas referenced by {}", resolved.systemId, e);
+    }
+
+    schemaReferences.put(resolved.digest, references);
+    return references;
+  }
+
+  private static GrammarPool createGrammarPool(Map<String, String> namespaces) {
+    try {
+      return new GrammarPool(SchemaFactory.newInstance(W3C_XML_SCHEMA_NS_URI).newSchema(), namespaces);
+    } catch (Exception e) {
+      LOGGER.debug("Could not create a schema for sharing grammars, they will be compiled for the document", e);
+      return null;
+    }
+  }
+
+  private static String absolute(String systemId, String baseURI) {
+    try {
+      return new URI(baseURI).resolve(systemId).toString();
+    } catch (Exception e) {
+      return systemId;
+    }
+  }
+
+  private static ResolvedSchema resolve(EntityResolver entityResolver, String systemId) {
+    try {
+      final InputSource inputSource = entityResolver.resolveEntity(null, systemId);
+      if (inputSource == null || inputSource.getByteStream() == null) {
+        closeQuietly(inputSource);
+        return null;
+      }
+      try (InputStream content = inputSource.getByteStream()) {
+        return new ResolvedSchema(systemId, toByteArray(content));
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Could not resolve schema {}", systemId, e);
+      return null;
+    }
+  }
+
+  private static void closeQuietly(InputSource inputSource) {
+    if (inputSource != null && inputSource.getCharacterStream() != null) {
+      try {
+        inputSource.getCharacterStream().close();
+      } catch (Exception e) {
+        // Nothing to do
+      }
+    }
+  }
+
+  /**
+   * @return the amount of grammar pools in use
+   */
+  int getGrammarPoolsCount() {
+    synchronized (grammarPools) {
+      return grammarPools.size();
+    }
+  }
+
+  /**
+   * Discards all the shared grammars.
+   */
+  void clear() {
+    synchronized (grammarPools) {
+      grammarPools.clear();
+    }
+    schemaReferences.invalidateAll();
+  }
+
+  private static final class ResolvedSchema {
+
+    private final String systemId;
+    private final byte[] content;
+    private final String digest;
+
+    private ResolvedSchema(String systemId, byte[] content) {
+      this.systemId = systemId;
+      this.content = content;
+      this.digest = toHex(sha256(content));
+    }
+  }
+
+  /**
+   * A {@link Schema} without sources, along with the contents of the schemas for each namespace that it may load.
+   */
+  private static final class GrammarPool {
+
+    private final Schema schema;
+    // The grammars are only shared while a validator created from the schema is alive
+    private final Validator validator;
+    private final Map<String, String> namespaces = new ConcurrentHashMap<>();
+
+    private GrammarPool(Schema schema, Map<String, String> namespaces) {
+      this.schema = schema;
+      this.validator = schema.newValidator();
+      this.namespaces.putAll(namespaces);
+    }
+
+    /**
+     * Assigns the given {@code namespaces} to this pool, if their schemas have the same contents as the ones of this pool for the
+     * same namespaces.
+     *
+     * @return whether the namespaces were assigned to this pool
+     */
+    private boolean accepts(Map<String, String> namespaces) {
+      for (Map.Entry<String, String> namespace : namespaces.entrySet()) {
+        final String digest = this.namespaces.get(namespace.getKey());
+        if (digest != null && !digest.equals(namespace.getValue())) {
+          return false;
+        }
+      }
+      this.namespaces.putAll(namespaces);
+      return true;
+    }
+  }
+
+  /**
+   * Collects the target namespace of a schema and the locations of the schemas it imports, includes or redefines. Those are
+   * declared before any other component of the schema, so the parsing stops as soon as one is found.
+   */
+  private static final class SchemaReferences extends DefaultHandler {
+
+    private String targetNamespace = "";
+    private final List<String> locations = new ArrayList<>();
+    private int depth = 0;
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+      ++depth;
+      if (depth == 1) {
+        final String namespace = atts.getValue("targetNamespace");
+        targetNamespace = namespace == null ? "" : namespace;
+      } else if (depth == 2 && W3C_XML_SCHEMA_NS_URI.equals(uri)) {
+        if ("import".equals(localName) || "include".equals(localName) || "redefine".equals(localName)
+            || "override".equals(localName)) {
+          final String location = atts.getValue("schemaLocation");
+          if (location != null) {
+            locations.add(location);
+          }
+        } else if (!"annotation".equals(localName)) {
+          throw new StopParsingException();
+        }
+      }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+      --depth;
+    }
+  }
+
+  private static final class StopParsingException extends SAXException {
+
+    private static final long serialVersionUID = 1L;
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.config.internal;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.metadata.api.model.MetadataFormat.JAVA;
+
+import org.mule.metadata.api.builder.BaseTypeBuilder;
+import org.mule.metadata.api.model.ObjectType;
+import org.mule.runtime.api.meta.model.ExtensionModel;
+import org.mule.runtime.api.meta.model.ImportedTypeModel;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SmallTest
+public class ExtensionSchemaCacheTestCase extends AbstractMuleTestCase {
+
+  private static final String SCHEMA = "<xs:schema/>";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final AtomicInteger generations = new AtomicInteger();
+  private final Supplier<String> generator = () -> {
+    generations.incrementAndGet();
+    return SCHEMA;
+  };
+
+  // Stands for the serialized form of the models, which would otherwise need fully built models
+  private final Map<ExtensionModel, String> contents = new HashMap<>();
+  private final Function<ExtensionModel, String> serializer =
+      extensionModel -> extensionModel.getName() + extensionModel.getVersion() + contents.getOrDefault(extensionModel, "");
+
+  private ExtensionModel extensionModel;
+
+  @Before
+  public void before() {
+    extensionModel = mockExtensionModel("http", "1.0.0");
+  }
+
+  @Test
+  public void generatedOnceInMemory() {
+    ExtensionSchemaCache cache = new ExtensionSchemaCache(null, serializer);
+    assertThat(cache.getSchema(extensionModel, emptySet(), generator), is(SCHEMA));
+    assertThat(cache.getSchema(extensionModel, emptySet(), generator), is(SCHEMA));
+    assertThat(generations.get(), is(1));
+  }
+
+  @Test
+  public void generatedOnceOnDisk() throws Exception {
+    new ExtensionSchemaCache(temporaryFolder.getRoot().toPath(), serializer).getSchema(extensionModel, emptySet(), generator);
+
+    ExtensionSchemaCache cache = new ExtensionSchemaCache(temporaryFolder.getRoot().toPath(), serializer);
+    assertThat(cache.getSchema(extensionModel, emptySet(), generator), is(SCHEMA));
+    assertThat(generations.get(), is(1));
+  }
+
+  @Test
+  public void generatedAgainForDifferentVersion() {
+    ExtensionSchemaCache cache = new ExtensionSchemaCache(null, serializer);
+    cache.getSchema(extensionModel, emptySet(), generator);
+    cache.getSchema(mockExtensionModel("http", "1.0.1"), emptySet(), generator);
+    assertThat(generations.get(), is(2));
+  }
+
+  @Test
+  public void generatedAgainForDifferentContent() {
+    ExtensionSchemaCache cache = new ExtensionSchemaCache(null, serializer);
+    cache.getSchema(extensionModel, emptySet(), generator);
+
+    // rebuilt with the same version
+    ExtensionModel rebuilt = mockExtensionModel("http", "1.0.0");
+    contents.put(rebuilt, "newOperation");
+    cache.getSchema(rebuilt, emptySet(), generator);
+    assertThat(generations.get(), is(2));
+  }
+
+  @Test
+  public void generatedAgainForDifferentImportedExtensions() {
+    ObjectType importedType = BaseTypeBuilder.create(JAVA).objectType().id("org.mule.sockets.SocketConfig").build();
+    when(extensionModel.getImportedTypes()).thenReturn(singleton(new ImportedTypeModel(importedType)));
+    ExtensionModel sockets = mockExtensionModel("sockets", "1.0.0");
+    when(sockets.getTypes()).thenReturn(singleton(importedType));
+
+    ExtensionSchemaCache cache = new ExtensionSchemaCache(null, serializer);
+    cache.getSchema(extensionModel, emptySet(), generator);
+    cache.getSchema(extensionModel, singleton(sockets), generator);
+    assertThat(generations.get(), is(2));
+
+    ExtensionModel otherSockets = mockExtensionModel("sockets", "1.0.1");
+    when(otherSockets.getTypes()).thenReturn(singleton(importedType));
+    cache.getSchema(extensionModel, singleton(otherSockets), generator);
+    assertThat(generations.get(), is(3));
+  }
+
+  @Test
+  public void sharedRegardlessOfUnrelatedExtensions() {
+    ExtensionSchemaCache cache = new ExtensionSchemaCache(null, serializer);
+    cache.getSchema(extensionModel, emptySet(), generator);
+    cache.getSchema(extensionModel, singleton(mockExtensionModel("sockets", "1.0.0")), generator);
+    assertThat(generations.get(), is(1));
+  }
+
+  @Test
+  public void snapshotNotCached() {
+    ExtensionSchemaCache cache = new ExtensionSchemaCache(temporaryFolder.getRoot().toPath(), serializer);
+    ExtensionModel snapshot = mockExtensionModel("http", "1.1.0-SNAPSHOT");
+    cache.getSchema(snapshot, emptySet(), generator);
+    cache.getSchema(snapshot, emptySet(), generator);
+    assertThat(generations.get(), is(2));
+    assertThat(temporaryFolder.getRoot().list().length, is(0));
+  }
+
+  @Test
+  public void referencingSnapshotNotCached() {
+    ExtensionSchemaCache cache = new ExtensionSchemaCache(null, serializer);
+    cache.getSchema(extensionModel, singleton(mockExtensionModel("sockets", "1.1.0-SNAPSHOT")), generator);
+    cache.getSchema(extensionModel, singleton(mockExtensionModel("sockets", "1.1.0-SNAPSHOT")), generator);
+    assertThat(generations.get(), is(2));
+  }
+
+  private static ExtensionModel mockExtensionModel(String name, String version) {
+    ExtensionModel extensionModel = mock(ExtensionModel.class);
+    when(extensionModel.getName()).thenReturn(name);
+    when(extensionModel.getVendor()).thenReturn("MuleSoft");
+    when(extensionModel.getVersion()).thenReturn(version);
+    return extensionModel;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.config.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.config.internal.XmlSchemaCacheTestCase.document;
+import static org.mule.runtime.config.internal.XmlSchemaCacheTestCase.resolver;
+import static org.mule.runtime.config.internal.XmlSchemaCacheTestCase.schemas;
+import static org.mule.runtime.config.internal.parsers.XmlMetadataAnnotations.METADATA_ANNOTATIONS_KEY;
+import static org.springframework.util.xml.XmlValidationModeDetector.VALIDATION_XSD;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+@SmallTest
+public class MuleDocumentLoaderTestCase extends AbstractMuleTestCase {
+
+  private static final String NO_NAMESPACE_LOCATION = "http://test/no-namespace.xsd";
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final MuleDocumentLoader loader = new MuleDocumentLoader();
+
+  private final ErrorHandler errorHandler = new DefaultHandler() {
+
+    @Override
+    public void error(SAXParseException e) throws SAXException {
+      throw e;
+    }
+  };
+
+  @Test
+  public void validDocument() throws Exception {
+    Document document = load(document("1"), resolver(schemas("int")));
+
+    assertThat(document.getDocumentElement().getLocalName(), is("root"));
+    assertThat(document.getDocumentElement().getUserData(METADATA_ANNOTATIONS_KEY), is(notNullValue()));
+  }
+
+  @Test
+  public void invalidDocument() throws Exception {
+    expectedException.expect(SAXParseException.class);
+    load(document("true"), resolver(schemas("int")));
+  }
+
+  @Test
+  public void sameSchemasWithDifferentContents() throws Exception {
+    load(document("1"), resolver(schemas("int")));
+    load(document("true"), resolver(schemas("boolean")));
+
+    expectedException.expect(SAXParseException.class);
+    load(document("1.5"), resolver(schemas("int")));
+  }
+
+  @Test
+  public void fallbackWhenSchemasNotResolved() throws Exception {
+    String missingLocation = new File(temporaryFolder.getRoot(), "missing.xsd").toURI().toString();
+    String document = "<a:root xmlns:a='urn:a' xmlns:b='urn:b' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' "
+        + "xsi:schemaLocation='urn:a http://test/a.xsd urn:b " + missingLocation + "'><b:value>1</b:value></a:root>";
+
+    // The default loader reports that the element can't be validated
+    expectedException.expect(SAXParseException.class);
+    load(document, resolver(schemas("int")));
+  }
+
+  @Test
+  public void fallbackForNoNamespaceSchema() throws Exception {
+    Map<String, String> schemas = new HashMap<>();
+    schemas.put(NO_NAMESPACE_LOCATION, "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>"
+        + "<xs:element name='value' type='xs:int'/></xs:schema>");
+
+    Document document = load(noNamespaceDocument("1"), resolver(schemas));
+    assertThat(document.getDocumentElement().getLocalName(), is("value"));
+
+    expectedException.expect(SAXParseException.class);
+    load(noNamespaceDocument("true"), resolver(schemas));
+  }
+
+  private Document load(String document, EntityResolver resolver) throws Exception {
+    return loader.loadDocument(new InputSource(new ByteArrayInputStream(document.getBytes(UTF_8))), resolver, errorHandler,
+                               VALIDATION_XSD, true);
+  }
+
+  private static String noNamespaceDocument(String value) {
+    return "<value xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:noNamespaceSchemaLocation='"
+        + NO_NAMESPACE_LOCATION + "'>" + value + "</value>";
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.config.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.config.internal.XmlSchemaCache.MAX_GRAMMAR_POOLS;
+
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.validation.Schema;
+
+import org.junit.Test;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+@SmallTest
+public class XmlSchemaCacheTestCase extends AbstractMuleTestCase {
+
+  private static final String A_LOCATION = "http://test/a.xsd";
+  private static final String B_LOCATION = "http://test/b.xsd";
+  private static final String C_LOCATION = "http://test/c.xsd";
+
+  private final XmlSchemaCache cache = new XmlSchemaCache(true);
+
+  @Test
+  public void sharedByDocumentsReferencingDifferentSchemas() {
+    EntityResolver resolver = resolver(schemas("int"));
+
+    Schema schema = cache.getSchema(asList(A_LOCATION, B_LOCATION), resolver).get();
+    assertThat(cache.getSchema(asList(A_LOCATION, C_LOCATION), resolver).get(), is(sameInstance(schema)));
+    assertThat(cache.getSchema(singletonList(B_LOCATION), resolver).get(), is(sameInstance(schema)));
+    assertThat(cache.getGrammarPoolsCount(), is(1));
+  }
+
+  @Test
+  public void notSharedForDifferentContents() throws Exception {
+    EntityResolver intResolver = resolver(schemas("int"));
+    EntityResolver booleanResolver = resolver(schemas("boolean"));
+
+    Schema intSchema = cache.getSchema(asList(A_LOCATION, B_LOCATION), intResolver).get();
+    Schema booleanSchema = cache.getSchema(asList(A_LOCATION, B_LOCATION), booleanResolver).get();
+    assertThat(booleanSchema, is(not(sameInstance(intSchema))));
+
+    assertThat(isValid(intSchema, intResolver, "1"), is(true));
+    assertThat(isValid(intSchema, intResolver, "true"), is(false));
+    assertThat(isValid(booleanSchema, booleanResolver, "true"), is(true));
+    assertThat(isValid(booleanSchema, booleanResolver, "2"), is(false));
+  }
+
+  @Test
+  public void importedSchemasAreChecked() {
+    Map<String, String> intSchemas = schemas("int");
+    intSchemas.put(A_LOCATION, schema("urn:a", "string", "<xs:import namespace='urn:b' schemaLocation='b.xsd'/>"));
+    Map<String, String> booleanSchemas = schemas("boolean");
+    booleanSchemas.put(A_LOCATION, intSchemas.get(A_LOCATION));
+
+    Schema schema = cache.getSchema(singletonList(A_LOCATION), resolver(intSchemas)).get();
+    assertThat(cache.getSchema(singletonList(A_LOCATION), resolver(booleanSchemas)).get(), is(not(sameInstance(schema))));
+  }
+
+  @Test
+  public void notResolved() {
+    assertThat(cache.getSchema(asList(A_LOCATION, "http://test/missing.xsd"), resolver(schemas("int"))).isPresent(), is(false));
+  }
+
+  @Test
+  public void boundedGrammarPools() {
+    for (int i = 0; i <= MAX_GRAMMAR_POOLS; ++i) {
+      Map<String, String> schemas = new HashMap<>();
+      schemas.put(A_LOCATION, schema("urn:a", "string", "<xs:annotation><xs:documentation>" + i + "</xs:documentation>"
+          + "</xs:annotation>"));
+      cache.getSchema(singletonList(A_LOCATION), resolver(schemas));
+    }
+    assertThat(cache.getGrammarPoolsCount(), is(MAX_GRAMMAR_POOLS));
+  }
+
+  private boolean isValid(Schema schema, EntityResolver resolver, String value) throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    factory.setSchema(schema);
+    DocumentBuilder builder = factory.newDocumentBuilder();
+    builder.setEntityResolver(resolver);
+    builder.setErrorHandler(new DefaultHandler() {
+
+      @Override
+      public void error(SAXParseException e) throws SAXException {
+        throw e;
+      }
+    });
+
+    try {
+      builder.parse(new InputSource(new StringReader(document(value))));
+      return true;
+    } catch (SAXParseException e) {
+      return false;
+    }
+  }
+
+  static String document(String value) {
+    return "<a:root xmlns:a='urn:a' xmlns:b='urn:b' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' "
+        + "xsi:schemaLocation='urn:a " + A_LOCATION + " urn:b " + B_LOCATION + "'><b:value>" + value + "</b:value></a:root>";
+  }
+
+  static Map<String, String> schemas(String valueType) {
+    Map<String, String> schemas = new HashMap<>();
+    schemas.put(A_LOCATION, schema("urn:a", "string", ""));
+    schemas.put(B_LOCATION, schema("urn:b", valueType, ""));
+    schemas.put(C_LOCATION, schema("urn:c", "string", ""));
+    return schemas;
+  }
+
+  static String schema(String namespace, String valueType, String header) {
+    return "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema' targetNamespace='" + namespace + "' "
+        + "elementFormDefault='qualified'>" + header
+        + "<xs:element name='value' type='xs:" + valueType + "'/>"
+        + "<xs:element name='root'><xs:complexType><xs:sequence>"
+        + "<xs:any namespace='##other' processContents='strict' minOccurs='0' maxOccurs='unbounded'/>"
+        + "</xs:sequence></xs:complexType></xs:element></xs:schema>";
+  }
+
+  static EntityResolver resolver(Map<String, String> schemas) {
+    return (publicId, systemId) -> {
+      String schema = schemas.get(systemId);
+      if (schema == null) {
+        return null;
+      }
+      InputSource inputSource = new InputSource(new ByteArrayInputStream(schema.getBytes(UTF_8)));
+      inputSource.setSystemId(systemId);
+      return inputSource;
+    };
+  }
+}
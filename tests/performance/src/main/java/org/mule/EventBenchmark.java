@@ -7,6 +7,7 @@
 package org.mule;
 
 import static org.mule.runtime.api.message.Message.of;
+import static org.mule.runtime.api.metadata.DataType.STRING;
 import static org.mule.runtime.core.api.event.EventContextFactory.create;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
 import static org.mule.runtime.core.privileged.registry.LegacyRegistryUtils.lookupObject;
@@ -14,16 +15,21 @@ import static org.mule.runtime.core.privileged.registry.LegacyRegistryUtils.regi
 
 import org.mule.runtime.api.exception.MuleException;
 import org.mule.runtime.api.message.Message;
+import org.mule.runtime.api.metadata.TypedValue;
 import org.mule.runtime.api.scheduler.SchedulerService;
 import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.construct.Flow;
 import org.mule.runtime.core.api.construct.FlowConstruct;
 import org.mule.runtime.core.api.event.CoreEvent;
 import org.mule.runtime.core.api.event.CoreEvent.Builder;
+import org.mule.runtime.core.api.util.CaseInsensitiveHashMap;
 import org.mule.runtime.core.internal.message.InternalMessage;
+import org.mule.runtime.core.internal.util.PersistentCaseInsensitiveMap;
 import org.mule.runtime.core.privileged.event.DefaultMuleSession;
 import org.mule.runtime.core.privileged.event.PrivilegedEvent;
 
+import java.util.Map;
+
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.TearDown;
@@ -32,6 +38,7 @@ public class EventBenchmark extends AbstractBenchmark {
 
   public static final String KEY = "key";
   public static final String VALUE = "value";
+  public static final TypedValue<?> TYPED_VALUE = new TypedValue<>(VALUE, STRING);
 
   private MuleContext muleContext;
   private Flow flow;
@@ -52,7 +59,7 @@ public class EventBenchmark extends AbstractBenchmark {
     event = eventBuilder.build();
     eventWith10VariablesProperties = createMuleEventWithFlowVarsAndProperties(10);
     eventWith50VariablesProperties = createMuleEventWithFlowVarsAndProperties(50);
-    eventWith100VariablesProperties = createMuleEventWithFlowVarsAndProperties(50);
+    eventWith100VariablesProperties = createMuleEventWithFlowVarsAndProperties(100);
   }
 
   @TearDown
@@ -125,6 +132,35 @@ public class EventBenchmark extends AbstractBenchmark {
     return CoreEvent.builder(eventWith100VariablesProperties).addVariable(KEY, VALUE).build();
   }
 
+  @Benchmark
+  public CoreEvent removeEventVariableEventWith100VariablesProperties() {
+    return CoreEvent.builder(eventWith100VariablesProperties).removeVariable("FlOwVaRiAbLeKeY50").build();
+  }
+
+  @Benchmark
+  public Map<String, TypedValue<?>> addVariableCopyingMapWith100Variables() {
+    Map<String, TypedValue<?>> variables = new CaseInsensitiveHashMap<>(eventWith100VariablesProperties.getVariables());
+    variables.put(KEY, TYPED_VALUE);
+    return variables;
+  }
+
+  @Benchmark
+  public Map<String, TypedValue<?>> addVariablePersistentMapWith100Variables() {
+    return PersistentCaseInsensitiveMap.copyOf(eventWith100VariablesProperties.getVariables()).plus(KEY, TYPED_VALUE);
+  }
+
+  @Benchmark
+  public Map<String, TypedValue<?>> removeVariableCopyingMapWith100Variables() {
+    Map<String, TypedValue<?>> variables = new CaseInsensitiveHashMap<>(eventWith100VariablesProperties.getVariables());
+    variables.remove("FlOwVaRiAbLeKeY50");
+    return variables;
+  }
+
+  @Benchmark
+  public Map<String, TypedValue<?>> removeVariablePersistentMapWith100Variables() {
+    return PersistentCaseInsensitiveMap.copyOf(eventWith100VariablesProperties.getVariables()).minus("FlOwVaRiAbLeKeY50");
+  }
+
 
   @Benchmark
   public CoreEvent copyWith10FlowVarsAnd10PropertiesWrite1OfEach() throws Exception {
@@ -7,6 +7,7 @@
 package org.mule;
 
 import static org.mule.runtime.core.api.util.UUID.getClusterUUID;
+import static org.mule.runtime.core.api.util.UUID.getIdGenerator;
 import static org.mule.runtime.core.api.util.UUID.getUUID;
 
 import org.mule.runtime.api.exception.MuleException;
@@ -26,6 +27,11 @@ public class UUIDBenchmark extends AbstractBenchmark {
     return getClusterUUID(getClusterId());
   }
 
+  @Benchmark
+  public String id() throws MuleException {
+    return getIdGenerator().generateId();
+  }
+
   private int getClusterId() {
     return 1;
   }
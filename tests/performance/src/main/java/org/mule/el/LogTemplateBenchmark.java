@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.el;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.mule.runtime.api.el.BindingContextUtils.NULL_BINDING_CONTEXT;
+import static org.mule.runtime.api.message.Message.of;
+import static org.mule.runtime.core.api.event.EventContextFactory.create;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
+import static org.mule.runtime.core.privileged.registry.LegacyRegistryUtils.lookupObject;
+import static org.mule.runtime.core.privileged.util.TemplateParser.createMuleStyleParser;
+
+import org.mule.AbstractBenchmark;
+import org.mule.runtime.api.event.EventContext;
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.scheduler.SchedulerService;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.privileged.util.TemplateParser;
+import org.mule.runtime.core.privileged.util.TemplateParser.CompiledTemplate;
+import org.mule.runtime.core.privileged.util.TemplateParser.TemplateCallback;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+@OutputTimeUnit(NANOSECONDS)
+public class LogTemplateBenchmark extends AbstractBenchmark {
+
+  private static final String TEMPLATE = "Processing order #[vars.foo] with payload #[payload] in flow #[flow.name]";
+
+  private final TemplateParser parser = createMuleStyleParser();
+  private final CompiledTemplate compiledTemplate = parser.compile(TEMPLATE);
+  private final TemplateCallback callback = token -> "value";
+
+  private MuleContext muleContext;
+  private CoreEvent event;
+  private EventContext context;
+
+  @Setup
+  public void setup() throws MuleException {
+    muleContext = createMuleContextWithServices();
+    context = create(createFlow(muleContext), CONNECTOR_LOCATION);
+    event = CoreEvent.builder(context).message(of(PAYLOAD)).addVariable("foo", "bar").build();
+  }
+
+  @TearDown
+  public void teardown() throws MuleException {
+    stopIfNeeded(lookupObject(muleContext, SchedulerService.class));
+    muleContext.dispose();
+  }
+
+  @Benchmark
+  public String parseTemplate() {
+    return parser.parse(callback, TEMPLATE);
+  }
+
+  @Benchmark
+  public String evaluateCompiledTemplate() {
+    return compiledTemplate.evaluate(callback);
+  }
+
+  @Benchmark
+  public String parseLogTemplate() {
+    return muleContext.getExpressionManager().parseLogTemplate(TEMPLATE, event, CONNECTOR_LOCATION, NULL_BINDING_CONTEXT);
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.mule.runtime.api.message.Message.of;
+import static org.mule.runtime.api.util.DataUnit.KB;
+import static org.mule.runtime.core.api.event.EventContextFactory.create;
+import static org.mule.runtime.core.api.exception.NullExceptionHandler.getInstance;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
+import static org.mule.runtime.core.privileged.registry.LegacyRegistryUtils.lookupObject;
+
+import org.mule.AbstractBenchmark;
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.scheduler.SchedulerService;
+import org.mule.runtime.api.streaming.Cursor;
+import org.mule.runtime.api.streaming.CursorProvider;
+import org.mule.runtime.api.util.DataSize;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamProvider;
+import org.mule.runtime.core.privileged.event.BaseEventContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@OutputTimeUnit(NANOSECONDS)
+public class CursorManagerBenchmark extends AbstractBenchmark {
+
+  private static final int PROVIDERS_PER_EVENT = 4;
+  private static final int CURSORS_PER_PROVIDER = 3;
+  private static final byte[] DATA = PAYLOAD.getBytes();
+
+  private static final InMemoryCursorStreamConfig CONFIG =
+      new InMemoryCursorStreamConfig(new DataSize(1, KB), new DataSize(1, KB), new DataSize(64, KB));
+
+  private static final ByteBufferManager HEAP_BUFFER_MANAGER = new ByteBufferManager() {
+
+    @Override
+    public ByteBuffer allocate(int capacity) {
+      return ByteBuffer.allocate(capacity);
+    }
+
+    @Override
+    public void deallocate(ByteBuffer byteBuffer) {}
+  };
+
+  private MuleContext muleContext;
+  private Scheduler disposalScheduler;
+  private CursorManager cursorManager;
+
+  @Setup
+  public void setup() throws Exception {
+    muleContext = createMuleContextWithServices();
+    muleContext.start();
+    disposalScheduler = lookupObject(muleContext, SchedulerService.class).cpuIntensiveScheduler();
+    cursorManager = new CursorManager(new MutableStreamingStatistics(), disposalScheduler);
+  }
+
+  @TearDown
+  public void teardown() throws MuleException {
+    disposalScheduler.stop();
+    stopIfNeeded(lookupObject(muleContext, SchedulerService.class));
+    muleContext.dispose();
+  }
+
+  @Benchmark
+  public Object openAndCloseCursors() throws IOException {
+    return doOpenAndCloseCursors();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Object openAndCloseCursorsConcurrently() throws IOException {
+    return doOpenAndCloseCursors();
+  }
+
+  private Object doOpenAndCloseCursors() throws IOException {
+    BaseEventContext eventContext = (BaseEventContext) create("id", "serverId", CONNECTOR_LOCATION, getInstance());
+    CoreEvent event = CoreEvent.builder(eventContext).message(of(PAYLOAD)).build();
+
+    for (int i = 0; i < PROVIDERS_PER_EVENT; i++) {
+      CursorProvider provider = cursorManager.manage(new InMemoryCursorStreamProvider(new ByteArrayInputStream(DATA), CONFIG,
+                                                                                      HEAP_BUFFER_MANAGER),
+                                                     event);
+      for (int j = 0; j < CURSORS_PER_PROVIDER; j++) {
+        Cursor cursor = provider.openCursor();
+        cursor.close();
+      }
+    }
+
+    eventContext.success();
+    return eventContext;
+  }
+}
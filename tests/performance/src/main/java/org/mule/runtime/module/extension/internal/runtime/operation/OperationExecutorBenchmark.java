@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.extension.internal.runtime.operation;
+
+import static java.util.Optional.empty;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.mockito.Answers.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mule.runtime.core.internal.util.rx.ImmediateScheduler.IMMEDIATE_SCHEDULER;
+
+import org.mule.AbstractBenchmark;
+import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.meta.model.ExtensionModel;
+import org.mule.runtime.api.meta.model.operation.OperationModel;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.extension.api.runtime.operation.ExecutionContext;
+import org.mule.runtime.module.extension.internal.runtime.DefaultExecutionContext;
+import org.mule.runtime.module.extension.internal.runtime.execution.CompiledMethodComponentExecutor;
+import org.mule.runtime.module.extension.internal.runtime.execution.ReflectiveMethodComponentExecutor;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Compares invoking an operation through reflection with invoking it through a {@link CompiledMethodComponentExecutor}.
+ */
+@OutputTimeUnit(NANOSECONDS)
+public class OperationExecutorBenchmark extends AbstractBenchmark {
+
+  private ReflectiveMethodComponentExecutor<OperationModel> reflectiveExecutor;
+  private ReflectiveMethodComponentExecutor<OperationModel> compiledExecutor;
+  private ExecutionContext<OperationModel> executionContext;
+
+  @Setup
+  public void setup() throws Exception {
+    Method method = Operations.class.getMethod("repeat", String.class, int.class);
+    OperationModel operationModel = mock(OperationModel.class);
+    MuleContext muleContext = mock(MuleContext.class, RETURNS_DEEP_STUBS);
+
+    reflectiveExecutor =
+        new ReflectiveMethodComponentExecutor<>(operationModel.getParameterGroupModels(), method, new Operations());
+    reflectiveExecutor.setMuleContext(muleContext);
+    compiledExecutor = new CompiledMethodComponentExecutor<>(operationModel.getParameterGroupModels(), method, new Operations());
+    compiledExecutor.setMuleContext(muleContext);
+
+    Map<String, Object> parameters = new HashMap<>();
+    parameters.put(method.getParameters()[0].getName(), VALUE);
+    parameters.put(method.getParameters()[1].getName(), 2);
+    executionContext = new DefaultExecutionContext<>(mock(ExtensionModel.class), empty(), parameters, operationModel,
+                                                     mock(CoreEvent.class), null, null, mock(Component.class), null,
+                                                     IMMEDIATE_SCHEDULER, muleContext);
+  }
+
+  @Benchmark
+  public Object reflective() {
+    return reflectiveExecutor.execute(executionContext);
+  }
+
+  @Benchmark
+  public Object compiled() {
+    return compiledExecutor.execute(executionContext);
+  }
+
+  @Benchmark
+  public Map<String, Object> reflectiveArguments() {
+    return reflectiveExecutor.createArgumentResolver(null).apply(executionContext);
+  }
+
+  @Benchmark
+  public Map<String, Object> compiledArguments() {
+    return compiledExecutor.createArgumentResolver(null).apply(executionContext);
+  }
+
+  public static class Operations {
+
+    public String repeat(String value, int times) {
+      return times == 1 ? value : value + times;
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.launcher.log4j2;
+
+import static java.lang.ClassLoader.getSystemClassLoader;
+import static java.lang.Thread.currentThread;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import org.mule.AbstractBenchmark;
+import org.mule.runtime.container.internal.MuleClassLoaderLookupPolicy;
+import org.mule.runtime.module.artifact.api.classloader.RegionClassLoader;
+import org.mule.runtime.module.artifact.api.descriptor.ArtifactDescriptor;
+
+import org.apache.logging.log4j.core.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the cost of a disabled debug statement of a logger held by a container class, when logging from the container and
+ * from an application.
+ */
+@OutputTimeUnit(NANOSECONDS)
+public class DispatchingLoggerBenchmark extends AbstractBenchmark {
+
+  private static final String MESSAGE = "Processing {}";
+
+  private ArtifactAwareContextSelector contextSelector;
+  private MuleLoggerContext containerLoggerContext;
+  private Logger containerLogger;
+  private ClassLoader containerClassLoader;
+  private RegionClassLoader applicationClassLoader;
+
+  @Setup
+  public void setup() {
+    contextSelector = new ArtifactAwareContextSelector();
+    containerLoggerContext = new MuleLoggerContext("Default", contextSelector, false);
+    containerLoggerContext.start();
+    containerLogger = containerLoggerContext.getLogger(DispatchingLoggerBenchmark.class.getName());
+
+    containerClassLoader = getSystemClassLoader();
+    applicationClassLoader = new RegionClassLoader("app", new ArtifactDescriptor("app"), containerClassLoader,
+                                                   new MuleClassLoaderLookupPolicy(emptyMap(), emptySet()));
+  }
+
+  @TearDown
+  public void teardown() {
+    contextSelector.dispose();
+    containerLoggerContext.stop();
+    applicationClassLoader.dispose();
+  }
+
+  @Benchmark
+  public boolean debugFromContainer() {
+    currentThread().setContextClassLoader(containerClassLoader);
+    containerLogger.debug(MESSAGE, VALUE);
+    return containerLogger.isDebugEnabled();
+  }
+
+  @Benchmark
+  public boolean debugFromApplication() {
+    currentThread().setContextClassLoader(applicationClassLoader);
+    containerLogger.debug(MESSAGE, VALUE);
+    return containerLogger.isDebugEnabled();
+  }
+
+}